@@ -25,7 +25,8 @@ import java.util.List;
  * - Integrate custom AuthenticationFilter
  * 
  * SECURITY MODEL:
- * - Public endpoints: /api/auth/login, /api/auth/register, /actuator/health
+ * - Public endpoints: /api/auth/login, /api/auth/register, /actuator/health,
+ *   POST /api/webhooks/{provider} (provider callbacks, HMAC-verified by the backend)
  * - Protected endpoints: All others (require valid JWT)
  * - JWT validation happens in AuthenticationFilter
  * 
@@ -57,6 +58,7 @@ public class SecurityConfig {
             .authorizeExchange(exchange -> exchange
                 // Public endpoints (no authentication required)
                 .pathMatchers("/api/auth/login", "/api/auth/register").permitAll()
+                .pathMatchers(HttpMethod.POST, "/api/webhooks/*").permitAll()  // HMAC-verified by the backend
                 .pathMatchers("/actuator/health", "/actuator/ready").permitAll()
                 
                 // OPTIONS requests for CORS preflight
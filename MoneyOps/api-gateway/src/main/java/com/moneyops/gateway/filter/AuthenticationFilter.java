@@ -9,6 +9,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
@@ -27,14 +28,23 @@ public class AuthenticationFilter implements WebFilter {
     @Value("#{'${gateway.public-endpoints}'.split(',')}")
     private List<String> publicEndpoints;
     
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
         
-        // Allow public endpoints
+        // Allow public endpoints, without any identity the caller claims in headers
         if (isPublicEndpoint(path)) {
-            return chain.filter(exchange);
+            ServerHttpRequest anonymous = request.mutate()
+                .headers(headers -> {
+                    headers.remove("X-User-Id");
+                    headers.remove("X-Org-Id");
+                    headers.remove("X-Auth-Token");
+                })
+                .build();
+            return chain.filter(exchange.mutate().request(anonymous).build());
         }
         
         // Extract token
@@ -75,7 +85,10 @@ public class AuthenticationFilter implements WebFilter {
     
     private boolean isPublicEndpoint(String path) {
         return publicEndpoints.stream()
-            .anyMatch(endpoint -> path.startsWith(endpoint.trim()));
+            .map(String::trim)
+            .anyMatch(endpoint -> endpoint.contains("*")
+                ? pathMatcher.match(endpoint, path)
+                : path.startsWith(endpoint));
     }
     
     private String extractToken(ServerHttpRequest request) {
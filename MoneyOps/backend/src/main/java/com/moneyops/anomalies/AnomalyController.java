@@ -0,0 +1,33 @@
+package com.moneyops.anomalies;
+
+import com.moneyops.shared.utils.OrgContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/anomalies")
+public class AnomalyController {
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @GetMapping
+    public ResponseEntity<List<TransactionAnomaly>> getAnomalies(@RequestParam(defaultValue = "false") boolean includeDismissed,
+                                                                 @RequestParam(defaultValue = "100") int limit) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(anomalyDetectionService.getAnomalies(orgId, includeDismissed, limit));
+    }
+
+    @PostMapping("/{id}/dismiss")
+    public ResponseEntity<Void> dismiss(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        anomalyDetectionService.dismiss(orgId, id);
+        return ResponseEntity.noContent().build();
+    }
+}
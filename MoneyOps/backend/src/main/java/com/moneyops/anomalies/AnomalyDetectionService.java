@@ -0,0 +1,318 @@
+package com.moneyops.anomalies;
+
+import com.moneyops.categorization.CategorizationService;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Streaming anomaly detection over new expenses: near-duplicate payments (same amount to
+ * the same counterparty within ±app.anomalies.duplicate-tolerance-days) and spikes (an
+ * amount app.anomalies.spike-z standard deviations above its category's usual size).
+ *
+ * Created and imported transactions are handed to one detector thread, so a write only
+ * pays for an enqueue. Duplicates are looked up in Mongo on org_amount_date_idx (same
+ * amount within the date window, live rows only), so a manual entry saved on one node and
+ * the statement line imported on another still meet, and deleted or edited rows drop out
+ * on their own. Spike statistics are per-node CategorySpendStats in an LRU of
+ * app.anomalies.max-orgs orgs, confined to the detector thread; an org's stats are warmed
+ * from its recent expenses and re-warmed when its TRANSACTION data version has moved and
+ * they are older than app.anomalies.stats-refresh-minutes, which folds in other nodes'
+ * writes and deletions. Findings are saved as TransactionAnomaly and surface in the
+ * finance insights; deleting a transaction withdraws its undismissed findings.
+ *
+ * The counterparty is the client when set, else the merchant word of the description,
+ * so a manual entry and the matching bank statement line compare equal.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnomalyDetectionService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AnomalyDetectionService.class);
+
+    private static final String UNCATEGORIZED = "UNCATEGORIZED";
+    private static final int WARMUP_LIMIT = 50_000;
+    private static final int DUPLICATE_CANDIDATES = 50;
+
+    private static final class OrgState {
+        final CategorySpendStats spend = new CategorySpendStats();
+        final long version;
+        long checkedAt = System.currentTimeMillis();
+
+        OrgState(long version) {
+            this.version = version;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final DataVersionService dataVersionService;
+
+    @Value("${app.anomalies.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.anomalies.duplicate-tolerance-days:3}")
+    private int toleranceDays;
+
+    @Value("${app.anomalies.spike-z:3.0}")
+    private double spikeZ;
+
+    @Value("${app.anomalies.spike-min-samples:10}")
+    private int spikeMinSamples;
+
+    @Value("${app.anomalies.warmup-days:180}")
+    private int warmupDays;
+
+    @Value("${app.anomalies.max-orgs:200}")
+    private int maxOrgs;
+
+    @Value("${app.anomalies.stats-refresh-minutes:15}")
+    private long statsRefreshMinutes;
+
+    /** Access-ordered LRU; confined to the detector thread. */
+    private final Map<String, OrgState> states = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OrgState> eldest) {
+            return size() > Math.max(1, maxOrgs);
+        }
+    };
+
+    private final ExecutorService detector = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "anomaly-detector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled || !event.is(EntityChangedEvent.TRANSACTION)) return;
+        if (event.getChangeType() == EntityChangedEvent.ChangeType.DELETED) {
+            String orgId = event.getOrgId();
+            String transactionId = event.getEntityId();
+            detector.execute(() -> {
+                try {
+                    withdraw(orgId, transactionId);
+                } catch (Exception e) {
+                    log.warn("Could not withdraw anomalies of transaction {}: {}", transactionId, e.getMessage());
+                }
+            });
+            return;
+        }
+        if (event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) return;
+        Transaction t = event.getAfter(Transaction.class);
+        if (t == null || t.getType() != TransactionType.EXPENSE) return;
+        String orgId = event.getOrgId();
+        detector.execute(() -> {
+            try {
+                inspect(orgId, stateFor(orgId, Criteria.where("_id").ne(t.getId())), t);
+            } catch (Exception e) {
+                log.warn("Anomaly check failed for transaction {}: {}", t.getId(), e.getMessage());
+            }
+        });
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        if (!enabled) return;
+        String orgId = event.getOrgId();
+        detector.execute(() -> {
+            try {
+                OrgState state = stateFor(orgId, Criteria.where("importId").ne(event.getImportId()));
+                Query imported = new Query(Criteria.where("orgId").is(orgId).and("importId").is(event.getImportId())
+                        .and("type").is(TransactionType.EXPENSE).and("deletedAt").is(null))
+                        .with(Sort.by("transactionDate"));
+                try (Stream<Transaction> rows = mongoTemplate.stream(imported, Transaction.class)) {
+                    rows.forEach(t -> inspect(orgId, state, t));
+                }
+            } catch (Exception e) {
+                log.warn("Anomaly check failed for import {}: {}", event.getImportId(), e.getMessage());
+            }
+        });
+    }
+
+    /** Undismissed anomalies detected since {@code since}, newest first. */
+    public List<TransactionAnomaly> getRecentAnomalies(String orgId, LocalDateTime since, int limit) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("dismissed").is(false).and("detectedAt").gte(since))
+                .with(Sort.by(Sort.Direction.DESC, "detectedAt")).limit(limit);
+        return mongoTemplate.find(query, TransactionAnomaly.class);
+    }
+
+    public List<TransactionAnomaly> getAnomalies(String orgId, boolean includeDismissed, int limit) {
+        Criteria criteria = Criteria.where("orgId").is(orgId);
+        if (!includeDismissed) criteria = criteria.and("dismissed").is(false);
+        return mongoTemplate.find(new Query(criteria).with(Sort.by(Sort.Direction.DESC, "detectedAt"))
+                .limit(Math.max(1, Math.min(limit, 500))), TransactionAnomaly.class);
+    }
+
+    public void dismiss(String orgId, String anomalyId) {
+        Query query = new Query(Criteria.where("_id").is(anomalyId).and("orgId").is(orgId));
+        if (mongoTemplate.updateFirst(query, new Update().set("dismissed", true), TransactionAnomaly.class).getMatchedCount() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Anomaly not found");
+        }
+        dataVersionService.bump(orgId, DataVersionService.ANOMALY);
+    }
+
+    /** Removes undismissed findings on, or pointing at, a deleted transaction. */
+    private void withdraw(String orgId, String transactionId) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("dismissed").is(false)
+                .orOperator(Criteria.where("transactionId").is(transactionId),
+                        Criteria.where("relatedTransactionId").is(transactionId)));
+        if (mongoTemplate.remove(query, TransactionAnomaly.class).getDeletedCount() > 0) {
+            dataVersionService.bump(orgId, DataVersionService.ANOMALY);
+        }
+    }
+
+    private void inspect(String orgId, OrgState state, Transaction t) {
+        if (t.getAmount() == null || t.getAmount().signum() <= 0 || t.getTransactionDate() == null) return;
+        String duplicateOf = findDuplicate(orgId, t);
+        if (duplicateOf != null) {
+            TransactionAnomaly anomaly = anomaly(orgId, t, TransactionAnomaly.Kind.DUPLICATE);
+            anomaly.setRelatedTransactionId(duplicateOf);
+            anomaly.setMessage("Possible duplicate payment of ₹" + format(t.getAmount())
+                    + (anomaly.getCounterparty() != null ? " to " + anomaly.getCounterparty() : ""));
+            save(anomaly);
+        }
+
+        String category = category(t);
+        double amount = t.getAmount().doubleValue();
+        double z = state.spend.zScore(category, amount, spikeMinSamples);
+        if (z >= spikeZ) {
+            TransactionAnomaly anomaly = anomaly(orgId, t, TransactionAnomaly.Kind.SPIKE);
+            BigDecimal typical = BigDecimal.valueOf(state.spend.typical(category)).setScale(2, RoundingMode.HALF_UP);
+            anomaly.setZScore(Math.round(z * 100) / 100.0);
+            anomaly.setTypicalAmount(typical);
+            anomaly.setMessage("₹" + format(t.getAmount()) + " in " + category + " is far above the usual ₹" + format(typical));
+            save(anomaly);
+        }
+        state.spend.add(category, amount);
+    }
+
+    /** Returns the earlier live payment this one repeats, if any. */
+    private String findDuplicate(String orgId, Transaction t) {
+        if (counterparty(t) == null) return null;
+        Query candidates = new Query(Criteria.where("orgId").is(orgId).and("amount").is(t.getAmount())
+                .and("transactionDate").gte(t.getTransactionDate().minusDays(toleranceDays))
+                .lte(t.getTransactionDate().plusDays(toleranceDays))
+                .and("deletedAt").is(null).and("type").is(TransactionType.EXPENSE).and("_id").ne(t.getId()))
+                .limit(DUPLICATE_CANDIDATES);
+        candidates.fields().include("clientId", "description", "createdAt");
+        return duplicateOf(t, mongoTemplate.find(candidates, Transaction.class));
+    }
+
+    /**
+     * The earliest candidate with the same counterparty that was saved before {@code t}
+     * (by createdAt, then id), so of two matching rows only the later one is flagged.
+     */
+    static String duplicateOf(Transaction t, List<Transaction> candidates) {
+        String counterparty = counterparty(t);
+        if (counterparty == null) return null;
+        Comparator<Transaction> saved = Comparator
+                .comparing(Transaction::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Transaction::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+        return candidates.stream()
+                .filter(c -> !Objects.equals(c.getId(), t.getId()) && counterparty.equals(counterparty(c)))
+                .filter(c -> saved.compare(c, t) < 0)
+                .min(saved)
+                .map(Transaction::getId)
+                .orElse(null);
+    }
+
+    private OrgState stateFor(String orgId, Criteria exclude) {
+        OrgState state = states.get(orgId);
+        if (state != null && System.currentTimeMillis() - state.checkedAt < statsRefreshMinutes * 60_000) return state;
+        long version = dataVersionService.version(orgId, EntityChangedEvent.TRANSACTION);
+        if (state != null && state.version == version) {
+            state.checkedAt = System.currentTimeMillis();
+            return state;
+        }
+
+        long start = System.currentTimeMillis();
+        state = new OrgState(version);
+        Query recent = new Query(new Criteria().andOperator(
+                Criteria.where("orgId").is(orgId).and("type").is(TransactionType.EXPENSE).and("deletedAt").is(null)
+                        .and("transactionDate").gte(LocalDate.now().minusDays(warmupDays)),
+                exclude))
+                .with(Sort.by("transactionDate")).limit(WARMUP_LIMIT);
+        recent.fields().include("amount", "transactionDate", "category");
+        long rows = 0;
+        try (Stream<Transaction> transactions = mongoTemplate.stream(recent, Transaction.class)) {
+            for (Transaction t : (Iterable<Transaction>) transactions::iterator) {
+                if (t.getAmount() == null || t.getAmount().signum() <= 0 || t.getTransactionDate() == null) continue;
+                state.spend.add(category(t), t.getAmount().doubleValue());
+                rows++;
+            }
+        }
+        states.put(orgId, state);
+        log.debug("Warmed anomaly state for org {} from {} expenses in {} ms", orgId, rows, System.currentTimeMillis() - start);
+        return state;
+    }
+
+    private TransactionAnomaly anomaly(String orgId, Transaction t, TransactionAnomaly.Kind kind) {
+        TransactionAnomaly anomaly = new TransactionAnomaly();
+        anomaly.setId(t.getId() + ":" + kind.name());
+        anomaly.setOrgId(orgId);
+        anomaly.setTransactionId(t.getId());
+        anomaly.setKind(kind);
+        anomaly.setAmount(t.getAmount());
+        anomaly.setTransactionDate(t.getTransactionDate());
+        anomaly.setCategory(category(t));
+        anomaly.setCounterparty(t.getClientId() == null ? CategorizationService.merchantKeyword(t.getDescription()) : null);
+        anomaly.setDetectedAt(LocalDateTime.now());
+        return anomaly;
+    }
+
+    private void save(TransactionAnomaly anomaly) {
+        try {
+            mongoTemplate.insert(anomaly);
+        } catch (DuplicateKeyException e) {
+            return; // already flagged (and possibly dismissed)
+        }
+        dataVersionService.bump(anomaly.getOrgId(), DataVersionService.ANOMALY);
+    }
+
+    private static String counterparty(Transaction t) {
+        if (t.getClientId() != null) return "client:" + t.getClientId();
+        return CategorizationService.merchantKeyword(t.getDescription());
+    }
+
+    private static String category(Transaction t) {
+        return t.getCategory() != null && !t.getCategory().isBlank() ? t.getCategory().trim() : UNCATEGORIZED;
+    }
+
+    private static String format(BigDecimal amount) {
+        return new DecimalFormat("#,##0.##").format(amount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        detector.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package com.moneyops.anomalies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running mean and variance of log(amount) per expense category (Welford's online
+ * algorithm), in parallel primitive arrays indexed by category. Spend amounts are
+ * heavy-tailed, so the log scale keeps one large-but-normal payment from swamping the
+ * variance; a z-score of 3 there is roughly "e^(3 sd) times the usual size".
+ *
+ * Not thread-safe; AnomalyDetectionService confines each instance to its detector thread.
+ */
+final class CategorySpendStats {
+
+    private final Map<String, Integer> categories = new HashMap<>();
+    private long[] count = new long[8];
+    private double[] mean = new double[8];
+    private double[] m2 = new double[8];
+
+    /** z-score of the amount against the category's history before it, or NaN under minSamples. */
+    double zScore(String category, double amount, int minSamples) {
+        Integer i = categories.get(category);
+        if (i == null || count[i] < minSamples || amount <= 0) return Double.NaN;
+        double sd = Math.sqrt(m2[i] / (count[i] - 1));
+        if (sd < 1e-9) return Double.NaN;
+        return (Math.log(amount) - mean[i]) / sd;
+    }
+
+    void add(String category, double amount) {
+        if (amount <= 0) return;
+        int i = categories.computeIfAbsent(category, c -> grow());
+        double x = Math.log(amount);
+        count[i]++;
+        double delta = x - mean[i];
+        mean[i] += delta / count[i];
+        m2[i] += delta * (x - mean[i]);
+    }
+
+    /** Typical amount of the category (exp of the mean log amount), or NaN if unseen. */
+    double typical(String category) {
+        Integer i = categories.get(category);
+        return i == null || count[i] == 0 ? Double.NaN : Math.exp(mean[i]);
+    }
+
+    private int grow() {
+        int i = categories.size();
+        if (i == count.length) {
+            count = Arrays.copyOf(count, i * 2);
+            mean = Arrays.copyOf(mean, i * 2);
+            m2 = Arrays.copyOf(m2, i * 2);
+        }
+        return i;
+    }
+}
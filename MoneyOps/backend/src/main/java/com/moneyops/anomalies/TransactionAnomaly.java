@@ -0,0 +1,38 @@
+package com.moneyops.anomalies;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** A flagged transaction: a likely duplicate payment or an unusually large one for its category. */
+@Document(collection = "transaction_anomalies")
+@CompoundIndex(name = "org_dismissed_detected_idx", def = "{'orgId': 1, 'dismissed': 1, 'detectedAt': -1}")
+@Data
+public class TransactionAnomaly {
+
+    public enum Kind { DUPLICATE, SPIKE }
+
+    @Id
+    private String id;         // = transactionId + ":" + kind, so re-detection is idempotent
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String transactionId;
+    private Kind kind;
+    private String relatedTransactionId;   // DUPLICATE: the earlier payment
+
+    private BigDecimal amount;
+    private LocalDate transactionDate;
+    private String category;
+    private String counterparty;
+    private Double zScore;                 // SPIKE: on log(amount)
+    private BigDecimal typicalAmount;      // SPIKE: the category's usual size
+    private String message;
+
+    private boolean dismissed;
+    private LocalDateTime detectedAt;
+}
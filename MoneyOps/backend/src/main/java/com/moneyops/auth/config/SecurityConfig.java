@@ -8,6 +8,7 @@ import com.moneyops.auth.security.ServiceTokenFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -65,6 +66,8 @@ public class SecurityConfig {
                 "/swagger-ui/**",
                 "/v3/api-docs/**"
             ).permitAll()
+            // HMAC-signed provider callbacks (see WebhookController); nothing else under the prefix
+            .requestMatchers(HttpMethod.POST, "/api/webhooks/*").permitAll()
             .anyRequest().authenticated()
         );
 
@@ -0,0 +1,37 @@
+package com.moneyops.budgets;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Spending limit for one EXPENSE category, repeating every period. QUARTERLY and YEARLY
+ * periods follow the org's financial year (BusinessOrganization.fyStartMonth).
+ */
+@Document(collection = "budgets")
+@CompoundIndex(name = "org_category_period_idx", def = "{'orgId': 1, 'category': 1, 'period': 1}", unique = true)
+@Data
+public class Budget {
+
+    public enum Period { MONTHLY, QUARTERLY, YEARLY }
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String category;
+    private Period period = Period.MONTHLY;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.moneyops.budgets;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * EXPENSE total of one category in one calendar month for an org. Transaction events
+ * $inc it in place; quarterly and yearly actuals are sums of their months.
+ *
+ * Rows belong to a rebuild generation; the live one is the org's "budget-actuals"
+ * Materialization.
+ */
+@Document(collection = "budget_actuals")
+@CompoundIndex(name = "org_generation_month_category_idx", def = "{'orgId': 1, 'generation': 1, 'month': 1, 'category': 1}", unique = true)
+@Data
+public class BudgetActual {
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private long generation;
+    private LocalDate month;   // first day of the month
+    private String category;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount = BigDecimal.ZERO;
+    private long count;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,40 @@
+package com.moneyops.budgets;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A budget crossing a threshold (percent of its amount) within one period. The unique
+ * index makes each crossing fire once, however many writes race past it.
+ */
+@Document(collection = "budget_alerts")
+@CompoundIndex(name = "budget_period_threshold_idx", def = "{'orgId': 1, 'budgetId': 1, 'periodStart': 1, 'threshold': 1}", unique = true)
+@Data
+public class BudgetAlert {
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String budgetId;
+    private String category;
+    private Budget.Period period;
+    private LocalDate periodStart;
+    private int threshold;     // 80 = warning, 100 = exceeded
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal budgeted;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal actual;
+
+    private boolean acknowledged;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,73 @@
+package com.moneyops.budgets;
+
+import com.moneyops.shared.utils.OrgContext;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/budgets")
+public class BudgetController {
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @GetMapping
+    public ResponseEntity<List<Budget>> getBudgets() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(budgetService.getBudgets(orgId));
+    }
+
+    @PutMapping
+    public ResponseEntity<Budget> saveBudget(@Valid @RequestBody BudgetRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(budgetService.saveBudget(orgId, request, OrgContext.getUserId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteBudget(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        budgetService.deleteBudget(orgId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<BudgetService.BudgetStatusDTO> getStatus(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(budgetService.getStatus(orgId, asOf != null ? asOf : LocalDate.now()));
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<BudgetAlert>> getAlerts(@RequestParam(defaultValue = "false") boolean includeAcknowledged) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(budgetService.getAlerts(orgId, includeAcknowledged));
+    }
+
+    @PostMapping("/alerts/{id}/acknowledge")
+    public ResponseEntity<Void> acknowledgeAlert(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        budgetService.acknowledgeAlert(orgId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/actuals/rebuild")
+    public ResponseEntity<BudgetService.BudgetStatusDTO> rebuildActuals() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        budgetService.rebuild(orgId);
+        return ResponseEntity.ok(budgetService.getStatus(orgId, LocalDate.now()));
+    }
+}
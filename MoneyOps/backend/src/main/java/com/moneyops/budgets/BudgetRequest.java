@@ -0,0 +1,20 @@
+package com.moneyops.budgets;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class BudgetRequest {
+    @NotBlank
+    private String category;
+
+    private Budget.Period period = Budget.Period.MONTHLY;
+
+    @NotNull
+    @DecimalMin(value = "0.01")
+    private BigDecimal amount;
+}
@@ -0,0 +1,468 @@
+package com.moneyops.budgets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyops.events.dto.DomainEvent;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.TransactionsInsertedEvent;
+import com.moneyops.events.producer.IEventPublisher;
+import com.moneyops.events.topics.EventTopics;
+import com.moneyops.intelligence.FinanceSeriesService;
+import com.moneyops.organizations.entity.BusinessOrganization;
+import com.moneyops.organizations.repository.BusinessOrganizationRepository;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.sync.Materialization;
+import com.moneyops.sync.MaterializationService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import com.mongodb.client.result.UpdateResult;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Category budgets with incrementally maintained actuals.
+ *
+ * Expense actuals live in per-(org, month, category) BudgetActual counters. Transaction
+ * events $inc them (an edit is -before, +after), then check the category's budgets and
+ * record an 80% / 100% BudgetAlert the first time a period crosses it, publishing it on
+ * budget-events. Reading budget status is two indexed reads (budgets + the months in
+ * range), independent of transaction history.
+ *
+ * Statement imports arrive per chunk as TransactionsInsertedEvent: one $inc per
+ * (month, category) the chunk touched, then a threshold check for those pairs. Counters
+ * are built from transactions only on first use or via rebuild(), into a fresh
+ * generation that MaterializationService swaps in once complete, so status reads never
+ * see a half-built month and no node's $inc lands in rows about to be replaced.
+ */
+@Service
+@RequiredArgsConstructor
+public class BudgetService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BudgetService.class);
+
+    static final int[] THRESHOLDS = {80, 100};
+    private static final int MAX_IMPORT_ALERT_MONTHS = 24;
+    static final String UNCATEGORIZED = "UNCATEGORIZED";
+    private static final int DEFAULT_FY_START_MONTH = 4;
+    private static final String VIEW = "budget-actuals";
+
+    @Data
+    public static class BudgetLineDTO {
+        private String budgetId;
+        private String category;
+        private String period;
+        private String periodStart;
+        private String periodEnd;
+        private BigDecimal budgeted = BigDecimal.ZERO;
+        private BigDecimal actual = BigDecimal.ZERO;
+        private BigDecimal variance = BigDecimal.ZERO;
+        private double utilization;       // percent of budgeted spent
+        private String status;            // UNDER / WARNING / OVER / NO_BUDGET
+    }
+
+    @Data
+    public static class BudgetStatusDTO {
+        private String asOf;
+        private List<BudgetLineDTO> items = new ArrayList<>();
+        private BigDecimal totalBudgeted = BigDecimal.ZERO;
+        private BigDecimal totalActual = BigDecimal.ZERO;
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final BusinessOrganizationRepository orgRepository;
+    private final IEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final DataVersionService dataVersionService;
+    private final MaterializationService materializationService;
+
+    // ✨ Budget definitions
+
+    public List<Budget> getBudgets(String orgId) {
+        return mongoTemplate.find(new Query(Criteria.where("orgId").is(orgId)).with(Sort.by("category", "period")), Budget.class);
+    }
+
+    /** Creates or replaces the org's budget for (category, period). */
+    public Budget saveBudget(String orgId, BudgetRequest request, String userId) {
+        String category = request.getCategory().trim();
+        Budget.Period period = request.getPeriod() != null ? request.getPeriod() : Budget.Period.MONTHLY;
+        LocalDateTime now = LocalDateTime.now();
+        Budget budget = mongoTemplate.findAndModify(
+                new Query(Criteria.where("orgId").is(orgId).and("category").is(category).and("period").is(period)),
+                new Update().set("amount", new Decimal128(request.getAmount())).set("updatedAt", now)
+                        .setOnInsert("createdAt", now).setOnInsert("createdBy", userId),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Budget.class);
+        dataVersionService.bump(orgId, DataVersionService.BUDGET);
+
+        // A new or lowered limit may already be crossed this period.
+        checkBudget(ensureMaterialized(orgId), budget, LocalDate.now().withDayOfMonth(1));
+        return budget;
+    }
+
+    public void deleteBudget(String orgId, String budgetId) {
+        Query query = new Query(Criteria.where("_id").is(budgetId).and("orgId").is(orgId));
+        if (mongoTemplate.remove(query, Budget.class).getDeletedCount() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Budget not found");
+        }
+        mongoTemplate.remove(new Query(Criteria.where("orgId").is(orgId).and("budgetId").is(budgetId)), BudgetAlert.class);
+        dataVersionService.bump(orgId, DataVersionService.BUDGET);
+    }
+
+    // ✨ Alerts
+
+    public List<BudgetAlert> getAlerts(String orgId, boolean includeAcknowledged) {
+        Criteria criteria = Criteria.where("orgId").is(orgId);
+        if (!includeAcknowledged) criteria = criteria.and("acknowledged").is(false);
+        return mongoTemplate.find(new Query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(100), BudgetAlert.class);
+    }
+
+    public void acknowledgeAlert(String orgId, String alertId) {
+        UpdateResult result = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(alertId).and("orgId").is(orgId)),
+                new Update().set("acknowledged", true), BudgetAlert.class);
+        if (result.getMatchedCount() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Alert not found");
+        }
+    }
+
+    // ✨ Status
+
+    public BudgetStatusDTO getStatus(String orgId, LocalDate asOf) {
+        long generation = ensureMaterialized(orgId).getGeneration();
+        LocalDate month = asOf.withDayOfMonth(1);
+        List<Budget> budgets = getBudgets(orgId);
+        int fyStartMonth = budgets.stream().anyMatch(b -> b.getPeriod() != Budget.Period.MONTHLY) ? fyStartMonth(orgId) : DEFAULT_FY_START_MONTH;
+
+        LocalDate earliest = month;
+        for (Budget b : budgets) {
+            LocalDate start = periodStart(b.getPeriod(), month, fyStartMonth);
+            if (start.isBefore(earliest)) earliest = start;
+        }
+        // month -> category -> amount, for every month any current period covers
+        Map<LocalDate, Map<String, BigDecimal>> actuals = new LinkedHashMap<>();
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("generation").is(generation)
+                .and("month").gte(earliest).lte(month));
+        query.fields().include("month", "category", "amount");
+        for (BudgetActual a : mongoTemplate.find(query, BudgetActual.class)) {
+            actuals.computeIfAbsent(a.getMonth(), m -> new LinkedHashMap<>()).put(a.getCategory(), a.getAmount());
+        }
+
+        BudgetStatusDTO dto = new BudgetStatusDTO();
+        dto.setAsOf(asOf.toString());
+        Set<String> budgeted = new HashSet<>();
+        for (Budget b : budgets) {
+            LocalDate start = periodStart(b.getPeriod(), month, fyStartMonth);
+            LocalDate end = periodEnd(b.getPeriod(), start);
+            BigDecimal actual = BigDecimal.ZERO;
+            for (LocalDate m = start; m.isBefore(end) && !m.isAfter(month); m = m.plusMonths(1)) {
+                actual = actual.add(actuals.getOrDefault(m, Map.of()).getOrDefault(b.getCategory(), BigDecimal.ZERO));
+            }
+            BudgetLineDTO line = line(b.getCategory(), b.getAmount(), actual);
+            line.setBudgetId(b.getId());
+            line.setPeriod(b.getPeriod().name());
+            line.setPeriodStart(start.toString());
+            line.setPeriodEnd(end.minusDays(1).toString());
+            dto.getItems().add(line);
+            dto.setTotalBudgeted(dto.getTotalBudgeted().add(b.getAmount()));
+            dto.setTotalActual(dto.getTotalActual().add(actual));
+            budgeted.add(b.getCategory());
+        }
+        // Spending this month in categories without any budget.
+        actuals.getOrDefault(month, Map.of()).forEach((category, actual) -> {
+            if (budgeted.contains(category) || actual.signum() == 0) return;
+            BudgetLineDTO line = line(category, BigDecimal.ZERO, actual);
+            line.setPeriod(Budget.Period.MONTHLY.name());
+            line.setPeriodStart(month.toString());
+            line.setPeriodEnd(month.plusMonths(1).minusDays(1).toString());
+            dto.getItems().add(line);
+            dto.setTotalActual(dto.getTotalActual().add(actual));
+        });
+        return dto;
+    }
+
+    private static BudgetLineDTO line(String category, BigDecimal budgeted, BigDecimal actual) {
+        BudgetLineDTO line = new BudgetLineDTO();
+        line.setCategory(category);
+        line.setBudgeted(budgeted);
+        line.setActual(actual);
+        line.setVariance(budgeted.subtract(actual));
+        if (budgeted.signum() == 0) {
+            line.setStatus("NO_BUDGET");
+            return line;
+        }
+        BigDecimal utilization = actual.multiply(BigDecimal.valueOf(100)).divide(budgeted, 1, RoundingMode.HALF_UP);
+        line.setUtilization(utilization.doubleValue());
+        if (utilization.compareTo(BigDecimal.valueOf(THRESHOLDS[1])) > 0) {
+            line.setStatus("OVER");
+        } else if (utilization.compareTo(BigDecimal.valueOf(THRESHOLDS[0])) >= 0) {
+            line.setStatus("WARNING");
+        } else {
+            line.setStatus("UNDER");
+        }
+        return line;
+    }
+
+    // ✨ Incremental actuals
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.is(EntityChangedEvent.TRANSACTION) || event.getOrgId() == null) {
+            return;
+        }
+        Transaction before = event.getBefore(Transaction.class);
+        Transaction after = event.getAfter(Transaction.class);
+        materializationService.write(VIEW, event.getOrgId(), state -> {
+            // The live generation was built after this write
+            if (MaterializationService.covers(state, after != null ? after : before)) {
+                return;
+            }
+            Transaction added = null;
+            switch (event.getChangeType()) {
+                case CREATED -> added = apply(state, after, 1);
+                case UPDATED -> {
+                    apply(state, before, -1);
+                    added = apply(state, after, 1);
+                }
+                case DELETED -> apply(state, before, -1);
+            }
+            if (added != null) {
+                checkThresholds(state, category(added), added.getTransactionDate().withDayOfMonth(1));
+            }
+        });
+    }
+
+    /**
+     * One $inc per (month, category) an import chunk touched, then a threshold check for
+     * each pair within MAX_IMPORT_ALERT_MONTHS of the chunk's newest month.
+     */
+    @EventListener
+    public void onTransactionsInserted(TransactionsInsertedEvent event) {
+        materializationService.write(VIEW, event.getOrgId(), state -> {
+            Map<LocalDate, Map<String, BigDecimal>> amounts = new HashMap<>();
+            Map<LocalDate, Map<String, Long>> counts = new HashMap<>();
+            LocalDate newest = null;
+            for (Transaction t : event.getTransactions()) {
+                if (!isExpense(t) || MaterializationService.covers(state, t)) continue;
+                LocalDate month = t.getTransactionDate().withDayOfMonth(1);
+                amounts.computeIfAbsent(month, m -> new HashMap<>()).merge(category(t), t.getAmount(), BigDecimal::add);
+                counts.computeIfAbsent(month, m -> new HashMap<>()).merge(category(t), 1L, Long::sum);
+                if (newest == null || month.isAfter(newest)) newest = month;
+            }
+            if (newest == null) {
+                return;
+            }
+            LocalDate oldest = newest.minusMonths(MAX_IMPORT_ALERT_MONTHS - 1);
+            amounts.forEach((month, byCategory) -> byCategory.forEach((category, amount) -> {
+                apply(state, month, category, amount, counts.get(month).get(category));
+                if (!month.isBefore(oldest)) {
+                    checkThresholds(state, category, month);
+                }
+            }));
+        });
+    }
+
+    /** Returns the transaction if it moved a counter. */
+    private Transaction apply(Materialization state, Transaction t, int direction) {
+        if (!isExpense(t)) {
+            return null;
+        }
+        apply(state, t.getTransactionDate().withDayOfMonth(1), category(t),
+                t.getAmount().multiply(BigDecimal.valueOf(direction)), direction);
+        return t;
+    }
+
+    private void apply(Materialization state, LocalDate month, String category, BigDecimal amount, long count) {
+        mongoTemplate.upsert(
+                new Query(Criteria.where("orgId").is(state.getOrgId()).and("generation").is(state.getGeneration())
+                        .and("month").is(month).and("category").is(category)),
+                new Update().inc("amount", new Decimal128(amount)).inc("count", count).set("updatedAt", LocalDateTime.now()),
+                BudgetActual.class);
+    }
+
+    private static boolean isExpense(Transaction t) {
+        return t != null && t.getType() == TransactionType.EXPENSE && t.getAmount() != null && t.getTransactionDate() != null;
+    }
+
+    private void checkThresholds(Materialization state, String category, LocalDate month) {
+        List<Budget> budgets = mongoTemplate.find(new Query(Criteria.where("orgId").is(state.getOrgId()).and("category").is(category)), Budget.class);
+        for (Budget budget : budgets) {
+            checkBudget(state, budget, month);
+        }
+    }
+
+    /** Raises any threshold the budget's period containing {@code month} has crossed and not yet alerted. */
+    private void checkBudget(Materialization state, Budget budget, LocalDate month) {
+        if (budget.getAmount() == null || budget.getAmount().signum() <= 0) return;
+        String orgId = state.getOrgId();
+        int fyStartMonth = budget.getPeriod() == Budget.Period.MONTHLY ? DEFAULT_FY_START_MONTH : fyStartMonth(orgId);
+        LocalDate start = periodStart(budget.getPeriod(), month, fyStartMonth);
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("generation").is(state.getGeneration())
+                .and("category").is(budget.getCategory())
+                .and("month").gte(start).lt(periodEnd(budget.getPeriod(), start)));
+        query.fields().include("amount");
+        BigDecimal actual = BigDecimal.ZERO;
+        for (BudgetActual a : mongoTemplate.find(query, BudgetActual.class)) {
+            actual = actual.add(a.getAmount());
+        }
+
+        BigDecimal percent = actual.multiply(BigDecimal.valueOf(100));
+        for (int threshold : THRESHOLDS) {
+            if (percent.compareTo(budget.getAmount().multiply(BigDecimal.valueOf(threshold))) < 0) break;
+            BudgetAlert alert = new BudgetAlert();
+            alert.setOrgId(orgId);
+            alert.setBudgetId(budget.getId());
+            alert.setCategory(budget.getCategory());
+            alert.setPeriod(budget.getPeriod());
+            alert.setPeriodStart(start);
+            alert.setThreshold(threshold);
+            alert.setBudgeted(budget.getAmount());
+            alert.setActual(actual);
+            alert.setCreatedAt(LocalDateTime.now());
+            try {
+                mongoTemplate.insert(alert);
+            } catch (DuplicateKeyException e) {
+                continue;   // already raised for this period
+            }
+            log.warn("Budget alert for org {}: {} {} at {}% ({} of {})", orgId, budget.getCategory(),
+                    budget.getPeriod(), threshold, actual, budget.getAmount());
+            publish(alert);
+        }
+    }
+
+    private void publish(BudgetAlert alert) {
+        try {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("eventType", alert.getThreshold() >= 100 ? "BUDGET_EXCEEDED" : "BUDGET_WARNING");
+            payload.put("orgId", alert.getOrgId());
+            payload.put("budgetId", alert.getBudgetId());
+            payload.put("category", alert.getCategory());
+            payload.put("period", alert.getPeriod());
+            payload.put("periodStart", alert.getPeriodStart().toString());
+            payload.put("threshold", alert.getThreshold());
+            payload.put("budgeted", alert.getBudgeted());
+            payload.put("actual", alert.getActual());
+            DomainEvent event = new DomainEvent();
+            event.setTopic(EventTopics.BUDGET_EVENTS);
+            event.setKey(alert.getBudgetId());
+            event.setPayload(objectMapper.writeValueAsString(payload));
+            eventPublisher.publish(event);
+        } catch (Exception e) {
+            log.error("Failed to publish budget alert {}: {}", alert.getId(), e.getMessage());
+        }
+    }
+
+    // ✨ Materialization
+
+    /**
+     * Recomputes the org's monthly category actuals from its live EXPENSE transactions as
+     * a new generation and swaps it in.
+     */
+    public void rebuild(String orgId) {
+        materializationService.rebuild(VIEW, orgId, builder(orgId));
+    }
+
+    private Materialization ensureMaterialized(String orgId) {
+        return materializationService.ensure(VIEW, orgId, builder(orgId));
+    }
+
+    private MaterializationService.Builder builder(String orgId) {
+        return new MaterializationService.Builder() {
+            @Override
+            public void build(long generation) {
+                long start = System.currentTimeMillis();
+                String timezone = ZoneId.systemDefault().getId();
+                Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("orgId").is(orgId).and("deletedAt").is(null)
+                                .and("type").is(TransactionType.EXPENSE.name()).and("transactionDate").ne(null)),
+                        context -> new Document("$group", new Document("_id", new Document("month",
+                                new Document("$dateTrunc", new Document("date", "$transactionDate").append("unit", "month").append("timezone", timezone)))
+                                .append("category", new Document("$ifNull", List.of("$category", UNCATEGORIZED))))
+                                .append("amount", new Document("$sum", new Document("$convert", new Document("input", "$amount")
+                                        .append("to", "decimal").append("onError", 0).append("onNull", 0))))
+                                .append("count", new Document("$sum", 1))));
+                List<Document> rows = mongoTemplate.aggregate(aggregation, Transaction.class, Document.class).getMappedResults();
+
+                LocalDateTime now = LocalDateTime.now();
+                List<BudgetActual> actuals = new ArrayList<>(rows.size());
+                long total = 0;
+                for (Document row : rows) {
+                    Document id = row.get("_id", Document.class);
+                    BudgetActual actual = new BudgetActual();
+                    actual.setOrgId(orgId);
+                    actual.setGeneration(generation);
+                    actual.setMonth(id.getDate("month").toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+                    actual.setCategory(id.getString("category"));
+                    actual.setAmount(row.get("amount") instanceof Decimal128 d ? d.bigDecimalValue() : BigDecimal.ZERO);
+                    actual.setCount(((Number) row.get("count")).longValue());
+                    actual.setUpdatedAt(now);
+                    actuals.add(actual);
+                    total += actual.getCount();
+                }
+                if (!actuals.isEmpty()) {
+                    mongoTemplate.insertAll(actuals);
+                }
+                log.info("Built budget actuals generation {} for org {}: {} month/category rows from {} expenses in {} ms",
+                        generation, orgId, rows.size(), total, System.currentTimeMillis() - start);
+            }
+
+            @Override
+            public void discardExcept(Long keep) {
+                Criteria stale = Criteria.where("orgId").is(orgId);
+                if (keep != null) stale = stale.and("generation").ne(keep);
+                mongoTemplate.remove(new Query(stale), BudgetActual.class);
+            }
+        };
+    }
+
+    private int fyStartMonth(String orgId) {
+        Integer month = orgRepository.findByIdAndDeletedAtIsNull(orgId)
+                .map(BusinessOrganization::getFyStartMonth)
+                .orElse(null);
+        return month != null && month >= 1 && month <= 12 ? month : DEFAULT_FY_START_MONTH;
+    }
+
+    static LocalDate periodStart(Budget.Period period, LocalDate date, int fyStartMonth) {
+        return FinanceSeriesService.bucketStart(granularity(period), date, fyStartMonth);
+    }
+
+    static LocalDate periodEnd(Budget.Period period, LocalDate start) {
+        return FinanceSeriesService.nextBucket(granularity(period), start);
+    }
+
+    private static FinanceSeriesService.Granularity granularity(Budget.Period period) {
+        return switch (period) {
+            case MONTHLY -> FinanceSeriesService.Granularity.MONTH;
+            case QUARTERLY -> FinanceSeriesService.Granularity.QUARTER;
+            case YEARLY -> FinanceSeriesService.Granularity.YEAR;
+        };
+    }
+
+    static String category(Transaction t) {
+        return t.getCategory() != null ? t.getCategory() : UNCATEGORIZED;
+    }
+}
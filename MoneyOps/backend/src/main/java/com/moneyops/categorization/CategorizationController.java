@@ -0,0 +1,56 @@
+package com.moneyops.categorization;
+
+import com.moneyops.shared.utils.OrgContext;
+import com.moneyops.transactions.entity.Transaction;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categorization")
+public class CategorizationController {
+
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @GetMapping("/rules")
+    public ResponseEntity<List<CategoryRule>> getRules() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(categorizationService.getRules(orgId));
+    }
+
+    @PostMapping("/rules")
+    public ResponseEntity<CategoryRule> createRule(@Valid @RequestBody CategoryRuleRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.status(HttpStatus.CREATED).body(categorizationService.createRule(orgId, request, OrgContext.getUserId()));
+    }
+
+    @PutMapping("/rules/{id}")
+    public ResponseEntity<CategoryRule> updateRule(@PathVariable String id, @Valid @RequestBody CategoryRuleRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(categorizationService.updateRule(orgId, id, request));
+    }
+
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        categorizationService.deleteRule(orgId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Transactions no rule could categorize, for the AI gateway to classify. */
+    @GetMapping("/residue")
+    public ResponseEntity<List<Transaction>> getResidue(@RequestParam(defaultValue = "100") int limit) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(categorizationService.getResidue(orgId, limit));
+    }
+}
@@ -0,0 +1,214 @@
+package com.moneyops.categorization;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.shared.exceptions.ValidationException;
+import com.moneyops.transactions.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-box transaction categorization from per-org rules.
+ *
+ * Rules are compiled into a CategoryRuleSet (keyword automaton + predicate tables) and
+ * cached per org; a rule change drops the org's entry, and entries older than
+ * app.categorization.rules-ttl-seconds are recompiled so other instances catch up.
+ * New transactions are classified inline before they are saved, and statement imports
+ * classify each chunk with one compiled set. Rows no rule matches are left uncategorized
+ * and listed by getResidue for the AI gateway to classify.
+ *
+ * When someone changes a transaction's category, a LEARNED keyword rule maps the
+ * merchant word of its description to the new category.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategorizationService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CategorizationService.class);
+
+    private static final int MAX_RULES = 5000;
+    private static final int MIN_MERCHANT_LENGTH = 3;
+
+    // Rails, banks and filler words that precede the merchant in bank narrations
+    private static final Set<String> NARRATION_WORDS = Set.of(
+            "upi", "neft", "imps", "rtgs", "ach", "nach", "ecs", "pos", "atm", "mmt", "bil", "onl", "inb", "mb", "ib",
+            "payment", "paid", "pay", "to", "from", "by", "via", "for", "the", "and", "of", "transfer", "trf", "txn",
+            "ref", "debit", "credit", "card", "purchase", "online", "bank", "ltd", "pvt", "inc", "llp", "india", "com",
+            "www", "cr", "dr", "vpa", "okaxis", "oksbi", "okhdfcbank", "okicici", "ybl", "paytm", "apl");
+
+    private record Cached(CategoryRuleSet rules, long compiledAt) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.categorization.rules-ttl-seconds:60}")
+    private long rulesTtlSeconds;
+
+    @Value("${app.categorization.learn:true}")
+    private boolean learn;
+
+    private final Map<String, Cached> compiled = new ConcurrentHashMap<>();
+
+    /** The org's compiled rules; cheap to call per row. */
+    public CategoryRuleSet ruleSet(String orgId) {
+        if (orgId == null) return CategoryRuleSet.EMPTY;
+        long now = System.currentTimeMillis();
+        Cached cached = compiled.get(orgId);
+        if (cached == null || now - cached.compiledAt() > rulesTtlSeconds * 1000) {
+            List<CategoryRule> rules = mongoTemplate.find(
+                    new Query(Criteria.where("orgId").is(orgId)).limit(MAX_RULES), CategoryRule.class);
+            cached = new Cached(rules.isEmpty() ? CategoryRuleSet.EMPTY : new CategoryRuleSet(rules), now);
+            compiled.put(orgId, cached);
+        }
+        return cached.rules();
+    }
+
+    /** Fills category (when blank), aiCategory and aiConfidence from the first matching rule. */
+    public void categorize(Transaction transaction) {
+        categorize(ruleSet(transaction.getOrgId()), transaction);
+    }
+
+    public static void categorize(CategoryRuleSet rules, Transaction transaction) {
+        if (rules.size() == 0 || transaction.getCategory() != null && !transaction.getCategory().isBlank()) return;
+        CategoryRuleSet.Match match = rules.classify(text(transaction), transaction.getAmount(),
+                transaction.getPaymentMethod(), transaction.getType());
+        if (match == null) return;
+        transaction.setCategory(match.category());
+        transaction.setAiCategory(match.category());
+        transaction.setAiConfidence(match.confidence());
+    }
+
+    /** Uncategorized transactions, newest first: what the rules could not place. */
+    public List<Transaction> getResidue(String orgId, int limit) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("deletedAt").is(null)
+                .orOperator(Criteria.where("category").is(null), Criteria.where("category").is("")))
+                .with(Sort.by(Sort.Direction.DESC, "transactionDate"))
+                .limit(Math.max(1, Math.min(limit, 1000)));
+        query.fields().include("type", "amount", "currency", "transactionDate", "description", "referenceNumber", "paymentMethod");
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    public List<CategoryRule> getRules(String orgId) {
+        return mongoTemplate.find(new Query(Criteria.where("orgId").is(orgId))
+                .with(Sort.by(Sort.Direction.DESC, "priority").and(Sort.by("category"))), CategoryRule.class);
+    }
+
+    public CategoryRule createRule(String orgId, CategoryRuleRequest request, String userId) {
+        CategoryRule rule = new CategoryRule();
+        rule.setId(UUID.randomUUID().toString());
+        rule.setOrgId(orgId);
+        rule.setCreatedBy(userId);
+        rule.setCreatedAt(LocalDateTime.now());
+        return save(rule, request);
+    }
+
+    public CategoryRule updateRule(String orgId, String ruleId, CategoryRuleRequest request) {
+        CategoryRule rule = mongoTemplate.findOne(new Query(Criteria.where("_id").is(ruleId).and("orgId").is(orgId)), CategoryRule.class);
+        if (rule == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category rule not found");
+        }
+        rule.setSource(CategoryRule.Source.MANUAL);
+        return save(rule, request);
+    }
+
+    public void deleteRule(String orgId, String ruleId) {
+        Query query = new Query(Criteria.where("_id").is(ruleId).and("orgId").is(orgId));
+        if (mongoTemplate.remove(query, CategoryRule.class).getDeletedCount() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category rule not found");
+        }
+        compiled.remove(orgId);
+    }
+
+    /** Learns from recategorizations: the description's merchant word now means the new category. */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!learn || !event.is(EntityChangedEvent.TRANSACTION) || event.getChangeType() != EntityChangedEvent.ChangeType.UPDATED) {
+            return;
+        }
+        Transaction before = event.getBefore(Transaction.class);
+        Transaction after = event.getAfter(Transaction.class);
+        if (before == null || after == null || after.getCategory() == null || after.getCategory().isBlank()
+                || Objects.equals(before.getCategory(), after.getCategory())) {
+            return;
+        }
+        String merchant = merchantKeyword(after.getDescription());
+        if (merchant == null) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.findAndModify(
+                new Query(Criteria.where("orgId").is(event.getOrgId()).and("source").is(CategoryRule.Source.LEARNED)
+                        .and("keywords").is(List.of(merchant))),
+                new Update().set("category", after.getCategory().trim()).set("updatedAt", now)
+                        .setOnInsert("_id", UUID.randomUUID().toString()).setOnInsert("createdAt", now),
+                FindAndModifyOptions.options().upsert(true),
+                CategoryRule.class);
+        compiled.remove(event.getOrgId());
+        log.debug("Learned category rule for org {}: '{}' -> {}", event.getOrgId(), merchant, after.getCategory());
+    }
+
+    private CategoryRule save(CategoryRule rule, CategoryRuleRequest request) {
+        List<String> keywords = request.getKeywords() == null ? List.of() : request.getKeywords().stream()
+                .map(KeywordAutomaton::normalize)
+                .filter(k -> !k.isEmpty())
+                .distinct()
+                .toList();
+        boolean hasPredicate = request.getType() != null || request.getMinAmount() != null || request.getMaxAmount() != null
+                || request.getPaymentMethod() != null && !request.getPaymentMethod().isBlank();
+        if (keywords.isEmpty() && !hasPredicate) {
+            throw new ValidationException("A rule needs keywords or at least one of type, paymentMethod, minAmount, maxAmount.");
+        }
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw new ValidationException("minAmount must not exceed maxAmount.");
+        }
+        rule.setCategory(request.getCategory().trim());
+        rule.setKeywords(keywords);
+        rule.setType(request.getType());
+        rule.setPaymentMethod(request.getPaymentMethod() != null && !request.getPaymentMethod().isBlank()
+                ? request.getPaymentMethod().trim() : null);
+        rule.setMinAmount(request.getMinAmount());
+        rule.setMaxAmount(request.getMaxAmount());
+        rule.setPriority(request.getPriority());
+        rule.setUpdatedAt(LocalDateTime.now());
+        CategoryRule saved = mongoTemplate.save(rule);
+        compiled.remove(rule.getOrgId());
+        return saved;
+    }
+
+    /** First word of the narration that isn't a payment rail, bank handle or filler word. */
+    public static String merchantKeyword(String description) {
+        String normalized = KeywordAutomaton.normalize(description);
+        if (normalized.isEmpty()) return null;
+        for (String word : normalized.split(" ")) {
+            if (word.length() < MIN_MERCHANT_LENGTH || NARRATION_WORDS.contains(word) || word.chars().anyMatch(Character::isDigit)) {
+                continue;
+            }
+            return word;
+        }
+        return null;
+    }
+
+    private static String text(Transaction transaction) {
+        String description = transaction.getDescription();
+        String reference = transaction.getReferenceNumber();
+        if (reference == null || reference.isBlank()) return description;
+        return description == null ? reference : description + " " + reference;
+    }
+}
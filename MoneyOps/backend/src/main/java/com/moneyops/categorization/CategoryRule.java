@@ -0,0 +1,44 @@
+package com.moneyops.categorization;
+
+import com.moneyops.transactions.entity.TransactionType;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One categorization rule. A rule matches when any of its keywords occurs as whole words
+ * in the transaction's description or reference (or it has no keywords) and every set
+ * predicate holds: type, payment method, amount range. See CategoryRuleSet for ranking.
+ */
+@Document(collection = "category_rules")
+@CompoundIndex(name = "org_source_idx", def = "{'orgId': 1, 'source': 1}")
+@Data
+public class CategoryRule {
+
+    public enum Source { MANUAL, LEARNED }
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String category;
+
+    private List<String> keywords = new ArrayList<>();   // merchant names / narration words
+    private TransactionType type;
+    private String paymentMethod;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+
+    private int priority;      // higher wins
+    private Source source = Source.MANUAL;
+
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
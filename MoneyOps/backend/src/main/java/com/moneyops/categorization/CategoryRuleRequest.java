@@ -0,0 +1,27 @@
+package com.moneyops.categorization;
+
+import com.moneyops.transactions.entity.TransactionType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class CategoryRuleRequest {
+    @NotBlank
+    private String category;
+
+    private List<String> keywords;
+    private TransactionType type;
+    private String paymentMethod;
+
+    @DecimalMin(value = "0")
+    private BigDecimal minAmount;
+
+    @DecimalMin(value = "0")
+    private BigDecimal maxAmount;
+
+    private int priority;
+}
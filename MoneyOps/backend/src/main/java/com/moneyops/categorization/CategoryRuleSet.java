@@ -0,0 +1,139 @@
+package com.moneyops.categorization;
+
+import com.moneyops.transactions.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An org's rules compiled for classification: one KeywordAutomaton over every rule's
+ * keywords (keyword -> rules), and for keyword-less rules a table keyed by payment method
+ * plus a list of rules that accept any method. Classifying a row is one automaton pass
+ * over its text, then the predicate checks of only the rules it reached.
+ *
+ * Among matching rules the winner has the highest priority, then a keyword hit over a
+ * predicate-only rule, then LEARNED over MANUAL, then the most specific rule (number of
+ * predicates, longest keyword). Immutable and thread-safe once built.
+ */
+public final class CategoryRuleSet {
+
+    static final float KEYWORD_CONFIDENCE = 0.95f;
+    static final float LEARNED_CONFIDENCE = 0.9f;
+    static final float PREDICATE_CONFIDENCE = 0.75f;
+
+    public static final CategoryRuleSet EMPTY = new CategoryRuleSet(List.of());
+
+    public record Match(String category, float confidence, String ruleId) {
+    }
+
+    private record Compiled(CategoryRule rule, String paymentMethod, boolean hasKeywords, int specificity, float confidence) {
+
+        boolean accepts(BigDecimal amount, String paymentMethod, TransactionType type) {
+            if (rule.getType() != null && rule.getType() != type) return false;
+            if (this.paymentMethod != null && !this.paymentMethod.equals(paymentMethod)) return false;
+            if (rule.getMinAmount() != null && (amount == null || amount.compareTo(rule.getMinAmount()) < 0)) return false;
+            return rule.getMaxAmount() == null || amount != null && amount.compareTo(rule.getMaxAmount()) <= 0;
+        }
+
+        boolean beats(Compiled other) {
+            if (other == null) return true;
+            if (rule.getPriority() != other.rule.getPriority()) return rule.getPriority() > other.rule.getPriority();
+            if (hasKeywords != other.hasKeywords) return hasKeywords;
+            boolean learned = rule.getSource() == CategoryRule.Source.LEARNED;
+            if (learned != (other.rule.getSource() == CategoryRule.Source.LEARNED)) return learned;
+            return specificity > other.specificity;
+        }
+    }
+
+    private final Compiled[] rules;
+    private final KeywordAutomaton automaton;
+    private final int[][] rulesByKeyword;
+    private final Map<String, int[]> rulesByMethod;
+    private final int[] rulesAnyMethod;
+
+    public CategoryRuleSet(List<CategoryRule> source) {
+        rules = new Compiled[source.size()];
+        Map<String, List<Integer>> keywordRules = new LinkedHashMap<>();
+        Map<String, List<Integer>> methodRules = new HashMap<>();
+        List<Integer> anyMethod = new ArrayList<>();
+
+        for (int i = 0; i < source.size(); i++) {
+            CategoryRule rule = source.get(i);
+            String method = normalizeMethod(rule.getPaymentMethod());
+            int longest = 0;
+            if (rule.getKeywords() != null) {
+                for (String raw : rule.getKeywords()) {
+                    String keyword = KeywordAutomaton.normalize(raw);
+                    if (keyword.isEmpty()) continue;
+                    keywordRules.computeIfAbsent(keyword, k -> new ArrayList<>()).add(i);
+                    longest = Math.max(longest, keyword.length());
+                }
+            }
+            boolean hasKeywords = longest > 0;
+            int predicates = (rule.getType() != null ? 1 : 0) + (method != null ? 1 : 0)
+                    + (rule.getMinAmount() != null ? 1 : 0) + (rule.getMaxAmount() != null ? 1 : 0);
+            float confidence = !hasKeywords ? PREDICATE_CONFIDENCE
+                    : rule.getSource() == CategoryRule.Source.LEARNED ? LEARNED_CONFIDENCE : KEYWORD_CONFIDENCE;
+            rules[i] = new Compiled(rule, method, hasKeywords, predicates * 1000 + longest, confidence);
+
+            if (!hasKeywords && predicates > 0) {
+                if (method != null) methodRules.computeIfAbsent(method, k -> new ArrayList<>()).add(i);
+                else anyMethod.add(i);
+            }
+        }
+
+        List<String> keywords = new ArrayList<>(keywordRules.keySet());
+        automaton = new KeywordAutomaton(keywords);
+        rulesByKeyword = new int[keywords.size()][];
+        for (int k = 0; k < keywords.size(); k++) rulesByKeyword[k] = toArray(keywordRules.get(keywords.get(k)));
+        rulesByMethod = new HashMap<>();
+        methodRules.forEach((method, ids) -> rulesByMethod.put(method, toArray(ids)));
+        rulesAnyMethod = toArray(anyMethod);
+    }
+
+    /** Best matching rule's category for the row, or null when no rule matches. */
+    public Match classify(String text, BigDecimal amount, String paymentMethod, TransactionType type) {
+        String method = normalizeMethod(paymentMethod);
+        Compiled[] best = new Compiled[1];
+        if (text != null && rulesByKeyword.length > 0) {
+            automaton.match(text, keyword -> {
+                for (int r : rulesByKeyword[keyword]) {
+                    Compiled rule = rules[r];
+                    if (rule.beats(best[0]) && rule.accepts(amount, method, type)) best[0] = rule;
+                }
+            });
+        }
+        if (method != null) consider(rulesByMethod.get(method), best, amount, method, type);
+        consider(rulesAnyMethod, best, amount, method, type);
+
+        Compiled winner = best[0];
+        return winner == null ? null : new Match(winner.rule.getCategory(), winner.confidence, winner.rule.getId());
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    private void consider(int[] candidates, Compiled[] best, BigDecimal amount, String method, TransactionType type) {
+        if (candidates == null) return;
+        for (int r : candidates) {
+            Compiled rule = rules[r];
+            if (rule.beats(best[0]) && rule.accepts(amount, method, type)) best[0] = rule;
+        }
+    }
+
+    private static String normalizeMethod(String method) {
+        return method == null || method.isBlank() ? null : method.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] out = new int[values.size()];
+        for (int i = 0; i < out.length; i++) out[i] = values.get(i);
+        return out;
+    }
+}
@@ -0,0 +1,146 @@
+package com.moneyops.categorization;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Aho-Corasick automaton over whole-word keywords, compiled to a dense DFA.
+ *
+ * Text is reduced to a 37-symbol alphabet: a-z, 0-9 and one separator standing for any
+ * run of other characters (case-folded, so "UBER *TRIP" reads as "_uber_trip_"). Each
+ * keyword is stored framed by separators, which makes every match a whole-word match
+ * without a boundary check. Goto and failure transitions are folded into one int table,
+ * so matching is a single array lookup per input character, independent of the number
+ * of keywords.
+ */
+final class KeywordAutomaton {
+
+    private static final int ALPHABET = 37;
+    private static final int SEPARATOR = 0;
+
+    private int[] delta;       // state * ALPHABET + symbol -> state
+    private int[] pattern;     // state -> keyword index ending here, or -1
+    private int[] outputLink;  // state -> nearest proper suffix state with a keyword, or -1
+    private int states;
+
+    /** Keyword indexes are positions in {@code keywords}; blank keywords and repeats are skipped. */
+    KeywordAutomaton(List<String> keywords) {
+        int capacity = 1;
+        for (String k : keywords) capacity += k.length() + 2;
+        delta = new int[capacity * ALPHABET];
+        Arrays.fill(delta, -1);
+        pattern = new int[capacity];
+        Arrays.fill(pattern, -1);
+        states = 1;
+
+        for (int i = 0; i < keywords.size(); i++) {
+            String keyword = normalize(keywords.get(i));
+            if (keyword.isEmpty()) continue;
+            int state = step(0, SEPARATOR);
+            for (int c = 0; c < keyword.length(); c++) state = step(state, symbol(keyword.charAt(c)));
+            state = step(state, SEPARATOR);
+            if (pattern[state] < 0) pattern[state] = i;
+        }
+        buildFailureLinks();
+    }
+
+    /** Reports the index of every keyword occurrence in {@code text}, in text order. */
+    void match(CharSequence text, IntConsumer onMatch) {
+        int state = next(0, SEPARATOR);
+        state = report(state, onMatch);
+        boolean lastWasSeparator = true;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            int symbol = symbol(text.charAt(i));
+            if (symbol == SEPARATOR) {
+                if (lastWasSeparator) continue;
+                lastWasSeparator = true;
+            } else {
+                lastWasSeparator = false;
+            }
+            state = report(next(state, symbol), onMatch);
+        }
+        if (!lastWasSeparator) report(next(state, SEPARATOR), onMatch);
+    }
+
+    int stateCount() {
+        return states;
+    }
+
+    /** Lower-case words separated by single spaces, the form keywords are matched in. */
+    static String normalize(String value) {
+        if (value == null) return "";
+        StringBuilder out = new StringBuilder(value.length());
+        boolean gap = false;
+        for (int i = 0; i < value.length(); i++) {
+            int symbol = symbol(value.charAt(i));
+            if (symbol == SEPARATOR) {
+                gap = out.length() > 0;
+            } else {
+                if (gap) out.append(' ');
+                gap = false;
+                out.append(Character.toLowerCase(value.charAt(i)));
+            }
+        }
+        return out.toString();
+    }
+
+    private int report(int state, IntConsumer onMatch) {
+        for (int s = pattern[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+            onMatch.accept(pattern[s]);
+        }
+        return state;
+    }
+
+    private int next(int state, int symbol) {
+        return delta[state * ALPHABET + symbol];
+    }
+
+    /** Trie edge, created if missing (build phase only). */
+    private int step(int state, int symbol) {
+        int slot = state * ALPHABET + symbol;
+        if (delta[slot] < 0) delta[slot] = states++;
+        return delta[slot];
+    }
+
+    private void buildFailureLinks() {
+        int[] failure = new int[states];
+        outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int a = 0; a < ALPHABET; a++) {
+            int child = delta[a];
+            if (child < 0) {
+                delta[a] = 0;
+            } else {
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int fail = failure[state];
+            outputLink[state] = pattern[fail] >= 0 ? fail : outputLink[fail];
+            for (int a = 0; a < ALPHABET; a++) {
+                int slot = state * ALPHABET + a;
+                int child = delta[slot];
+                if (child < 0) {
+                    delta[slot] = delta[fail * ALPHABET + a];
+                } else {
+                    failure[child] = delta[fail * ALPHABET + a];
+                    queue.add(child);
+                }
+            }
+        }
+        delta = Arrays.copyOf(delta, states * ALPHABET);
+        pattern = Arrays.copyOf(pattern, states);
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a' + 1;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 1;
+        if (c >= '0' && c <= '9') return c - '0' + 27;
+        return SEPARATOR;
+    }
+}
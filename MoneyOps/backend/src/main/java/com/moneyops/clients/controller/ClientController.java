@@ -3,10 +3,14 @@ package com.moneyops.clients.controller;
 
 import com.moneyops.clients.dto.ClientDto;
 import com.moneyops.clients.service.ClientService;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.shared.exceptions.UnauthorizedException;
+import com.moneyops.shared.versioning.DataVersionService;
 import com.moneyops.shared.utils.OrgContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,12 +21,18 @@ public class ClientController {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
     @GetMapping
     public ResponseEntity<List<ClientDto>> getAllClients(
-            @RequestHeader(value = "X-Org-Id", required = false) String orgId) {
+            @RequestHeader(value = "X-Org-Id", required = false) String orgId,
+            WebRequest request) {
         if (orgId == null || orgId.isEmpty()) orgId = OrgContext.getOrgId();
-        List<ClientDto> clients = clientService.getAllClients(orgId);
-        return ResponseEntity.ok(clients);
+        if (orgId == null || orgId.isEmpty()) throw new UnauthorizedException("Missing organization context");
+        String org = orgId;
+        return dataVersionService.conditional(request, dataVersionService.etag(org, null, EntityChangedEvent.CLIENT),
+                () -> clientService.getAllClients(org));
     }
 
     @GetMapping("/{id}")
@@ -75,9 +85,12 @@ public class ClientController {
     @GetMapping("/search")
     public ResponseEntity<List<ClientDto>> searchClients(
             @RequestParam String q, 
-            @RequestHeader(value = "X-Org-Id", required = false) String orgId) {
+            @RequestHeader(value = "X-Org-Id", required = false) String orgId,
+            WebRequest request) {
         if (orgId == null || orgId.isEmpty()) orgId = OrgContext.getOrgId();
-        List<ClientDto> clients = clientService.searchClients(orgId, q);
-        return ResponseEntity.ok(clients);
+        if (orgId == null || orgId.isEmpty()) throw new UnauthorizedException("Missing organization context");
+        String org = orgId;
+        return dataVersionService.conditional(request, dataVersionService.etag(org, null, EntityChangedEvent.CLIENT),
+                () -> clientService.searchClients(org, q));
     }
 }
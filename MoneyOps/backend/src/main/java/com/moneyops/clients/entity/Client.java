@@ -1,5 +1,6 @@
 package com.moneyops.clients.entity;
 
+import com.moneyops.sync.ChangeTracked;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -13,6 +14,7 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.annotation.PostConstruct;
@@ -21,8 +23,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Document(collection = "clients")
+// ✨ Delta sync: changes since a sequence number (see SyncService)
+@CompoundIndex(name = "org_change_seq_idx", def = "{'orgId': 1, 'changeSeq': 1}")
 @Data
-public class Client {
+public class Client implements ChangeTracked {
 
     @Id
     private String id;
@@ -63,6 +67,8 @@ public class Client {
     private String updatedBy;
     
     private LocalDateTime deletedAt; // ✨ Soft delete support
+
+    private Long changeSeq;    // ✨ Org change sequence, stamped on every save
     
     @Indexed(unique = true, partialFilter = "{'idempotencyKey': {$exists: true}}")
     private String idempotencyKey; // ✨ From AI Gateway
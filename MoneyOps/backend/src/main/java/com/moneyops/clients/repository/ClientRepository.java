@@ -4,6 +4,7 @@ import com.moneyops.clients.entity.Client;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,8 @@ public interface ClientRepository extends MongoRepository<Client, String> {
 
     List<Client> findAllByOrgIdAndDeletedAtIsNull(String orgId);
 
+    List<Client> findAllByIdInAndOrgIdAndDeletedAtIsNull(Collection<String> ids, String orgId);
+
     boolean existsByIdAndOrgIdAndDeletedAtIsNull(String id, String orgId);
 
     Optional<Client> findByEmailAndOrgIdAndDeletedAtIsNull(String email, String orgId);
@@ -0,0 +1,216 @@
+// src/main/java/com/moneyops/clients/service/ClientSearchIndex.java
+package com.moneyops.clients.service;
+
+import com.moneyops.clients.entity.Client;
+import com.moneyops.clients.repository.ClientRepository;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.shared.search.TrigramIndex;
+import com.moneyops.sync.ChangeSequenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-org trigram index over client names and emails.
+ *
+ * Fuzzy client search (ClientService.searchClients, the clientName filter of
+ * InvoiceService.searchInvoices) asks this index for candidates and only runs
+ * Jaro-Winkler over those, instead of over every client in the org.
+ *
+ * - Built lazily on the first search for an org.
+ * - Kept current from ClientService writes via EntityChangedEvent.
+ * - Caught up with writes from other nodes before each search: the index records the
+ *   org's safe change-sequence high-water mark it has seen (ChangeSequenceService), and
+ *   a search that finds the mark moved re-reads only the clients stamped in between
+ *   (org_change_seq_idx), deleted ones included.
+ * - Evicted LRU by tenant once more than max-orgs are resident, and rebuilt after
+ *   ttl-minutes as a backstop for a write whose sequence number was given up as abandoned.
+ */
+@Component
+public class ClientSearchIndex {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ClientSearchIndex.class);
+
+    /** Queries shorter than a trigram are too unselective to prune; score every entry instead. */
+    private static final int MIN_INDEXED_QUERY_LENGTH = 3;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChangeSequenceService changeSequenceService;
+
+    @Value("${app.search.client-index.max-orgs:500}")
+    private int maxOrgs;
+
+    @Value("${app.search.client-index.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${app.search.client-index.max-candidates:200}")
+    private int maxCandidates;
+
+    private final Map<String, OrgIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OrgIndex> eldest) {
+            return size() > Math.max(1, maxOrgs);
+        }
+    };
+
+    /** Lower-cased view of a client, enough to score a match without going back to Mongo. */
+    public record Entry(String id, String name, String email) {
+    }
+
+    /**
+     * Returns the clients worth scoring for a fuzzy query — every client for very
+     * short queries, otherwise the best trigram-overlap candidates.
+     */
+    public List<Entry> candidates(String orgId, String query) {
+        OrgIndex index = indexFor(orgId);
+        catchUp(orgId, index);
+        synchronized (index) {
+            if (TrigramIndex.normalize(query).length() < MIN_INDEXED_QUERY_LENGTH) {
+                return new ArrayList<>(index.entries.values());
+            }
+            List<String> ids = index.trigrams.search(query, maxCandidates);
+            List<Entry> result = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                Entry entry = index.entries.get(id);
+                if (entry != null) result.add(entry);
+            }
+            return result;
+        }
+    }
+
+    /** Number of clients resident for the org, or -1 if its index is not loaded. */
+    public int size(String orgId) {
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(orgId);
+        }
+        if (index == null) return -1;
+        synchronized (index) {
+            return index.loaded ? index.entries.size() : -1;
+        }
+    }
+
+    public void invalidate(String orgId) {
+        synchronized (indexes) {
+            indexes.remove(orgId);
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.is(EntityChangedEvent.CLIENT) || event.getOrgId() == null) {
+            return;
+        }
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(event.getOrgId());
+        }
+        // Not resident: the next search builds it from Mongo, which already has this write.
+        if (index == null) {
+            return;
+        }
+        Client after = event.getAfter(Client.class);
+        synchronized (index) {
+            if (!index.loaded) {
+                return;
+            }
+            if (after == null || after.getDeletedAt() != null) {
+                index.remove(event.getEntityId());
+            } else {
+                index.put(after);
+            }
+        }
+    }
+
+    private OrgIndex indexFor(String orgId) {
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(orgId);
+            if (index == null || index.isExpired(ttlMinutes)) {
+                index = new OrgIndex();
+                indexes.put(orgId, index);
+            }
+        }
+        // Load outside the registry lock so one tenant's build doesn't block the others.
+        synchronized (index) {
+            if (!index.loaded) {
+                long start = System.currentTimeMillis();
+                // Read first: the load sees at least every write up to it
+                index.syncedSeq = changeSequenceService.safeHighWater(orgId);
+                for (Client client : clientRepository.findAllByOrgIdAndDeletedAtIsNull(orgId)) {
+                    index.put(client);
+                }
+                index.loaded = true;
+                index.builtAt = System.currentTimeMillis();
+                log.debug("Built client search index for org {}: {} clients in {} ms",
+                        orgId, index.entries.size(), index.builtAt - start);
+            }
+        }
+        return index;
+    }
+
+    /** Applies client writes landed since the index last synced, from any node. */
+    private void catchUp(String orgId, OrgIndex index) {
+        long high = changeSequenceService.safeHighWater(orgId);
+        synchronized (index) {
+            if (high <= index.syncedSeq) {
+                return;
+            }
+            Query changed = new Query(Criteria.where("orgId").is(orgId).and("changeSeq").gt(index.syncedSeq).lte(high));
+            changed.fields().include("name", "email", "deletedAt");
+            int applied = 0;
+            for (Client client : mongoTemplate.find(changed, Client.class)) {
+                if (client.getDeletedAt() != null) {
+                    index.remove(client.getId());
+                } else {
+                    index.put(client);
+                }
+                applied++;
+            }
+            log.debug("Caught up client search index for org {}: seq {} -> {}, {} clients",
+                    orgId, index.syncedSeq, high, applied);
+            index.syncedSeq = high;
+        }
+    }
+
+    private static final class OrgIndex {
+        final TrigramIndex trigrams = new TrigramIndex();
+        final Map<String, Entry> entries = new HashMap<>();
+        volatile boolean loaded;
+        volatile long builtAt;
+        long syncedSeq;
+
+        void put(Client client) {
+            if (client.getId() == null) return;
+            String name = client.getName() != null ? client.getName().toLowerCase() : "";
+            String email = client.getEmail() != null ? client.getEmail().toLowerCase() : null;
+            entries.put(client.getId(), new Entry(client.getId(), name, email));
+            trigrams.put(client.getId(), name, email);
+        }
+
+        void remove(String id) {
+            entries.remove(id);
+            trigrams.remove(id);
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return loaded && ttlMinutes > 0 && System.currentTimeMillis() - builtAt > ttlMinutes * 60_000L;
+        }
+    }
+}
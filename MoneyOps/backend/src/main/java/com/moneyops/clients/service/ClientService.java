@@ -7,15 +7,18 @@ import com.moneyops.clients.mapper.ClientMapper;
 import com.moneyops.clients.repository.ClientRepository;
 import com.moneyops.clients.validator.ClientValidator;
 import com.moneyops.audit.service.AuditLogService;
+import com.moneyops.events.dto.EntityChangedEvent;
 import com.moneyops.security.team.TeamActionAuthorizationService;
 import com.moneyops.users.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.apache.commons.text.similarity.JaroWinklerSimilarity;
@@ -42,6 +45,12 @@ public class ClientService {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private ClientSearchIndex clientSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<ClientDto> getAllClients(String orgId) {
         if (orgId == null || orgId.isBlank()) throw new com.moneyops.shared.exceptions.UnauthorizedException("Missing organization context");
         return clientRepository.findAllByOrgIdAndDeletedAtIsNull(orgId)
@@ -103,6 +112,7 @@ public class ClientService {
         
         Client saved = clientRepository.save(client);
         auditLogService.logCreate("CLIENT", saved.getId(), saved);
+        eventPublisher.publishEvent(EntityChangedEvent.created(orgId, EntityChangedEvent.CLIENT, saved.getId(), saved));
         return clientMapper.toDto(saved);
     }
 
@@ -110,6 +120,7 @@ public class ClientService {
         clientValidator.validate(dto);
         Client client = clientRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
                 .orElseThrow(() -> new RuntimeException("Client not found"));
+        Client beforeUpdate = clientMapper.toEntity(clientMapper.toDto(client));
 
         client.setName(dto.getName());
         client.setGstin(dto.getGstin());
@@ -133,6 +144,7 @@ public class ClientService {
         }
 
         Client saved = clientRepository.save(client);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(orgId, EntityChangedEvent.CLIENT, saved.getId(), beforeUpdate, saved));
         return clientMapper.toDto(saved);
     }
 
@@ -143,6 +155,7 @@ public class ClientService {
         // ✨ Soft Delete
         client.setDeletedAt(LocalDateTime.now());
         clientRepository.save(client);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(orgId, EntityChangedEvent.CLIENT, client.getId(), client));
     }
 
     public List<ClientDto> searchClients(String orgId, String search) {
@@ -151,40 +164,47 @@ public class ClientService {
         }
 
         String query = search.trim().toLowerCase();
-        
-        // 1. Get potential candidates using Regex
-        List<Client> candidates = clientRepository.searchByOrgIdWithFilters(orgId, query);
-        
-        // 2. perform full fuzzy matching if no direct regex matches
+
+        // 1. Prune candidates through the per-org trigram index (no regex scan, no full load)
+        List<ClientSearchIndex.Entry> candidates = clientSearchIndex.candidates(orgId, query);
         if (candidates.isEmpty()) {
-            candidates = clientRepository.findAllByOrgIdAndDeletedAtIsNull(orgId);
+            return List.of();
         }
 
-        final List<com.moneyops.clients.entity.Client> finalCandidates = candidates;
+        // 2. Jaro-Winkler only over the candidates
         JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
-        
-        return candidates.stream()
-                .map(client -> {
-                    ClientDto dto = clientMapper.toDto(client);
-                    double nameScore = similarity.apply(query, client.getName().toLowerCase());
-                    double emailScore = client.getEmail() != null ? 
-                            similarity.apply(query, client.getEmail().toLowerCase()) : 0;
-                    double bestScore = Math.max(nameScore, emailScore);
-                    dto.setSearchScore(bestScore);
-                    return new ScoredClient(dto, bestScore);
+        List<ScoredClient> ranked = candidates.stream()
+                .map(entry -> {
+                    double nameScore = similarity.apply(query, entry.name());
+                    double emailScore = entry.email() != null ? similarity.apply(query, entry.email()) : 0;
+                    return new ScoredClient(entry.id(), Math.max(nameScore, emailScore));
                 })
-                .filter(sc -> sc.score > 0.7 || finalCandidates.size() < 10) 
+                .filter(sc -> sc.score > 0.7 || candidates.size() < 10)
                 .sorted(Comparator.comparingDouble((ScoredClient sc) -> sc.score).reversed())
-                .map(sc -> sc.client)
+                .collect(Collectors.toList());
+
+        // 3. Load only the survivors
+        Map<String, Client> byId = clientRepository.findAllById(ranked.stream().map(sc -> sc.clientId).toList())
+                .stream()
+                .filter(c -> orgId.equals(c.getOrgId()) && c.getDeletedAt() == null)
+                .collect(Collectors.toMap(Client::getId, c -> c));
+
+        return ranked.stream()
+                .filter(sc -> byId.containsKey(sc.clientId))
+                .map(sc -> {
+                    ClientDto dto = clientMapper.toDto(byId.get(sc.clientId));
+                    dto.setSearchScore(sc.score);
+                    return dto;
+                })
                 .collect(Collectors.toList());
     }
 
     // Helper class for ranking
     private static class ScoredClient {
-        ClientDto client;
+        String clientId;
         double score;
-        ScoredClient(ClientDto client, double score) {
-            this.client = client;
+        ScoredClient(String clientId, double score) {
+            this.clientId = clientId;
             this.score = score;
         }
     }
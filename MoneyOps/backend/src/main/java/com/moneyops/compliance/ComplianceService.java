@@ -1,14 +1,5 @@
 package com.moneyops.compliance;
 
-import com.moneyops.clients.entity.Client;
-import com.moneyops.clients.repository.ClientRepository;
-import com.moneyops.documents.entity.MoneyOpsDocument;
-import com.moneyops.documents.repository.DocumentRepository;
-import com.moneyops.invoices.entity.Invoice;
-import com.moneyops.invoices.entity.InvoiceStatus;
-import com.moneyops.invoices.repository.InvoiceRepository;
-import com.moneyops.transactions.entity.Transaction;
-import com.moneyops.transactions.repository.TransactionRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,17 +11,13 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ComplianceService {
 
-    private final InvoiceRepository invoiceRepository;
-    private final ClientRepository clientRepository;
-    private final DocumentRepository documentRepository;
-    private final TransactionRepository transactionRepository;
+    private final ComplianceSnapshotService complianceSnapshotService;
 
     @Data
     public static class DeadlineDTO {
@@ -112,18 +99,9 @@ public class ComplianceService {
     }
 
     public ComplianceStatusResponse getComplianceStatus(String orgId, String businessId, String userId) {
-        List<Invoice> invoices = orgId == null || orgId.isBlank()
-                ? List.of()
-                : invoiceRepository.findAllByOrgIdAndDeletedAtIsNull(orgId);
-        List<Client> clients = orgId == null || orgId.isBlank()
-                ? List.of()
-                : clientRepository.findAllByOrgIdAndDeletedAtIsNull(orgId);
-        List<MoneyOpsDocument> documents = orgId == null || orgId.isBlank()
-                ? List.of()
-                : documentRepository.findByOrgIdAndDeletedAtIsNull(orgId);
-        List<Transaction> transactions = orgId == null || orgId.isBlank()
-                ? List.of()
-                : transactionRepository.findAllByOrgIdAndDeletedAtIsNull(orgId);
+        ComplianceSnapshot snapshot = orgId == null || orgId.isBlank()
+                ? new ComplianceSnapshot()
+                : complianceSnapshotService.getSnapshot(orgId);
 
         List<DeadlineDTO> deadlines = buildDynamicDeadlines();
         LocalDate today = LocalDate.now();
@@ -132,16 +110,11 @@ public class ComplianceService {
                 .sorted(Comparator.comparing(DeadlineDTO::getDueDate))
                 .collect(Collectors.toList());
 
-        long overdueInvoices = invoices.stream().filter(i -> i.getStatus() == InvoiceStatus.OVERDUE).count();
-        long sentInvoices = invoices.stream().filter(i -> i.getStatus() == InvoiceStatus.SENT).count();
-        long draftInvoices = invoices.stream().filter(i -> i.getStatus() == InvoiceStatus.DRAFT).count();
-        long invoicesWithoutClientEmail = invoices.stream()
-                .filter(i -> i.getClientEmail() == null || i.getClientEmail().isBlank())
-                .count();
-        BigDecimal pendingGst = invoices.stream()
-                .filter(i -> i.getStatus() == InvoiceStatus.SENT || i.getStatus() == InvoiceStatus.OVERDUE)
-                .map(i -> i.getGstTotal() != null ? i.getGstTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long overdueInvoices = snapshot.getOverdueInvoices();
+        long sentInvoices = snapshot.getSentInvoices();
+        long draftInvoices = snapshot.getDraftInvoices();
+        long invoicesWithoutClientEmail = snapshot.getInvoicesWithoutClientEmail();
+        BigDecimal pendingGst = snapshot.getPendingGst() != null ? snapshot.getPendingGst() : BigDecimal.ZERO;
 
         List<String> alerts = new ArrayList<>();
         if (overdueInvoices > 0) {
@@ -168,13 +141,13 @@ public class ComplianceService {
             keyRequirements.add("Follow up on " + sentInvoices + " sent invoice(s) to reduce payment and GST reconciliation risk.");
         }
 
-        AuditReadinessResponse auditReadiness = buildAuditReadiness(invoices, clients, documents, transactions);
+        AuditReadinessResponse auditReadiness = buildAuditReadiness(snapshot);
 
         int score = 100;
         score -= Math.min(30, (int) overdueInvoices * 12);
         score -= Math.min(12, (int) invoicesWithoutClientEmail * 4);
         score -= sentInvoices > 5 ? 8 : sentInvoices > 0 ? 4 : 0;
-        score -= documents.isEmpty() && !invoices.isEmpty() ? 8 : 0;
+        score -= snapshot.getDocumentCount() == 0 && snapshot.getTotalInvoices() > 0 ? 8 : 0;
         score -= auditReadiness.getAuditReadinessScore() < 80 ? 6 : 0;
         score = Math.max(0, score);
 
@@ -231,34 +204,18 @@ public class ComplianceService {
         return response;
     }
 
-    private AuditReadinessResponse buildAuditReadiness(
-            List<Invoice> invoices,
-            List<Client> clients,
-            List<MoneyOpsDocument> documents,
-            List<Transaction> transactions
-    ) {
+    private AuditReadinessResponse buildAuditReadiness(ComplianceSnapshot snapshot) {
         AuditReadinessResponse response = new AuditReadinessResponse();
-        int totalInvoices = invoices.size();
-        int invoicesWithGst = (int) invoices.stream()
-                .filter(i -> i.getGstTotal() != null && i.getGstTotal().compareTo(BigDecimal.ZERO) > 0)
-                .count();
-        int invoicesWithClient = (int) invoices.stream()
-                .filter(i -> (i.getClientId() != null && !i.getClientId().isBlank()) || (i.getClientName() != null && !i.getClientName().isBlank()))
-                .count();
-        Set<String> paidInvoiceIds = transactions.stream()
-                .map(Transaction::getInvoiceId)
-                .filter(id -> id != null && !id.isBlank())
-                .collect(Collectors.toSet());
-        int paymentLinkedInvoices = (int) invoices.stream()
-                .filter(i -> i.getStatus() == InvoiceStatus.PAID && paidInvoiceIds.contains(i.getId()))
-                .count();
-        int invoiceLinkedDocs = (int) documents.stream()
-                .filter(d -> "INVOICE".equalsIgnoreCase(d.getLinkedEntityType()))
-                .count();
+        int totalInvoices = (int) snapshot.getTotalInvoices();
+        int invoicesWithGst = (int) snapshot.getInvoicesWithGst();
+        int invoicesWithClient = (int) snapshot.getInvoicesWithClient();
+        int paymentLinkedInvoices = (int) snapshot.getPaymentLinkedInvoices();
+        int invoiceLinkedDocs = (int) snapshot.getInvoiceLinkedDocuments();
+        boolean hasClients = snapshot.getClientCount() > 0;
 
         int gstCompletion = percentage(invoicesWithGst, totalInvoices);
         int clientCompletion = percentage(invoicesWithClient, totalInvoices);
-        int paymentCompletion = percentage(paymentLinkedInvoices, (int) invoices.stream().filter(i -> i.getStatus() == InvoiceStatus.PAID).count());
+        int paymentCompletion = percentage(paymentLinkedInvoices, (int) snapshot.getPaidInvoices());
         int docsCompletion = percentage(invoiceLinkedDocs, totalInvoices);
 
         List<ChecklistItem> checklist = new ArrayList<>();
@@ -266,9 +223,9 @@ public class ComplianceService {
         checklist.add(new ChecklistItem("Client records linked to invoices", statusFor(clientCompletion), clientCompletion + "%"));
         checklist.add(new ChecklistItem("Payment records linked", statusFor(paymentCompletion), paymentCompletion + "%"));
         checklist.add(new ChecklistItem("Supporting documents uploaded", statusFor(docsCompletion), docsCompletion + "%"));
-        checklist.add(new ChecklistItem("Active client base maintained", clients.isEmpty() ? "warn" : "pass", clients.isEmpty() ? "0%" : "100%"));
+        checklist.add(new ChecklistItem("Active client base maintained", hasClients ? "pass" : "warn", hasClients ? "100%" : "0%"));
 
-        int readinessScore = Math.round((gstCompletion + clientCompletion + paymentCompletion + docsCompletion + (clients.isEmpty() ? 0 : 100)) / 5.0f);
+        int readinessScore = Math.round((gstCompletion + clientCompletion + paymentCompletion + docsCompletion + (hasClients ? 100 : 0)) / 5.0f);
         response.setAuditReadinessScore(readinessScore);
         response.setStatus(readinessScore >= 85 ? "ready" : readinessScore >= 65 ? "attention" : "not_ready");
         response.setMessage(readinessScore >= 85
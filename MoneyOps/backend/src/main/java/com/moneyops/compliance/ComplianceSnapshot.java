@@ -0,0 +1,44 @@
+package com.moneyops.compliance;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized per-org compliance counters, keyed by orgId.
+ *
+ * Holds only the scalars getComplianceStatus needs; deadlines and scores are derived
+ * from them at read time. Marked stale (computedAt unset) whenever an invoice, client,
+ * transaction or document changes (see ComplianceSnapshotService) and recomputed on the
+ * next read. {@link #revision} moves with every invalidation and fences the recompute's
+ * replace.
+ */
+@Document(collection = "compliance_snapshots")
+@Data
+public class ComplianceSnapshot {
+
+    @Id
+    private String orgId;
+
+    // ✨ Invoice counters
+    private long totalInvoices;
+    private long draftInvoices;
+    private long sentInvoices;
+    private long overdueInvoices;
+    private long paidInvoices;
+    private long invoicesWithoutClientEmail;
+    private long invoicesWithGst;
+    private long invoicesWithClient;
+    private long paymentLinkedInvoices;   // PAID invoices with at least one live transaction
+    private BigDecimal pendingGst = BigDecimal.ZERO;
+
+    private long clientCount;
+    private long documentCount;
+    private long invoiceLinkedDocuments;
+
+    private LocalDateTime computedAt;
+    private Long revision;
+}
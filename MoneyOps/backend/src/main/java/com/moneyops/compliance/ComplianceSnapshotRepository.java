@@ -0,0 +1,6 @@
+package com.moneyops.compliance;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ComplianceSnapshotRepository extends MongoRepository<ComplianceSnapshot, String> {
+}
@@ -0,0 +1,203 @@
+package com.moneyops.compliance;
+
+import com.moneyops.clients.entity.Client;
+import com.moneyops.documents.entity.MoneyOpsDocument;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.InvoicesImportedEvent;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceStatus;
+import com.moneyops.transactions.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Computes and caches the per-org ComplianceSnapshot.
+ *
+ * A miss runs one $facet aggregation over the org's invoices (status counts, missing
+ * emails, GST sums, payment linkage via an indexed $lookup on transactions.invoiceId)
+ * plus three counts, all returning scalars. The result is stored in
+ * compliance_snapshots, so a hit is a single findById. Any invoice/client/transaction/
+ * document change for the org marks the snapshot stale and bumps its stored revision;
+ * a recompute replaces the snapshot only if the revision is still the one it read, so
+ * a compute racing a write on any node never stores stale counts.
+ * app.compliance.snapshot-ttl-minutes bounds staleness from writes that don't go
+ * through the services.
+ */
+@Service
+@RequiredArgsConstructor
+public class ComplianceSnapshotService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ComplianceSnapshotService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ComplianceSnapshotRepository snapshotRepository;
+
+    @Value("${app.compliance.snapshot-ttl-minutes:30}")
+    private long ttlMinutes;
+
+    public ComplianceSnapshot getSnapshot(String orgId) {
+        ComplianceSnapshot cached = snapshotRepository.findById(orgId).orElse(null);
+        if (cached != null && cached.getComputedAt() != null
+                && cached.getComputedAt().isAfter(LocalDateTime.now().minusMinutes(ttlMinutes))) {
+            return cached;
+        }
+
+        ComplianceSnapshot snapshot = compute(orgId);
+        if (cached == null) {
+            snapshot.setRevision(0L);
+            try {
+                mongoTemplate.insert(snapshot);
+            } catch (DuplicateKeyException e) {
+                log.debug("Compliance snapshot for org {} was stored or invalidated meanwhile", orgId);
+            }
+        } else {
+            Long revision = cached.getRevision();
+            snapshot.setRevision(revision != null ? revision + 1 : 0L);
+            mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(orgId).and("revision").is(revision)), snapshot);
+        }
+        return snapshot;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getOrgId() == null) {
+            return;
+        }
+        if (event.is(EntityChangedEvent.INVOICE) || event.is(EntityChangedEvent.CLIENT)
+                || event.is(EntityChangedEvent.TRANSACTION) || event.is(EntityChangedEvent.DOCUMENT)) {
+            invalidate(event.getOrgId());
+        }
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        invalidate(event.getOrgId());
+    }
+
+    @EventListener
+    public void onInvoicesImported(InvoicesImportedEvent event) {
+        invalidate(event.getOrgId());
+    }
+
+    /** Marks the snapshot stale; upserted rather than deleted so the revision only grows. */
+    public void invalidate(String orgId) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(orgId)),
+                new Update().inc("revision", 1).unset("computedAt"), ComplianceSnapshot.class);
+    }
+
+    ComplianceSnapshot compute(String orgId) {
+        long start = System.currentTimeMillis();
+        ComplianceSnapshot snapshot = new ComplianceSnapshot();
+        snapshot.setOrgId(orgId);
+
+        Document facets = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Invoice.class))
+                .aggregate(invoicePipeline(orgId, mongoTemplate.getCollectionName(Transaction.class)))
+                .first();
+        if (facets != null) {
+            for (Document status : facets.getList("statuses", Document.class)) {
+                long count = asLong(status.get("count"));
+                String name = status.getString("_id");
+                if (InvoiceStatus.DRAFT.name().equals(name)) snapshot.setDraftInvoices(count);
+                else if (InvoiceStatus.SENT.name().equals(name)) snapshot.setSentInvoices(count);
+                else if (InvoiceStatus.OVERDUE.name().equals(name)) snapshot.setOverdueInvoices(count);
+                else if (InvoiceStatus.PAID.name().equals(name)) snapshot.setPaidInvoices(count);
+            }
+            List<Document> totals = facets.getList("totals", Document.class);
+            if (!totals.isEmpty()) {
+                Document t = totals.get(0);
+                snapshot.setTotalInvoices(asLong(t.get("total")));
+                snapshot.setInvoicesWithoutClientEmail(asLong(t.get("missingEmail")));
+                snapshot.setInvoicesWithGst(asLong(t.get("withGst")));
+                snapshot.setInvoicesWithClient(asLong(t.get("withClient")));
+                snapshot.setPendingGst(asDecimal(t.get("pendingGst")));
+            }
+            List<Document> linked = facets.getList("paymentLinked", Document.class);
+            if (!linked.isEmpty()) {
+                snapshot.setPaymentLinkedInvoices(asLong(linked.get(0).get("count")));
+            }
+        }
+
+        Criteria live = Criteria.where("orgId").is(orgId).and("deletedAt").is(null);
+        snapshot.setClientCount(mongoTemplate.count(new Query(live), Client.class));
+        snapshot.setDocumentCount(mongoTemplate.count(new Query(live), MoneyOpsDocument.class));
+        snapshot.setInvoiceLinkedDocuments(mongoTemplate.count(new Query(Criteria.where("orgId").is(orgId)
+                .and("deletedAt").is(null)
+                .and("linkedEntityType").regex("^INVOICE$", "i")), MoneyOpsDocument.class));
+
+        snapshot.setComputedAt(LocalDateTime.now());
+        log.debug("Computed compliance snapshot for org {} in {} ms", orgId, System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    static List<Document> invoicePipeline(String orgId, String transactionsCollection) {
+        Document gst = new Document("$convert", new Document("input", "$gstTotal")
+                .append("to", "decimal").append("onError", 0).append("onNull", 0));
+
+        Document totals = new Document("$group", new Document("_id", null)
+                .append("total", new Document("$sum", 1))
+                .append("missingEmail", countIf(isBlank("$clientEmail")))
+                .append("withGst", countIf(new Document("$gt", List.of(gst, 0))))
+                .append("withClient", countIf(new Document("$or", List.of(
+                        new Document("$not", List.of(isBlank("$clientId"))),
+                        new Document("$not", List.of(isBlank("$clientName")))))))
+                .append("pendingGst", new Document("$sum", new Document("$cond", List.of(
+                        new Document("$in", List.of("$status", List.of(InvoiceStatus.SENT.name(), InvoiceStatus.OVERDUE.name()))),
+                        gst, 0)))));
+
+        // Stops at the first live transaction per PAID invoice; uses the transactions.invoiceId index.
+        List<Document> paymentLinked = List.of(
+                new Document("$match", new Document("status", InvoiceStatus.PAID.name())),
+                new Document("$project", new Document("invoiceId", new Document("$toString", "$_id"))),
+                new Document("$lookup", new Document("from", transactionsCollection)
+                        .append("localField", "invoiceId")
+                        .append("foreignField", "invoiceId")
+                        .append("pipeline", List.of(
+                                new Document("$match", new Document("orgId", orgId).append("deletedAt", null)),
+                                new Document("$limit", 1),
+                                new Document("$project", new Document("_id", 1))))
+                        .append("as", "payments")),
+                new Document("$match", new Document("payments.0", new Document("$exists", true))),
+                new Document("$count", "count"));
+
+        return List.of(
+                new Document("$match", new Document("orgId", orgId).append("deletedAt", null)),
+                new Document("$facet", new Document()
+                        .append("statuses", List.of(new Document("$group",
+                                new Document("_id", "$status").append("count", new Document("$sum", 1)))))
+                        .append("totals", List.of(totals))
+                        .append("paymentLinked", paymentLinked)));
+    }
+
+    private static Document isBlank(String field) {
+        return new Document("$eq", List.of(
+                new Document("$trim", new Document("input", new Document("$ifNull", List.of(field, "")))), ""));
+    }
+
+    private static Document countIf(Document condition) {
+        return new Document("$sum", new Document("$cond", List.of(condition, 1, 0)));
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+
+    private static BigDecimal asDecimal(Object value) {
+        if (value instanceof Decimal128 d) return d.bigDecimalValue();
+        if (value instanceof Number n) return new BigDecimal(n.toString());
+        return BigDecimal.ZERO;
+    }
+}
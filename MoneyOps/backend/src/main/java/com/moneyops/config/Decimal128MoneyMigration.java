@@ -0,0 +1,74 @@
+package com.moneyops.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off bulk rewrite of legacy String money fields to Decimal128 (see MongoConfig v4).
+ *
+ * Each field is one server-side updateMany with a pipeline $convert, touching only
+ * documents where the field is still a string; unparseable values are left as they are.
+ * Completion is recorded in schema_migrations so later startups skip it.
+ */
+@Component
+@RequiredArgsConstructor
+public class Decimal128MoneyMigration {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(Decimal128MoneyMigration.class);
+
+    static final String MIGRATION_ID = "decimal128-money-v1";
+
+    static final Map<String, List<String>> MONEY_FIELDS = Map.of(
+            "transactions", List.of("amount"),
+            "invoices", List.of("subtotal", "gstTotal", "totalAmount", "amountPaid", "balanceDue")
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.migrations.decimal128.enabled:true}")
+    private boolean enabled;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) return;
+        MongoCollection<Document> migrations = mongoTemplate.getCollection("schema_migrations");
+        if (migrations.find(new Document("_id", MIGRATION_ID)).first() != null) return;
+
+        long start = System.currentTimeMillis();
+        try {
+            long converted = 0;
+            for (Map.Entry<String, List<String>> entry : MONEY_FIELDS.entrySet()) {
+                MongoCollection<Document> collection = mongoTemplate.getCollection(entry.getKey());
+                for (String field : entry.getValue()) {
+                    UpdateResult result = collection.updateMany(
+                            new Document(field, new Document("$type", "string")),
+                            List.of(new Document("$set", new Document(field, new Document("$convert",
+                                    new Document("input", "$" + field).append("to", "decimal").append("onError", "$" + field))))));
+                    converted += result.getModifiedCount();
+                    log.info("Decimal128 migration: {}.{} converted {} documents", entry.getKey(), field, result.getModifiedCount());
+                }
+            }
+            migrations.replaceOne(new Document("_id", MIGRATION_ID),
+                    new Document("_id", MIGRATION_ID).append("completedAt", new Date()).append("converted", converted),
+                    new ReplaceOptions().upsert(true));
+            log.info("Decimal128 migration finished: {} fields converted in {} ms", converted, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Not recorded as done, so the next startup retries; reads handle both representations meanwhile.
+            log.error("Decimal128 migration failed: {}", e.getMessage());
+        }
+    }
+}
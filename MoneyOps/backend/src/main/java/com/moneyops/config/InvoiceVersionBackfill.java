@@ -0,0 +1,42 @@
+package com.moneyops.config;
+
+import com.moneyops.invoices.entity.Invoice;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets version 0 on invoices written before Invoice gained @Version.
+ *
+ * Spring Data treats a versioned entity with a null version as new, so saving a legacy
+ * invoice would turn into an insert and fail on the duplicate _id. One updateMany over
+ * the unversioned documents fixes that. It is idempotent, and unlike the @Async migrations
+ * runs inline at startup so the window before it lands stays short.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceVersionBackfill {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(InvoiceVersionBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            UpdateResult result = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 0L), Invoice.class);
+            if (result.getModifiedCount() > 0) {
+                log.info("Invoice version backfill: {} documents versioned", result.getModifiedCount());
+            }
+        } catch (Exception e) {
+            log.error("Invoice version backfill failed: {}", e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.moneyops.config;
 
+import com.moneyops.sync.ChangeSequenceService;
+import com.moneyops.sync.ChangeTrackingMongoTemplate;
 import com.mongodb.MongoClientSettings;
 import org.bson.UuidRepresentation;
 import org.bson.types.Binary;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Base64;
@@ -34,6 +44,10 @@ import java.util.UUID;
  *   for Clerk compatibility, Spring Data threw ConverterNotFoundException whenever reading
  *   existing legacy documents containing BSON Binary (UUIDs) into String fields.
  *   The BinaryToStringConverter seamlessly translates DB Binary UUIDs into Strings on the fly.
+ *
+ * Fix (Update v4 - Decimal128 money):
+ *   Spring Data writes BigDecimal as String by default, so server-side sums either failed
+ *   silently or went through Double. BigDecimal now round-trips as Decimal128.
  */
 @Configuration
 public class MongoConfig {
@@ -43,9 +57,41 @@ public class MongoConfig {
         return builder -> builder.uuidRepresentation(UuidRepresentation.STANDARD);
     }
 
+    /** Releases a failed save's change sequence number (see ChangeTrackingMongoTemplate). */
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter,
+                                       ObjectProvider<ChangeSequenceService> changeSequenceService) {
+        return new ChangeTrackingMongoTemplate(factory, converter, changeSequenceService);
+    }
+
     @Bean
     public MongoCustomConversions customConversions() {
-        return new MongoCustomConversions(Arrays.asList(new BinaryToStringConverter()));
+        return new MongoCustomConversions(Arrays.asList(
+                new BinaryToStringConverter(),
+                new BigDecimalToDecimal128Converter(),
+                new Decimal128ToBigDecimalConverter()));
+    }
+
+    /**
+     * Stores BigDecimal money fields as BSON Decimal128 instead of Spring's default String,
+     * so $sum/$inc in aggregations and updates stay exact and server-side.
+     * Legacy String values still read through the default String-to-BigDecimal conversion;
+     * Decimal128MoneyMigration rewrites them in bulk.
+     */
+    @WritingConverter
+    public static class BigDecimalToDecimal128Converter implements Converter<BigDecimal, Decimal128> {
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return new Decimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    public static class Decimal128ToBigDecimalConverter implements Converter<Decimal128, BigDecimal> {
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
     }
 
     /**
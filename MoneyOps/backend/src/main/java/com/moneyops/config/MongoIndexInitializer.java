@@ -0,0 +1,102 @@
+package com.moneyops.config;
+
+import com.moneyops.anomalies.TransactionAnomaly;
+import com.moneyops.budgets.Budget;
+import com.moneyops.budgets.BudgetActual;
+import com.moneyops.budgets.BudgetAlert;
+import com.moneyops.categorization.CategoryRule;
+import com.moneyops.clients.entity.Client;
+import com.moneyops.intelligence.ClientPaymentStats;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.ledger.entity.LedgerCheckpoint;
+import com.moneyops.memory.entity.OrgMemoryItem;
+import com.moneyops.reconciliation.ReconciliationMatch;
+import com.moneyops.recurring.RecurringInvoiceTemplate;
+import com.moneyops.reminders.InvoiceReminder;
+import com.moneyops.statements.StatementImport;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.webhooks.WebhookEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the annotated indexes (@Indexed / @CompoundIndex) for collections whose
+ * query paths depend on them.
+ *
+ * spring.data.mongodb.auto-index-creation is off (Boot's default), so annotations alone
+ * create nothing. Rather than switching it on globally — which would try to build every
+ * legacy index, including unique ones existing data may violate — collections opt in here.
+ * ensureIndex is idempotent; failures are logged and never block startup.
+ * Indexes an entity has since replaced are dropped first: a superseded unique index
+ * would reject the new layout's rows, and any other is dead weight on every write.
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            OrgMemoryItem.class,
+            Transaction.class,
+            Invoice.class,
+            Client.class,
+            LedgerCheckpoint.class,
+            ClientPaymentStats.class,
+            Budget.class,
+            BudgetActual.class,
+            BudgetAlert.class,
+            WebhookEvent.class,
+            StatementImport.class,
+            ReconciliationMatch.class,
+            CategoryRule.class,
+            TransactionAnomaly.class,
+            RecurringInvoiceTemplate.class,
+            InvoiceReminder.class
+    );
+
+    /** Superseded index names, by entity. */
+    static final Map<Class<?>, List<String>> DROPPED_INDEXES = Map.of(
+            Invoice.class, List.of("org_number_idx"),
+            LedgerCheckpoint.class, List.of("org_date_idx"),
+            BudgetActual.class, List.of("org_month_category_idx")
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations ops = mongoTemplate.indexOps(entity);
+            for (String name : DROPPED_INDEXES.getOrDefault(entity, List.of())) {
+                try {
+                    if (ops.getIndexInfo().stream().anyMatch(info -> info.getName().equals(name))) {
+                        ops.dropIndex(name);
+                        log.info("Dropped superseded index {} for {}", name, entity.getSimpleName());
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to drop index {} for {}: {}", name, entity.getSimpleName(), e.getMessage());
+                }
+            }
+            // Per index, so one legacy index that existing data violates doesn't block the rest.
+            resolver.resolveIndexFor(entity).forEach(index -> {
+                try {
+                    ops.ensureIndex(index);
+                } catch (Exception e) {
+                    log.error("Failed to ensure index {} for {}: {}",
+                            index.getIndexOptions().get("name"), entity.getSimpleName(), e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.moneyops.documents.service;
 
 import com.moneyops.documents.entity.MoneyOpsDocument;
 import com.moneyops.documents.repository.DocumentRepository;
+import com.moneyops.events.dto.EntityChangedEvent;
 import com.moneyops.shared.dto.PageResponse;
 import com.moneyops.shared.exceptions.NotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile; // Assuming file upload
@@ -19,6 +21,7 @@ import java.util.List;
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<MoneyOpsDocument> getDocumentsByOrg(String orgId) {
         return documentRepository.findByOrgIdAndDeletedAtIsNull(orgId);
@@ -42,7 +45,9 @@ public class DocumentService {
         if (document.getId() == null) {
             document.setId(java.util.UUID.randomUUID().toString());
         }
-        return documentRepository.save(document);
+        MoneyOpsDocument saved = documentRepository.save(document);
+        eventPublisher.publishEvent(EntityChangedEvent.created(saved.getOrgId(), EntityChangedEvent.DOCUMENT, saved.getId(), saved));
+        return saved;
     }
 
     public List<MoneyOpsDocument> getDocumentsByEntity(String entityType, String entityId) {
@@ -56,5 +61,6 @@ public class DocumentService {
         
         document.setDeletedAt(LocalDateTime.now());
         documentRepository.save(document);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(document.getOrgId(), EntityChangedEvent.DOCUMENT, document.getId(), document));
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+// src/main/java/com/moneyops/events/dto/EntityChangedEvent.java
+package com.moneyops.events.dto;
+
+import lombok.Getter;
+
+/**
+ * In-process notification that a tenant-scoped entity was written.
+ *
+ * Published by the domain services through Spring's ApplicationEventPublisher
+ * (not Kafka) so read-side structures such as search indexes and caches can
+ * stay in sync without the services knowing about them.
+ * "before" is null for CREATED, "after" is null for DELETED.
+ */
+@Getter
+public class EntityChangedEvent {
+
+    public static final String CLIENT = "CLIENT";
+    public static final String INVOICE = "INVOICE";
+    public static final String TRANSACTION = "TRANSACTION";
+    public static final String DOCUMENT = "DOCUMENT";
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final String orgId;
+    private final String entityType;
+    private final String entityId;
+    private final ChangeType changeType;
+    private final Object before;
+    private final Object after;
+    private final long timestamp = System.currentTimeMillis();
+
+    public EntityChangedEvent(String orgId, String entityType, String entityId,
+                              ChangeType changeType, Object before, Object after) {
+        this.orgId = orgId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static EntityChangedEvent created(String orgId, String entityType, String entityId, Object after) {
+        return new EntityChangedEvent(orgId, entityType, entityId, ChangeType.CREATED, null, after);
+    }
+
+    public static EntityChangedEvent updated(String orgId, String entityType, String entityId, Object before, Object after) {
+        return new EntityChangedEvent(orgId, entityType, entityId, ChangeType.UPDATED, before, after);
+    }
+
+    public static EntityChangedEvent deleted(String orgId, String entityType, String entityId, Object before) {
+        return new EntityChangedEvent(orgId, entityType, entityId, ChangeType.DELETED, before, null);
+    }
+
+    public boolean is(String type) {
+        return type.equals(entityType);
+    }
+
+    public <T> T getBefore(Class<T> type) {
+        return type.isInstance(before) ? type.cast(before) : null;
+    }
+
+    public <T> T getAfter(Class<T> type) {
+        return type.isInstance(after) ? type.cast(after) : null;
+    }
+}
@@ -0,0 +1,25 @@
+// src/main/java/com/moneyops/events/dto/InvoicesImportedEvent.java
+package com.moneyops.events.dto;
+
+import lombok.Getter;
+
+/**
+ * In-process notification that a bulk create inserted invoices, all of them DRAFT.
+ *
+ * Like {@link TransactionsImportedEvent}, it stands in for one EntityChangedEvent per
+ * invoice; listeners with INVOICE-derived state rebuild or invalidate it for the org.
+ */
+@Getter
+public class InvoicesImportedEvent {
+
+    private final String orgId;
+    private final String batchId;
+    private final long count;
+    private final long timestamp = System.currentTimeMillis();
+
+    public InvoicesImportedEvent(String orgId, String batchId, long count) {
+        this.orgId = orgId;
+        this.batchId = batchId;
+        this.count = count;
+    }
+}
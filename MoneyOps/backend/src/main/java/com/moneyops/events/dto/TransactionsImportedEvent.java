@@ -0,0 +1,34 @@
+// src/main/java/com/moneyops/events/dto/TransactionsImportedEvent.java
+package com.moneyops.events.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * In-process notification that a statement import bulk-inserted transactions.
+ *
+ * Imports bypass the per-row EntityChangedEvent (a 100k-row statement would mean 100k
+ * incremental updates in every listener); listeners that maintain TRANSACTION-derived
+ * state rebuild or invalidate it for the org instead, and running totals fold in each
+ * chunk's {@link TransactionsInsertedEvent}. {@code from}/{@code to} bound the inserted
+ * transaction dates.
+ */
+@Getter
+public class TransactionsImportedEvent {
+
+    private final String orgId;
+    private final String importId;
+    private final long count;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final long timestamp = System.currentTimeMillis();
+
+    public TransactionsImportedEvent(String orgId, String importId, long count, LocalDate from, LocalDate to) {
+        this.orgId = orgId;
+        this.importId = importId;
+        this.count = count;
+        this.from = from;
+        this.to = to;
+    }
+}
@@ -0,0 +1,30 @@
+// src/main/java/com/moneyops/events/dto/TransactionsInsertedEvent.java
+package com.moneyops.events.dto;
+
+import com.moneyops.transactions.entity.Transaction;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * In-process notification that one chunk of a statement import landed, carrying the rows
+ * that were inserted (duplicates and rejected rows are left out).
+ *
+ * For listeners that keep running totals over transactions (the ledger, budget actuals):
+ * they fold a chunk into a handful of $inc's rather than rebuilding from scratch. Everyone
+ * else waits for the single {@link TransactionsImportedEvent} at the end.
+ */
+@Getter
+public class TransactionsInsertedEvent {
+
+    private final String orgId;
+    private final String importId;
+    private final List<Transaction> transactions;
+    private final long timestamp = System.currentTimeMillis();
+
+    public TransactionsInsertedEvent(String orgId, String importId, List<Transaction> transactions) {
+        this.orgId = orgId;
+        this.importId = importId;
+        this.transactions = transactions;
+    }
+}
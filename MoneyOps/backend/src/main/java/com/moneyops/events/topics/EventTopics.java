@@ -7,4 +7,5 @@ public class EventTopics {
     public static final String USER_EVENTS = "user-events";
     public static final String ORG_EVENTS = "org-events";
     public static final String REMINDER_EVENTS = "reminder-events";
+    public static final String BUDGET_EVENTS = "budget-events";
 }
\ No newline at end of file
@@ -0,0 +1,429 @@
+package com.moneyops.intelligence;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceStatus;
+import com.moneyops.ledger.service.LedgerService;
+import com.moneyops.receivables.ReceivablesAgingService;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import com.mongodb.client.model.UpdateOptions;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 13-week cash-flow projection.
+ *
+ * Opening balance comes from the ledger (LedgerService). Each open invoice's balanceDue
+ * is spread over the weeks around dueDate + the client's mean days-to-pay, using a normal
+ * curve with the client's observed spread (org-wide stats when the client has no
+ * history). Recurring expenses are EXPENSE categories seen in at least 3 of the last 6
+ * months (including the last one), projected at their median monthly amount on their
+ * usual day of month.
+ *
+ * Days-to-pay stats live in client_payment_stats and are Welford-updated atomically when
+ * an invoice becomes PAID; an org's stats are backfilled from paid invoices once, with
+ * insert-only upserts so a backfill racing on another node never overwrites a row that
+ * has already moved on.
+ *
+ * Forecasts are cached per org, tagged with the org's TRANSACTION and INVOICE data
+ * versions (DataVersionService, shared by all nodes) and the day they were computed for.
+ * Local events mark a forecast dirty and refreshDirty() rebuilds it in the background; a
+ * read that finds its inputs moved on, by a write on any node, recomputes first, so a
+ * forecast is never served under an ETag newer than its data.
+ */
+@Service
+@RequiredArgsConstructor
+public class CashFlowForecastService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(CashFlowForecastService.class);
+
+    static final int WEEKS = 13;
+    private static final double DEFAULT_SPREAD_DAYS = 7;
+    private static final int RECURRING_LOOKBACK_MONTHS = 6;
+    private static final int RECURRING_MIN_MONTHS = 3;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Data
+    public static class ForecastWeekDTO {
+        private String weekStart;
+        private String weekEnd;
+        private BigDecimal expectedInflows = BigDecimal.ZERO;
+        private BigDecimal expectedOutflows = BigDecimal.ZERO;
+        private BigDecimal net = BigDecimal.ZERO;
+        private BigDecimal projectedBalance = BigDecimal.ZERO;
+    }
+
+    @Data
+    public static class RecurringExpenseDTO {
+        private String category;
+        private BigDecimal monthlyAmount;
+        private int dayOfMonth;
+        private int monthsObserved;
+    }
+
+    @Data
+    public static class ForecastDTO {
+        private String generatedAt;
+        private BigDecimal openingBalance = BigDecimal.ZERO;
+        private List<ForecastWeekDTO> weeks = new ArrayList<>();
+        private BigDecimal totalExpectedInflows = BigDecimal.ZERO;
+        private BigDecimal totalExpectedOutflows = BigDecimal.ZERO;
+        private BigDecimal inflowsBeyondHorizon = BigDecimal.ZERO;
+        private BigDecimal lowestProjectedBalance = BigDecimal.ZERO;
+        private String lowestBalanceWeek;
+        private List<RecurringExpenseDTO> recurringExpenses = new ArrayList<>();
+        private int openInvoices;
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final LedgerService ledgerService;
+    private final DataVersionService dataVersionService;
+
+    @Value("${app.forecast.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private record Cached(ForecastDTO forecast, long computedAt, LocalDate day, String inputs) {
+    }
+
+    private final Map<String, Cached> forecasts = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public ForecastDTO getForecast(String orgId) {
+        Cached cached = current(orgId);
+        if (cached != null) {
+            if (System.currentTimeMillis() - cached.computedAt() > ttlMinutes * 60_000) {
+                dirty.add(orgId);
+            }
+            return cached.forecast();
+        }
+        return rebuild(orgId);
+    }
+
+    /** Cached forecast if one is current, without computing; for cheap consumers like insights. */
+    public ForecastDTO getCachedForecast(String orgId) {
+        Cached cached = current(orgId);
+        return cached != null ? cached.forecast() : null;
+    }
+
+    public ForecastDTO rebuild(String orgId) {
+        dirty.remove(orgId);
+        // Read before computing, so the tag is never newer than the data
+        String inputs = inputs(orgId);
+        LocalDate today = LocalDate.now();
+        ForecastDTO forecast = compute(orgId, today);
+        forecasts.put(orgId, new Cached(forecast, System.currentTimeMillis(), today, inputs));
+        dataVersionService.bump(orgId, DataVersionService.FORECAST);
+        return forecast;
+    }
+
+    /** The cached forecast if it was computed today from the org's current data, else null (and marked dirty). */
+    private Cached current(String orgId) {
+        Cached cached = forecasts.get(orgId);
+        if (cached == null) return null;
+        if (!cached.day().equals(LocalDate.now()) || !cached.inputs().equals(inputs(orgId))) {
+            dirty.add(orgId);
+            return null;
+        }
+        return cached;
+    }
+
+    private String inputs(String orgId) {
+        return dataVersionService.etag(orgId, null, EntityChangedEvent.TRANSACTION, EntityChangedEvent.INVOICE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.forecast.refresh-ms:60000}")
+    public void refreshDirty() {
+        for (String orgId : List.copyOf(dirty)) {
+            try {
+                rebuild(orgId);
+            } catch (Exception e) {
+                log.error("Failed to rebuild cash-flow forecast for org {}: {}", orgId, e.getMessage());
+            }
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getOrgId() == null) return;
+        if (event.is(EntityChangedEvent.INVOICE)) {
+            Invoice before = event.getBefore(Invoice.class);
+            Invoice after = event.getAfter(Invoice.class);
+            if (after != null && after.getStatus() == InvoiceStatus.PAID
+                    && (before == null || before.getStatus() != InvoiceStatus.PAID)) {
+                recordPayment(event.getOrgId(), after);
+            }
+        } else if (!event.is(EntityChangedEvent.TRANSACTION)) {
+            return;
+        }
+        if (forecasts.containsKey(event.getOrgId())) {
+            dirty.add(event.getOrgId());
+        }
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        if (forecasts.containsKey(event.getOrgId())) {
+            dirty.add(event.getOrgId());
+        }
+    }
+
+    /** Welford update of the client's and the org's days-to-pay, as one atomic pipeline update each. */
+    void recordPayment(String orgId, Invoice invoice) {
+        if (invoice.getDueDate() == null) return;
+        // The invoice is already stored as PAID; a backfill run here must leave it to the Welford step.
+        ensureStats(orgId, invoice.getId());
+        LocalDate paidOn = invoice.getPaymentDate() != null ? invoice.getPaymentDate() : LocalDate.now();
+        double delay = ChronoUnit.DAYS.between(invoice.getDueDate(), paidOn);
+        welford(orgId, ReceivablesAgingService.clientKey(invoice.getClientId(), invoice.getClientName()), delay);
+        welford(orgId, ClientPaymentStats.ORG_KEY, delay);
+    }
+
+    private void welford(String orgId, String clientKey, double x) {
+        List<Document> pipeline = List.of(
+                new Document("$set", new Document("n", new Document("$add", List.of(new Document("$ifNull", List.of("$n", 0L)), 1L)))
+                        .append("_delta", new Document("$subtract", List.of(x, new Document("$ifNull", List.of("$mean", 0.0)))))),
+                new Document("$set", new Document("mean", new Document("$add", List.of(
+                        new Document("$ifNull", List.of("$mean", 0.0)), new Document("$divide", List.of("$_delta", "$n")))))),
+                new Document("$set", new Document("m2", new Document("$add", List.of(
+                        new Document("$ifNull", List.of("$m2", 0.0)),
+                        new Document("$multiply", List.of("$_delta", new Document("$subtract", List.of(x, "$mean")))))))
+                        .append("updatedAt", new Date())),
+                new Document("$unset", "_delta"));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(ClientPaymentStats.class))
+                .updateOne(new Document("orgId", orgId).append("clientKey", clientKey), pipeline, new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * One-off backfill from historical PAID invoices (all but {@code excludeInvoiceId}), keyed
+     * by the org-wide row's presence. Insert-only: a row another node's backfill or Welford
+     * update already wrote is left as it is.
+     */
+    private void ensureStats(String orgId, String excludeInvoiceId) {
+        Query orgRow = new Query(Criteria.where("orgId").is(orgId).and("clientKey").is(ClientPaymentStats.ORG_KEY));
+        if (mongoTemplate.exists(orgRow, ClientPaymentStats.class)) return;
+
+        Document delay = new Document("$dateDiff", new Document("startDate", "$dueDate").append("endDate", "$paymentDate")
+                .append("unit", "day").append("timezone", ZoneId.systemDefault().getId()));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("orgId").is(orgId).and("deletedAt").is(null).and("status").is(InvoiceStatus.PAID.name())
+                        .and("dueDate").ne(null).and("paymentDate").ne(null).and("_id").ne(excludeInvoiceId)),
+                context -> new Document("$group", new Document("_id", new Document("clientId", "$clientId").append("clientName", "$clientName"))
+                        .append("n", new Document("$sum", 1))
+                        .append("mean", new Document("$avg", delay))
+                        .append("sd", new Document("$stdDevPop", delay))));
+        List<Document> rows = mongoTemplate.aggregate(aggregation, Invoice.class, Document.class).getMappedResults();
+
+        // Combine per-client moments into the org-wide row (parallel-variance merge).
+        Map<String, double[]> byKey = new HashMap<>();
+        double orgN = 0, orgMean = 0, orgM2 = 0;
+        for (Document row : rows) {
+            Document id = row.get("_id", Document.class);
+            double n = ((Number) row.get("n")).doubleValue();
+            double mean = row.get("mean") instanceof Number m ? m.doubleValue() : 0;
+            double sd = row.get("sd") instanceof Number s ? s.doubleValue() : 0;
+            double m2 = sd * sd * n;
+            byKey.merge(ReceivablesAgingService.clientKey(id.getString("clientId"), id.getString("clientName")),
+                    new double[]{n, mean, m2}, CashFlowForecastService::mergeMoments);
+            double[] merged = mergeMoments(new double[]{orgN, orgMean, orgM2}, new double[]{n, mean, m2});
+            orgN = merged[0];
+            orgMean = merged[1];
+            orgM2 = merged[2];
+        }
+        byKey.put(ClientPaymentStats.ORG_KEY, new double[]{orgN, orgMean, orgM2});
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClientPaymentStats.class);
+        LocalDateTime now = LocalDateTime.now();
+        byKey.forEach((key, m) -> bulk.upsert(
+                new Query(Criteria.where("orgId").is(orgId).and("clientKey").is(key)),
+                new Update().setOnInsert("n", (long) m[0]).setOnInsert("mean", m[1]).setOnInsert("m2", m[2])
+                        .setOnInsert("updatedAt", now)));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Two upserts inserting the same new row: the loser's key already exists, which is all we need
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) throw e;
+        }
+        log.info("Backfilled payment stats for org {}: {} clients from {} paid invoices", orgId, byKey.size() - 1, (long) orgN);
+    }
+
+    static double[] mergeMoments(double[] a, double[] b) {
+        double n = a[0] + b[0];
+        if (n == 0) return new double[]{0, 0, 0};
+        double delta = b[1] - a[1];
+        double mean = a[1] + delta * b[0] / n;
+        double m2 = a[2] + b[2] + delta * delta * a[0] * b[0] / n;
+        return new double[]{n, mean, m2};
+    }
+
+    ForecastDTO compute(String orgId, LocalDate today) {
+        long start = System.currentTimeMillis();
+        ensureStats(orgId, null);
+        LocalDate firstWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate horizonEnd = firstWeek.plusWeeks(WEEKS);   // exclusive
+        double[] inflows = new double[WEEKS];
+        double[] outflows = new double[WEEKS];
+
+        // ✨ Receivables, spread by each client's days-to-pay distribution
+        Map<String, ClientPaymentStats> stats = new HashMap<>();
+        for (ClientPaymentStats s : mongoTemplate.find(new Query(Criteria.where("orgId").is(orgId)), ClientPaymentStats.class)) {
+            stats.put(s.getClientKey(), s);
+        }
+        ClientPaymentStats orgStats = stats.get(ClientPaymentStats.ORG_KEY);
+
+        Query open = new Query(Criteria.where("orgId").is(orgId).and("status")
+                .in(InvoiceStatus.SENT.name(), InvoiceStatus.OVERDUE.name()).and("deletedAt").is(null));
+        open.fields().include("clientId", "clientName", "dueDate", "balanceDue", "totalAmount");
+        int openInvoices = 0;
+        double beyond = 0;
+        for (Invoice invoice : mongoTemplate.find(open, Invoice.class)) {
+            BigDecimal balance = invoice.getBalanceDue() != null ? invoice.getBalanceDue() : invoice.getTotalAmount();
+            if (balance == null || balance.signum() <= 0) continue;
+            openInvoices++;
+            ClientPaymentStats s = stats.get(ReceivablesAgingService.clientKey(invoice.getClientId(), invoice.getClientName()));
+            if (s == null || s.getN() == 0) s = orgStats;
+            double mean = s != null && s.getN() > 0 ? s.getMean() : 0;
+            double spread = s != null && s.getN() > 1 ? Math.max(2, Math.min(30, s.stdDev())) : DEFAULT_SPREAD_DAYS;
+
+            LocalDate due = invoice.getDueDate() != null ? invoice.getDueDate() : today;
+            // Expected day, relative to today; anything already "late" is expected from today on.
+            double expected = Math.max(0, ChronoUnit.DAYS.between(today, due) + mean);
+            double amount = balance.doubleValue();
+            double assigned = 0;
+            for (int w = 0; w < WEEKS; w++) {
+                double from = w == 0 ? Double.NEGATIVE_INFINITY : ChronoUnit.DAYS.between(today, firstWeek.plusWeeks(w));
+                double to = ChronoUnit.DAYS.between(today, firstWeek.plusWeeks(w + 1));
+                double share = normalCdf((to - expected) / spread) - (w == 0 ? 0 : normalCdf((from - expected) / spread));
+                inflows[w] += amount * share;
+                assigned += share;
+            }
+            beyond += amount * Math.max(0, 1 - assigned);
+        }
+
+        // ✨ Recurring expenses by category
+        List<RecurringExpenseDTO> recurring = detectRecurringExpenses(orgId, today);
+        for (RecurringExpenseDTO r : recurring) {
+            for (LocalDate month = today.withDayOfMonth(1); month.isBefore(horizonEnd); month = month.plusMonths(1)) {
+                LocalDate date = month.withDayOfMonth(Math.min(r.getDayOfMonth(), month.lengthOfMonth()));
+                if (date.isBefore(today) || !date.isBefore(horizonEnd)) continue;
+                outflows[(int) (ChronoUnit.DAYS.between(firstWeek, date) / 7)] += r.getMonthlyAmount().doubleValue();
+            }
+        }
+
+        ForecastDTO dto = new ForecastDTO();
+        dto.setGeneratedAt(LocalDateTime.now().toString());
+        BigDecimal balance = ledgerService.currentBalance(orgId);
+        dto.setOpeningBalance(balance);
+        dto.setOpenInvoices(openInvoices);
+        dto.setRecurringExpenses(recurring);
+        dto.setInflowsBeyondHorizon(money(beyond));
+        BigDecimal lowest = null;
+        for (int w = 0; w < WEEKS; w++) {
+            ForecastWeekDTO week = new ForecastWeekDTO();
+            week.setWeekStart(firstWeek.plusWeeks(w).toString());
+            week.setWeekEnd(firstWeek.plusWeeks(w + 1).minusDays(1).toString());
+            week.setExpectedInflows(money(inflows[w]));
+            week.setExpectedOutflows(money(outflows[w]));
+            week.setNet(week.getExpectedInflows().subtract(week.getExpectedOutflows()));
+            balance = balance.add(week.getNet());
+            week.setProjectedBalance(balance);
+            dto.getWeeks().add(week);
+            dto.setTotalExpectedInflows(dto.getTotalExpectedInflows().add(week.getExpectedInflows()));
+            dto.setTotalExpectedOutflows(dto.getTotalExpectedOutflows().add(week.getExpectedOutflows()));
+            if (lowest == null || balance.compareTo(lowest) < 0) {
+                lowest = balance;
+                dto.setLowestBalanceWeek(week.getWeekStart());
+            }
+        }
+        dto.setLowestProjectedBalance(lowest);
+        log.debug("Computed cash-flow forecast for org {} in {} ms", orgId, System.currentTimeMillis() - start);
+        return dto;
+    }
+
+    private List<RecurringExpenseDTO> detectRecurringExpenses(String orgId, LocalDate today) {
+        LocalDate thisMonth = today.withDayOfMonth(1);
+        LocalDate lookbackStart = thisMonth.minusMonths(RECURRING_LOOKBACK_MONTHS);
+        String timezone = ZoneId.systemDefault().getId();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("orgId").is(orgId).and("deletedAt").is(null)
+                        .and("type").is(TransactionType.EXPENSE.name())
+                        .and("transactionDate").gte(lookbackStart).lt(thisMonth)),
+                context -> new Document("$group", new Document("_id", new Document("category", new Document("$ifNull", List.of("$category", "UNCATEGORIZED")))
+                        .append("month", new Document("$dateTrunc", new Document("date", "$transactionDate").append("unit", "month").append("timezone", timezone))))
+                        .append("total", new Document("$sum", new Document("$convert", new Document("input", "$amount")
+                                .append("to", "decimal").append("onError", 0).append("onNull", 0))))
+                        .append("day", new Document("$avg", new Document("$dayOfMonth", new Document("date", "$transactionDate").append("timezone", timezone))))));
+
+        Map<String, TreeMap<Date, double[]>> byCategory = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Transaction.class, Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            double total = row.get("total") instanceof Decimal128 d ? d.bigDecimalValue().doubleValue() : 0;
+            double day = row.get("day") instanceof Number n ? n.doubleValue() : 1;
+            byCategory.computeIfAbsent(id.getString("category"), k -> new TreeMap<>())
+                    .put(id.getDate("month"), new double[]{total, day});
+        }
+
+        Date lastFullMonth = Date.from(thisMonth.minusMonths(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        List<RecurringExpenseDTO> recurring = new ArrayList<>();
+        byCategory.forEach((category, months) -> {
+            if (months.size() < RECURRING_MIN_MONTHS || !months.containsKey(lastFullMonth)) return;
+            double[] totals = months.values().stream().mapToDouble(v -> v[0]).sorted().toArray();
+            double median = totals.length % 2 == 1 ? totals[totals.length / 2]
+                    : (totals[totals.length / 2 - 1] + totals[totals.length / 2]) / 2;
+            double day = months.values().stream().mapToDouble(v -> v[1]).average().orElse(1);
+
+            RecurringExpenseDTO r = new RecurringExpenseDTO();
+            r.setCategory(category);
+            r.setMonthlyAmount(money(median));
+            r.setDayOfMonth((int) Math.max(1, Math.min(28, Math.round(day))));
+            r.setMonthsObserved(months.size());
+            recurring.add(r);
+        });
+        recurring.sort((a, b) -> b.getMonthlyAmount().compareTo(a.getMonthlyAmount()));
+        return recurring;
+    }
+
+    /** Standard normal CDF (Abramowitz-Stegun 7.1.26 erf, |error| < 1.5e-7). */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
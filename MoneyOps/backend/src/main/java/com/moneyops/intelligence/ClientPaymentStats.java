@@ -0,0 +1,37 @@
+package com.moneyops.intelligence;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running days-to-pay statistics (paymentDate - dueDate) per client, plus one org-wide
+ * row under {@link #ORG_KEY}. Maintained with Welford's update as invoices become PAID,
+ * so forecasting never rescans payment history.
+ */
+@Document(collection = "client_payment_stats")
+@CompoundIndex(name = "org_client_idx", def = "{'orgId': 1, 'clientKey': 1}", unique = true)
+@Data
+public class ClientPaymentStats {
+
+    public static final String ORG_KEY = "__org__";
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String clientKey;  // ReceivablesAgingService.clientKey(clientId, clientName)
+
+    private long n;
+    private double mean;       // mean days paid after due date (negative = early)
+    private double m2;         // sum of squared deviations from the mean
+
+    private LocalDateTime updatedAt;
+
+    public double stdDev() {
+        return n > 1 ? Math.sqrt(m2 / (n - 1)) : 0;
+    }
+}
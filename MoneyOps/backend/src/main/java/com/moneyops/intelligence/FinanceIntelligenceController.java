@@ -1,8 +1,17 @@
 package com.moneyops.intelligence;
 
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.shared.utils.OrgContext;
+import com.moneyops.shared.versioning.DataVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/finance-intelligence")
@@ -11,25 +20,88 @@ public class FinanceIntelligenceController {
     @Autowired
     private FinanceIntelligenceService financeIntelligenceService;
 
+    @Autowired
+    private FinanceSeriesService financeSeriesService;
+
+    @Autowired
+    private CashFlowForecastService cashFlowForecastService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    private static final String TRANSACTION = EntityChangedEvent.TRANSACTION;
+    private static final String INVOICE = EntityChangedEvent.INVOICE;
+
     @GetMapping("/metrics")
-    public ResponseEntity<FinanceIntelligenceService.MetricsDTO> getMetrics(@RequestParam String businessId) {
-        return ResponseEntity.ok(financeIntelligenceService.getMetrics(businessId));
+    public ResponseEntity<FinanceIntelligenceService.MetricsDTO> getMetrics(@RequestParam String businessId, WebRequest request) {
+        return conditional(request, false, () -> financeIntelligenceService.getMetrics(businessId), TRANSACTION, INVOICE);
     }
 
     @GetMapping("/budget")
-    public ResponseEntity<FinanceIntelligenceService.BudgetDTO> getBudget(@RequestParam String businessId) {
-        return ResponseEntity.ok(financeIntelligenceService.getBudget(businessId));
+    public ResponseEntity<FinanceIntelligenceService.BudgetDTO> getBudget(@RequestParam String businessId, WebRequest request) {
+        return conditional(request, true, () -> financeIntelligenceService.getBudget(businessId), TRANSACTION, DataVersionService.BUDGET);
     }
 
     @GetMapping("/insights")
-    public ResponseEntity<FinanceIntelligenceService.InsightsDTO> getInsights(@RequestParam String businessId) {
-        return ResponseEntity.ok(financeIntelligenceService.getInsights(businessId));
+    public ResponseEntity<FinanceIntelligenceService.InsightsDTO> getInsights(@RequestParam String businessId, WebRequest request) {
+        return conditional(request, true, () -> financeIntelligenceService.getInsights(businessId),
+                TRANSACTION, INVOICE, DataVersionService.FORECAST, DataVersionService.ANOMALY);
+    }
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<FinanceIntelligenceService.DashboardDTO> getDashboard(
+            @RequestParam String businessId,
+            @RequestParam(defaultValue = "20") int ledgerLimit,
+            WebRequest request) {
+        return conditional(request, true, () -> financeIntelligenceService.getDashboard(businessId, ledgerLimit),
+                TRANSACTION, INVOICE, DataVersionService.BUDGET, DataVersionService.FORECAST, DataVersionService.ANOMALY);
     }
 
     @GetMapping("/ledger")
     public ResponseEntity<FinanceIntelligenceService.LedgerDTO> getLedger(
+            @RequestParam String businessId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int page,
+            WebRequest request) {
+        return conditional(request, false, () -> financeIntelligenceService.getLedger(businessId, limit, page), TRANSACTION);
+    }
+
+    @PostMapping("/ledger/rebuild")
+    public ResponseEntity<FinanceIntelligenceService.LedgerDTO> rebuildLedger(
             @RequestParam String businessId,
             @RequestParam(defaultValue = "20") int limit) {
-        return ResponseEntity.ok(financeIntelligenceService.getLedger(businessId, limit));
+        return ResponseEntity.ok(financeIntelligenceService.rebuildLedger(businessId, limit));
+    }
+
+    @GetMapping("/series")
+    public ResponseEntity<FinanceSeriesService.SeriesDTO> getSeries(
+            @RequestParam String businessId,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return conditional(request, true, () -> financeSeriesService.getSeries(orgId, granularity, from, to), TRANSACTION);
+    }
+
+    @GetMapping("/forecast")
+    public ResponseEntity<CashFlowForecastService.ForecastDTO> getForecast(
+            @RequestParam String businessId,
+            @RequestParam(defaultValue = "false") boolean refresh,
+            WebRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (refresh) return ResponseEntity.ok(cashFlowForecastService.rebuild(orgId));
+        return conditional(request, true, () -> cashFlowForecastService.getForecast(orgId),
+                TRANSACTION, INVOICE, DataVersionService.FORECAST);
+    }
+
+    /** ETag over the org's data versions (plus today's date for date-relative views); 304 skips {@code body}. */
+    private <T> ResponseEntity<T> conditional(WebRequest request, boolean dated, Supplier<T> body, String... types) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.ok(body.get());
+        String etag = dataVersionService.etag(orgId, dated ? LocalDate.now() : null, types);
+        return dataVersionService.conditional(request, etag, body);
     }
 }
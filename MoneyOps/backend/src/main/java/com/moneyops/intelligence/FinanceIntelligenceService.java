@@ -1,11 +1,17 @@
 package com.moneyops.intelligence;
 
+import com.moneyops.anomalies.AnomalyDetectionService;
+import com.moneyops.anomalies.TransactionAnomaly;
+import com.moneyops.budgets.BudgetService;
 import com.moneyops.invoices.dto.InvoiceDto;
 import com.moneyops.invoices.service.InvoiceService;
 import com.moneyops.transactions.dto.TransactionDto;
 import com.moneyops.transactions.service.TransactionService;
 import com.moneyops.clients.service.ClientService;
+import com.moneyops.ledger.service.LedgerService;
+import com.moneyops.transactions.entity.Transaction;
 import com.moneyops.shared.utils.OrgContext;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.Data;
 import org.springframework.stereotype.Service;
@@ -14,6 +20,9 @@ import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +32,22 @@ public class FinanceIntelligenceService {
     private final TransactionService transactionService;
     private final InvoiceService invoiceService;
     private final ClientService clientService;
+    private final LedgerService ledgerService;
+    private final CashFlowForecastService cashFlowForecastService;
+    private final BudgetService budgetService;
+    private final AnomalyDetectionService anomalyDetectionService;
+
+    /** Concurrent dashboard fetches; each call submits four short I/O-bound tasks. */
+    private final ExecutorService dashboardExecutor = Executors.newFixedThreadPool(8, runnable -> {
+        Thread thread = new Thread(runnable, "dashboard-fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        dashboardExecutor.shutdown();
+    }
 
     @Data
     public static class MetricsDTO {
@@ -43,6 +68,8 @@ public class FinanceIntelligenceService {
         private BigDecimal budgeted = BigDecimal.ZERO;
         private BigDecimal actual = BigDecimal.ZERO;
         private BigDecimal variance = BigDecimal.ZERO;
+        private String period;
+        private double utilization;
         private String status;
     }
 
@@ -92,51 +119,22 @@ public class FinanceIntelligenceService {
         private int totalEntries = 0;
     }
 
+    @Data
+    public static class DashboardDTO {
+        private MetricsDTO metrics = new MetricsDTO();
+        private BudgetDTO budget = new BudgetDTO();
+        private InsightsDTO insights = new InsightsDTO();
+        private LedgerDTO ledger = new LedgerDTO();
+    }
+
     public MetricsDTO getMetrics(String businessId) {
         MetricsDTO dto = new MetricsDTO();
         try {
             String orgId = OrgContext.getOrgId();
             if (orgId == null) return dto;
 
-            List<TransactionDto> txns = transactionService.getAllTransactions(orgId);
-            BigDecimal revenue = BigDecimal.ZERO;
-            BigDecimal expenses = BigDecimal.ZERO;
-            for (TransactionDto t : txns) {
-                if ("INCOME".equalsIgnoreCase(t.getType())) {
-                    revenue = revenue.add(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
-                } else if ("EXPENSE".equalsIgnoreCase(t.getType())) {
-                    expenses = expenses.add(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
-                }
-            }
-            
-            dto.setRevenue(revenue);
-            dto.setExpenses(expenses);
-            dto.setNetProfit(revenue.subtract(expenses));
-
-            List<InvoiceDto> invoices = invoiceService.getAllInvoices(orgId);
-            int totalInvoices = invoices.size();
-            int overdueCount = 0;
-            BigDecimal overdueAmount = BigDecimal.ZERO;
-            int paidCount = 0;
-
-            for (InvoiceDto inv : invoices) {
-                if ("OVERDUE".equalsIgnoreCase(inv.getStatus())) {
-                    overdueCount++;
-                    overdueAmount = overdueAmount.add(inv.getTotalAmount() != null ? inv.getTotalAmount() : BigDecimal.ZERO);
-                } else if ("PAID".equalsIgnoreCase(inv.getStatus())) {
-                    paidCount++;
-                }
-            }
-
-            dto.setTotalInvoices(totalInvoices);
-            dto.setOverdueCount(overdueCount);
-            dto.setOverdueAmount(overdueAmount);
-            dto.setPaidCount(paidCount);
-
-            if (totalInvoices > 0) {
-                double rate = ((double) paidCount / totalInvoices) * 100.0;
-                dto.setCollectionRate(Math.round(rate * 10.0) / 10.0);
-            }
+            TransactionTotals totals = TransactionTotals.of(transactionService.getAllTransactions(orgId), LocalDate.now());
+            dto = metrics(totals, invoiceService.getAllInvoices(orgId));
 
             org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).info("Computed metrics for businessId: {}", businessId);
             return dto;
@@ -152,39 +150,8 @@ public class FinanceIntelligenceService {
             String orgId = OrgContext.getOrgId();
             if (orgId == null) return dto;
 
-            List<TransactionDto> txns = transactionService.getAllTransactions(orgId);
-            Map<String, BigDecimal> actualsByCategory = new HashMap<>();
-            
-            for (TransactionDto t : txns) {
-                if ("EXPENSE".equalsIgnoreCase(t.getType())) {
-                    String cat = t.getCategory() != null ? t.getCategory() : "UNCATEGORIZED";
-                    actualsByCategory.put(cat, actualsByCategory.getOrDefault(cat, BigDecimal.ZERO)
-                        .add(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO));
-                }
-            }
-
-            BigDecimal totalActual = BigDecimal.ZERO;
-
-            for (Map.Entry<String, BigDecimal> entry : actualsByCategory.entrySet()) {
-                BudgetItemDTO item = new BudgetItemDTO();
-                item.setCategory(entry.getKey());
-                item.setBudgeted(BigDecimal.ZERO);
-                item.setActual(entry.getValue());
-                item.setVariance(BigDecimal.ZERO.subtract(entry.getValue()));
-
-                if (item.getBudgeted().compareTo(BigDecimal.ZERO) == 0) {
-                    item.setStatus("NO_BUDGET");
-                } else if (item.getActual().compareTo(item.getBudgeted()) > 0) {
-                    item.setStatus("OVER");
-                } else {
-                    item.setStatus("UNDER");
-                }
-
-                dto.getItems().add(item);
-                totalActual = totalActual.add(entry.getValue());
-            }
-
-            dto.setTotalActual(totalActual);
+            // ✨ Budgets and incrementally maintained actuals (BudgetService), current period
+            dto = budget(budgetService.getStatus(orgId, LocalDate.now()));
 
             org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).info("Computed budget for businessId: {}", businessId);
             return dto;
@@ -200,60 +167,8 @@ public class FinanceIntelligenceService {
             String orgId = OrgContext.getOrgId();
             if (orgId == null) return dto;
 
-            MetricsDTO metrics = getMetrics(businessId);
-            int overdueCount = metrics.getOverdueCount();
-            BigDecimal overdueAmt = metrics.getOverdueAmount();
-            double collectionRate = metrics.getCollectionRate();
-
-            LocalDate now = LocalDate.now();
-            LocalDate startCurrentMonth = now.withDayOfMonth(1);
-            LocalDate startLastMonth = startCurrentMonth.minusMonths(1);
-            
-            List<TransactionDto> currMonthTxns = transactionService.getTransactionsByDateRange(orgId, startCurrentMonth, now);
-            List<TransactionDto> lastMonthTxns = transactionService.getTransactionsByDateRange(orgId, startLastMonth, startCurrentMonth.minusDays(1));
-
-            BigDecimal currMonthRev = BigDecimal.ZERO;
-            BigDecimal prevMonthRev = BigDecimal.ZERO;
-            BigDecimal currMonthExp = BigDecimal.ZERO;
-
-            for (TransactionDto t : currMonthTxns) {
-                if ("INCOME".equalsIgnoreCase(t.getType())) {
-                    currMonthRev = currMonthRev.add(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
-                } else if ("EXPENSE".equalsIgnoreCase(t.getType())) {
-                    currMonthExp = currMonthExp.add(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
-                }
-            }
-
-            for (TransactionDto t : lastMonthTxns) {
-                if ("INCOME".equalsIgnoreCase(t.getType())) {
-                    prevMonthRev = prevMonthRev.add(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
-                }
-            }
-
-            DecimalFormat df = new DecimalFormat("#,##0");
-
-            if (overdueCount > 0) {
-                dto.getInsights().add(new InsightItemDTO("CASH_FLOW", "Cash Flow Alert", 
-                    overdueCount + " invoices overdue totalling ₹" + df.format(overdueAmt), "HIGH", true));
-            }
-            if (metrics.getTotalInvoices() > 0) {
-                if (collectionRate < 70) {
-                    dto.getInsights().add(new InsightItemDTO("COLLECTION", "Collection Rate", 
-                        String.format(Locale.US, "%.1f%% of invoices paid on time", collectionRate), "MEDIUM", false));
-                } else if (collectionRate >= 90) {
-                    dto.getInsights().add(new InsightItemDTO("COLLECTION", "Collection Rate", 
-                        String.format(Locale.US, "%.1f%% of invoices paid on time", collectionRate), "LOW", false));
-                }
-            }
-            
-            if (currMonthRev.compareTo(prevMonthRev) > 0) {
-                dto.getInsights().add(new InsightItemDTO("GROWTH", "Revenue Growth", 
-                    "Revenue has increased compared to last month", "LOW", false));
-            }
-            if (currMonthExp.compareTo(currMonthRev) > 0 && currMonthExp.compareTo(BigDecimal.ZERO) > 0) {
-                dto.getInsights().add(new InsightItemDTO("EXPENSE_ALERT", "High Expenses", 
-                    "Expenses have exceeded revenue for the current period", "HIGH", true));
-            }
+            TransactionTotals totals = TransactionTotals.of(transactionService.getAllTransactions(orgId), LocalDate.now());
+            dto = insights(orgId, metrics(totals, invoiceService.getAllInvoices(orgId)), totals);
 
             org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).info("Computed insights for businessId: {}", businessId);
             return dto;
@@ -264,34 +179,17 @@ public class FinanceIntelligenceService {
     }
 
     public LedgerDTO getLedger(String businessId, int limit) {
+        return getLedger(businessId, limit, 0);
+    }
+
+    public LedgerDTO getLedger(String businessId, int limit, int page) {
         LedgerDTO dto = new LedgerDTO();
         try {
             String orgId = OrgContext.getOrgId();
             if (orgId == null) return dto;
 
-            List<TransactionDto> txns = transactionService.getAllTransactions(orgId);
-            txns.sort((t1, t2) -> {
-                LocalDate d1 = t1.getTransactionDate() != null ? t1.getTransactionDate() : LocalDate.MIN;
-                LocalDate d2 = t2.getTransactionDate() != null ? t2.getTransactionDate() : LocalDate.MIN;
-                return d2.compareTo(d1);
-            });
-
-            dto.setTotalEntries(txns.size());
-
-            int count = Math.min(limit, txns.size());
-            for (int i = 0; i < count; i++) {
-                TransactionDto t = txns.get(i);
-                LedgerEntryDTO entry = new LedgerEntryDTO();
-                entry.setId(t.getId() != null ? t.getId().toString() : UUID.randomUUID().toString());
-                entry.setDate(t.getTransactionDate() != null ? t.getTransactionDate().toString() : "");
-                entry.setDescription(t.getDescription() != null ? t.getDescription() : (t.getCategory() != null ? t.getCategory() : "Transaction"));
-                entry.setType(t.getType());
-                entry.setAmount(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
-                entry.setBalance(BigDecimal.ZERO);
-                entry.setCategory(t.getCategory());
-                
-                dto.getEntries().add(entry);
-            }
+            // ✨ Indexed page + running balance from daily checkpoints (no full-history load)
+            dto = ledger(ledgerService.getPage(orgId, page, Math.max(1, Math.min(limit, 500))));
 
             org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).info("Computed ledger for businessId: {}", businessId);
             return dto;
@@ -300,4 +198,207 @@ public class FinanceIntelligenceService {
             return dto;
         }
     }
+
+    /**
+     * ✨ All four dashboard views from one load: transactions, invoices, budget status and
+     * the first ledger page are fetched concurrently, then metrics and insights are computed
+     * from a single pass over the transactions and one over the invoices.
+     */
+    public DashboardDTO getDashboard(String businessId, int ledgerLimit) {
+        DashboardDTO dto = new DashboardDTO();
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return dto;
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+
+        CompletableFuture<List<TransactionDto>> transactions = CompletableFuture.supplyAsync(
+                () -> transactionService.getAllTransactions(orgId), dashboardExecutor);
+        CompletableFuture<List<InvoiceDto>> invoices = CompletableFuture.supplyAsync(
+                () -> invoiceService.getAllInvoices(orgId), dashboardExecutor);
+        CompletableFuture<BudgetService.BudgetStatusDTO> budget = CompletableFuture.supplyAsync(
+                () -> budgetService.getStatus(orgId, today), dashboardExecutor);
+        CompletableFuture<LedgerService.LedgerPage> ledgerPage = CompletableFuture.supplyAsync(
+                () -> ledgerService.getPage(orgId, 0, Math.max(1, Math.min(ledgerLimit, 500))), dashboardExecutor);
+
+        try {
+            TransactionTotals totals = TransactionTotals.of(transactions.join(), today);
+            MetricsDTO metrics = metrics(totals, invoices.join());
+            dto.setMetrics(metrics);
+            dto.setInsights(insights(orgId, metrics, totals));
+        } catch (Exception e) {
+            org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).error("Error getting dashboard metrics for " + businessId, e);
+        }
+        try {
+            dto.setBudget(budget(budget.join()));
+        } catch (Exception e) {
+            org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).error("Error getting dashboard budget for " + businessId, e);
+        }
+        try {
+            dto.setLedger(ledger(ledgerPage.join()));
+        } catch (Exception e) {
+            org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).error("Error getting dashboard ledger for " + businessId, e);
+        }
+        org.slf4j.LoggerFactory.getLogger(FinanceIntelligenceService.class).info("Computed dashboard for businessId: {} in {} ms",
+                businessId, System.currentTimeMillis() - start);
+        return dto;
+    }
+
+    /** Transaction sums every view needs, from one pass over the org's transactions. */
+    private static final class TransactionTotals {
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal expenses = BigDecimal.ZERO;
+        BigDecimal currMonthRevenue = BigDecimal.ZERO;
+        BigDecimal currMonthExpenses = BigDecimal.ZERO;
+        BigDecimal prevMonthRevenue = BigDecimal.ZERO;
+
+        static TransactionTotals of(List<TransactionDto> txns, LocalDate today) {
+            LocalDate startCurrentMonth = today.withDayOfMonth(1);
+            LocalDate startLastMonth = startCurrentMonth.minusMonths(1);
+            TransactionTotals totals = new TransactionTotals();
+            for (TransactionDto t : txns) {
+                BigDecimal amount = t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO;
+                LocalDate date = t.getTransactionDate();
+                boolean currMonth = date != null && !date.isBefore(startCurrentMonth) && !date.isAfter(today);
+                boolean lastMonth = date != null && !date.isBefore(startLastMonth) && date.isBefore(startCurrentMonth);
+                if ("INCOME".equalsIgnoreCase(t.getType())) {
+                    totals.revenue = totals.revenue.add(amount);
+                    if (currMonth) totals.currMonthRevenue = totals.currMonthRevenue.add(amount);
+                    if (lastMonth) totals.prevMonthRevenue = totals.prevMonthRevenue.add(amount);
+                } else if ("EXPENSE".equalsIgnoreCase(t.getType())) {
+                    totals.expenses = totals.expenses.add(amount);
+                    if (currMonth) totals.currMonthExpenses = totals.currMonthExpenses.add(amount);
+                }
+            }
+            return totals;
+        }
+    }
+
+    private static MetricsDTO metrics(TransactionTotals totals, List<InvoiceDto> invoices) {
+        MetricsDTO dto = new MetricsDTO();
+        dto.setRevenue(totals.revenue);
+        dto.setExpenses(totals.expenses);
+        dto.setNetProfit(totals.revenue.subtract(totals.expenses));
+
+        int totalInvoices = invoices.size();
+        int overdueCount = 0;
+        BigDecimal overdueAmount = BigDecimal.ZERO;
+        int paidCount = 0;
+
+        for (InvoiceDto inv : invoices) {
+            if ("OVERDUE".equalsIgnoreCase(inv.getStatus())) {
+                overdueCount++;
+                overdueAmount = overdueAmount.add(inv.getTotalAmount() != null ? inv.getTotalAmount() : BigDecimal.ZERO);
+            } else if ("PAID".equalsIgnoreCase(inv.getStatus())) {
+                paidCount++;
+            }
+        }
+
+        dto.setTotalInvoices(totalInvoices);
+        dto.setOverdueCount(overdueCount);
+        dto.setOverdueAmount(overdueAmount);
+        dto.setPaidCount(paidCount);
+
+        if (totalInvoices > 0) {
+            double rate = ((double) paidCount / totalInvoices) * 100.0;
+            dto.setCollectionRate(Math.round(rate * 10.0) / 10.0);
+        }
+        return dto;
+    }
+
+    private static BudgetDTO budget(BudgetService.BudgetStatusDTO status) {
+        BudgetDTO dto = new BudgetDTO();
+        for (BudgetService.BudgetLineDTO line : status.getItems()) {
+            BudgetItemDTO item = new BudgetItemDTO();
+            item.setCategory(line.getCategory());
+            item.setPeriod(line.getPeriod());
+            item.setBudgeted(line.getBudgeted());
+            item.setActual(line.getActual());
+            item.setVariance(line.getVariance());
+            item.setUtilization(line.getUtilization());
+            item.setStatus(line.getStatus());
+            dto.getItems().add(item);
+        }
+        dto.setTotalBudgeted(status.getTotalBudgeted());
+        dto.setTotalActual(status.getTotalActual());
+        return dto;
+    }
+
+    private InsightsDTO insights(String orgId, MetricsDTO metrics, TransactionTotals totals) {
+        InsightsDTO dto = new InsightsDTO();
+        int overdueCount = metrics.getOverdueCount();
+        BigDecimal overdueAmt = metrics.getOverdueAmount();
+        double collectionRate = metrics.getCollectionRate();
+        BigDecimal currMonthRev = totals.currMonthRevenue;
+        BigDecimal prevMonthRev = totals.prevMonthRevenue;
+        BigDecimal currMonthExp = totals.currMonthExpenses;
+
+        DecimalFormat df = new DecimalFormat("#,##0");
+
+        if (overdueCount > 0) {
+            dto.getInsights().add(new InsightItemDTO("CASH_FLOW", "Cash Flow Alert", 
+                overdueCount + " invoices overdue totalling ₹" + df.format(overdueAmt), "HIGH", true));
+        }
+        if (metrics.getTotalInvoices() > 0) {
+            if (collectionRate < 70) {
+                dto.getInsights().add(new InsightItemDTO("COLLECTION", "Collection Rate", 
+                    String.format(Locale.US, "%.1f%% of invoices paid on time", collectionRate), "MEDIUM", false));
+            } else if (collectionRate >= 90) {
+                dto.getInsights().add(new InsightItemDTO("COLLECTION", "Collection Rate", 
+                    String.format(Locale.US, "%.1f%% of invoices paid on time", collectionRate), "LOW", false));
+            }
+        }
+        
+        if (currMonthRev.compareTo(prevMonthRev) > 0) {
+            dto.getInsights().add(new InsightItemDTO("GROWTH", "Revenue Growth", 
+                "Revenue has increased compared to last month", "LOW", false));
+        }
+        if (currMonthExp.compareTo(currMonthRev) > 0 && currMonthExp.compareTo(BigDecimal.ZERO) > 0) {
+            dto.getInsights().add(new InsightItemDTO("EXPENSE_ALERT", "High Expenses", 
+                "Expenses have exceeded revenue for the current period", "HIGH", true));
+        }
+
+        // Only a forecast that is already cached; insights never wait on a rebuild.
+        CashFlowForecastService.ForecastDTO forecast = cashFlowForecastService.getCachedForecast(orgId);
+        if (forecast != null && forecast.getLowestProjectedBalance() != null
+                && forecast.getLowestProjectedBalance().signum() < 0) {
+            dto.getInsights().add(new InsightItemDTO("CASH_FLOW", "Projected Shortfall",
+                "Balance projected to fall to ₹" + df.format(forecast.getLowestProjectedBalance())
+                    + " in the week of " + forecast.getLowestBalanceWeek(), "HIGH", true));
+        }
+
+        // Flagged in the background as transactions arrive (see AnomalyDetectionService).
+        for (TransactionAnomaly anomaly : anomalyDetectionService.getRecentAnomalies(orgId, java.time.LocalDateTime.now().minusDays(30), 5)) {
+            boolean duplicate = anomaly.getKind() == TransactionAnomaly.Kind.DUPLICATE;
+            dto.getInsights().add(new InsightItemDTO("ANOMALY", duplicate ? "Possible Duplicate Payment" : "Unusual Expense",
+                anomaly.getMessage() + " on " + anomaly.getTransactionDate(), duplicate ? "HIGH" : "MEDIUM", true));
+        }
+        return dto;
+    }
+
+    private static LedgerDTO ledger(LedgerService.LedgerPage ledgerPage) {
+        LedgerDTO dto = new LedgerDTO();
+        dto.setTotalEntries((int) ledgerPage.totalEntries());
+
+        for (int i = 0; i < ledgerPage.transactions().size(); i++) {
+            Transaction t = ledgerPage.transactions().get(i);
+            LedgerEntryDTO entry = new LedgerEntryDTO();
+            entry.setId(t.getId() != null ? t.getId() : UUID.randomUUID().toString());
+            entry.setDate(t.getTransactionDate() != null ? t.getTransactionDate().toString() : "");
+            entry.setDescription(t.getDescription() != null ? t.getDescription() : (t.getCategory() != null ? t.getCategory() : "Transaction"));
+            entry.setType(t.getType() != null ? t.getType().name() : null);
+            entry.setAmount(t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO);
+            entry.setBalance(ledgerPage.balances().get(i));
+            entry.setCategory(t.getCategory());
+
+            dto.getEntries().add(entry);
+        }
+        return dto;
+    }
+
+    public LedgerDTO rebuildLedger(String businessId, int limit) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return new LedgerDTO();
+        ledgerService.rebuild(orgId);
+        return getLedger(businessId, limit, 0);
+    }
 }
@@ -0,0 +1,267 @@
+package com.moneyops.intelligence;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.organizations.entity.BusinessOrganization;
+import com.moneyops.organizations.repository.BusinessOrganizationRepository;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.transactions.entity.TransactionType;
+import com.moneyops.transactions.repository.TransactionRepository;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Time-bucketed income/expense series for charts.
+ *
+ * DAY, WEEK and MONTH buckets come from one $dateTrunc/$group aggregation over the
+ * requested range (org_ledger_idx serves the orgId + transactionDate range). QUARTER and
+ * YEAR follow the org's financial year (BusinessOrganization.fyStartMonth, default April),
+ * which $dateTrunc can't express, so they are folded from MONTH buckets.
+ *
+ * Buckets are cached per org and granularity, tagged with the org's TRANSACTION data
+ * version (DataVersionService, shared by all nodes): a request that finds the version
+ * moved drops the org's buckets, so a write on any node, an import included, is seen by
+ * the next request. The version is read before aggregating, so buckets are never tagged
+ * newer than their data. The still-open bucket is also re-read after
+ * app.finance.series.open-bucket-ttl-seconds. A request only aggregates the span of the
+ * buckets it is missing.
+ */
+@Service
+@RequiredArgsConstructor
+public class FinanceSeriesService {
+
+    private static final int DEFAULT_FY_START_MONTH = 4;
+    private static final int MAX_BUCKETS = 1000;
+
+    public enum Granularity { DAY, WEEK, MONTH, QUARTER, YEAR }
+
+    @Data
+    public static class SeriesPointDTO {
+        private String periodStart;
+        private String periodEnd;
+        private BigDecimal income = BigDecimal.ZERO;
+        private BigDecimal expenses = BigDecimal.ZERO;
+        private BigDecimal net = BigDecimal.ZERO;
+        private long transactionCount;
+        private boolean closed;
+    }
+
+    @Data
+    public static class SeriesDTO {
+        private String granularity;
+        private int fyStartMonth;
+        private String from;
+        private String to;
+        private List<SeriesPointDTO> points = new ArrayList<>();
+    }
+
+    private record Bucket(BigDecimal income, BigDecimal expenses, long count, long loadedAt) {
+        Bucket plus(Bucket other) {
+            return new Bucket(income.add(other.income), expenses.add(other.expenses), count + other.count,
+                    Math.min(loadedAt, other.loadedAt));
+        }
+    }
+
+    /** Cached DAY/WEEK/MONTH buckets for one org, keyed by bucket start, as of dataVersion. */
+    private static class OrgSeries {
+        final Map<Granularity, TreeMap<LocalDate, Bucket>> buckets = new EnumMap<>(Granularity.class);
+        long dataVersion = -1;
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final BusinessOrganizationRepository orgRepository;
+    private final DataVersionService dataVersionService;
+
+    @Value("${app.finance.series.max-orgs:200}")
+    private int maxOrgs;
+
+    @Value("${app.finance.series.open-bucket-ttl-seconds:60}")
+    private long openBucketTtlSeconds;
+
+    private final Map<String, OrgSeries> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OrgSeries> eldest) {
+            return size() > Math.max(1, maxOrgs);
+        }
+    };
+
+    public SeriesDTO getSeries(String orgId, String granularity, LocalDate from, LocalDate to) {
+        Granularity g = parse(granularity);
+        LocalDate today = LocalDate.now();
+        LocalDate end = to != null ? to : today;
+        LocalDate start = from != null ? from : defaultFrom(g, end);
+        if (end.isBefore(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        int fyStartMonth = fyStartMonth(orgId);
+
+        Granularity base = g == Granularity.QUARTER || g == Granularity.YEAR ? Granularity.MONTH : g;
+        if (estimateBuckets(base, start, end) > MAX_BUCKETS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range too large for " + g.name().toLowerCase(Locale.ROOT) + " buckets");
+        }
+        // Whole requested buckets, so the first/last QUARTER or YEAR point isn't partial.
+        LocalDate firstBucket = bucketStart(g, start, fyStartMonth);
+        LocalDate lastBucketEnd = nextBucket(g, bucketStart(g, end, fyStartMonth)).minusDays(1);
+        TreeMap<LocalDate, Bucket> baseBuckets = load(orgId, base,
+                bucketStart(base, firstBucket, fyStartMonth), bucketStart(base, lastBucketEnd, fyStartMonth), today);
+
+        SeriesDTO dto = new SeriesDTO();
+        dto.setGranularity(g.name());
+        dto.setFyStartMonth(fyStartMonth);
+        dto.setFrom(start.toString());
+        dto.setTo(end.toString());
+
+        TreeMap<LocalDate, Bucket> folded = new TreeMap<>();
+        for (Map.Entry<LocalDate, Bucket> e : baseBuckets.entrySet()) {
+            folded.merge(bucketStart(g, e.getKey(), fyStartMonth), e.getValue(), Bucket::plus);
+        }
+        for (Map.Entry<LocalDate, Bucket> e : folded.entrySet()) {
+            LocalDate bucketEnd = nextBucket(g, e.getKey()).minusDays(1);
+            Bucket b = e.getValue();
+            SeriesPointDTO point = new SeriesPointDTO();
+            point.setPeriodStart(e.getKey().toString());
+            point.setPeriodEnd(bucketEnd.toString());
+            point.setIncome(b.income());
+            point.setExpenses(b.expenses());
+            point.setNet(b.income().subtract(b.expenses()));
+            point.setTransactionCount(b.count());
+            point.setClosed(bucketEnd.isBefore(today));
+            dto.getPoints().add(point);
+        }
+        return dto;
+    }
+
+    /** Returns the [first, last] base buckets, aggregating only the span that isn't cached. */
+    private TreeMap<LocalDate, Bucket> load(String orgId, Granularity g, LocalDate first, LocalDate last, LocalDate today) {
+        OrgSeries series;
+        synchronized (cache) {
+            series = cache.computeIfAbsent(orgId, id -> new OrgSeries());
+        }
+        long version = dataVersionService.version(orgId, EntityChangedEvent.TRANSACTION);
+        long now = System.currentTimeMillis();
+        LocalDate missingFrom = null;
+        LocalDate missingTo = null;
+        TreeMap<LocalDate, Bucket> result = new TreeMap<>();
+        synchronized (series) {
+            if (version > series.dataVersion) {
+                series.buckets.clear();
+                series.dataVersion = version;
+            }
+            TreeMap<LocalDate, Bucket> cached = series.buckets.computeIfAbsent(g, k -> new TreeMap<>());
+            for (LocalDate b = first; !b.isAfter(last); b = nextBucket(g, b)) {
+                Bucket hit = cached.get(b);
+                boolean open = nextBucket(g, b).isAfter(today);
+                if (hit != null && (!open || now - hit.loadedAt() < openBucketTtlSeconds * 1000)) {
+                    result.put(b, hit);
+                } else {
+                    if (missingFrom == null) missingFrom = b;
+                    missingTo = b;
+                }
+            }
+        }
+        if (missingFrom == null) {
+            return result;
+        }
+
+        Map<LocalDate, Bucket> fetched = new TreeMap<>();
+        for (LocalDate b = missingFrom; !b.isAfter(missingTo); b = nextBucket(g, b)) {
+            fetched.put(b, new Bucket(BigDecimal.ZERO, BigDecimal.ZERO, 0, now));
+        }
+        for (TransactionRepository.PeriodTypeTotal row : transactionRepository.sumByPeriodAndType(orgId,
+                g.name().toLowerCase(Locale.ROOT), missingFrom, nextBucket(g, missingTo), ZoneId.systemDefault().getId())) {
+            LocalDate period = row.id().period();
+            BigDecimal total = row.total() != null ? row.total() : BigDecimal.ZERO;
+            Bucket add = TransactionType.INCOME.name().equals(row.id().type())
+                    ? new Bucket(total, BigDecimal.ZERO, row.count(), now)
+                    : TransactionType.EXPENSE.name().equals(row.id().type())
+                    ? new Bucket(BigDecimal.ZERO, total, row.count(), now)
+                    : new Bucket(BigDecimal.ZERO, BigDecimal.ZERO, row.count(), now);
+            fetched.merge(period, add, Bucket::plus);
+        }
+
+        synchronized (series) {
+            // A newer request already moved the entry on: serve this result but don't cache it.
+            if (series.dataVersion == version) {
+                series.buckets.computeIfAbsent(g, k -> new TreeMap<>()).putAll(fetched);
+            }
+        }
+        result.putAll(fetched);
+        return result;
+    }
+
+    private int fyStartMonth(String orgId) {
+        Integer month = orgRepository.findByIdAndDeletedAtIsNull(orgId)
+                .map(BusinessOrganization::getFyStartMonth)
+                .orElse(null);
+        return month != null && month >= 1 && month <= 12 ? month : DEFAULT_FY_START_MONTH;
+    }
+
+    public static LocalDate bucketStart(Granularity g, LocalDate date, int fyStartMonth) {
+        switch (g) {
+            case DAY:
+                return date;
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                int monthsIntoFy = Math.floorMod(date.getMonthValue() - fyStartMonth, 12);
+                int back = g == Granularity.QUARTER ? monthsIntoFy % 3 : monthsIntoFy;
+                return date.withDayOfMonth(1).minusMonths(back);
+        }
+    }
+
+    public static LocalDate nextBucket(Granularity g, LocalDate bucketStart) {
+        switch (g) {
+            case DAY: return bucketStart.plusDays(1);
+            case WEEK: return bucketStart.plusWeeks(1);
+            case MONTH: return bucketStart.plusMonths(1);
+            case QUARTER: return bucketStart.plusMonths(3);
+            default: return bucketStart.plusYears(1);
+        }
+    }
+
+    private static long estimateBuckets(Granularity g, LocalDate start, LocalDate end) {
+        switch (g) {
+            case DAY: return ChronoUnit.DAYS.between(start, end) + 1;
+            case WEEK: return ChronoUnit.WEEKS.between(start, end) + 2;
+            default: return ChronoUnit.MONTHS.between(start, end) + 2;
+        }
+    }
+
+    private static LocalDate defaultFrom(Granularity g, LocalDate end) {
+        switch (g) {
+            case DAY: return end.minusDays(29);
+            case WEEK: return end.minusWeeks(11);
+            case MONTH: return end.minusMonths(11);
+            case QUARTER: return end.minusMonths(11);
+            default: return end.minusYears(2);
+        }
+    }
+
+    private static Granularity parse(String granularity) {
+        if (granularity == null || granularity.isBlank()) return Granularity.MONTH;
+        try {
+            return Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported granularity: " + granularity);
+        }
+    }
+}
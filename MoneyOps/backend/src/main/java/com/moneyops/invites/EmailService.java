@@ -74,6 +74,30 @@ public class EmailService {
         sendHtmlEmail(toEmail, subject, html);
     }
 
+    public void sendInvoiceDueSoon(String toEmail, String invoiceNumber, String clientName,
+                                   String orgName, String dueDate, String amount) {
+        String safeClientName = clientName != null ? clientName : "there";
+        String safeOrgName = orgName != null ? orgName : "MoneyOps";
+        String formattedAmount = formatInr(amount);
+
+        String subject = "Reminder: Invoice " + invoiceNumber + " is due on " + (dueDate != null ? dueDate : "its due date");
+        String html = "<div style='font-family: sans-serif; max-width: 600px; margin: auto; padding: 20px; border: 1px solid #eee; border-radius: 10px;'>"
+                + "<h2 style='color: #4CBB17;'>Upcoming Payment</h2>"
+                + "<p>Dear " + safeClientName + ",</p>"
+                + "<p>This is a friendly reminder that your invoice <strong>" + invoiceNumber + "</strong> from " + safeOrgName + " is due soon.</p>"
+                + "<div style='background-color: #f9f9f9; padding: 16px; border-radius: 8px; margin: 20px 0;'>"
+                + "<p style='margin: 0 0 8px; color: #666;'>Invoice Number: <strong style='color: #111;'>" + invoiceNumber + "</strong></p>"
+                + "<p style='margin: 0 0 8px; color: #666;'>Due Date: <strong style='color: #111;'>" + (dueDate != null ? dueDate : "N/A") + "</strong></p>"
+                + "<p style='margin: 0; color: #666;'>Amount Due: <strong style='color: #111; font-size: 18px;'>" + formattedAmount + "</strong></p>"
+                + "</div>"
+                + "<p>If you have already paid, kindly disregard this message.</p>"
+                + "<p style='margin-top: 24px;'>Thank you,<br/>" + safeOrgName + "</p>"
+                + "<p style='margin-top: 24px; font-size: 12px; color: #999;'>Sent via MoneyOps</p>"
+                + "</div>";
+
+        sendHtmlEmail(toEmail, subject, html);
+    }
+
     private void sendHtmlEmail(String toEmail, String subject, String htmlContent) {
         try {
             MimeMessage mimeMessage = mailSender.createMimeMessage();
@@ -1,7 +1,11 @@
 package com.moneyops.invoices.controller;
 
+import com.moneyops.invoices.dto.BulkInvoiceRequest;
+import com.moneyops.invoices.dto.BulkInvoiceResult;
 import com.moneyops.invoices.dto.InvoiceDto;
 import com.moneyops.invoices.service.InvoiceService;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.shared.versioning.DataVersionService;
 import com.moneyops.shared.utils.OrgContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ByteArrayResource;
@@ -9,6 +13,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,6 +23,7 @@ import java.util.List;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping
     public ResponseEntity<InvoiceDto> createInvoice(@RequestBody InvoiceDto dto) {
@@ -30,6 +36,16 @@ public class InvoiceController {
         return ResponseEntity.ok(created);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkInvoiceResult> createInvoices(@RequestBody BulkInvoiceRequest request) {
+        String orgId = OrgContext.getOrgId();
+        String userId = OrgContext.getUserId();
+
+        if (orgId == null) throw new RuntimeException("Organization context missing");
+
+        return ResponseEntity.ok(invoiceService.createInvoices(request, orgId, userId));
+    }
+
     @PostMapping("/preview")
     public ResponseEntity<InvoiceDto> previewInvoice(@RequestBody InvoiceDto dto) {
         invoiceService.validateAndCalculate(dto);
@@ -48,11 +64,14 @@ public class InvoiceController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false, name = "client_name") String clientName,
             @RequestParam(required = false, name = "clientId") String clientId,
-            @RequestParam(defaultValue = "50") int limit) {
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
         String orgId = OrgContext.getOrgId();
         if (orgId == null) return ResponseEntity.ok(List.of());
-        List<InvoiceDto> invoices = invoiceService.searchInvoices(orgId, status, clientName, clientId, limit);
-        return ResponseEntity.ok(invoices);
+        // ✨ Client details are joined into each invoice, so client writes change the list too
+        String etag = dataVersionService.etag(orgId, null, EntityChangedEvent.INVOICE, EntityChangedEvent.CLIENT);
+        return dataVersionService.conditional(request, etag,
+                () -> invoiceService.searchInvoices(orgId, status, clientName, clientId, limit));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,18 @@
+// src/main/java/com/moneyops/invoices/dto/BulkInvoiceRequest.java
+package com.moneyops.invoices.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkInvoiceRequest {
+
+    /** Verified once for the whole batch; per-invoice teamActionCode is ignored. */
+    private String teamActionCode;
+
+    /** Defaults each invoice's source when it has none: MANUAL / AI / VOICE / MIGRATION. */
+    private String source;
+
+    private List<InvoiceDto> invoices;
+}
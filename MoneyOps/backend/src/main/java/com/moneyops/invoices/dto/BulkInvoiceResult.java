@@ -0,0 +1,33 @@
+// src/main/java/com/moneyops/invoices/dto/BulkInvoiceResult.java
+package com.moneyops.invoices.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkInvoiceResult {
+
+    public enum Status {
+        CREATED, DUPLICATE, FAILED
+    }
+
+    /** Outcome for invoices[index] of the request. */
+    @Data
+    public static class Item {
+        private int index;
+        private Status status;
+        private String id;
+        private String invoiceNumber;
+        private String error;
+    }
+
+    private String batchId;
+    private int requested;
+    private int created;
+    private int duplicates;
+    private int failed;
+    private long elapsedMs;
+    private List<Item> items = new ArrayList<>();
+}
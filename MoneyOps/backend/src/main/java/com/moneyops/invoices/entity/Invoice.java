@@ -1,5 +1,6 @@
 package com.moneyops.invoices.entity;
 
+import com.moneyops.sync.ChangeTracked;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -14,6 +15,9 @@ import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.annotation.PostConstruct;
@@ -25,8 +29,18 @@ import java.util.List;
 import java.util.UUID;
 
 @Document(collection = "invoices")
+@CompoundIndexes({
+        // ✨ Receivables aging: open invoices by status, bucketed on dueDate
+        @CompoundIndex(name = "org_status_due_idx", def = "{'orgId': 1, 'status': 1, 'dueDate': 1}"),
+        // ✨ One live invoice per number: live rows share deletedAt null, deleted ones differ by timestamp.
+        // Also serves number lookups and the generated-number collision probe (see InvoiceNumberService)
+        @CompoundIndex(name = "org_number_live_idx", def = "{'orgId': 1, 'invoiceNumber': 1, 'deletedAt': 1}", unique = true,
+                partialFilter = "{'invoiceNumber': {$type: 'string'}}"),
+        // ✨ Delta sync: changes since a sequence number (see SyncService)
+        @CompoundIndex(name = "org_change_seq_idx", def = "{'orgId': 1, 'changeSeq': 1}")
+})
 @Data
-public class Invoice {
+public class Invoice implements ChangeTracked {
 
     @Id
     private String id;
@@ -54,6 +68,7 @@ public class Invoice {
     private BigDecimal totalAmount;
     private BigDecimal amountPaid = BigDecimal.ZERO;  // ✨ New
     private BigDecimal balanceDue;                     // ✨ New
+    private List<String> appliedPaymentIds;            // ✨ Transactions already counted in amountPaid
     
     private String currency = "INR";
     private LocalDate paymentDate;
@@ -84,6 +99,11 @@ public class Invoice {
     
     private LocalDateTime deletedAt;
 
+    private Long changeSeq;    // ✨ Org change sequence, stamped on every save
+
+    @Version
+    private Long version;      // ✨ Optimistic lock; payments bump it atomically (see InvoiceRepositoryImpl.applyPayment)
+
     @Indexed(unique = true, partialFilter = "{'idempotencyKey': {$exists: true}}")
     private String idempotencyKey;
 
@@ -0,0 +1,24 @@
+package com.moneyops.invoices.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest invoice sequence number leased out for an org's numbering scope (a financial
+ * year such as "2026-27", or "ALL"), keyed by orgId:scope.
+ */
+@Document(collection = "invoice_number_counters")
+@Data
+public class InvoiceNumberCounter {
+
+    @Id
+    private String id;
+
+    private String orgId;
+    private String scope;
+    private long value;
+    private LocalDateTime updatedAt;
+}
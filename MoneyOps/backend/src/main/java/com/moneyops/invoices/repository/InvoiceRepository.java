@@ -4,11 +4,12 @@ import com.moneyops.invoices.entity.Invoice;
 import com.moneyops.invoices.entity.InvoiceStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface InvoiceRepository extends MongoRepository<Invoice, String> {
+public interface InvoiceRepository extends MongoRepository<Invoice, String>, InvoiceRepositoryCustom {
 
     Optional<Invoice> findByIdAndOrgIdAndDeletedAtIsNull(String id, String orgId);
 
@@ -18,6 +19,10 @@ public interface InvoiceRepository extends MongoRepository<Invoice, String> {
 
     Optional<Invoice> findByOrgIdAndInvoiceNumberAndDeletedAtIsNull(String orgId, String invoiceNumber);
 
+    Optional<Invoice> findByOrgIdAndIdempotencyKeyAndDeletedAtIsNull(String orgId, String idempotencyKey);
+
+    List<Invoice> findAllByOrgIdAndIdempotencyKeyInAndDeletedAtIsNull(String orgId, Collection<String> idempotencyKeys);
+
     List<Invoice> findByOrgIdAndStatusAndDeletedAtIsNull(String orgId, InvoiceStatus status);
 
     List<Invoice> findAllByOrgIdAndClientIdAndDeletedAtIsNull(String orgId, String clientId);
@@ -3,6 +3,7 @@ package com.moneyops.invoices.repository;
 import com.moneyops.invoices.entity.Invoice;
 import com.moneyops.invoices.entity.InvoiceStatus;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
@@ -10,4 +11,11 @@ import java.util.UUID;
 public interface InvoiceRepositoryCustom {
 
     List<Invoice> searchByOrgIdWithFilters(UUID orgId, UUID clientId, InvoiceStatus status, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Applies one payment in a single conditional write and returns the invoice as it was
+     * before, or null when nothing matched (missing, deleted, already PAID, or this payment
+     * was already applied).
+     */
+    Invoice applyPayment(String id, String orgId, String paymentId, BigDecimal amount, LocalDate paidOn, long changeSeq);
 }
@@ -2,12 +2,20 @@ package com.moneyops.invoices.repository;
 
 import com.moneyops.invoices.entity.Invoice;
 import com.moneyops.invoices.entity.InvoiceStatus;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,4 +37,42 @@ public class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
         if (endDate != null) c.and("issueDate").lte(endDate);
         return mongoTemplate.find(new Query(c), Invoice.class);
     }
+
+    /**
+     * One findAndModify with an update pipeline: amountPaid is incremented, balanceDue and the
+     * status transition are derived from it server-side, and version is bumped so concurrent
+     * whole-document saves fail their optimistic check instead of overwriting the payment.
+     * The payment id is recorded in appliedPaymentIds and excluded by the filter, so a retried
+     * payment is applied at most once.
+     */
+    @Override
+    public Invoice applyPayment(String id, String orgId, String paymentId, BigDecimal amount, LocalDate paidOn, long changeSeq) {
+        Query query = new Query(Criteria.where("_id").is(id).and("orgId").is(orgId).and("deletedAt").is(null)
+                .and("status").ne(InvoiceStatus.PAID.name())
+                .and("appliedPaymentIds").ne(paymentId));
+
+        Document paid = new Document("$lte", List.of("$balanceDue", 0));
+        List<AggregationOperation> stages = List.of(
+                context -> new Document("$set", new Document("amountPaid", new Document("$add", List.of(decimal("$amountPaid"), new Decimal128(amount))))
+                        .append("appliedPaymentIds", new Document("$concatArrays", List.of(
+                                new Document("$ifNull", List.of("$appliedPaymentIds", List.of())), List.of(paymentId))))
+                        .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)))
+                        .append("changeSeq", changeSeq)
+                        .append("updatedAt", new Date())),
+                context -> new Document("$set", new Document("balanceDue",
+                        new Document("$subtract", List.of(decimal("$totalAmount"), "$amountPaid")))),
+                context -> new Document("$set", new Document("status", new Document("$cond", List.of(paid, InvoiceStatus.PAID.name(),
+                                new Document("$cond", List.of(new Document("$eq", List.of("$status", InvoiceStatus.DRAFT.name())),
+                                        InvoiceStatus.SENT.name(), "$status")))))
+                        .append("paymentDate", new Document("$cond", List.of(paid,
+                                Date.from(paidOn.atStartOfDay(ZoneId.systemDefault()).toInstant()), "$paymentDate")))));
+
+        return mongoTemplate.findAndModify(query, AggregationUpdate.from(stages),
+                FindAndModifyOptions.options().returnNew(false), Invoice.class);
+    }
+
+    private static Document decimal(String field) {
+        return new Document("$convert", new Document("input", field)
+                .append("to", "decimal").append("onError", 0).append("onNull", 0));
+    }
 }
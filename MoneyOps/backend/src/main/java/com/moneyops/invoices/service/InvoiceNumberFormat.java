@@ -0,0 +1,134 @@
+package com.moneyops.invoices.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An org's invoice number pattern, e.g. {@code INV-{FY}-{SEQ:5}} → INV-2026-27-00042.
+ *
+ * Tokens: {SEQ} or {SEQ:width} (required, exactly once), {FY} (2026-27), {FY2} (26-27),
+ * {YYYY}, {MM}. Literals are limited to letters, digits and / - _ . so numbers stay
+ * valid as GST invoice numbers. A pattern with an FY token restarts its sequence every
+ * financial year; one without numbers straight through, so numbers never repeat.
+ */
+public final class InvoiceNumberFormat {
+
+    public static final String DEFAULT_PATTERN = "INV-{FY}-{SEQ:5}";
+    public static final InvoiceNumberFormat DEFAULT = parse(DEFAULT_PATTERN);
+
+    /** Sequence scope of patterns without an FY token. */
+    static final String WHOLE_ORG_SCOPE = "ALL";
+
+    private static final int MAX_SEQ_WIDTH = 12;
+
+    private record Part(String literal, String token, int width) {
+    }
+
+    private final String pattern;
+    private final List<Part> parts;
+    private final boolean perFinancialYear;
+
+    private InvoiceNumberFormat(String pattern, List<Part> parts, boolean perFinancialYear) {
+        this.pattern = pattern;
+        this.parts = parts;
+        this.perFinancialYear = perFinancialYear;
+    }
+
+    /** @throws IllegalArgumentException if the pattern is malformed */
+    public static InvoiceNumberFormat parse(String pattern) {
+        if (pattern == null || pattern.isBlank()) {
+            throw new IllegalArgumentException("Invoice number format is empty");
+        }
+        List<Part> parts = new ArrayList<>();
+        int seqTokens = 0;
+        boolean perFinancialYear = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '{') {
+                int close = pattern.indexOf('}', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed token in invoice number format: " + pattern);
+                }
+                String token = pattern.substring(i + 1, close);
+                int width = 0;
+                if (token.startsWith("SEQ:")) {
+                    try {
+                        width = Integer.parseInt(token.substring(4));
+                    } catch (NumberFormatException e) {
+                        width = -1;
+                    }
+                    if (width < 1 || width > MAX_SEQ_WIDTH) {
+                        throw new IllegalArgumentException("SEQ width must be 1-" + MAX_SEQ_WIDTH + ": " + pattern);
+                    }
+                    token = "SEQ";
+                }
+                switch (token) {
+                    case "SEQ" -> seqTokens++;
+                    case "FY", "FY2" -> perFinancialYear = true;
+                    case "YYYY", "MM" -> { }
+                    default -> throw new IllegalArgumentException("Unknown token {" + token + "} in invoice number format");
+                }
+                parts.add(new Part(null, token, width));
+                i = close + 1;
+            } else {
+                int next = pattern.indexOf('{', i);
+                String literal = pattern.substring(i, next < 0 ? pattern.length() : next);
+                for (char l : literal.toCharArray()) {
+                    if (l > 127 || (!Character.isLetterOrDigit(l) && "/-_.".indexOf(l) < 0)) {
+                        throw new IllegalArgumentException("Invalid character '" + l + "' in invoice number format");
+                    }
+                }
+                parts.add(new Part(literal, null, 0));
+                i += literal.length();
+            }
+        }
+        if (seqTokens != 1) {
+            throw new IllegalArgumentException("Invoice number format needs exactly one {SEQ} token: " + pattern);
+        }
+        return new InvoiceNumberFormat(pattern, List.copyOf(parts), perFinancialYear);
+    }
+
+    public String format(LocalDate date, int fyStartMonth, long seq) {
+        int fy = fyStartYear(date, fyStartMonth);
+        StringBuilder out = new StringBuilder(pattern.length() + 8);
+        for (Part part : parts) {
+            if (part.literal() != null) {
+                out.append(part.literal());
+                continue;
+            }
+            switch (part.token()) {
+                case "SEQ" -> {
+                    String digits = Long.toString(seq);
+                    out.append("0".repeat(Math.max(0, part.width() - digits.length()))).append(digits);
+                }
+                case "FY" -> out.append(fyLabel(fy, fyStartMonth));
+                case "FY2" -> out.append(fyLabel(fy, fyStartMonth).substring(2));
+                case "YYYY" -> out.append(date.getYear());
+                case "MM" -> out.append(date.getMonthValue() < 10 ? "0" : "").append(date.getMonthValue());
+                default -> throw new IllegalStateException(part.token());
+            }
+        }
+        return out.toString();
+    }
+
+    /** The counter an invoice dated {@code date} draws from: its financial year, or the whole org. */
+    public String scope(LocalDate date, int fyStartMonth) {
+        return perFinancialYear ? fyLabel(fyStartYear(date, fyStartMonth), fyStartMonth) : WHOLE_ORG_SCOPE;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /** Calendar year the financial year containing {@code date} starts in. */
+    static int fyStartYear(LocalDate date, int fyStartMonth) {
+        return date.getMonthValue() >= fyStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    /** 2026 → "2026-27"; a January-start year is just "2026". */
+    private static String fyLabel(int startYear, int fyStartMonth) {
+        return fyStartMonth == 1 ? Integer.toString(startYear) : String.format("%d-%02d", startYear, (startYear + 1) % 100);
+    }
+}
@@ -0,0 +1,151 @@
+package com.moneyops.invoices.service;
+
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceNumberCounter;
+import com.moneyops.organizations.entity.BusinessOrganization;
+import com.moneyops.organizations.repository.BusinessOrganizationRepository;
+import com.moneyops.shared.exceptions.ConflictException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-org invoice numbers from a counter in invoice_number_counters.
+ *
+ * Each node leases a block of sequence numbers with one findAndModify $inc (hi/lo) and
+ * hands them out locally, so a burst of creates costs one counter write per block rather
+ * than per invoice. Numbers left in a lease when the node stops are never issued; a block
+ * size of 1 gives strictly gapless numbering at one counter write per invoice.
+ *
+ * The org's invoiceNumberFormat decides the layout and whether the sequence restarts each
+ * financial year (see {@link InvoiceNumberFormat}). A generated number a manual invoice
+ * already holds is skipped. The probe is only a hint: a manual invoice saved after it is
+ * caught by the unique org_number_live_idx, and InvoiceService asks for the next number.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceNumberService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(InvoiceNumberService.class);
+
+    private static final int DEFAULT_FY_START_MONTH = 4;
+    private static final int MAX_SKIPS = 100;
+
+    /** Leased numbers next..end, both inclusive; empty when next > end. */
+    private static final class Lease {
+        long next = 1;
+        long end = 0;
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final BusinessOrganizationRepository orgRepository;
+
+    @Value("${app.invoices.number-block-size:20}")
+    private int blockSize;
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    public String next(String orgId, LocalDate date) {
+        return next(orgId, date, 1).get(0);
+    }
+
+    /** {@code count} unused numbers for invoices dated {@code date}, in ascending order. */
+    public List<String> next(String orgId, LocalDate date, int count) {
+        BusinessOrganization org = orgRepository.findByIdAndDeletedAtIsNull(orgId).orElse(null);
+        InvoiceNumberFormat format = formatFor(org);
+        int fyStartMonth = org != null && org.getFyStartMonth() != null
+                && org.getFyStartMonth() >= 1 && org.getFyStartMonth() <= 12
+                ? org.getFyStartMonth() : DEFAULT_FY_START_MONTH;
+        String scope = format.scope(date, fyStartMonth);
+
+        List<String> numbers = new ArrayList<>(count);
+        int skipped = 0;
+        while (numbers.size() < count) {
+            List<String> candidates = new ArrayList<>();
+            for (long seq : take(orgId, scope, count - numbers.size())) {
+                candidates.add(format.format(date, fyStartMonth, seq));
+            }
+            Set<String> taken = taken(orgId, candidates);
+            for (String candidate : candidates) {
+                if (!taken.contains(candidate)) {
+                    numbers.add(candidate);
+                }
+            }
+            skipped += taken.size();
+            if (skipped > MAX_SKIPS) {
+                throw new ConflictException("Invoice numbers for format " + format.getPattern()
+                        + " are already in use; change the organization's invoice number format");
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} invoice numbers already in use for org {} ({})", skipped, orgId, scope);
+        }
+        return numbers;
+    }
+
+    private long[] take(String orgId, String scope, int count) {
+        String key = orgId + ":" + scope;
+        Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+        synchronized (lease) {
+            long[] seqs = new long[count];
+            int filled = 0;
+            while (filled < count) {
+                if (lease.next > lease.end) {
+                    int block = Math.max(Math.max(1, blockSize), count - filled);
+                    InvoiceNumberCounter counter = mongoTemplate.findAndModify(
+                            new Query(Criteria.where("_id").is(key)),
+                            new Update().inc("value", block)
+                                    .setOnInsert("orgId", orgId)
+                                    .setOnInsert("scope", scope)
+                                    .set("updatedAt", LocalDateTime.now()),
+                            FindAndModifyOptions.options().upsert(true).returnNew(true),
+                            InvoiceNumberCounter.class);
+                    lease.end = counter.getValue();
+                    lease.next = lease.end - block + 1;
+                }
+                seqs[filled++] = lease.next++;
+            }
+            return seqs;
+        }
+    }
+
+    private Set<String> taken(String orgId, List<String> candidates) {
+        Query query = new Query(Criteria.where("orgId").is(orgId)
+                .and("invoiceNumber").in(candidates)
+                .and("deletedAt").is(null));
+        query.fields().include("invoiceNumber");
+        Set<String> taken = new HashSet<>();
+        for (Invoice invoice : mongoTemplate.find(query, Invoice.class)) {
+            taken.add(invoice.getInvoiceNumber());
+        }
+        return taken;
+    }
+
+    private InvoiceNumberFormat formatFor(BusinessOrganization org) {
+        String pattern = org != null ? org.getInvoiceNumberFormat() : null;
+        if (pattern == null || pattern.isBlank()) {
+            return InvoiceNumberFormat.DEFAULT;
+        }
+        try {
+            return InvoiceNumberFormat.parse(pattern);
+        } catch (IllegalArgumentException e) {
+            // Validated on save; only a hand-edited document gets here.
+            log.warn("Invalid invoice number format for org {}: {}", org.getId(), e.getMessage());
+            return InvoiceNumberFormat.DEFAULT;
+        }
+    }
+}
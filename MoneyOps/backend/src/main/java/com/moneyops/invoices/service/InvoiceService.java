@@ -12,6 +12,10 @@ import com.lowagie.text.Phrase;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.InvoicesImportedEvent;
+import com.moneyops.invoices.dto.BulkInvoiceRequest;
+import com.moneyops.invoices.dto.BulkInvoiceResult;
 import com.moneyops.invoices.dto.InvoiceDto;
 import com.moneyops.invoices.dto.InvoiceItemDto;
 import com.moneyops.invoices.entity.Invoice;
@@ -27,7 +31,17 @@ import com.moneyops.organizations.entity.BusinessOrganization;
 import com.moneyops.organizations.repository.BusinessOrganizationRepository;
 import com.moneyops.security.team.TeamActionAuthorizationService;
 import com.moneyops.shared.exceptions.ValidationException;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,8 +52,15 @@ import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -48,6 +69,15 @@ import java.util.stream.Collectors;
 @Transactional
 public class InvoiceService {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(InvoiceService.class);
+
+    private static final int VERSION_CONFLICT_RETRIES = 3;
+    private static final java.time.Duration PENDING_PAYMENT_GRACE = java.time.Duration.ofMinutes(1);
+    private static final int PENDING_PAYMENT_BATCH = 500;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String NUMBER_INDEX = "org_number_live_idx";
+    private static final int NUMBER_COLLISION_RETRIES = 5;
+
     private final InvoiceRepository invoiceRepository;
     private final ClientRepository clientRepository;
     private final InvoiceMapper invoiceMapper;
@@ -58,6 +88,14 @@ public class InvoiceService {
     private final TeamActionAuthorizationService teamActionAuthorizationService;
     private final EmailService emailService;
     private final BusinessOrganizationRepository orgRepository;
+    private final com.moneyops.clients.service.ClientSearchIndex clientSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final com.moneyops.sync.ChangeSequenceService changeSequenceService;
+    private final InvoiceNumberService invoiceNumberService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.invoices.bulk-max-size:10000}")
+    private int bulkMaxSize;
 
     public List<InvoiceDto> getAllInvoices(String orgId) {
         if (orgId == null || orgId.isBlank()) throw new com.moneyops.shared.exceptions.UnauthorizedException("Missing organization context");
@@ -93,12 +131,12 @@ public class InvoiceService {
         // 3. Filter by client name (Fuzzy Match) - only if clientId is NOT provided
         if ((clientId == null || clientId.trim().isEmpty()) && clientName != null && !clientName.trim().isEmpty()) {
             final String query = clientName.toLowerCase().trim();
-            var clients = clientRepository.findAllByOrgIdAndDeletedAtIsNull(orgId);
+            var candidates = clientSearchIndex.candidates(orgId, query);
             org.apache.commons.text.similarity.JaroWinklerSimilarity similarity = new org.apache.commons.text.similarity.JaroWinklerSimilarity();
             
-            var matchedClientIds = clients.stream()
-                .filter(c -> similarity.apply(query, c.getName().toLowerCase()) > 0.85)
-                .map(com.moneyops.clients.entity.Client::getId)
+            var matchedClientIds = candidates.stream()
+                .filter(c -> similarity.apply(query, c.name()) > 0.85)
+                .map(com.moneyops.clients.service.ClientSearchIndex.Entry::id)
                 .collect(Collectors.toSet());
                 
             filtered = filtered.stream()
@@ -137,7 +175,7 @@ public class InvoiceService {
 
         // ✨ Idempotency check 
         if (dto.getIdempotencyKey() != null) {
-            var existing = invoiceRepository.findByOrgIdAndInvoiceNumberAndDeletedAtIsNull(orgId, dto.getInvoiceNumber());
+            var existing = invoiceRepository.findByOrgIdAndIdempotencyKeyAndDeletedAtIsNull(orgId, dto.getIdempotencyKey());
             if (existing.isPresent()) return populateClientDetails(existing.get());
         }
 
@@ -145,11 +183,7 @@ public class InvoiceService {
 
         if (dto.getClientId() != null) {
             clientRepository.findByIdAndOrgIdAndDeletedAtIsNull(dto.getClientId(), orgId).ifPresentOrElse(client -> {
-                // Lock in the snapshot data
-                dto.setClientName(client.getName());
-                dto.setClientEmail(client.getEmail());
-                dto.setClientCompany(client.getCompany());
-                dto.setClientPhone(client.getPhoneNumber());
+                snapshotClient(dto, client);
             }, () -> {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Client not found.");
             });
@@ -163,10 +197,10 @@ public class InvoiceService {
         invoice.setSource(dto.getSource());
         
         // Auto-generate invoice number if not provided
-        if (invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().trim().isEmpty()) {
-            String dateStamp = java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd").format(java.time.LocalDate.now());
-            String randomStr = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-            invoice.setInvoiceNumber("INV-" + dateStamp + "-" + randomStr);
+        LocalDate numberDate = invoice.getIssueDate() != null ? invoice.getIssueDate() : LocalDate.now();
+        boolean generatedNumber = invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().trim().isEmpty();
+        if (generatedNumber) {
+            invoice.setInvoiceNumber(invoiceNumberService.next(orgId, numberDate));
         }
 
         invoice.setStatus(InvoiceStatus.DRAFT);
@@ -179,12 +213,260 @@ public class InvoiceService {
         // Recalculate totals server-side (do not trust frontend)
         recalculateInvoiceTotals(invoice);
 
-        Invoice saved = invoiceRepository.save(invoice);
+        Invoice saved = insertNumbered(invoice, generatedNumber, numberDate);
         auditLogService.logCreate("INVOICE", saved.getId(), saved);
+        eventPublisher.publishEvent(EntityChangedEvent.created(orgId, EntityChangedEvent.INVOICE, saved.getId(), saved));
         return populateClientDetails(saved);
     }
 
+    /**
+     * Creates a batch of DRAFT invoices with createInvoice's rules at batch cost: the team
+     * PIN is checked once, clients and idempotency keys are resolved with one $in query
+     * each, numbers are leased once per issue date, and rows go in as one unordered bulk
+     * insert with a block of change sequence numbers. Each invoice is created, reported as
+     * a duplicate of its idempotency key, or failed on its own.
+     */
+    public BulkInvoiceResult createInvoices(BulkInvoiceRequest request, String orgId, String userId) {
+        List<InvoiceDto> dtos = request.getInvoices() != null ? request.getInvoices() : List.of();
+        if (dtos.isEmpty()) {
+            throw new ValidationException("No invoices to create.");
+        }
+        if (dtos.size() > bulkMaxSize) {
+            throw new ValidationException("At most " + bulkMaxSize + " invoices can be created per request.");
+        }
+        var creator = teamActionAuthorizationService.assertUserCanCreateSensitiveAction(
+                orgId,
+                userId,
+                request.getTeamActionCode()
+        );
+        String defaultSource = request.getSource() != null && !request.getSource().isBlank() ? request.getSource() : "MANUAL";
+        return createInvoices(dtos, defaultSource, creator, orgId);
+    }
+
+    /**
+     * The bulk create behind {@link #createInvoices(BulkInvoiceRequest, String, String)}, for
+     * callers that authorized {@code creator} themselves (e.g. recurring templates, whose PIN
+     * was checked when the template was saved). Results are in {@code dtos} order.
+     */
+    public BulkInvoiceResult createInvoices(List<InvoiceDto> dtos, String defaultSource,
+                                            TeamActionAuthorizationService.CreatorMetadata creator, String orgId) {
+        long start = System.currentTimeMillis();
+        Set<String> clientIds = new HashSet<>();
+        Set<String> keys = new HashSet<>();
+        for (InvoiceDto dto : dtos) {
+            if (dto == null) continue;
+            if (dto.getClientId() != null) clientIds.add(dto.getClientId());
+            if (dto.getIdempotencyKey() != null) keys.add(dto.getIdempotencyKey());
+        }
+        Map<String, com.moneyops.clients.entity.Client> clients = clientIds.isEmpty() ? Map.of()
+                : clientRepository.findAllByIdInAndOrgIdAndDeletedAtIsNull(clientIds, orgId).stream()
+                        .collect(Collectors.toMap(com.moneyops.clients.entity.Client::getId, Function.identity()));
+        Map<String, Invoice> existingByKey = keys.isEmpty() ? Map.of()
+                : invoiceRepository.findAllByOrgIdAndIdempotencyKeyInAndDeletedAtIsNull(orgId, keys).stream()
+                        .collect(Collectors.toMap(Invoice::getIdempotencyKey, Function.identity(), (a, b) -> a));
+
+        BulkInvoiceResult.Item[] items = new BulkInvoiceResult.Item[dtos.size()];
+        List<Invoice> accepted = new ArrayList<>(dtos.size());
+        List<Integer> acceptedIndex = new ArrayList<>(dtos.size());
+        Map<String, Integer> batchKeys = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < dtos.size(); i++) {
+            InvoiceDto dto = dtos.get(i);
+            try {
+                if (dto == null) throw new IllegalArgumentException("Invoice is empty");
+                Invoice existing = dto.getIdempotencyKey() != null ? existingByKey.get(dto.getIdempotencyKey()) : null;
+                if (existing != null) {
+                    items[i] = bulkItem(i, BulkInvoiceResult.Status.DUPLICATE, existing.getId(), existing.getInvoiceNumber(), null);
+                    continue;
+                }
+                if (dto.getSource() == null || dto.getSource().isBlank()) {
+                    dto.setSource(defaultSource);
+                }
+                invoiceValidator.validate(dto);
+                var client = clients.get(dto.getClientId());
+                if (client == null) throw new IllegalArgumentException("Client not found.");
+                snapshotClient(dto, client);
+                if (dto.getIdempotencyKey() != null) {
+                    Integer first = batchKeys.putIfAbsent(dto.getIdempotencyKey(), i);
+                    if (first != null) {
+                        items[i] = bulkItem(i, BulkInvoiceResult.Status.DUPLICATE, null, null,
+                                "Same idempotencyKey as invoice " + first);
+                        continue;
+                    }
+                }
+
+                // Totals were computed on the DTO by the validator and carried over by the mapper.
+                Invoice invoice = invoiceMapper.toEntity(dto);
+                invoice.setId(new ObjectId().toHexString());
+                invoice.setOrgId(orgId);
+                invoice.setCreatedBy(creator.userId());
+                invoice.setCreatedByEmail(creator.email());
+                invoice.setCreatedByRole(creator.role());
+                invoice.setSource(dto.getSource());
+                invoice.setStatus(InvoiceStatus.DRAFT);
+                invoice.setCreatedAt(now);
+                invoice.setUpdatedAt(now);
+                invoice.setAmountPaid(BigDecimal.ZERO);
+                invoice.setBalanceDue(invoice.getTotalAmount());
+                invoice.setVersion(0L);
+                accepted.add(invoice);
+                acceptedIndex.add(i);
+            } catch (RuntimeException e) {
+                items[i] = bulkItem(i, BulkInvoiceResult.Status.FAILED, null, null,
+                        e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            boolean[] generated = assignInvoiceNumbers(orgId, accepted);
+            insertInvoices(orgId, accepted, acceptedIndex, generated, items);
+        }
+
+        BulkInvoiceResult result = new BulkInvoiceResult();
+        result.setBatchId(new ObjectId().toHexString());
+        result.setRequested(dtos.size());
+        for (BulkInvoiceResult.Item item : items) {
+            switch (item.getStatus()) {
+                case CREATED -> result.setCreated(result.getCreated() + 1);
+                case DUPLICATE -> result.setDuplicates(result.getDuplicates() + 1);
+                case FAILED -> result.setFailed(result.getFailed() + 1);
+            }
+            result.getItems().add(item);
+        }
+        result.setElapsedMs(System.currentTimeMillis() - start);
+
+        if (result.getCreated() > 0) {
+            auditLogService.logCreate("INVOICE_BATCH", result.getBatchId(), Map.of(
+                    "created", result.getCreated(), "duplicates", result.getDuplicates(), "failed", result.getFailed()));
+            eventPublisher.publishEvent(new InvoicesImportedEvent(orgId, result.getBatchId(), result.getCreated()));
+        }
+        return result;
+    }
+
+    /**
+     * Inserts a new invoice. InvoiceNumberService only probes for a taken number before
+     * issuing it, so a manual invoice saved meanwhile can still claim a generated number;
+     * the unique org_number_live_idx rejects the second one and a generated number is
+     * replaced with the next.
+     */
+    private Invoice insertNumbered(Invoice invoice, boolean generatedNumber, LocalDate numberDate) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return invoiceRepository.save(invoice);
+            } catch (DuplicateKeyException e) {
+                if (!isNumberCollision(e.getMessage())) throw e;
+                if (!generatedNumber || attempt >= NUMBER_COLLISION_RETRIES) {
+                    throw new com.moneyops.shared.exceptions.ConflictException(
+                            "Invoice number " + invoice.getInvoiceNumber() + " is already in use.");
+                }
+                invoice.setVersion(null);   // set by the failed insert; null keeps the retry an insert
+                invoice.setInvoiceNumber(invoiceNumberService.next(invoice.getOrgId(), numberDate));
+            }
+        }
+    }
+
+    private static boolean isNumberCollision(String message) {
+        return message != null && message.contains(NUMBER_INDEX);
+    }
+
+    /** Numbers for invoices without one: one lease per distinct issue date. Returns which were numbered. */
+    private boolean[] assignInvoiceNumbers(String orgId, List<Invoice> invoices) {
+        boolean[] generated = new boolean[invoices.size()];
+        Map<LocalDate, List<Invoice>> byDate = new TreeMap<>();
+        for (int i = 0; i < invoices.size(); i++) {
+            Invoice invoice = invoices.get(i);
+            if (invoice.getInvoiceNumber() == null || invoice.getInvoiceNumber().trim().isEmpty()) {
+                byDate.computeIfAbsent(invoice.getIssueDate(), d -> new ArrayList<>()).add(invoice);
+                generated[i] = true;
+            }
+        }
+        for (Map.Entry<LocalDate, List<Invoice>> e : byDate.entrySet()) {
+            List<String> numbers = invoiceNumberService.next(orgId, e.getKey(), e.getValue().size());
+            for (int i = 0; i < numbers.size(); i++) {
+                e.getValue().get(i).setInvoiceNumber(numbers.get(i));
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * Unordered bulk insert; rows the server rejects are marked on {@code items}, the rest
+     * CREATED. Rows whose generated number collided (see insertNumbered) are renumbered and
+     * inserted again.
+     */
+    private void insertInvoices(String orgId, List<Invoice> invoices, List<Integer> indexes, boolean[] generated,
+                                BulkInvoiceResult.Item[] items) {
+        List<Integer> batch = new ArrayList<>(invoices.size());
+        for (int i = 0; i < invoices.size(); i++) batch.add(i);
+
+        for (int attempt = 1; !batch.isEmpty(); attempt++) {
+            List<Integer> renumber = new ArrayList<>();
+            // Written as raw documents: entity callbacks would take one sequence number per row.
+            long firstSeq = changeSequenceService.nextBlock(orgId, batch.size());
+            try {
+                List<org.bson.Document> documents = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    Invoice invoice = invoices.get(batch.get(i));
+                    invoice.setChangeSeq(firstSeq + i);
+                    org.bson.Document document = new org.bson.Document();
+                    mongoTemplate.getConverter().write(invoice, document);
+                    documents.add(document);
+                }
+                try {
+                    mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class).insert(documents).execute();
+                } catch (BulkOperationException e) {
+                    for (BulkWriteError error : e.getErrors()) {
+                        int row = batch.get(error.getIndex());
+                        int index = indexes.get(row);
+                        boolean numberTaken = error.getCode() == DUPLICATE_KEY && isNumberCollision(error.getMessage());
+                        if (numberTaken && generated[row] && attempt < NUMBER_COLLISION_RETRIES) {
+                            renumber.add(row);
+                        } else if (numberTaken) {
+                            items[index] = bulkItem(index, BulkInvoiceResult.Status.FAILED, null, null,
+                                    "Invoice number " + invoices.get(row).getInvoiceNumber() + " is already in use");
+                        } else {
+                            items[index] = error.getCode() == DUPLICATE_KEY
+                                    ? bulkItem(index, BulkInvoiceResult.Status.DUPLICATE, null, null, "idempotencyKey already used")
+                                    : bulkItem(index, BulkInvoiceResult.Status.FAILED, null, null, error.getMessage());
+                        }
+                    }
+                }
+            } finally {
+                changeSequenceService.completed(orgId, firstSeq);
+            }
+            for (int row : batch) {
+                int index = indexes.get(row);
+                if (items[index] == null && !renumber.contains(row)) {
+                    Invoice invoice = invoices.get(row);
+                    items[index] = bulkItem(index, BulkInvoiceResult.Status.CREATED, invoice.getId(), invoice.getInvoiceNumber(), null);
+                }
+            }
+            List<Invoice> retry = new ArrayList<>(renumber.size());
+            for (int row : renumber) {
+                invoices.get(row).setInvoiceNumber(null);
+                retry.add(invoices.get(row));
+            }
+            assignInvoiceNumbers(orgId, retry);
+            batch = renumber;
+        }
+    }
+
+    private static BulkInvoiceResult.Item bulkItem(int index, BulkInvoiceResult.Status status, String id,
+                                                   String invoiceNumber, String error) {
+        BulkInvoiceResult.Item item = new BulkInvoiceResult.Item();
+        item.setIndex(index);
+        item.setStatus(status);
+        item.setId(id);
+        item.setInvoiceNumber(invoiceNumber);
+        item.setError(error);
+        return item;
+    }
+
     public InvoiceDto updateInvoice(String id, InvoiceDto dto, String orgId) {
+        return retryOnVersionConflict(() -> applyUpdate(id, dto, orgId));
+    }
+
+    private InvoiceDto applyUpdate(String id, InvoiceDto dto, String orgId) {
         Invoice existing = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
 
@@ -204,14 +486,21 @@ public class InvoiceService {
         updated.setSource(existing.getSource());
         updated.setUpdatedAt(LocalDateTime.now());
         updated.setAmountPaid(existing.getAmountPaid()); // Preserve amount paid
+        updated.setAppliedPaymentIds(existing.getAppliedPaymentIds());
+        updated.setVersion(existing.getVersion()); // ✨ Fails the save if a payment landed since the read
 
         // Since items are embedded, simply saving the updated invoice includes its items
         recalculateInvoiceTotals(updated); // Recalculate totals after item changes
         Invoice saved = invoiceRepository.save(updated);
+        publishChange(existing, saved);
         return populateClientDetails(saved);
     }
 
     public void deleteInvoice(String id, String orgId) {
+        retryOnVersionConflict(() -> applyDelete(id, orgId));
+    }
+
+    private Void applyDelete(String id, String orgId) {
         Invoice invoice = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
 
@@ -220,8 +509,11 @@ public class InvoiceService {
         }
 
         // ✨ Soft Delete
+        Invoice beforeDelete = snapshot(invoice);
         invoice.setDeletedAt(LocalDateTime.now());
         invoiceRepository.save(invoice);
+        publishChange(beforeDelete, invoice);
+        return null;
     }
 
     public InvoiceDto sendInvoice(String id, String orgId) {
@@ -248,13 +540,22 @@ public class InvoiceService {
         String htmlContent = buildInvoiceEmailContent(invoice, orgName);
         emailService.sendInvoiceEmail(invoice.getClientEmail(), subject, htmlContent);
 
-        Invoice beforeUpdate = invoiceMapper.toEntity(invoiceMapper.toDto(invoice));
-        if (currentStatus == InvoiceStatus.DRAFT) {
+        // Only the status write is retried; the email has gone out once already
+        return retryOnVersionConflict(() -> applySent(id, orgId));
+    }
+
+    private InvoiceDto applySent(String id, String orgId) {
+        Invoice invoice = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
+
+        Invoice beforeUpdate = snapshot(invoice);
+        if (invoice.getStatus() == InvoiceStatus.DRAFT) {
             invoice.setStatus(InvoiceStatus.SENT);
         }
         invoice.setUpdatedAt(LocalDateTime.now());
         Invoice saved = invoiceRepository.save(invoice);
         auditLogService.logUpdate("INVOICE", saved.getId(), beforeUpdate, saved);
+        publishChange(beforeUpdate, saved);
         return populateClientDetails(saved);
     }
 
@@ -287,11 +588,14 @@ public class InvoiceService {
                 amount
         );
 
-        auditLogService.logUpdate("INVOICE", invoice.getId(),
-                invoiceMapper.toEntity(invoiceMapper.toDto(invoice)), invoice);
+        auditLogService.logUpdate("INVOICE", invoice.getId(), snapshot(invoice), invoice);
     }
 
     public InvoiceDto markPaid(String id, String orgId) {
+        return retryOnVersionConflict(() -> applyMarkPaid(id, orgId));
+    }
+
+    private InvoiceDto applyMarkPaid(String id, String orgId) {
         Invoice invoice = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
 
@@ -299,12 +603,14 @@ public class InvoiceService {
             throw new IllegalStateException("Can only mark sent invoices as paid");
         }
 
+        Invoice beforeUpdate = snapshot(invoice);
         invoice.setStatus(InvoiceStatus.PAID);
         invoice.setPaymentDate(LocalDate.now());
         invoice.setAmountPaid(invoice.getTotalAmount());
         invoice.setBalanceDue(BigDecimal.ZERO);
         invoice.setUpdatedAt(LocalDateTime.now());
         Invoice saved = invoiceRepository.save(invoice);
+        publishChange(beforeUpdate, saved);
         return populateClientDetails(saved);
     }
 
@@ -402,20 +708,31 @@ public class InvoiceService {
     public List<InvoiceDto> getOverdueInvoices(String orgId) {
         List<Invoice> overdue = invoiceRepository.findOverdueByOrgId(orgId, LocalDate.now());
         for (Invoice invoice : overdue) {
+            Invoice beforeUpdate = snapshot(invoice);
             invoice.setStatus(InvoiceStatus.OVERDUE);
-            invoiceRepository.save(invoice);
+            try {
+                invoiceRepository.save(invoice);
+            } catch (OptimisticLockingFailureException e) {
+                continue; // A payment landed meanwhile; the next sweep sees its outcome
+            }
+            publishChange(beforeUpdate, invoice);
         }
         return populateClientDetails(overdue, orgId);
     }
 
     // InvoiceItem operations
     public InvoiceItemDto addItem(String invoiceId, InvoiceItemDto itemDto, String orgId) {
+        return retryOnVersionConflict(() -> applyAddItem(invoiceId, itemDto, orgId));
+    }
+
+    private InvoiceItemDto applyAddItem(String invoiceId, InvoiceItemDto itemDto, String orgId) {
         Invoice invoice = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(invoiceId, orgId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
 
         if (invoice.getStatus() != InvoiceStatus.DRAFT) {
             throw new IllegalStateException("Can only add items to draft invoices");
         }
+        Invoice beforeUpdate = snapshot(invoice);
 
         InvoiceItem item = new InvoiceItem();
         item.setType(InvoiceItem.ItemType.valueOf(itemDto.getType()));
@@ -424,29 +741,24 @@ public class InvoiceService {
         item.setRate(itemDto.getRate());
         item.setGstPercent(itemDto.getGstPercent());
 
-        // Calculate line amounts
-        var qty = item.getType() == InvoiceItem.ItemType.SERVICE ? 1 : item.getQuantity();
-        var lineSubtotal = item.getRate().multiply(BigDecimal.valueOf(qty));
-        var lineGst = lineSubtotal.multiply(item.getGstPercent().divide(BigDecimal.valueOf(100)));
-        var lineTotal = lineSubtotal.add(lineGst);
-
-        item.setLineSubtotal(lineSubtotal);
-        item.setLineGst(lineGst);
-        item.setLineTotal(lineTotal);
-
         if (invoice.getItems() == null) {
             invoice.setItems(new java.util.ArrayList<>());
         }
         invoice.getItems().add(item);
 
-        // Recalculate invoice totals
+        // Recalculate line and invoice totals
         recalculateInvoiceTotals(invoice);
 
         invoiceRepository.save(invoice);
+        publishChange(beforeUpdate, invoice);
         return invoiceMapper.toItemDto(item);
     }
 
     public void updateItem(String itemId, InvoiceItemDto itemDto, String orgId) {
+        retryOnVersionConflict(() -> applyUpdateItem(itemId, itemDto, orgId));
+    }
+
+    private Void applyUpdateItem(String itemId, InvoiceItemDto itemDto, String orgId) {
         // Need to find which invoice contains this item
         // In MongoDB we usually know the invoice ID, but if only itemId is provided:
         Invoice invoice = invoiceRepository.findAllByOrgIdAndDeletedAtIsNull(orgId).stream()
@@ -457,6 +769,7 @@ public class InvoiceService {
         if (invoice.getStatus() != InvoiceStatus.DRAFT) {
             throw new IllegalStateException("Can only update items in draft invoices");
         }
+        Invoice beforeUpdate = snapshot(invoice);
 
         InvoiceItem item = invoice.getItems().stream()
                 .filter(i -> i.getId().equals(itemId))
@@ -468,21 +781,18 @@ public class InvoiceService {
         item.setRate(itemDto.getRate());
         item.setGstPercent(itemDto.getGstPercent());
 
-        var qty = item.getType() == InvoiceItem.ItemType.SERVICE ? 1 : item.getQuantity();
-        var lineSubtotal = item.getRate().multiply(BigDecimal.valueOf(qty));
-        var lineGst = lineSubtotal.multiply(item.getGstPercent().divide(BigDecimal.valueOf(100)));
-        var lineTotal = lineSubtotal.add(lineGst);
-
-        item.setLineSubtotal(lineSubtotal);
-        item.setLineGst(lineGst);
-        item.setLineTotal(lineTotal);
-
-        // Recalculate invoice totals
+        // Recalculate line and invoice totals
         recalculateInvoiceTotals(invoice);
         invoiceRepository.save(invoice);
+        publishChange(beforeUpdate, invoice);
+        return null;
     }
 
     public void deleteItem(String itemId, String orgId) {
+        retryOnVersionConflict(() -> applyDeleteItem(itemId, orgId));
+    }
+
+    private Void applyDeleteItem(String itemId, String orgId) {
         Invoice invoice = invoiceRepository.findAllByOrgIdAndDeletedAtIsNull(orgId).stream()
                 .filter(inv -> inv.getItems() != null && inv.getItems().stream().anyMatch(i -> i.getId().equals(itemId)))
                 .findFirst()
@@ -491,37 +801,97 @@ public class InvoiceService {
         if (invoice.getStatus() != InvoiceStatus.DRAFT) {
             throw new IllegalStateException("Can only delete items from draft invoices");
         }
+        Invoice beforeUpdate = snapshot(invoice);
 
         invoice.getItems().removeIf(i -> i.getId().equals(itemId));
 
         // Recalculate invoice totals
         recalculateInvoiceTotals(invoice);
         invoiceRepository.save(invoice);
+        publishChange(beforeUpdate, invoice);
+        return null;
     }
 
-    private void recalculateInvoiceTotals(Invoice invoice) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal gstTotal = BigDecimal.ZERO;
-        BigDecimal totalAmount = BigDecimal.ZERO;
+    /** The invoice as InvoiceRepository.applyPayment leaves it, for the change event. */
+    private Invoice withPayment(Invoice before, com.moneyops.transactions.dto.TransactionDto payment, long changeSeq) {
+        Invoice after = snapshot(before);
+        BigDecimal paid = before.getAmountPaid() != null ? before.getAmountPaid() : BigDecimal.ZERO;
+        BigDecimal total = before.getTotalAmount() != null ? before.getTotalAmount() : BigDecimal.ZERO;
+        after.setAmountPaid(paid.add(payment.getAmount()));
+        after.setBalanceDue(total.subtract(after.getAmountPaid()));
+        if (after.getBalanceDue().compareTo(BigDecimal.ZERO) <= 0) {
+            after.setStatus(InvoiceStatus.PAID);
+            after.setPaymentDate(payment.getTransactionDate());
+        } else if (before.getStatus() == InvoiceStatus.DRAFT) {
+            after.setStatus(InvoiceStatus.SENT);
+        }
+        List<String> applied = new java.util.ArrayList<>(before.getAppliedPaymentIds() != null ? before.getAppliedPaymentIds() : List.of());
+        applied.add(payment.getId());
+        after.setAppliedPaymentIds(applied);
+        after.setVersion((before.getVersion() != null ? before.getVersion() : 0L) + 1);
+        after.setChangeSeq(changeSeq);
+        after.setUpdatedAt(LocalDateTime.now());
+        return after;
+    }
 
-        if (invoice.getItems() != null) {
-            for (InvoiceItem item : invoice.getItems()) {
-                subtotal = subtotal.add(item.getLineSubtotal());
-                gstTotal = gstTotal.add(item.getLineGst());
-                totalAmount = totalAmount.add(item.getLineTotal());
+    /**
+     * Re-runs a read-modify-save when its save loses the @Version check to a concurrent write
+     * (typically a payment); the last conflict propagates as a 409.
+     */
+    private <T> T retryOnVersionConflict(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (i >= VERSION_CONFLICT_RETRIES) throw e;
             }
         }
+    }
 
-        invoice.setSubtotal(subtotal);
-        invoice.setGstTotal(gstTotal);
-        invoice.setTotalAmount(totalAmount);
-        
-        // Update balance due
-        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
-        invoice.setBalanceDue(totalAmount.subtract(paid));
+    /**
+     * A copy of every field (createdAt, deletedAt, version, ...) for the change event. Items
+     * and applied payment ids are copied too, as the callers edit them in place.
+     */
+    private static Invoice snapshot(Invoice invoice) {
+        Invoice copy = new Invoice();
+        BeanUtils.copyProperties(invoice, copy);
+        if (invoice.getItems() != null) {
+            copy.setItems(invoice.getItems().stream().map(item -> {
+                InvoiceItem itemCopy = new InvoiceItem();
+                BeanUtils.copyProperties(item, itemCopy);
+                return itemCopy;
+            }).collect(Collectors.toCollection(java.util.ArrayList::new)));
+        }
+        if (invoice.getAppliedPaymentIds() != null) {
+            copy.setAppliedPaymentIds(new java.util.ArrayList<>(invoice.getAppliedPaymentIds()));
+        }
+        return copy;
+    }
+
+    /** Notifies in-process listeners (search index, caches) of an invoice update or soft delete. */
+    private void publishChange(Invoice before, Invoice after) {
+        EntityChangedEvent event;
+        if (after.getDeletedAt() != null) {
+            event = EntityChangedEvent.deleted(after.getOrgId(), EntityChangedEvent.INVOICE, after.getId(), before);
+        } else {
+            event = EntityChangedEvent.updated(after.getOrgId(), EntityChangedEvent.INVOICE, after.getId(), before, after);
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    private void recalculateInvoiceTotals(Invoice invoice) {
+        InvoiceTotalsCalculator.computeTotals(invoice);
         invoice.setUpdatedAt(LocalDateTime.now());
     }
 
+    private static void snapshotClient(InvoiceDto dto, com.moneyops.clients.entity.Client client) {
+        // Lock in the snapshot data
+        dto.setClientName(client.getName());
+        dto.setClientEmail(client.getEmail());
+        dto.setClientCompany(client.getCompany());
+        dto.setClientPhone(client.getPhoneNumber());
+    }
+
     private InvoiceDto populateClientDetails(Invoice invoice) {
         InvoiceDto dto = invoiceMapper.toDto(invoice);
         
@@ -676,6 +1046,10 @@ public class InvoiceService {
     public com.moneyops.transactions.dto.TransactionDto recordPayment(String id, com.moneyops.transactions.dto.TransactionDto paymentDto, String orgId, String userId) {
         Invoice invoice = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
+        // Keyed retries fall through: the payment they repeat may be what paid the invoice.
+        if (invoice.getStatus() == InvoiceStatus.PAID && paymentDto.getIdempotencyKey() == null) {
+            throw new ValidationException("Invoice is already paid.");
+        }
         
         paymentDto.setInvoiceId(id);
         paymentDto.setClientId(invoice.getClientId());
@@ -687,25 +1061,112 @@ public class InvoiceService {
             paymentDto.setTransactionDate(LocalDate.now());
         }
 
-        // ✨ We don't call transactionService here if we want to avoid double-processing, 
-        // but transactionService is where the DB write happens.
-        com.moneyops.transactions.dto.TransactionDto saved = transactionService.createTransaction(paymentDto, orgId, userId);
+        // ✨ Outbox: the payment row stays flagged until the invoice write below has happened
+        com.moneyops.transactions.dto.TransactionDto saved = transactionService.createInvoicePayment(paymentDto, orgId, userId);
+        return applyRecordedPayment(id, orgId, saved);
+    }
 
-        // ✨ Denormalized sync
-        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
-        invoice.setAmountPaid(paid.add(paymentDto.getAmount()));
-        invoice.setBalanceDue(invoice.getTotalAmount().subtract(invoice.getAmountPaid()));
-        
-        if (invoice.getBalanceDue().compareTo(BigDecimal.ZERO) <= 0) {
-            invoice.setStatus(InvoiceStatus.PAID);
-            invoice.setPaymentDate(paymentDto.getTransactionDate());
-        } else if (invoice.getStatus() == InvoiceStatus.DRAFT) {
-            invoice.setStatus(InvoiceStatus.SENT); // Transition out of draft if payment received
+    /**
+     * Finishes payments whose request died between inserting the payment row and applying it
+     * to the invoice. Safe to run on every node: applyPayment skips a payment id the invoice
+     * already counts.
+     */
+    @org.springframework.scheduling.annotation.Scheduled(fixedDelayString = "${app.invoices.pending-payment-sweep-ms:60000}")
+    public void completePendingPayments() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(PENDING_PAYMENT_GRACE);
+        for (com.moneyops.transactions.entity.Transaction pending : transactionService.pendingInvoicePayments(cutoff, PENDING_PAYMENT_BATCH)) {
+            try {
+                com.moneyops.transactions.dto.TransactionDto payment = transactionService.getTransactionById(pending.getId(), pending.getOrgId());
+                applyRecordedPayment(pending.getInvoiceId(), pending.getOrgId(), payment);
+                log.info("Completed pending payment {} on invoice {}", pending.getId(), pending.getInvoiceId());
+            } catch (ValidationException | ResponseStatusException e) {
+                log.info("Pending payment {} could not be applied to invoice {} and was removed: {}",
+                        pending.getId(), pending.getInvoiceId(), e.getMessage());
+            } catch (Exception e) {
+                log.warn("Failed to complete pending payment {}: {}", pending.getId(), e.getMessage());
+            }
         }
+    }
 
-        invoice.setUpdatedAt(LocalDateTime.now());
-        invoiceRepository.save(invoice);
-        
+    private com.moneyops.transactions.dto.TransactionDto applyRecordedPayment(String id, String orgId,
+                                                                             com.moneyops.transactions.dto.TransactionDto saved) {
+        // ✨ Atomic apply: one conditional findAndModify, so concurrent payments can't lose updates
+        long changeSeq = changeSequenceService.next(orgId);
+        Invoice beforeUpdate;
+        try {
+            beforeUpdate = invoiceRepository.applyPayment(id, orgId, saved.getId(), saved.getAmount(),
+                    saved.getTransactionDate(), changeSeq);
+        } finally {
+            changeSequenceService.completed(orgId, changeSeq);
+        }
+
+        if (beforeUpdate == null) {
+            Invoice current = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId).orElse(null);
+            if (current != null && current.getAppliedPaymentIds() != null && current.getAppliedPaymentIds().contains(saved.getId())) {
+                transactionService.invoicePaymentApplied(saved.getId(), orgId);
+                return saved; // Idempotent retry of a payment already applied
+            }
+            // Invoice was paid in full or deleted since the read: don't leave an orphan payment behind.
+            transactionService.deleteTransaction(saved.getId(), orgId);
+            if (current == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found");
+            }
+            throw new ValidationException("Invoice is already paid.");
+        }
+
+        transactionService.invoicePaymentApplied(saved.getId(), orgId);
+        publishChange(beforeUpdate, withPayment(beforeUpdate, saved, changeSeq));
         return saved;
     }
+
+    /**
+     * Applies an existing, unlinked INCOME transaction (e.g. an imported bank credit) as a
+     * payment on the invoice. The link is claimed first with a conditional write, then the
+     * payment is applied atomically as in recordPayment; if the invoice can no longer take it
+     * the link is released again. Repeating the call for the same pair is a no-op.
+     */
+    public InvoiceDto applyExistingPayment(String id, String transactionId, String orgId) {
+        Invoice invoice = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
+        com.moneyops.transactions.dto.TransactionDto payment = transactionService.getTransactionById(transactionId, orgId);
+
+        if (!"INCOME".equals(payment.getType())) {
+            throw new ValidationException("Only income transactions can be applied to an invoice.");
+        }
+        if (payment.getCurrency() != null && invoice.getCurrency() != null && !payment.getCurrency().equals(invoice.getCurrency())) {
+            throw new ValidationException("Transaction currency does not match the invoice currency.");
+        }
+        if (payment.getInvoiceId() != null && !payment.getInvoiceId().equals(id)) {
+            throw new com.moneyops.shared.exceptions.ConflictException("Transaction is already linked to another invoice.");
+        }
+        if (payment.getInvoiceId() == null
+                && transactionService.relinkInvoice(transactionId, orgId, null, id, invoice.getClientId()) == null) {
+            throw new com.moneyops.shared.exceptions.ConflictException("Transaction is already linked to another invoice.");
+        }
+
+        long changeSeq = changeSequenceService.next(orgId);
+        Invoice beforeUpdate;
+        try {
+            beforeUpdate = invoiceRepository.applyPayment(id, orgId, transactionId, payment.getAmount(),
+                    payment.getTransactionDate() != null ? payment.getTransactionDate() : LocalDate.now(), changeSeq);
+        } finally {
+            changeSequenceService.completed(orgId, changeSeq);
+        }
+
+        if (beforeUpdate == null) {
+            Invoice current = invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(id, orgId).orElse(null);
+            if (current != null && current.getAppliedPaymentIds() != null && current.getAppliedPaymentIds().contains(transactionId)) {
+                return populateClientDetails(current);
+            }
+            transactionService.relinkInvoice(transactionId, orgId, id, null, payment.getClientId());
+            if (current == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found");
+            }
+            throw new ValidationException("Invoice is already paid.");
+        }
+
+        Invoice after = withPayment(beforeUpdate, payment, changeSeq);
+        publishChange(beforeUpdate, after);
+        return populateClientDetails(after);
+    }
 }
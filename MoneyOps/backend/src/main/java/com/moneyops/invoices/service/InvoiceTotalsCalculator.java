@@ -0,0 +1,131 @@
+package com.moneyops.invoices.service;
+
+import com.moneyops.invoices.dto.InvoiceDto;
+import com.moneyops.invoices.dto.InvoiceItemDto;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Line and invoice totals: lineSubtotal = rate × quantity (1 for SERVICE), lineGst =
+ * lineSubtotal × gstPercent / 100 rounded HALF_UP to paise, lineTotal = the two summed.
+ *
+ * Rates with at most two decimals and GST rates with at most two decimals — every real
+ * invoice — are computed in long paise with no intermediate BigDecimals; anything finer
+ * or too large for a long falls back to BigDecimal with the same rounding. Null rates
+ * and GST rates count as zero.
+ */
+public final class InvoiceTotalsCalculator {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private InvoiceTotalsCalculator() {
+    }
+
+    /** Computes every line, then subtotal, GST, total and balance due. */
+    public static void computeTotals(Invoice invoice) {
+        Totals totals = new Totals();
+        List<InvoiceItem> items = invoice.getItems();
+        if (items != null) {
+            for (InvoiceItem item : items) {
+                totals.add(item.getType() == InvoiceItem.ItemType.SERVICE, item.getQuantity(), item.getRate(), item.getGstPercent());
+                item.setLineSubtotal(totals.lineSubtotal);
+                item.setLineGst(totals.lineGst);
+                item.setLineTotal(totals.lineTotal);
+            }
+        }
+        invoice.setSubtotal(totals.subtotal());
+        invoice.setGstTotal(totals.gst());
+        invoice.setTotalAmount(totals.total());
+        BigDecimal paid = invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO;
+        invoice.setBalanceDue(invoice.getTotalAmount().subtract(paid));
+    }
+
+    /** Computes every line, then subtotal, GST and total, for previews and validation. */
+    public static void computeTotals(InvoiceDto dto) {
+        Totals totals = new Totals();
+        if (dto.getItems() != null) {
+            for (InvoiceItemDto item : dto.getItems()) {
+                totals.add("SERVICE".equals(item.getType()), item.getQuantity(), item.getRate(), item.getGstPercent());
+                item.setLineSubtotal(totals.lineSubtotal);
+                item.setLineGst(totals.lineGst);
+                item.setLineTotal(totals.lineTotal);
+            }
+        }
+        dto.setSubtotal(totals.subtotal());
+        dto.setGstTotal(totals.gst());
+        dto.setTotalAmount(totals.total());
+    }
+
+    /** Running totals in paise while every line is exact, in BigDecimal once one is not. */
+    private static final class Totals {
+        long subtotalPaise;
+        long gstPaise;
+        BigDecimal subtotal;
+        BigDecimal gst;
+
+        BigDecimal lineSubtotal;
+        BigDecimal lineGst;
+        BigDecimal lineTotal;
+
+        void add(boolean service, Integer quantity, BigDecimal rate, BigDecimal gstPercent) {
+            long qty = service || quantity == null ? 1 : quantity;
+            rate = rate != null ? rate : BigDecimal.ZERO;
+            gstPercent = gstPercent != null ? gstPercent : BigDecimal.ZERO;
+            if (subtotal == null && addExact(qty, rate, gstPercent)) {
+                return;
+            }
+            if (subtotal == null) {
+                subtotal = BigDecimal.valueOf(subtotalPaise, 2);
+                gst = BigDecimal.valueOf(gstPaise, 2);
+            }
+            lineSubtotal = rate.multiply(BigDecimal.valueOf(qty));
+            lineGst = lineSubtotal.multiply(gstPercent).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            lineTotal = lineSubtotal.add(lineGst);
+            subtotal = subtotal.add(lineSubtotal);
+            gst = gst.add(lineGst);
+        }
+
+        private boolean addExact(long qty, BigDecimal rate, BigDecimal gstPercent) {
+            if (rate.scale() > 2 || gstPercent.scale() > 2) {
+                return false;
+            }
+            try {
+                long ratePaise = rate.movePointRight(2).longValueExact();
+                long gstBasisPoints = gstPercent.movePointRight(2).longValueExact();
+                long linePaise = Math.multiplyExact(ratePaise, qty);
+                long gstScaled = Math.multiplyExact(linePaise, gstBasisPoints);
+                // HALF_UP: halves round away from zero
+                long lineGstPaise = Math.addExact(Math.absExact(gstScaled), 5_000) / 10_000 * Long.signum(gstScaled);
+                long newSubtotal = Math.addExact(subtotalPaise, linePaise);
+                long newGst = Math.addExact(gstPaise, lineGstPaise);
+                long lineTotalPaise = Math.addExact(linePaise, lineGstPaise);
+                Math.addExact(newSubtotal, newGst);
+
+                subtotalPaise = newSubtotal;
+                gstPaise = newGst;
+                lineSubtotal = BigDecimal.valueOf(linePaise, 2);
+                lineGst = BigDecimal.valueOf(lineGstPaise, 2);
+                lineTotal = BigDecimal.valueOf(lineTotalPaise, 2);
+                return true;
+            } catch (ArithmeticException e) {
+                return false;
+            }
+        }
+
+        BigDecimal subtotal() {
+            return subtotal != null ? subtotal : BigDecimal.valueOf(subtotalPaise, 2);
+        }
+
+        BigDecimal gst() {
+            return gst != null ? gst : BigDecimal.valueOf(gstPaise, 2);
+        }
+
+        BigDecimal total() {
+            return subtotal().add(gst());
+        }
+    }
+}
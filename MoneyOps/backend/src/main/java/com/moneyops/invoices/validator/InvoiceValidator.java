@@ -3,6 +3,7 @@ package com.moneyops.invoices.validator;
 
 import com.moneyops.invoices.dto.InvoiceDto;
 import com.moneyops.invoices.dto.InvoiceItemDto;
+import com.moneyops.invoices.service.InvoiceTotalsCalculator;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -31,7 +32,7 @@ public class InvoiceValidator {
             throw new IllegalArgumentException("At least one item is required");
         }
         validateItems(dto.getItems());
-        calculateTotals(dto);
+        InvoiceTotalsCalculator.computeTotals(dto);
     }
 
     private void validateItems(List<InvoiceItemDto> items) {
@@ -53,30 +54,4 @@ public class InvoiceValidator {
             }
         }
     }
-
-    private void calculateTotals(InvoiceDto dto) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal gstTotal = BigDecimal.ZERO;
-        BigDecimal total = BigDecimal.ZERO;
-
-        for (InvoiceItemDto item : dto.getItems()) {
-            BigDecimal qty = item.getType().equals("SERVICE") ? BigDecimal.ONE : BigDecimal.valueOf(item.getQuantity());
-            BigDecimal lineSubtotal = item.getRate().multiply(qty);
-            BigDecimal lineGst = lineSubtotal.multiply(item.getGstPercent())
-                    .divide(BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
-            BigDecimal lineTotal = lineSubtotal.add(lineGst);
-
-            item.setLineSubtotal(lineSubtotal);
-            item.setLineGst(lineGst);
-            item.setLineTotal(lineTotal);
-
-            subtotal = subtotal.add(lineSubtotal);
-            gstTotal = gstTotal.add(lineGst);
-            total = total.add(lineTotal);
-        }
-
-        dto.setSubtotal(subtotal);
-        dto.setGstTotal(gstTotal);
-        dto.setTotalAmount(total);
-    }
 }
\ No newline at end of file
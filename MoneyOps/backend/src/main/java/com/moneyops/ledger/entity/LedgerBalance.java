@@ -0,0 +1,33 @@
+package com.moneyops.ledger.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger balance and live transaction count for one generation of an org's checkpoints,
+ * keyed by orgId + ":" + generation. The live generation is the org's "ledger"
+ * Materialization.
+ */
+@Document(collection = "ledger_balances")
+@Data
+public class LedgerBalance {
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private long generation;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance = BigDecimal.ZERO;
+    private long entries;
+
+    private LocalDateTime rebuiltAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.moneyops.ledger.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-org, per-day ledger checkpoint: the signed net of that day's live transactions.
+ *
+ * The closing balance of day D is LedgerBalance.balance minus the net of every later
+ * checkpoint, so a backdated write only $inc's its own day and the org balance. Rows
+ * belong to a rebuild generation; only the org's live one is read or written.
+ */
+@Document(collection = "ledger_checkpoints")
+@CompoundIndex(name = "org_generation_date_idx", def = "{'orgId': 1, 'generation': 1, 'date': -1}", unique = true)
+@Data
+public class LedgerCheckpoint {
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private long generation;
+    private LocalDate date;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal net = BigDecimal.ZERO;   // INCOME - EXPENSE for the day
+    private long entries;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,281 @@
+package com.moneyops.ledger.service;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.TransactionsInsertedEvent;
+import com.moneyops.ledger.entity.LedgerBalance;
+import com.moneyops.ledger.entity.LedgerCheckpoint;
+import com.moneyops.sync.Materialization;
+import com.moneyops.sync.MaterializationService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running-balance ledger backed by daily checkpoints.
+ *
+ * Transaction events $inc the day's LedgerCheckpoint and the org's LedgerBalance, so
+ * create/update/delete — backdated or not — cost two writes. A page is one sort+limit on
+ * org_ledger_idx; the balance after its newest entry is the org balance minus the net of
+ * later days (one aggregation over those checkpoints) minus any newer same-day entries.
+ * Cost tracks page depth, not history length.
+ *
+ * Import chunks arrive as TransactionsInsertedEvent and cost one $inc per day touched.
+ * An org's checkpoints are built from its transactions on first use, or via rebuild(),
+ * as a new generation that MaterializationService swaps in across nodes; writes that
+ * arrive during a rebuild are queued and then go to whichever generation is live.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LedgerService.class);
+
+    /** Newest first; must match org_ledger_idx on transactions. */
+    public static final Sort LEDGER_ORDER = Sort.by(Sort.Direction.DESC, "transactionDate", "createdAt", "_id");
+
+    public record LedgerPage(List<Transaction> transactions, List<BigDecimal> balances, long totalEntries) {
+    }
+
+    private static final String VIEW = "ledger";
+
+    private final MongoTemplate mongoTemplate;
+    private final MaterializationService materializationService;
+
+    public LedgerPage getPage(String orgId, int page, int size) {
+        LedgerBalance balance = ensureBalance(orgId);
+        long offset = (long) Math.max(0, page) * size;
+
+        Query query = liveTransactions(orgId).with(LEDGER_ORDER).skip(offset).limit(size);
+        List<Transaction> transactions = mongoTemplate.find(query, Transaction.class);
+        if (transactions.isEmpty()) {
+            return new LedgerPage(List.of(), List.of(), balance.getEntries());
+        }
+
+        BigDecimal running = balanceAfter(orgId, balance, transactions.get(0), offset);
+        List<BigDecimal> balances = new ArrayList<>(transactions.size());
+        for (Transaction t : transactions) {
+            balances.add(running);
+            running = running.subtract(signedAmount(t));
+        }
+        return new LedgerPage(transactions, balances, balance.getEntries());
+    }
+
+    /**
+     * Recomputes the org's checkpoints and balance from its live transactions as a new
+     * generation and swaps it in; readers keep the previous one until then.
+     */
+    public LedgerBalance rebuild(String orgId) {
+        return balanceOf(materializationService.rebuild(VIEW, orgId, builder(orgId)));
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.is(EntityChangedEvent.TRANSACTION) || event.getOrgId() == null) {
+            return;
+        }
+        Transaction before = event.getBefore(Transaction.class);
+        Transaction after = event.getAfter(Transaction.class);
+        materializationService.write(VIEW, event.getOrgId(), state -> {
+            // The live generation was built after this write
+            if (MaterializationService.covers(state, after != null ? after : before)) {
+                return;
+            }
+            switch (event.getChangeType()) {
+                case CREATED -> apply(state, after, 1);
+                case UPDATED -> {
+                    apply(state, before, -1);
+                    apply(state, after, 1);
+                }
+                case DELETED -> apply(state, before, -1);
+            }
+        });
+    }
+
+    /** One $inc per day an import chunk touched. */
+    @EventListener
+    public void onTransactionsInserted(TransactionsInsertedEvent event) {
+        materializationService.write(VIEW, event.getOrgId(), state -> {
+            Map<LocalDate, BigDecimal> net = new HashMap<>();
+            Map<LocalDate, Long> entries = new HashMap<>();
+            for (Transaction t : event.getTransactions()) {
+                if (MaterializationService.covers(state, t)) continue;
+                net.merge(t.getTransactionDate(), signedAmount(t), BigDecimal::add);
+                entries.merge(t.getTransactionDate(), 1L, Long::sum);
+            }
+            net.forEach((date, dayNet) -> apply(state, date, dayNet, entries.get(date)));
+        });
+    }
+
+    private void apply(Materialization state, Transaction transaction, int direction) {
+        if (transaction == null) {
+            return;
+        }
+        apply(state, transaction.getTransactionDate(),
+                signedAmount(transaction).multiply(BigDecimal.valueOf(direction)), direction);
+    }
+
+    private void apply(Materialization state, LocalDate date, BigDecimal net, long entries) {
+        Decimal128 delta = new Decimal128(net);
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(balanceId(state.getOrgId(), state.getGeneration()))),
+                new Update().inc("balance", delta).inc("entries", entries).set("updatedAt", now),
+                LedgerBalance.class);
+        mongoTemplate.upsert(new Query(Criteria.where("orgId").is(state.getOrgId())
+                        .and("generation").is(state.getGeneration()).and("date").is(date)),
+                new Update().inc("net", delta).inc("entries", entries).set("updatedAt", now),
+                LedgerCheckpoint.class);
+    }
+
+    private MaterializationService.Builder builder(String orgId) {
+        return new MaterializationService.Builder() {
+            @Override
+            public void build(long generation) {
+                long start = System.currentTimeMillis();
+                Document signed = new Document("$multiply", List.of(
+                        new Document("$convert", new Document("input", "$amount")
+                                .append("to", "decimal").append("onError", 0).append("onNull", 0)),
+                        new Document("$switch", new Document("branches", List.of(
+                                new Document("case", new Document("$eq", List.of("$type", TransactionType.INCOME.name()))).append("then", 1),
+                                new Document("case", new Document("$eq", List.of("$type", TransactionType.EXPENSE.name()))).append("then", -1)))
+                                .append("default", 0))));
+                Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("orgId").is(orgId).and("deletedAt").is(null)),
+                        context -> new Document("$group", new Document("_id", "$transactionDate")
+                                .append("net", new Document("$sum", signed))
+                                .append("entries", new Document("$sum", 1))));
+                List<Document> days = mongoTemplate.aggregate(aggregation, Transaction.class, Document.class).getMappedResults();
+
+                LocalDateTime now = LocalDateTime.now();
+                BigDecimal total = BigDecimal.ZERO;
+                long entries = 0;
+                List<LedgerCheckpoint> checkpoints = new ArrayList<>(days.size());
+                for (Document day : days) {
+                    LedgerCheckpoint checkpoint = new LedgerCheckpoint();
+                    checkpoint.setOrgId(orgId);
+                    checkpoint.setGeneration(generation);
+                    checkpoint.setDate(toLocalDate(day.get("_id")));
+                    checkpoint.setNet(toDecimal(day.get("net")));
+                    checkpoint.setEntries(((Number) day.get("entries")).longValue());
+                    checkpoint.setUpdatedAt(now);
+                    checkpoints.add(checkpoint);
+                    total = total.add(checkpoint.getNet());
+                    entries += checkpoint.getEntries();
+                }
+
+                if (!checkpoints.isEmpty()) {
+                    mongoTemplate.insertAll(checkpoints);
+                }
+                LedgerBalance balance = new LedgerBalance();
+                balance.setId(balanceId(orgId, generation));
+                balance.setOrgId(orgId);
+                balance.setGeneration(generation);
+                balance.setBalance(total);
+                balance.setEntries(entries);
+                balance.setRebuiltAt(now);
+                balance.setUpdatedAt(now);
+                mongoTemplate.save(balance);
+
+                log.info("Built ledger generation {} for org {}: {} days, {} entries in {} ms",
+                        generation, orgId, checkpoints.size(), entries, System.currentTimeMillis() - start);
+            }
+
+            @Override
+            public void discardExcept(Long keep) {
+                Criteria stale = Criteria.where("orgId").is(orgId);
+                if (keep != null) stale = stale.and("generation").ne(keep);
+                mongoTemplate.remove(new Query(stale), LedgerCheckpoint.class);
+                // Balances from before generations were keyed by the bare orgId
+                mongoTemplate.remove(new Query(new Criteria().orOperator(stale, Criteria.where("_id").is(orgId))),
+                        LedgerBalance.class);
+            }
+        };
+    }
+
+    /** Current ledger balance (INCOME - EXPENSE over live transactions). */
+    public BigDecimal currentBalance(String orgId) {
+        return ensureBalance(orgId).getBalance();
+    }
+
+    private LedgerBalance ensureBalance(String orgId) {
+        return balanceOf(materializationService.ensure(VIEW, orgId, builder(orgId)));
+    }
+
+    private LedgerBalance balanceOf(Materialization state) {
+        LedgerBalance balance = mongoTemplate.findById(balanceId(state.getOrgId(), state.getGeneration()), LedgerBalance.class);
+        if (balance == null) {
+            throw new IllegalStateException("Ledger generation " + state.getGeneration() + " of org " + state.getOrgId() + " has no balance");
+        }
+        return balance;
+    }
+
+    private static String balanceId(String orgId, long generation) {
+        return orgId + ":" + generation;
+    }
+
+    /** Balance right after {@code top}, the entry at {@code position} in LEDGER_ORDER. */
+    private BigDecimal balanceAfter(String orgId, LedgerBalance balance, Transaction top, long position) {
+        LocalDate date = top.getTransactionDate();
+        Criteria later = Criteria.where("orgId").is(orgId).and("generation").is(balance.getGeneration());
+        later = date != null ? later.and("date").gt(date) : later.and("date").ne(null);
+
+        Document suffix = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(later),
+                        Aggregation.group().sum("net").as("net").sum("entries").as("entries")),
+                LedgerCheckpoint.class, Document.class).getUniqueMappedResult();
+        BigDecimal laterNet = suffix != null ? toDecimal(suffix.get("net")) : BigDecimal.ZERO;
+        long laterEntries = suffix != null ? ((Number) suffix.get("entries")).longValue() : 0;
+
+        BigDecimal closing = balance.getBalance().subtract(laterNet);
+        long newerSameDay = position - laterEntries;
+        if (newerSameDay > 0) {
+            Query sameDay = liveTransactions(orgId);
+            sameDay.addCriteria(Criteria.where("transactionDate").is(date));
+            sameDay.with(LEDGER_ORDER).limit((int) newerSameDay);
+            sameDay.fields().include("type", "amount");
+            for (Transaction t : mongoTemplate.find(sameDay, Transaction.class)) {
+                closing = closing.subtract(signedAmount(t));
+            }
+        }
+        return closing;
+    }
+
+    private Query liveTransactions(String orgId) {
+        return new Query(Criteria.where("orgId").is(orgId).and("deletedAt").is(null));
+    }
+
+    static BigDecimal signedAmount(Transaction t) {
+        if (t.getAmount() == null || t.getType() == null) return BigDecimal.ZERO;
+        return t.getType() == TransactionType.EXPENSE ? t.getAmount().negate() : t.getAmount();
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value instanceof Decimal128 d) return d.bigDecimalValue();
+        if (value instanceof Number n) return new BigDecimal(n.toString());
+        return BigDecimal.ZERO;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date d) return d.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return null;
+    }
+}
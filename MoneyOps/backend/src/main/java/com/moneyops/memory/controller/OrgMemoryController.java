@@ -21,9 +21,10 @@ public class OrgMemoryController {
     public ResponseEntity<List<OrgMemory.MemoryItem>> getMemories(
             @PathVariable String orgId,
             @RequestParam(defaultValue = "5") int limit,
-            @RequestParam(required = false) String query) {
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String mode) {
         assertOrgAccess(orgId);
-        return ResponseEntity.ok(orgMemoryService.getRelevantMemories(orgId, query, limit));
+        return ResponseEntity.ok(orgMemoryService.getRelevantMemories(orgId, query, limit, mode));
     }
 
     @PostMapping("/{orgId}")
@@ -0,0 +1,17 @@
+package com.moneyops.memory.embedding;
+
+/**
+ * Maps text to a fixed-size, L2-normalized vector for semantic memory retrieval.
+ *
+ * Implementations run on-box (no network). {@link #id()} is stored next to each
+ * persisted embedding so vectors from a different model/version are recomputed
+ * instead of being compared against incompatible ones.
+ */
+public interface EmbeddingFunction {
+
+    String id();
+
+    int dimensions();
+
+    float[] embed(String text);
+}
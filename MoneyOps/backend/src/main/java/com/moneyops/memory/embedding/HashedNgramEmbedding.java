@@ -0,0 +1,108 @@
+package com.moneyops.memory.embedding;
+
+import com.moneyops.memory.service.MemoryTokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default on-box embedding: signed feature hashing of words, word bigrams and
+ * character trigrams into a fixed number of dimensions, then L2-normalized.
+ *
+ * Before hashing, words are stemmed (MemoryTokenizer) and folded through a small
+ * finance synonym table, so "vendor payments late" and "supplier dues delayed"
+ * land on the same word features. Character trigrams add tolerance for typos and
+ * inflections the stemmer misses.
+ */
+@Component
+public class HashedNgramEmbedding implements EmbeddingFunction {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.35f;
+
+    private static final List<List<String>> SYNONYM_GROUPS = List.of(
+            List.of("supplier", "vendor", "seller", "provider", "contractor"),
+            List.of("client", "customer", "buyer", "account"),
+            List.of("payment", "dues", "payable", "remittance", "settlement", "installment"),
+            List.of("late", "delayed", "delay", "overdue", "tardy", "behind"),
+            List.of("invoice", "bill", "billing"),
+            List.of("expense", "cost", "spend", "spending", "outflow", "expenditure"),
+            List.of("revenue", "income", "earning", "sales", "turnover", "inflow"),
+            List.of("tax", "gst", "vat", "tds"),
+            List.of("salary", "payroll", "wage"),
+            List.of("discount", "rebate", "concession"),
+            List.of("refund", "reimbursement", "chargeback"),
+            List.of("monthly", "month"),
+            List.of("quarterly", "quarter"),
+            List.of("yearly", "annual", "annually", "year")
+    );
+
+    private static final Map<String, String> CANONICAL = new HashMap<>();
+
+    static {
+        for (List<String> group : SYNONYM_GROUPS) {
+            String canonical = MemoryTokenizer.stem(group.get(0));
+            for (String word : group) {
+                CANONICAL.put(MemoryTokenizer.stem(word), canonical);
+            }
+        }
+    }
+
+    private final int dimensions;
+
+    public HashedNgramEmbedding(@Value("${app.memory.embedding.dimensions:256}") int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public String id() {
+        return "hashed-ngram-v1-" + dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        String previous = null;
+        for (String token : MemoryTokenizer.tokens(text)) {
+            String word = CANONICAL.getOrDefault(token, token);
+            add(vector, "w|" + word, WORD_WEIGHT);
+            if (previous != null) {
+                add(vector, "b|" + previous + "_" + word, BIGRAM_WEIGHT);
+            }
+            String padded = "<" + word + ">";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(vector, "c|" + padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+            previous = word;
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        long h = 0xcbf29ce484222325L; // FNV-1a 64
+        for (int i = 0; i < feature.length(); i++) {
+            h ^= feature.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        int index = (int) Long.remainderUnsigned(h >>> 1, dimensions);
+        vector[index] += (h & 1) == 0 ? weight : -weight;
+    }
+
+    private static void normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        if (norm == 0) return;
+        float inv = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) vector[i] *= inv;
+    }
+}
@@ -23,6 +23,9 @@ public class OrgMemory {
 
     private List<MemoryItem> memories = new ArrayList<>();
 
+    // ✨ Set once the embedded memories were moved to org_memory_items (see OrgMemoryService)
+    private LocalDateTime migratedAt;
+
     @PostConstruct
     public void generateId() {
         if (this.id == null) {
@@ -0,0 +1,57 @@
+package com.moneyops.memory.entity;
+
+import com.moneyops.sync.ChangeTracked;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One org memory per document (replaces the ever-growing OrgMemory.memories array).
+ *
+ * terms / termFreqs / length are derived from type, content and tags at write time
+ * so retrieval can select candidates through the (orgId, terms) multikey index and
+ * BM25-score them without re-tokenizing content. embedding feeds the per-org
+ * HNSW index used by semantic/hybrid retrieval.
+ */
+@Document(collection = "org_memory_items")
+@CompoundIndexes({
+        @CompoundIndex(name = "org_terms_idx", def = "{'orgId': 1, 'terms': 1}"),
+        @CompoundIndex(name = "org_content_key_idx", def = "{'orgId': 1, 'contentKey': 1}", unique = true),
+        @CompoundIndex(name = "org_last_referenced_idx", def = "{'orgId': 1, 'lastReferencedAt': -1}"),
+        // ✨ Vector index catch-up across nodes (see MemoryVectorIndex)
+        @CompoundIndex(name = "org_change_seq_idx", def = "{'orgId': 1, 'changeSeq': 1}")
+})
+@Data
+public class OrgMemoryItem implements ChangeTracked {
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String type;
+    private String content;
+    private String source;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastReferencedAt;
+    private List<String> tags = new ArrayList<>();
+
+    // ✨ Precomputed retrieval fields
+    private String contentKey;                 // type|normalized content — dedup key
+    private List<String> terms = new ArrayList<>();
+    private Map<String, Integer> termFreqs = new HashMap<>();
+    private int length;                        // weighted token count (BM25 doc length)
+
+    // ✨ Semantic retrieval (see MemoryVectorIndex)
+    private float[] embedding;
+    private String embeddingModel;             // EmbeddingFunction.id() that produced it
+
+    private Long changeSeq;                    // ✨ Org change sequence, stamped on every save
+}
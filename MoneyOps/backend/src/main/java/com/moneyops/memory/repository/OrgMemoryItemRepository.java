@@ -0,0 +1,18 @@
+package com.moneyops.memory.repository;
+
+import com.moneyops.memory.entity.OrgMemoryItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OrgMemoryItemRepository extends MongoRepository<OrgMemoryItem, String> {
+    Optional<OrgMemoryItem> findByOrgIdAndContentKey(String orgId, String contentKey);
+
+    List<OrgMemoryItem> findByOrgIdOrderByLastReferencedAtDescCreatedAtDesc(String orgId, Pageable pageable);
+
+    List<OrgMemoryItem> findByOrgIdOrderByLastReferencedAtAsc(String orgId, Pageable pageable);
+
+    long countByOrgId(String orgId);
+}
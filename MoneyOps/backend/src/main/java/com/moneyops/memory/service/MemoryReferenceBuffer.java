@@ -0,0 +1,76 @@
+package com.moneyops.memory.service;
+
+import com.moneyops.memory.entity.OrgMemoryItem;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces lastReferencedAt bumps from memory retrieval.
+ *
+ * Retrieval runs on every AI chat turn; instead of a write per turn, referenced ids
+ * are buffered and flushed every app.memory.reference-flush-ms as one bulk of
+ * updateMulti calls (one per distinct timestamp). $max keeps a late flush from
+ * moving a timestamp backwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemoryReferenceBuffer {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MemoryReferenceBuffer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void touch(List<String> memoryIds, LocalDateTime at) {
+        for (String id : memoryIds) {
+            pending.merge(id, at, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.memory.reference-flush-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<LocalDateTime, List<String>> byTimestamp = new TreeMap<>();
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            // Only drain the value we saw; a newer concurrent touch stays for the next flush.
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                byTimestamp.computeIfAbsent(entry.getValue(), t -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        if (byTimestamp.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrgMemoryItem.class);
+            byTimestamp.forEach((at, ids) -> bulk.updateMulti(
+                    new Query(Criteria.where("_id").in(ids)),
+                    new Update().max("lastReferencedAt", at)));
+            bulk.execute();
+        } catch (Exception e) {
+            // Recency is advisory; losing one interval of bumps is preferable to retry storms.
+            log.warn("Failed to flush {} memory reference bumps: {}", byTimestamp.size(), e.getMessage());
+        }
+    }
+}
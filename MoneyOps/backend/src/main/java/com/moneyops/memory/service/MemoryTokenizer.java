@@ -0,0 +1,65 @@
+package com.moneyops.memory.service;
+
+import com.moneyops.shared.search.TrigramIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokenization shared by memory writes and queries, so stored terms and query
+ * terms always normalize identically.
+ *
+ * Tokens are lower-cased alphanumerics of 3+ chars with a light suffix strip
+ * ("invoices" / "invoiced" / "invoicing" -> "invoic"), which keeps the old
+ * substring scorer's tolerance for plurals and tenses.
+ */
+public final class MemoryTokenizer {
+
+    static final int CONTENT_WEIGHT = 1;
+    static final int TAG_WEIGHT = 2;
+    static final int TYPE_WEIGHT = 1;
+
+    private MemoryTokenizer() {
+    }
+
+    public static List<String> tokens(String text) {
+        String normalized = TrigramIndex.normalize(text);
+        List<String> tokens = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return tokens;
+        }
+        for (String raw : normalized.split(" ")) {
+            if (raw.length() < 3) continue;
+            tokens.add(stem(raw));
+        }
+        return tokens;
+    }
+
+    /** Weighted term frequencies over content, tags and type. */
+    static Map<String, Integer> termFreqs(String type, String content, List<String> tags) {
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String token : tokens(content)) freqs.merge(token, CONTENT_WEIGHT, Integer::sum);
+        if (tags != null) {
+            for (String tag : tags) {
+                for (String token : tokens(tag)) freqs.merge(token, TAG_WEIGHT, Integer::sum);
+            }
+        }
+        for (String token : tokens(type)) freqs.merge(token, TYPE_WEIGHT, Integer::sum);
+        return freqs;
+    }
+
+    static String contentKey(String type, String content) {
+        return (type == null ? "" : type.trim().toLowerCase()) + "|" + TrigramIndex.normalize(content);
+    }
+
+    public static String stem(String token) {
+        String stem = token;
+        if (stem.length() > 5 && stem.endsWith("ing")) stem = stem.substring(0, stem.length() - 3);
+        else if (stem.length() > 4 && (stem.endsWith("ed") || stem.endsWith("es"))) stem = stem.substring(0, stem.length() - 2);
+        else if (stem.length() > 3 && stem.endsWith("s") && !stem.endsWith("ss")) stem = stem.substring(0, stem.length() - 1);
+        if (stem.length() > 4 && stem.endsWith("e")) stem = stem.substring(0, stem.length() - 1);
+        return stem;
+    }
+}
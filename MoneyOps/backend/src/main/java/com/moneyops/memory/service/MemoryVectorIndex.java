@@ -0,0 +1,251 @@
+package com.moneyops.memory.service;
+
+import com.moneyops.memory.embedding.EmbeddingFunction;
+import com.moneyops.memory.entity.OrgMemoryItem;
+import com.moneyops.shared.search.HnswIndex;
+import com.moneyops.sync.ChangeSequenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Per-org HNSW index over memory embeddings for semantic retrieval.
+ *
+ * Built lazily from the embeddings persisted on org_memory_items; items missing an
+ * embedding (or carrying one from another EmbeddingFunction) are embedded during
+ * the build and written back in one bulk. New memories are added incrementally.
+ * Resident orgs are LRU-bounded by app.memory.vector-index.max-orgs.
+ *
+ * Memories saved on other nodes are caught up before each search, as in
+ * ClientSearchIndex: the index records the org's safe change-sequence high-water mark
+ * and re-reads only the items stamped since (org_change_seq_idx), skipping those it
+ * already holds at that sequence. Evictions are hard deletes, so another node's removal
+ * shows up as a hit that no longer loads; OrgMemoryService hands those back to remove().
+ * An index that is mostly tombstones, from removals or from re-adding updated items, is
+ * dropped and rebuilt on next use.
+ *
+ * One thread builds an org's index while others wait for it. Adds and removes that
+ * arrive mid-build are queued on the build and replayed, in order, as it is installed:
+ * the build's scan may or may not have seen them, and replaying is idempotent.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemoryVectorIndex {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MemoryVectorIndex.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final EmbeddingFunction embeddingFunction;
+    private final ChangeSequenceService changeSequenceService;
+
+    @Value("${app.memory.vector-index.max-orgs:100}")
+    private int maxOrgs;
+
+    @Value("${app.memory.vector-index.ef-search:100}")
+    private int efSearch;
+
+    /** An index being built, and the writes that arrived meanwhile. Guarded by {@code indexes}. */
+    private static final class Build {
+        final CompletableFuture<OrgIndex> result = new CompletableFuture<>();
+        final List<Consumer<OrgIndex>> pending = new ArrayList<>();
+    }
+
+    /** An org's vectors, the change sequence each item was added at, and the mark synced to. */
+    private static final class OrgIndex {
+        final HnswIndex vectors;
+        final Map<String, Long> addedSeq = new HashMap<>();   // guarded by this
+        long syncedSeq;                                        // guarded by this
+
+        OrgIndex(HnswIndex vectors, long syncedSeq) {
+            this.vectors = vectors;
+            this.syncedSeq = syncedSeq;
+        }
+
+        synchronized void add(OrgMemoryItem item) {
+            Long seq = item.getChangeSeq();
+            Long held = addedSeq.get(item.getId());
+            if (seq != null && held != null && held >= seq) return;
+            vectors.add(item.getId(), item.getEmbedding());
+            addedSeq.put(item.getId(), seq != null ? seq : 0L);
+        }
+
+        synchronized void remove(String id) {
+            vectors.remove(id);
+            addedSeq.remove(id);
+        }
+    }
+
+    private final Map<String, OrgIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OrgIndex> eldest) {
+            return size() > Math.max(1, maxOrgs);
+        }
+    };
+
+    private final Map<String, Build> building = new HashMap<>();
+
+    /** Sets embedding + embeddingModel on an item about to be written. */
+    public void embed(OrgMemoryItem item) {
+        item.setEmbedding(embeddingFunction.embed(embeddingText(item)));
+        item.setEmbeddingModel(embeddingFunction.id());
+    }
+
+    public List<HnswIndex.Hit> search(String orgId, String query, int k) {
+        OrgIndex index = indexFor(orgId);
+        catchUp(orgId, index);
+        return index.vectors.search(embeddingFunction.embed(query), k, Math.max(efSearch, k));
+    }
+
+    public void add(OrgMemoryItem item) {
+        if (item.getEmbedding() == null || !embeddingFunction.id().equals(item.getEmbeddingModel())) {
+            return;
+        }
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(item.getOrgId());
+            if (index == null) {
+                Build build = building.get(item.getOrgId());
+                if (build != null) build.pending.add(built -> built.add(item));
+                return;
+            }
+        }
+        index.add(item);
+        evictIfMostlyTombstones(item.getOrgId(), index);
+    }
+
+    public void remove(String orgId, List<String> memoryIds) {
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(orgId);
+            if (index == null) {
+                Build build = building.get(orgId);
+                if (build != null) build.pending.add(built -> memoryIds.forEach(built::remove));
+                return;
+            }
+        }
+        memoryIds.forEach(index::remove);
+        evictIfMostlyTombstones(orgId, index);
+    }
+
+    /** Mostly tombstones — rebuild on next use instead of routing through dead nodes. */
+    private void evictIfMostlyTombstones(String orgId, OrgIndex index) {
+        if (index.vectors.deletedRatio() > 0.5) {
+            synchronized (indexes) {
+                indexes.remove(orgId, index);
+            }
+        }
+    }
+
+    /** Adds memories saved since the index last synced, from any node. */
+    private void catchUp(String orgId, OrgIndex index) {
+        long high = changeSequenceService.safeHighWater(orgId);
+        synchronized (index) {
+            if (high <= index.syncedSeq) return;
+            Query changed = new Query(Criteria.where("orgId").is(orgId).and("changeSeq").gt(index.syncedSeq).lte(high));
+            changed.fields().include("orgId", "changeSeq", "embedding", "embeddingModel");
+            int applied = 0;
+            for (OrgMemoryItem item : mongoTemplate.find(changed, OrgMemoryItem.class)) {
+                if (item.getEmbedding() == null || !embeddingFunction.id().equals(item.getEmbeddingModel())) continue;
+                index.add(item);
+                applied++;
+            }
+            log.debug("Caught up memory vector index for org {}: seq {} -> {}, {} items", orgId, index.syncedSeq, high, applied);
+            index.syncedSeq = high;
+        }
+        evictIfMostlyTombstones(orgId, index);
+    }
+
+    private OrgIndex indexFor(String orgId) {
+        Build build;
+        boolean owner = false;
+        synchronized (indexes) {
+            OrgIndex index = indexes.get(orgId);
+            if (index != null) return index;
+            build = building.get(orgId);
+            if (build == null) {
+                build = new Build();
+                building.put(orgId, build);
+                owner = true;
+            }
+        }
+        if (!owner) {
+            try {
+                return build.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            OrgIndex built = build(orgId);
+            synchronized (indexes) {
+                for (Consumer<OrgIndex> write : build.pending) {
+                    write.accept(built);
+                }
+                building.remove(orgId);
+                indexes.put(orgId, built);
+            }
+            build.result.complete(built);
+            return built;
+        } catch (RuntimeException e) {
+            synchronized (indexes) {
+                building.remove(orgId);
+            }
+            build.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private OrgIndex build(String orgId) {
+        long start = System.currentTimeMillis();
+        // Read first: the scan sees at least every write up to it
+        OrgIndex index = new OrgIndex(new HnswIndex(embeddingFunction.dimensions()), changeSequenceService.safeHighWater(orgId));
+        Query query = new Query(Criteria.where("orgId").is(orgId));
+        query.fields().include("orgId", "type", "content", "tags", "changeSeq", "embedding", "embeddingModel");
+
+        List<OrgMemoryItem> backfill = new ArrayList<>();
+        try (Stream<OrgMemoryItem> items = mongoTemplate.stream(query, OrgMemoryItem.class)) {
+            items.forEach(item -> {
+                if (item.getEmbedding() == null || !embeddingFunction.id().equals(item.getEmbeddingModel())) {
+                    embed(item);
+                    backfill.add(item);
+                }
+                index.add(item);
+            });
+        }
+
+        if (!backfill.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrgMemoryItem.class);
+            for (OrgMemoryItem item : backfill) {
+                bulk.updateOne(new Query(Criteria.where("_id").is(item.getId())),
+                        new Update().set("embedding", item.getEmbedding()).set("embeddingModel", item.getEmbeddingModel()));
+            }
+            bulk.execute();
+        }
+        log.info("Built memory vector index for org {}: {} vectors ({} re-embedded) in {} ms",
+                orgId, index.vectors.size(), backfill.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    static String embeddingText(OrgMemoryItem item) {
+        StringBuilder sb = new StringBuilder();
+        if (item.getType() != null) sb.append(item.getType()).append(' ');
+        if (item.getContent() != null) sb.append(item.getContent()).append(' ');
+        if (item.getTags() != null) item.getTags().forEach(tag -> sb.append(tag).append(' '));
+        return sb.toString();
+    }
+}
@@ -1,25 +1,79 @@
 package com.moneyops.memory.service;
 
 import com.moneyops.memory.entity.OrgMemory;
+import com.moneyops.memory.entity.OrgMemoryItem;
+import com.moneyops.memory.repository.OrgMemoryItemRepository;
 import com.moneyops.memory.repository.OrgMemoryRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Org memories for the AI gateway, one document per memory in org_memory_items.
+ *
+ * Retrieval selects candidates through the (orgId, terms) index and ranks them with
+ * BM25 over the precomputed term frequencies. lastReferencedAt bumps go through
+ * MemoryReferenceBuffer instead of a write per call. Each org keeps at most
+ * app.memory.max-items-per-org memories; the least recently referenced are evicted.
+ *
+ * app.memory.retrieval-mode picks the ranking: lexical (BM25), semantic (HNSW over
+ * on-box embeddings, see MemoryVectorIndex) or hybrid (reciprocal-rank fusion of both).
+ */
 @Service
 @RequiredArgsConstructor
 public class OrgMemoryService {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OrgMemoryService.class);
+
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final int RRF_K = 60;
+
+    public enum RetrievalMode {
+        LEXICAL, SEMANTIC, HYBRID
+    }
+
     private final OrgMemoryRepository orgMemoryRepository;
+    private final OrgMemoryItemRepository orgMemoryItemRepository;
+    private final MemoryReferenceBuffer referenceBuffer;
+    private final MemoryVectorIndex memoryVectorIndex;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.memory.max-items-per-org:5000}")
+    private int maxItemsPerOrg;
+
+    @Value("${app.memory.max-candidates:2000}")
+    private int maxCandidates;
+
+    @Value("${app.memory.retrieval-mode:hybrid}")
+    private String defaultRetrievalMode;
+
+    /** Nearest neighbours below this cosine similarity are not considered matches. */
+    @Value("${app.memory.min-similarity:0.2}")
+    private float minSimilarity;
+
+    /** Orgs whose legacy OrgMemory document has been checked on this node. */
+    private final Set<String> migratedOrgs = ConcurrentHashMap.newKeySet();
 
     @Data
     public static class SaveMemoryRequest {
@@ -36,110 +90,257 @@ public class OrgMemoryService {
         if (request.getType() == null || request.getType().isBlank()) {
             throw new IllegalArgumentException("Memory type is required");
         }
-
-        OrgMemory orgMemory = orgMemoryRepository.findByOrgId(orgId)
-                .orElseGet(() -> {
-                    OrgMemory created = new OrgMemory();
-                    created.setOrgId(orgId);
-                    return created;
-                });
+        migrateLegacy(orgId);
 
         String normalizedContent = request.getContent().trim();
+        String contentKey = MemoryTokenizer.contentKey(request.getType(), normalizedContent);
         LocalDateTime now = LocalDateTime.now();
 
-        OrgMemory.MemoryItem existing = orgMemory.getMemories().stream()
-                .filter(memory -> memory.getType() != null && memory.getType().equalsIgnoreCase(request.getType()))
-                .filter(memory -> memory.getContent() != null && memory.getContent().trim().equalsIgnoreCase(normalizedContent))
-                .findFirst()
-                .orElse(null);
-
-        if (existing != null) {
-            existing.setLastReferencedAt(now);
-            existing.setSource(source != null ? source : existing.getSource());
-            existing.setTags(mergeTags(existing.getTags(), request.getTags()));
-            orgMemoryRepository.save(orgMemory);
-            return existing;
+        OrgMemoryItem existing = orgMemoryItemRepository.findByOrgIdAndContentKey(orgId, contentKey).orElse(null);
+        if (existing == null) {
+            OrgMemoryItem item = new OrgMemoryItem();
+            item.setId("mem_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12));
+            item.setOrgId(orgId);
+            item.setType(request.getType());
+            item.setContent(normalizedContent);
+            item.setSource(source != null ? source : "conversation");
+            item.setCreatedAt(now);
+            item.setLastReferencedAt(now);
+            item.setTags(mergeTags(List.of(), request.getTags()));
+            item.setContentKey(contentKey);
+            applyTerms(item);
+            memoryVectorIndex.embed(item);
+            try {
+                OrgMemoryItem saved = orgMemoryItemRepository.insert(item);
+                memoryVectorIndex.add(saved);
+                enforceCapacity(orgId);
+                return toMemoryItem(saved);
+            } catch (DuplicateKeyException e) {
+                // Concurrent save of the same memory — fall through and merge into the winner.
+                existing = orgMemoryItemRepository.findByOrgIdAndContentKey(orgId, contentKey).orElseThrow(() -> e);
+            }
         }
 
-        OrgMemory.MemoryItem memoryItem = new OrgMemory.MemoryItem();
-        memoryItem.setId("mem_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12));
-        memoryItem.setType(request.getType());
-        memoryItem.setContent(normalizedContent);
-        memoryItem.setSource(source != null ? source : "conversation");
-        memoryItem.setCreatedAt(now);
-        memoryItem.setLastReferencedAt(now);
-        memoryItem.setTags(mergeTags(List.of(), request.getTags()));
-
-        orgMemory.getMemories().add(memoryItem);
-        orgMemoryRepository.save(orgMemory);
-        return memoryItem;
+        existing.setLastReferencedAt(now);
+        existing.setSource(source != null ? source : existing.getSource());
+        existing.setTags(mergeTags(existing.getTags(), request.getTags()));
+        applyTerms(existing);
+        memoryVectorIndex.embed(existing);
+        OrgMemoryItem saved = orgMemoryItemRepository.save(existing);
+        memoryVectorIndex.add(saved);
+        return toMemoryItem(saved);
     }
 
     public List<OrgMemory.MemoryItem> getRelevantMemories(String orgId, String query, int limit) {
-        OrgMemory orgMemory = orgMemoryRepository.findByOrgId(orgId)
-                .orElseGet(() -> {
-                    OrgMemory empty = new OrgMemory();
-                    empty.setOrgId(orgId);
-                    return empty;
-                });
-
-        List<OrgMemory.MemoryItem> memories = new ArrayList<>(orgMemory.getMemories());
-        Comparator<OrgMemory.MemoryItem> comparator;
-        if (query == null || query.isBlank()) {
-            comparator = Comparator
-                    .comparing(OrgMemory.MemoryItem::getLastReferencedAt, Comparator.nullsLast(Comparator.reverseOrder()))
-                    .thenComparing(OrgMemory.MemoryItem::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+        return getRelevantMemories(orgId, query, limit, null);
+    }
+
+    public List<OrgMemory.MemoryItem> getRelevantMemories(String orgId, String query, int limit, String mode) {
+        migrateLegacy(orgId);
+        int size = Math.max(1, limit);
+
+        List<OrgMemoryItem> selected;
+        List<String> queryTerms = query == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(MemoryTokenizer.tokens(query)));
+        if (queryTerms.isEmpty()) {
+            if (query != null && !query.isBlank()) {
+                return List.of(); // nothing scorable (all tokens < 3 chars), same as the old scorer
+            }
+            selected = orgMemoryItemRepository.findByOrgIdOrderByLastReferencedAtDescCreatedAtDesc(orgId, PageRequest.of(0, size));
         } else {
-            comparator = Comparator
-                    .comparingInt((OrgMemory.MemoryItem item) -> score(item, query))
-                    .reversed()
-                    .thenComparing(OrgMemory.MemoryItem::getLastReferencedAt, Comparator.nullsLast(Comparator.reverseOrder()));
-            memories = memories.stream()
-                    .filter(item -> score(item, query) > 0)
-                    .collect(Collectors.toList());
+            selected = switch (resolveMode(mode)) {
+                case LEXICAL -> rank(orgId, queryTerms, size);
+                case SEMANTIC -> semantic(orgId, query, size);
+                case HYBRID -> hybrid(orgId, query, queryTerms, size);
+            };
         }
 
-        List<OrgMemory.MemoryItem> selected = memories.stream()
-                .sorted(comparator)
-                .limit(Math.max(1, limit))
-                .collect(Collectors.toList());
-
         if (!selected.isEmpty()) {
             LocalDateTime now = LocalDateTime.now();
-            Set<String> selectedIds = selected.stream().map(OrgMemory.MemoryItem::getId).collect(Collectors.toSet());
-            orgMemory.getMemories().stream()
-                    .filter(item -> selectedIds.contains(item.getId()))
-                    .forEach(item -> item.setLastReferencedAt(now));
-            orgMemoryRepository.save(orgMemory);
+            referenceBuffer.touch(selected.stream().map(OrgMemoryItem::getId).collect(Collectors.toList()), now);
+            selected.forEach(item -> item.setLastReferencedAt(now));
         }
-
-        return selected;
+        return selected.stream().map(this::toMemoryItem).collect(Collectors.toList());
     }
 
-    private int score(OrgMemory.MemoryItem item, String query) {
-        String normalizedQuery = query.toLowerCase(Locale.ROOT);
-        String content = item.getContent() == null ? "" : item.getContent().toLowerCase(Locale.ROOT);
-        String type = item.getType() == null ? "" : item.getType().toLowerCase(Locale.ROOT);
-        List<String> tags = item.getTags() == null ? List.of() : item.getTags();
+    private List<OrgMemoryItem> rank(String orgId, List<String> queryTerms, int limit) {
+        Query candidateQuery = new Query(Criteria.where("orgId").is(orgId).and("terms").in(queryTerms))
+                .with(Sort.by(Sort.Direction.DESC, "lastReferencedAt"))
+                .limit(maxCandidates);
+        candidateQuery.fields().exclude("terms").exclude("embedding");
+        List<OrgMemoryItem> candidates = mongoTemplate.find(candidateQuery, OrgMemoryItem.class);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
 
-        int score = 0;
-        for (String token : normalizedQuery.split("\\s+")) {
-            if (token.length() < 3) {
-                continue;
-            }
-            if (content.contains(token)) {
-                score += 5;
-            }
-            if (type.contains(token)) {
-                score += 3;
-            }
-            if (tags.stream().anyMatch(tag -> tag != null && tag.toLowerCase(Locale.ROOT).contains(token))) {
-                score += 4;
+        long total = Math.max(orgMemoryItemRepository.countByOrgId(orgId), candidates.size());
+        Map<String, Integer> docFreq = new HashMap<>();
+        double lengthSum = 0;
+        for (OrgMemoryItem item : candidates) {
+            lengthSum += item.getLength();
+            for (String term : queryTerms) {
+                if (item.getTermFreqs() != null && item.getTermFreqs().containsKey(term)) {
+                    docFreq.merge(term, 1, Integer::sum);
+                }
             }
         }
+        double avgLength = Math.max(1.0, lengthSum / candidates.size());
+
+        Map<String, Double> scores = new HashMap<>();
+        for (OrgMemoryItem item : candidates) {
+            scores.put(item.getId(), bm25(item, queryTerms, docFreq, total, avgLength));
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble((OrgMemoryItem item) -> scores.get(item.getId()))
+                        .reversed()
+                        .thenComparing(OrgMemoryItem::getLastReferencedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private List<OrgMemoryItem> semantic(String orgId, String query, int limit) {
+        return loadInOrder(orgId, nearestIds(orgId, query, limit));
+    }
+
+    /** Reciprocal-rank fusion of BM25 and ANN rankings; each side fetches 3x the limit. */
+    private List<OrgMemoryItem> hybrid(String orgId, String query, List<String> queryTerms, int limit) {
+        int depth = limit * 3;
+        List<OrgMemoryItem> lexical = rank(orgId, queryTerms, depth);
+        List<String> semanticIds = nearestIds(orgId, query, depth);
+
+        Map<String, Double> fused = new HashMap<>();
+        for (int i = 0; i < lexical.size(); i++) {
+            fused.merge(lexical.get(i).getId(), 1.0 / (RRF_K + i + 1), Double::sum);
+        }
+        for (int i = 0; i < semanticIds.size(); i++) {
+            fused.merge(semanticIds.get(i), 1.0 / (RRF_K + i + 1), Double::sum);
+        }
+        List<String> ranked = fused.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        Map<String, OrgMemoryItem> known = lexical.stream()
+                .collect(Collectors.toMap(OrgMemoryItem::getId, item -> item));
+        List<String> missing = ranked.stream().filter(id -> !known.containsKey(id)).collect(Collectors.toList());
+        loadInOrder(orgId, missing).forEach(item -> known.put(item.getId(), item));
+        return ranked.stream().map(known::get).filter(java.util.Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private List<String> nearestIds(String orgId, String query, int k) {
+        return memoryVectorIndex.search(orgId, query, k).stream()
+                .filter(hit -> hit.similarity() >= minSimilarity)
+                .map(com.moneyops.shared.search.HnswIndex.Hit::key)
+                .collect(Collectors.toList());
+    }
+
+    /** Loads vector hits in rank order; hits evicted on another node are dropped from the index. */
+    private List<OrgMemoryItem> loadInOrder(String orgId, List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Query byIds = new Query(Criteria.where("_id").in(ids));
+        byIds.fields().exclude("terms").exclude("embedding");
+        Map<String, OrgMemoryItem> byId = mongoTemplate.find(byIds, OrgMemoryItem.class).stream()
+                .collect(Collectors.toMap(OrgMemoryItem::getId, item -> item));
+        List<String> gone = ids.stream().filter(id -> !byId.containsKey(id)).collect(Collectors.toList());
+        if (!gone.isEmpty()) memoryVectorIndex.remove(orgId, gone);
+        return ids.stream().map(byId::get).filter(java.util.Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private RetrievalMode resolveMode(String mode) {
+        String value = mode != null && !mode.isBlank() ? mode : defaultRetrievalMode;
+        try {
+            return RetrievalMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown retrieval mode: " + value);
+        }
+    }
+
+    static double bm25(OrgMemoryItem item, List<String> queryTerms, Map<String, Integer> docFreq, long total, double avgLength) {
+        if (item.getTermFreqs() == null) return 0;
+        double score = 0;
+        double norm = BM25_K1 * (1 - BM25_B + BM25_B * item.getLength() / avgLength);
+        for (String term : queryTerms) {
+            Integer tf = item.getTermFreqs().get(term);
+            if (tf == null) continue;
+            int df = docFreq.getOrDefault(term, 1);
+            double idf = Math.log(1 + (total - df + 0.5) / (df + 0.5));
+            score += idf * (tf * (BM25_K1 + 1)) / (tf + norm);
+        }
         return score;
     }
 
+    /** Evicts the least recently referenced memories once the org is over capacity. */
+    private void enforceCapacity(String orgId) {
+        if (maxItemsPerOrg <= 0) return;
+        long excess = orgMemoryItemRepository.countByOrgId(orgId) - maxItemsPerOrg;
+        if (excess <= 0) return;
+        referenceBuffer.flush(); // don't evict something that was just referenced
+        List<OrgMemoryItem> cold = orgMemoryItemRepository.findByOrgIdOrderByLastReferencedAtAsc(
+                orgId, PageRequest.of(0, (int) Math.min(excess, 1000)));
+        orgMemoryItemRepository.deleteAll(cold);
+        memoryVectorIndex.remove(orgId, cold.stream().map(OrgMemoryItem::getId).collect(Collectors.toList()));
+        log.info("Evicted {} cold memories for org {}", cold.size(), orgId);
+    }
+
+    /**
+     * Moves memories still embedded in the legacy single OrgMemory document into
+     * org_memory_items. Runs once per org per node; safe to repeat (dedup by contentKey).
+     */
+    private void migrateLegacy(String orgId) {
+        if (migratedOrgs.contains(orgId)) return;
+        OrgMemory legacy = orgMemoryRepository.findByOrgId(orgId).orElse(null);
+        if (legacy != null && legacy.getMemories() != null && !legacy.getMemories().isEmpty()) {
+            int moved = 0;
+            for (OrgMemory.MemoryItem memory : legacy.getMemories()) {
+                if (memory.getContent() == null || memory.getContent().isBlank()) continue;
+                OrgMemoryItem item = new OrgMemoryItem();
+                item.setId(memory.getId() != null ? memory.getId()
+                        : "mem_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12));
+                item.setOrgId(orgId);
+                item.setType(memory.getType());
+                item.setContent(memory.getContent().trim());
+                item.setSource(memory.getSource());
+                item.setCreatedAt(memory.getCreatedAt());
+                item.setLastReferencedAt(memory.getLastReferencedAt());
+                item.setTags(mergeTags(memory.getTags(), List.of()));
+                item.setContentKey(MemoryTokenizer.contentKey(memory.getType(), memory.getContent()));
+                applyTerms(item);
+                try {
+                    orgMemoryItemRepository.insert(item);
+                    moved++;
+                } catch (DuplicateKeyException ignored) {
+                    // Already migrated (another node, or a duplicate in the legacy array).
+                }
+            }
+            legacy.setMemories(new ArrayList<>());
+            legacy.setMigratedAt(LocalDateTime.now());
+            orgMemoryRepository.save(legacy);
+            log.info("Migrated {} legacy memories for org {}", moved, orgId);
+            enforceCapacity(orgId);
+        }
+        migratedOrgs.add(orgId);
+    }
+
+    private void applyTerms(OrgMemoryItem item) {
+        Map<String, Integer> freqs = MemoryTokenizer.termFreqs(item.getType(), item.getContent(), item.getTags());
+        item.setTermFreqs(freqs);
+        item.setTerms(new ArrayList<>(freqs.keySet()));
+        item.setLength(freqs.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private OrgMemory.MemoryItem toMemoryItem(OrgMemoryItem item) {
+        OrgMemory.MemoryItem memory = new OrgMemory.MemoryItem();
+        memory.setId(item.getId());
+        memory.setType(item.getType());
+        memory.setContent(item.getContent());
+        memory.setSource(item.getSource());
+        memory.setCreatedAt(item.getCreatedAt());
+        memory.setLastReferencedAt(item.getLastReferencedAt());
+        memory.setTags(item.getTags() == null ? new ArrayList<>() : new ArrayList<>(item.getTags()));
+        return memory;
+    }
+
     private List<String> mergeTags(List<String> existingTags, List<String> newTags) {
         return java.util.stream.Stream.concat(
                         existingTags == null ? java.util.stream.Stream.empty() : existingTags.stream(),
@@ -23,6 +23,7 @@ public class BusinessOrganizationDto {
     private String pincode;
     private String financialYearStartMonth;
     private String preferredLanguage;
+    private String invoiceNumberFormat;
     private String primaryActivity;
     private String targetMarket;
     private String accountingMethod;
@@ -84,6 +84,7 @@ public class BusinessOrganization {
     private String accountingMethod;
     private Integer fyStartMonth;
     private String preferredLanguage;
+    private String invoiceNumberFormat;   // see InvoiceNumberFormat; null = default
 
     // ── Audit ──────────────────────────────────────────────────────────────────
     @CreatedDate
@@ -29,6 +29,7 @@ public class OrganizationMapper {
         dto.setPincode(org.getPincode());
         dto.setFinancialYearStartMonth(org.getFyStartMonth() != null ? String.valueOf(org.getFyStartMonth()) : null);
         dto.setPreferredLanguage(org.getPreferredLanguage());
+        dto.setInvoiceNumberFormat(org.getInvoiceNumberFormat());
         dto.setPrimaryActivity(org.getPrimaryActivity());
         dto.setTargetMarket(org.getTargetMarket());
         dto.setAccountingMethod(org.getAccountingMethod());
@@ -71,6 +72,7 @@ public class OrganizationMapper {
         org.setPincode(dto.getPincode());
         org.setFyStartMonth(dto.getFinancialYearStartMonth() != null ? Integer.valueOf(dto.getFinancialYearStartMonth()) : null);
         org.setPreferredLanguage(dto.getPreferredLanguage());
+        org.setInvoiceNumberFormat(dto.getInvoiceNumberFormat() != null && !dto.getInvoiceNumberFormat().isBlank() ? dto.getInvoiceNumberFormat().trim() : null);
         org.setPrimaryActivity(dto.getPrimaryActivity());
         org.setTargetMarket(dto.getTargetMarket());
         org.setAccountingMethod(dto.getAccountingMethod());
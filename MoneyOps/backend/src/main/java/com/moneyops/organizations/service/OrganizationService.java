@@ -120,6 +120,8 @@ public class OrganizationService {
         existing.setRegisteredAddress(dto.getRegisteredAddress());
         existing.setPincode(dto.getPincode());
         existing.setPreferredLanguage(dto.getPreferredLanguage());
+        existing.setInvoiceNumberFormat(dto.getInvoiceNumberFormat() != null && !dto.getInvoiceNumberFormat().isBlank()
+                ? dto.getInvoiceNumberFormat().trim() : null);
         existing.setPrimaryActivity(dto.getPrimaryActivity());
         existing.setTargetMarket(dto.getTargetMarket());
         existing.setAccountingMethod(dto.getAccountingMethod());
@@ -1,6 +1,7 @@
 // src/main/java/com/moneyops/organizations/validator/OrganizationValidator.java
 package com.moneyops.organizations.validator;
 
+import com.moneyops.invoices.service.InvoiceNumberFormat;
 import com.moneyops.organizations.dto.BusinessOrganizationDto;
 import com.moneyops.organizations.dto.RegulatoryProfileDto;
 import org.springframework.stereotype.Component;
@@ -53,6 +54,9 @@ public class OrganizationValidator {
         if (dto.getEmployeeCount() != null && dto.getEmployeeCount() < 0) {
             throw new IllegalArgumentException("Employee count cannot be negative");
         }
+        if (dto.getInvoiceNumberFormat() != null && !dto.getInvoiceNumberFormat().isBlank()) {
+            InvoiceNumberFormat.parse(dto.getInvoiceNumberFormat().trim());
+        }
     }
 
     public void validateRegulatory(RegulatoryProfileDto dto) {
@@ -0,0 +1,256 @@
+package com.moneyops.realtime;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.InvoicesImportedEvent;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.sync.ChangeSequenceService;
+import com.moneyops.sync.ChangeTracked;
+import com.moneyops.transactions.entity.Transaction;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process fan-out of change notifications to per-org SSE subscribers.
+ *
+ * Entity events become compact notifications (what changed, not the entity) and are
+ * offered to each subscriber's bounded buffer; a small pool drains buffers into the
+ * emitters, so a slow connection never blocks the writing request. A subscriber whose
+ * buffer overflows is evicted and reconnects, catching up through /api/sync using the
+ * last event id. Subscribers only see events from this node.
+ *
+ * The event id is the org's safe high-water mark when the notification was published,
+ * not the entity's changeSeq: writes commit out of sequence order, so a changeSeq can be
+ * ahead of a smaller one still in flight, and syncing from it would skip that write. The
+ * high-water mark is at or below every unfinished write; resuming from it may repeat a
+ * change but never misses one.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrgEventBroker {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OrgEventBroker.class);
+
+    @Data
+    public static class ChangeNotification {
+        private String entity;       // INVOICE / CLIENT / TRANSACTION / DOCUMENT
+        private String id;
+        private String change;       // CREATED / UPDATED / DELETED / IMPORTED (id is the import)
+        private String status;       // invoices: status after the write
+        private String previousStatus;
+        private BigDecimal amountPaid;   // invoices: set when a payment moved it
+        private BigDecimal balanceDue;
+        private Long changeSeq;
+        private String resumeToken;      // /api/sync?since= value that covers this change; also the event id
+        private long timestamp;
+    }
+
+    private static final class Subscriber {
+        final String orgId;
+        final SseEmitter emitter;
+        final Queue<ChangeNotification> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(String orgId, SseEmitter emitter, int capacity) {
+            this.orgId = orgId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    @Value("${app.realtime.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.realtime.max-subscribers-per-org:50}")
+    private int maxSubscribersPerOrg;
+
+    @Value("${app.realtime.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final ChangeSequenceService changeSequenceService;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService senders = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "sse-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SseEmitter subscribe(String orgId, String resumeToken) {
+        List<Subscriber> orgSubscribers = subscribers.computeIfAbsent(orgId, id -> new CopyOnWriteArrayList<>());
+        if (orgSubscribers.size() >= maxSubscribersPerOrg) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many live connections for this organization");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(orgId, emitter, Math.max(1, bufferSize));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        orgSubscribers.add(subscriber);
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(Map.of("resumeFrom", resumeToken != null ? resumeToken : "")));
+        } catch (Exception e) {
+            remove(subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getOrgId() == null) return;
+        List<Subscriber> orgSubscribers = subscribers.get(event.getOrgId());
+        if (orgSubscribers == null || orgSubscribers.isEmpty()) return;
+        publish(event.getOrgId(), orgSubscribers, toNotification(event));
+    }
+
+    /** One notification per import; the client re-syncs rather than receiving every row. */
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        List<Subscriber> orgSubscribers = subscribers.get(event.getOrgId());
+        if (orgSubscribers == null || orgSubscribers.isEmpty()) return;
+        ChangeNotification n = new ChangeNotification();
+        n.setEntity(EntityChangedEvent.TRANSACTION);
+        n.setId(event.getImportId());
+        n.setChange("IMPORTED");
+        n.setTimestamp(event.getTimestamp());
+        publish(event.getOrgId(), orgSubscribers, n);
+    }
+
+    @EventListener
+    public void onInvoicesImported(InvoicesImportedEvent event) {
+        List<Subscriber> orgSubscribers = subscribers.get(event.getOrgId());
+        if (orgSubscribers == null || orgSubscribers.isEmpty()) return;
+        ChangeNotification n = new ChangeNotification();
+        n.setEntity(EntityChangedEvent.INVOICE);
+        n.setId(event.getBatchId());
+        n.setChange("IMPORTED");
+        n.setTimestamp(event.getTimestamp());
+        publish(event.getOrgId(), orgSubscribers, n);
+    }
+
+    private void publish(String orgId, List<Subscriber> orgSubscribers, ChangeNotification notification) {
+        try {
+            notification.setResumeToken(Long.toString(changeSequenceService.safeHighWater(orgId)));
+        } catch (Exception e) {
+            // Sent without an id; a reconnect resumes from the last one that had it
+            log.warn("No resume token for org {} notification: {}", orgId, e.getMessage());
+        }
+        for (Subscriber subscriber : orgSubscribers) {
+            if (!subscriber.buffer.offer(notification)) {
+                log.warn("Evicting slow SSE subscriber for org {} ({} buffered)", subscriber.orgId, subscriber.buffer.size());
+                evict(subscriber);
+                continue;
+            }
+            if (subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            ChangeNotification next;
+            while (!subscriber.closed && (next = subscriber.buffer.poll()) != null) {
+                SseEmitter.SseEventBuilder event = SseEmitter.event().name("change").data(next);
+                if (next.getResumeToken() != null) event.id(next.getResumeToken());
+                subscriber.emitter.send(event);
+            }
+        } catch (Exception e) {
+            remove(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+            // A publish may have landed between the last poll and releasing the flag.
+            if (!subscriber.closed && !subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    /** Keeps idle connections open through proxies and finds dead ones. */
+    @Scheduled(fixedDelayString = "${app.realtime.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(orgSubscribers -> orgSubscribers.forEach(subscriber -> {
+            if (subscriber.draining.get()) return;
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                remove(subscriber);
+            }
+        }));
+    }
+
+    private void evict(Subscriber subscriber) {
+        remove(subscriber);
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception ignored) {
+            // already closed
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.buffer.clear();
+        List<Subscriber> orgSubscribers = subscribers.get(subscriber.orgId);
+        if (orgSubscribers != null) {
+            orgSubscribers.remove(subscriber);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(orgSubscribers -> orgSubscribers.forEach(this::evict));
+        senders.shutdownNow();
+    }
+
+    static ChangeNotification toNotification(EntityChangedEvent event) {
+        ChangeNotification n = new ChangeNotification();
+        n.setEntity(event.getEntityType());
+        n.setId(event.getEntityId());
+        n.setChange(event.getChangeType().name());
+        n.setTimestamp(event.getTimestamp());
+        Object current = event.getAfter() != null ? event.getAfter() : event.getBefore();
+        if (current instanceof ChangeTracked tracked) {
+            n.setChangeSeq(tracked.getChangeSeq());
+        }
+        if (event.is(EntityChangedEvent.INVOICE)) {
+            Invoice before = event.getBefore(Invoice.class);
+            Invoice after = event.getAfter(Invoice.class);
+            if (after != null && after.getStatus() != null) n.setStatus(after.getStatus().name());
+            if (before != null && before.getStatus() != null
+                    && (after == null || before.getStatus() != after.getStatus())) {
+                n.setPreviousStatus(before.getStatus().name());
+            }
+            if (after != null && (before == null || !Objects.equals(before.getAmountPaid(), after.getAmountPaid()))) {
+                n.setAmountPaid(after.getAmountPaid());
+                n.setBalanceDue(after.getBalanceDue());
+            }
+        } else if (event.is(EntityChangedEvent.TRANSACTION)) {
+            Transaction t = current instanceof Transaction tx ? tx : null;
+            if (t != null && t.getType() != null) n.setStatus(t.getType().name());
+        }
+        return n;
+    }
+}
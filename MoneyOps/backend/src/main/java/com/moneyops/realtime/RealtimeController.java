@@ -0,0 +1,31 @@
+package com.moneyops.realtime;
+
+import com.moneyops.shared.exceptions.UnauthorizedException;
+import com.moneyops.shared.utils.OrgContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/realtime")
+public class RealtimeController {
+
+    @Autowired
+    private OrgEventBroker orgEventBroker;
+
+    /**
+     * Server-sent change notifications for the caller's org. Event ids are sync tokens
+     * (the safe high-water mark at publish time, see OrgEventBroker); resume via
+     * /api/sync?since=<Last-Event-ID>, or the client's last /api/sync token if it is newer.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) throw new UnauthorizedException("Missing organization context");
+        return orgEventBroker.subscribe(orgId, lastEventId);
+    }
+}
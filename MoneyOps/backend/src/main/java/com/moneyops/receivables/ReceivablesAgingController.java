@@ -0,0 +1,30 @@
+package com.moneyops.receivables;
+
+import com.moneyops.shared.utils.OrgContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/receivables")
+public class ReceivablesAgingController {
+
+    @Autowired
+    private ReceivablesAgingService receivablesAgingService;
+
+    @GetMapping("/aging")
+    public ResponseEntity<ReceivablesAgingService.AgingReportDTO> getAging() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(receivablesAgingService.getAging(orgId));
+    }
+
+    @PostMapping("/aging/refresh")
+    public ResponseEntity<ReceivablesAgingService.AgingReportDTO> refreshAging() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        receivablesAgingService.refresh(orgId);
+        return ResponseEntity.ok(receivablesAgingService.getAging(orgId));
+    }
+}
@@ -0,0 +1,363 @@
+package com.moneyops.receivables;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceStatus;
+import com.moneyops.sync.ChangeSequenceService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Accounts-receivable aging (current, 1-30, 31-60, 61-90, 90+ days past due, per client).
+ *
+ * The snapshot is computed by one aggregation over open invoices (org_status_due_idx),
+ * bucketing balanceDue by $dateDiff from dueDate, and stored per org, so the AR page is
+ * a single findById. Invoice events move the invoice's balance between buckets with $inc
+ * on today's snapshot; the nightly roll-forward recomputes snapshots whose asOf has
+ * passed, because bucket boundaries only move with the calendar.
+ *
+ * Any node may recompute while another applies an event, so both sides are fenced in
+ * Mongo. A snapshot records the change sequence it was computed through, and an event's
+ * $inc only applies to a snapshot that predates the invoice write. The $inc also bumps
+ * the snapshot's revision, and a recompute replaces the snapshot only if the revision
+ * it read before computing is still there, so an adjustment landing mid-compute is never
+ * overwritten. The roll-forward runs on whichever node holds the job lease.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReceivablesAgingService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReceivablesAgingService.class);
+
+    static final List<String> OPEN_STATUSES = List.of(InvoiceStatus.SENT.name(), InvoiceStatus.OVERDUE.name());
+
+    @Data
+    public static class AgingRowDTO {
+        private String clientId;
+        private String clientName;
+        private BigDecimal current = BigDecimal.ZERO;
+        private BigDecimal days1to30 = BigDecimal.ZERO;
+        private BigDecimal days31to60 = BigDecimal.ZERO;
+        private BigDecimal days61to90 = BigDecimal.ZERO;
+        private BigDecimal days90plus = BigDecimal.ZERO;
+        private BigDecimal total = BigDecimal.ZERO;
+        private long openInvoices;
+    }
+
+    @Data
+    public static class AgingReportDTO {
+        private String asOf;
+        private AgingRowDTO totals = new AgingRowDTO();
+        private List<AgingRowDTO> clients = new ArrayList<>();
+        private String computedAt;
+    }
+
+    private static final String ROLL_FORWARD_JOB = "aging-roll-forward";
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeSequenceService changeSequenceService;
+
+    @Value("${app.receivables.aging.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public AgingReportDTO getAging(String orgId) {
+        ReceivablesAgingSnapshot snapshot = mongoTemplate.findById(orgId, ReceivablesAgingSnapshot.class);
+        if (snapshot == null || !LocalDate.now().equals(snapshot.getAsOf()) || snapshot.getThroughSeq() == null) {
+            snapshot = refresh(orgId);
+        }
+        return toDto(snapshot);
+    }
+
+    /**
+     * Recomputes the org's snapshot and stores it unless an invoice write raced the
+     * compute; either way the freshly computed snapshot is returned.
+     */
+    public ReceivablesAgingSnapshot refresh(String orgId) {
+        Query stored = new Query(Criteria.where("_id").is(orgId));
+        stored.fields().include("revision");
+        ReceivablesAgingSnapshot previous = mongoTemplate.findOne(stored, ReceivablesAgingSnapshot.class);
+
+        long through = changeSequenceService.safeHighWater(orgId);
+        ReceivablesAgingSnapshot snapshot = compute(orgId, LocalDate.now());
+        snapshot.setThroughSeq(through);
+
+        // A write past the high-water mark may or may not be in the compute, and its
+        // $inc would not be fenced off; the next read recomputes instead.
+        if (mongoTemplate.exists(new Query(Criteria.where("orgId").is(orgId).and("changeSeq").gt(through)), Invoice.class)) {
+            return snapshot;
+        }
+        if (previous == null) {
+            snapshot.setRevision(0L);
+            try {
+                mongoTemplate.insert(snapshot);
+            } catch (DuplicateKeyException e) {
+                log.debug("Aging snapshot for org {} was stored by another node first", orgId);
+            }
+        } else {
+            Long revision = previous.getRevision();
+            snapshot.setRevision(revision != null ? revision + 1 : 0L);
+            mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(orgId).and("revision").is(revision)), snapshot);
+        }
+        return snapshot;
+    }
+
+    @Scheduled(cron = "${app.receivables.aging.roll-forward-cron:0 5 0 * * *}")
+    public void rollForward() {
+        if (!acquire()) {
+            log.debug("Receivables aging roll-forward is running on another node");
+            return;
+        }
+        Query stale = new Query(Criteria.where("asOf").lt(LocalDate.now()));
+        stale.fields().include("_id");
+        int rolled = 0;
+        try (Stream<ReceivablesAgingSnapshot> snapshots = mongoTemplate.stream(stale, ReceivablesAgingSnapshot.class)) {
+            for (ReceivablesAgingSnapshot s : (Iterable<ReceivablesAgingSnapshot>) snapshots::iterator) {
+                if (!renew()) {
+                    log.warn("Lost the receivables aging roll-forward lease after {} snapshots", rolled);
+                    return;
+                }
+                try {
+                    refresh(s.getOrgId());
+                    rolled++;
+                } catch (Exception e) {
+                    log.error("Failed to roll aging snapshot forward for org {}: {}", s.getOrgId(), e.getMessage());
+                }
+            }
+        } finally {
+            release();
+        }
+        log.info("Rolled {} receivables aging snapshots forward", rolled);
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.is(EntityChangedEvent.INVOICE) || event.getOrgId() == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        Update update = new Update();
+        accumulate(event.getBefore(Invoice.class), today, -1, amounts, counts, update);
+        accumulate(event.getAfter(Invoice.class), today, 1, amounts, counts, update);
+
+        boolean changed = false;
+        for (Map.Entry<String, BigDecimal> e : amounts.entrySet()) {
+            if (e.getValue().signum() != 0) {
+                update.inc(e.getKey(), new Decimal128(e.getValue()));
+                changed = true;
+            }
+        }
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            if (e.getValue() != 0) {
+                update.inc(e.getKey(), e.getValue());
+                changed = true;
+            }
+        }
+        if (!changed) return;
+        update.inc("revision", 1);
+
+        // Only today's snapshot is adjusted in place; an older one is recomputed on next read.
+        // A snapshot computed through this write already counts it.
+        Criteria target = Criteria.where("_id").is(event.getOrgId()).and("asOf").is(today);
+        Invoice written = event.getAfter(Invoice.class) != null ? event.getAfter(Invoice.class) : event.getBefore(Invoice.class);
+        if (written.getChangeSeq() != null) {
+            target.and("throughSeq").lt(written.getChangeSeq());
+        }
+        mongoTemplate.updateFirst(new Query(target), update, ReceivablesAgingSnapshot.class);
+    }
+
+    // ── Roll-forward lease ────────────────────────────────────────────────────
+
+    /** Takes the job if its lease is free or expired; a held lease makes the upsert collide on _id. */
+    private boolean acquire() {
+        LocalDateTime now = LocalDateTime.now();
+        Query free = new Query(Criteria.where("_id").is(ROLL_FORWARD_JOB)
+                .orOperator(Criteria.where("leasedUntil").lt(now), Criteria.where("owner").is(nodeId)));
+        try {
+            mongoTemplate.upsert(free, new Update().set("owner", nodeId)
+                    .set("leasedUntil", now.plusSeconds(leaseSeconds))
+                    .set("acquiredAt", now), ReceivablesJobLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean renew() {
+        return mongoTemplate.updateFirst(heldLease(),
+                new Update().set("leasedUntil", LocalDateTime.now().plusSeconds(leaseSeconds)),
+                ReceivablesJobLease.class).getMatchedCount() > 0;
+    }
+
+    private void release() {
+        mongoTemplate.updateFirst(heldLease(), new Update().set("leasedUntil", LocalDateTime.now()),
+                ReceivablesJobLease.class);
+    }
+
+    private Query heldLease() {
+        return new Query(Criteria.where("_id").is(ROLL_FORWARD_JOB).and("owner").is(nodeId));
+    }
+
+    private void accumulate(Invoice invoice, LocalDate today, int sign,
+                            Map<String, BigDecimal> amounts, Map<String, Long> counts, Update update) {
+        if (invoice == null || invoice.getDeletedAt() != null && sign > 0) return;
+        if (invoice.getStatus() == null || !OPEN_STATUSES.contains(invoice.getStatus().name())) return;
+        BigDecimal balance = invoice.getBalanceDue() != null ? invoice.getBalanceDue() : invoice.getTotalAmount();
+        if (balance == null || balance.signum() <= 0) return;
+
+        long daysPastDue = invoice.getDueDate() != null ? ChronoUnit.DAYS.between(invoice.getDueDate(), today) : 0;
+        String bucket = bucketField(daysPastDue);
+        String client = "clients." + clientKey(invoice.getClientId(), invoice.getClientName());
+        BigDecimal delta = sign > 0 ? balance : balance.negate();
+
+        amounts.merge("totals." + bucket, delta, BigDecimal::add);
+        amounts.merge(client + ".buckets." + bucket, delta, BigDecimal::add);
+        counts.merge("totals.openInvoices", (long) sign, Long::sum);
+        counts.merge(client + ".buckets.openInvoices", (long) sign, Long::sum);
+        update.set(client + ".clientId", invoice.getClientId());
+        update.set(client + ".clientName", invoice.getClientName());
+    }
+
+    ReceivablesAgingSnapshot compute(String orgId, LocalDate asOf) {
+        long start = System.currentTimeMillis();
+        String timezone = ZoneId.systemDefault().getId();
+        Date asOfDate = Date.from(asOf.atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        Document days = new Document("$ifNull", List.of(new Document("$dateDiff", new Document("startDate", "$dueDate")
+                .append("endDate", asOfDate).append("unit", "day").append("timezone", timezone)), 0));
+        Document bucket = new Document("$switch", new Document("branches", List.of(
+                branch(new Document("$lte", List.of("$days", 0)), "current"),
+                branch(new Document("$lte", List.of("$days", 30)), "days1to30"),
+                branch(new Document("$lte", List.of("$days", 60)), "days31to60"),
+                branch(new Document("$lte", List.of("$days", 90)), "days61to90")))
+                .append("default", "days90plus"));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("orgId").is(orgId).and("status").in(OPEN_STATUSES).and("deletedAt").is(null)),
+                context -> new Document("$project", new Document("clientId", 1).append("clientName", 1)
+                        .append("days", days)
+                        .append("balance", new Document("$convert", new Document("input",
+                                new Document("$ifNull", List.of("$balanceDue", "$totalAmount")))
+                                .append("to", "decimal").append("onError", 0).append("onNull", 0)))),
+                context -> new Document("$match", new Document("balance", new Document("$gt", 0))),
+                context -> new Document("$group", new Document("_id", new Document("clientId", "$clientId")
+                        .append("clientName", "$clientName").append("bucket", bucket))
+                        .append("amount", new Document("$sum", "$balance"))
+                        .append("count", new Document("$sum", 1))));
+
+        ReceivablesAgingSnapshot snapshot = new ReceivablesAgingSnapshot();
+        snapshot.setOrgId(orgId);
+        snapshot.setAsOf(asOf);
+        for (Document row : mongoTemplate.aggregate(aggregation, Invoice.class, Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            String clientId = id.getString("clientId");
+            String clientName = id.getString("clientName");
+            String field = id.getString("bucket");
+            BigDecimal amount = row.get("amount") instanceof Decimal128 d ? d.bigDecimalValue() : BigDecimal.ZERO;
+            long count = ((Number) row.get("count")).longValue();
+
+            ReceivablesAgingSnapshot.ClientAging client = snapshot.getClients()
+                    .computeIfAbsent(clientKey(clientId, clientName), k -> new ReceivablesAgingSnapshot.ClientAging());
+            client.setClientId(clientId);
+            client.setClientName(clientName);
+            add(client.getBuckets(), field, amount, count);
+            add(snapshot.getTotals(), field, amount, count);
+        }
+        snapshot.setComputedAt(LocalDateTime.now());
+        log.debug("Computed receivables aging for org {} in {} ms", orgId, System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    private AgingReportDTO toDto(ReceivablesAgingSnapshot snapshot) {
+        AgingReportDTO dto = new AgingReportDTO();
+        dto.setAsOf(snapshot.getAsOf() != null ? snapshot.getAsOf().toString() : null);
+        dto.setComputedAt(snapshot.getComputedAt() != null ? snapshot.getComputedAt().toString() : null);
+        dto.setTotals(toRow(null, null, snapshot.getTotals()));
+        snapshot.getClients().values().stream()
+                .filter(c -> c.getBuckets() != null && c.getBuckets().getOpenInvoices() > 0)
+                .map(c -> toRow(c.getClientId(), c.getClientName(), c.getBuckets()))
+                .sorted(Comparator.comparing(AgingRowDTO::getTotal).reversed())
+                .forEach(dto.getClients()::add);
+        return dto;
+    }
+
+    private static AgingRowDTO toRow(String clientId, String clientName, ReceivablesAgingSnapshot.Buckets b) {
+        AgingRowDTO row = new AgingRowDTO();
+        row.setClientId(clientId);
+        row.setClientName(clientName);
+        if (b == null) return row;
+        row.setCurrent(nz(b.getCurrent()));
+        row.setDays1to30(nz(b.getDays1to30()));
+        row.setDays31to60(nz(b.getDays31to60()));
+        row.setDays61to90(nz(b.getDays61to90()));
+        row.setDays90plus(nz(b.getDays90plus()));
+        row.setTotal(row.getCurrent().add(row.getDays1to30()).add(row.getDays31to60())
+                .add(row.getDays61to90()).add(row.getDays90plus()));
+        row.setOpenInvoices(b.getOpenInvoices());
+        return row;
+    }
+
+    private static void add(ReceivablesAgingSnapshot.Buckets b, String field, BigDecimal amount, long count) {
+        switch (field) {
+            case "current" -> b.setCurrent(nz(b.getCurrent()).add(amount));
+            case "days1to30" -> b.setDays1to30(nz(b.getDays1to30()).add(amount));
+            case "days31to60" -> b.setDays31to60(nz(b.getDays31to60()).add(amount));
+            case "days61to90" -> b.setDays61to90(nz(b.getDays61to90()).add(amount));
+            default -> b.setDays90plus(nz(b.getDays90plus()).add(amount));
+        }
+        b.setOpenInvoices(b.getOpenInvoices() + count);
+    }
+
+    static String bucketField(long daysPastDue) {
+        if (daysPastDue <= 0) return "current";
+        if (daysPastDue <= 30) return "days1to30";
+        if (daysPastDue <= 60) return "days31to60";
+        if (daysPastDue <= 90) return "days61to90";
+        return "days90plus";
+    }
+
+    /** Map key safe for Mongo field paths: clientId, else the client name, else "unassigned". */
+    public static String clientKey(String clientId, String clientName) {
+        String raw = clientId != null && !clientId.isBlank() ? clientId
+                : clientName != null && !clientName.isBlank() ? "name:" + clientName.trim().toLowerCase()
+                : "unassigned";
+        return raw.replace("%", "%25").replace(".", "%2E").replace("$", "%24");
+    }
+
+    private static Document branch(Document condition, String bucket) {
+        return new Document("case", condition).append("then", bucket);
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
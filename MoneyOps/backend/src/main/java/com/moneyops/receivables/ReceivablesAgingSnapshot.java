@@ -0,0 +1,54 @@
+package com.moneyops.receivables;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Materialized accounts-receivable aging for an org as of {@link #asOf}, keyed by orgId.
+ *
+ * Open invoices (SENT / OVERDUE with a positive balanceDue) are bucketed by days past
+ * dueDate. Invoice events $inc the affected buckets in place; the nightly roll-forward
+ * recomputes the snapshot for the new date, since buckets only shift with the calendar.
+ *
+ * {@link #throughSeq} is the org change sequence the compute covered: an invoice write
+ * at or below it is already counted and its $inc is skipped. {@link #revision} moves
+ * with every in-place adjustment and fences a recompute's replace.
+ */
+@Document(collection = "receivables_aging_snapshots")
+@Data
+public class ReceivablesAgingSnapshot {
+
+    @Id
+    private String orgId;
+
+    private LocalDate asOf;
+    private Buckets totals = new Buckets();
+    private Map<String, ClientAging> clients = new HashMap<>();   // key: ReceivablesAgingService.clientKey
+    private LocalDateTime computedAt;
+    private Long throughSeq;
+    private Long revision;
+
+    @Data
+    public static class Buckets {
+        private BigDecimal current = BigDecimal.ZERO;      // not yet due
+        private BigDecimal days1to30 = BigDecimal.ZERO;
+        private BigDecimal days31to60 = BigDecimal.ZERO;
+        private BigDecimal days61to90 = BigDecimal.ZERO;
+        private BigDecimal days90plus = BigDecimal.ZERO;
+        private long openInvoices;
+    }
+
+    @Data
+    public static class ClientAging {
+        private String clientId;
+        private String clientName;
+        private Buckets buckets = new Buckets();
+    }
+}
@@ -0,0 +1,23 @@
+package com.moneyops.receivables;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which node is running a receivables background job, keyed by job name. A lease past
+ * {@code leasedUntil} is free for any node to take.
+ */
+@Document(collection = "receivables_job_leases")
+@Data
+public class ReceivablesJobLease {
+
+    @Id
+    private String job;
+
+    private String owner;
+    private LocalDateTime leasedUntil;
+    private LocalDateTime acquiredAt;
+}
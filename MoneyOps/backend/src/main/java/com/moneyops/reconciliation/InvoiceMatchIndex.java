@@ -0,0 +1,189 @@
+package com.moneyops.reconciliation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory hash indexes over an org's open invoices, for matching bank credits.
+ *
+ * Two maps: open balance (to the cent) -> invoices, and invoice-number key -> invoices.
+ * A payment's candidates are the union of its amount bucket and the buckets of the keys
+ * found in its reference and description, so matching a statement costs one lookup per
+ * payment token rather than a scan of every open invoice. Only candidates are scored:
+ *
+ *   reference contains the full invoice number   +50  (or only its numeric part  +35)
+ *   amount equals the open balance               +40  (less than it: partial     +10)
+ *   same client (id, or client name in the text) +15
+ *   paid between issue date and due + 15 days    +10  (up to due + 60 days       +5)
+ *
+ * A candidate needs the payment's currency and a balance at least the payment amount.
+ * Kept current by put/remove as invoices change; all methods synchronize on the index.
+ */
+class InvoiceMatchIndex {
+
+    static final int REFERENCE_FULL = 50;
+    static final int REFERENCE_NUMBER = 35;
+    static final int AMOUNT_EXACT = 40;
+    static final int AMOUNT_PARTIAL = 10;
+    static final int SAME_CLIENT = 15;
+    static final int DATE_CLOSE = 10;
+    static final int DATE_LATE = 5;
+
+    private static final int MIN_KEY_LENGTH = 3;
+    private static final int MIN_NAME_LENGTH = 4;
+
+    /** What matching needs of an open invoice. */
+    record OpenInvoice(String id, String invoiceNumber, String clientId, String clientName, String currency,
+                       BigDecimal balanceDue, LocalDate issueDate, LocalDate dueDate) {
+    }
+
+    /** An unlinked income transaction; {@code text} is its reference and description. */
+    record Payment(String id, BigDecimal amount, String currency, LocalDate date, String clientId, String text) {
+    }
+
+    record Candidate(OpenInvoice invoice, int score, List<String> reasons) {
+    }
+
+    private final Map<String, OpenInvoice> invoices = new HashMap<>();
+    private final Map<String, Set<String>> byAmount = new HashMap<>();
+    private final Map<String, Set<String>> byKey = new HashMap<>();
+
+    synchronized void put(OpenInvoice invoice) {
+        remove(invoice.id());
+        if (invoice.balanceDue() == null || invoice.balanceDue().signum() <= 0) return;
+        invoices.put(invoice.id(), invoice);
+        byAmount.computeIfAbsent(amountKey(invoice.balanceDue()), k -> new LinkedHashSet<>()).add(invoice.id());
+        for (String key : invoiceKeys(invoice.invoiceNumber())) {
+            byKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(invoice.id());
+        }
+    }
+
+    synchronized void remove(String invoiceId) {
+        OpenInvoice old = invoices.remove(invoiceId);
+        if (old == null) return;
+        unlink(byAmount, amountKey(old.balanceDue()), invoiceId);
+        for (String key : invoiceKeys(old.invoiceNumber())) unlink(byKey, key, invoiceId);
+    }
+
+    synchronized int size() {
+        return invoices.size();
+    }
+
+    /** Scored candidates for the payment, best first. */
+    synchronized List<Candidate> candidates(Payment payment) {
+        if (payment.amount() == null || payment.amount().signum() <= 0) return List.of();
+        Set<String> keys = textKeys(payment.text());
+        Set<String> ids = new LinkedHashSet<>(byAmount.getOrDefault(amountKey(payment.amount()), Set.of()));
+        for (String key : keys) ids.addAll(byKey.getOrDefault(key, Set.of()));
+
+        String text = normalize(payment.text());
+        List<Candidate> candidates = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Candidate candidate = score(invoices.get(id), payment, keys, text);
+            if (candidate != null) candidates.add(candidate);
+        }
+        candidates.sort(Comparator.comparingInt(Candidate::score).reversed());
+        return candidates;
+    }
+
+    private static Candidate score(OpenInvoice invoice, Payment payment, Set<String> keys, String text) {
+        if (payment.currency() != null && invoice.currency() != null && !payment.currency().equals(invoice.currency())) return null;
+        int cmp = payment.amount().setScale(2, RoundingMode.HALF_UP).compareTo(invoice.balanceDue().setScale(2, RoundingMode.HALF_UP));
+        if (cmp > 0) return null;
+
+        int score = 0;
+        List<String> reasons = new ArrayList<>(4);
+        String number = normalize(invoice.invoiceNumber());
+        String numeric = numericKey(number);
+        if (number.length() >= MIN_KEY_LENGTH && text.contains(number)) {
+            score += REFERENCE_FULL;
+            reasons.add("REFERENCE");
+        } else if (numeric != null && keys.contains(numeric)) {
+            score += REFERENCE_NUMBER;
+            reasons.add("REFERENCE_NUMBER");
+        }
+        if (cmp == 0) {
+            score += AMOUNT_EXACT;
+            reasons.add("AMOUNT");
+        } else if (!reasons.isEmpty()) {
+            score += AMOUNT_PARTIAL;
+            reasons.add("PARTIAL_AMOUNT");
+        }
+        String clientName = normalize(invoice.clientName());
+        if (invoice.clientId() != null && invoice.clientId().equals(payment.clientId())
+                || clientName.length() >= MIN_NAME_LENGTH && text.contains(clientName)) {
+            score += SAME_CLIENT;
+            reasons.add("CLIENT");
+        }
+        LocalDate date = payment.date();
+        if (date != null && (invoice.issueDate() == null || !date.isBefore(invoice.issueDate()))) {
+            LocalDate due = invoice.dueDate() != null ? invoice.dueDate() : invoice.issueDate();
+            if (due == null || !date.isAfter(due.plusDays(15))) {
+                score += DATE_CLOSE;
+                reasons.add("DATE");
+            } else if (!date.isAfter(due.plusDays(60))) {
+                score += DATE_LATE;
+                reasons.add("DATE_LATE");
+            }
+        }
+        return new Candidate(invoice, score, List.copyOf(reasons));
+    }
+
+    /** Keys of an invoice number: the number without separators, and its trailing digits. */
+    static Set<String> invoiceKeys(String invoiceNumber) {
+        Set<String> keys = new LinkedHashSet<>(2);
+        String number = normalize(invoiceNumber);
+        if (number.length() >= MIN_KEY_LENGTH) keys.add(number);
+        String numeric = numericKey(number);
+        if (numeric != null) keys.add(numeric);
+        return keys;
+    }
+
+    /** The same keys for every whitespace/punctuation-separated token of a payment's text. */
+    static Set<String> textKeys(String text) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (text == null) return keys;
+        for (String token : text.split("[\\s,;:()\\[\\]]+")) {
+            keys.addAll(invoiceKeys(token));
+        }
+        return keys;
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) out.append(Character.toUpperCase(c));
+        }
+        return out.toString();
+    }
+
+    /** "#" + trailing digit run without leading zeros ("INV2025/0042" -> "#20250042"), if long enough. */
+    private static String numericKey(String normalized) {
+        int end = normalized.length();
+        int start = end;
+        while (start > 0 && Character.isDigit(normalized.charAt(start - 1))) start--;
+        while (start < end && normalized.charAt(start) == '0') start++;
+        return end - start >= MIN_KEY_LENGTH ? "#" + normalized.substring(start, end) : null;
+    }
+
+    private static String amountKey(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static void unlink(Map<String, Set<String>> index, String key, String invoiceId) {
+        Set<String> ids = index.get(key);
+        if (ids == null) return;
+        ids.remove(invoiceId);
+        if (ids.isEmpty()) index.remove(key);
+    }
+}
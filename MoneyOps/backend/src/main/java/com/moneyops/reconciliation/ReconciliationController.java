@@ -0,0 +1,53 @@
+package com.moneyops.reconciliation;
+
+import com.moneyops.shared.utils.OrgContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @PostMapping("/run")
+    public ResponseEntity<ReconciliationService.RunResult> run() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reconciliationService.reconcile(orgId));
+    }
+
+    @GetMapping("/review")
+    public ResponseEntity<List<ReconciliationMatch>> getReviewQueue() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reconciliationService.getReviewQueue(orgId));
+    }
+
+    /** Body {"invoiceId": "..."} picks the invoice; without it the top candidate is applied. */
+    @PostMapping("/review/{id}/accept")
+    public ResponseEntity<ReconciliationMatch> accept(@PathVariable String id, @RequestBody(required = false) Map<String, String> body) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        String invoiceId = body != null ? body.get("invoiceId") : null;
+        return ResponseEntity.ok(reconciliationService.accept(orgId, id, invoiceId, OrgContext.getUserId()));
+    }
+
+    @PostMapping("/review/{id}/reject")
+    public ResponseEntity<ReconciliationMatch> reject(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reconciliationService.reject(orgId, id, OrgContext.getUserId()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.moneyops.reconciliation;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reconciliation outcome for one bank transaction, keyed by the transaction id: either
+ * applied automatically, or queued for review with its best-scoring candidate invoices.
+ * Transactions with a PENDING or REJECTED entry are skipped by later runs.
+ */
+@Document(collection = "reconciliation_matches")
+@CompoundIndex(name = "org_status_created_idx", def = "{'orgId': 1, 'status': 1, 'createdAt': -1}")
+@Data
+public class ReconciliationMatch {
+
+    public enum Status { PENDING, AUTO_APPLIED, APPLIED, REJECTED }
+
+    @Data
+    public static class Candidate {
+        private String invoiceId;
+        private String invoiceNumber;
+        private String clientName;
+        private BigDecimal balanceDue;
+        private LocalDate dueDate;
+        private int score;
+        private List<String> reasons;
+    }
+
+    @Id
+    private String id;         // = transactionId
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String transactionId;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate transactionDate;
+    private String description;
+    private String referenceNumber;
+
+    private Status status = Status.PENDING;
+    private List<Candidate> candidates = new ArrayList<>();
+    private String appliedInvoiceId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime resolvedAt;
+    private String resolvedBy;
+}
@@ -0,0 +1,340 @@
+package com.moneyops.reconciliation;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceStatus;
+import com.moneyops.invoices.service.InvoiceService;
+import com.moneyops.shared.exceptions.ValidationException;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Matches unlinked INCOME transactions to open invoices (SENT or OVERDUE; a DRAFT hasn't
+ * been sent to the client, so no payment can be for it yet).
+ *
+ * Each org's open invoices are held in an InvoiceMatchIndex, so a run is one pass over the
+ * unlinked transactions with hash lookups per transaction. The index is built on first use
+ * and rebuilt at the start of a run whenever the org's INVOICE data version has moved
+ * since, which covers invoice writes on other nodes; this node's invoice events patch it
+ * in place, so payments applied during a run are seen by the rest of it. Resident orgs
+ * are LRU-bounded (app.reconciliation.max-orgs). A confident, unambiguous match (score at least
+ * app.reconciliation.auto-apply-score and ahead of the runner-up by the margin) is applied
+ * through InvoiceService.applyExistingPayment; anything else scoring at least
+ * review-score is queued as a PENDING ReconciliationMatch for someone to accept or reject.
+ *
+ * Runs after every statement import and on demand; runs per org are serialized.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReconciliationService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReconciliationService.class);
+
+    private static final int MAX_REVIEW_CANDIDATES = 3;
+    private static final Set<InvoiceStatus> OPEN = Set.of(InvoiceStatus.SENT, InvoiceStatus.OVERDUE);
+
+    public record RunResult(long examined, long autoApplied, long queued, long unmatched, long elapsedMs) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final InvoiceService invoiceService;
+    private final DataVersionService dataVersionService;
+
+    @Value("${app.reconciliation.auto-apply-score:80}")
+    private int autoApplyScore;
+
+    @Value("${app.reconciliation.auto-apply-margin:20}")
+    private int autoApplyMargin;
+
+    @Value("${app.reconciliation.review-score:40}")
+    private int reviewScore;
+
+    @Value("${app.reconciliation.run-after-import:true}")
+    private boolean runAfterImport;
+
+    @Value("${app.reconciliation.max-orgs:200}")
+    private int maxOrgs;
+
+    /** An org's index and the INVOICE data version read before it was built. */
+    private record OrgIndex(InvoiceMatchIndex index, long invoiceVersion) {}
+
+    /** Guarded by itself. */
+    private final Map<String, OrgIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OrgIndex> eldest) {
+            return size() > Math.max(1, maxOrgs);
+        }
+    };
+    private final Map<String, Object> orgLocks = new ConcurrentHashMap<>();
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RunResult reconcile(String orgId) {
+        synchronized (lockFor(orgId)) {
+            long start = System.currentTimeMillis();
+            InvoiceMatchIndex index = indexFor(orgId);
+            Set<String> skipped = reviewedTransactionIds(orgId);
+            long examined = 0, autoApplied = 0, queued = 0, unmatched = 0;
+
+            Query unlinked = new Query(Criteria.where("orgId").is(orgId).and("type").is(TransactionType.INCOME)
+                    .and("deletedAt").is(null).and("invoiceId").is(null))
+                    .with(Sort.by(Sort.Direction.ASC, "transactionDate"));
+            unlinked.fields().include("amount", "currency", "transactionDate", "clientId", "description", "referenceNumber");
+            try (Stream<Transaction> stream = mongoTemplate.stream(unlinked, Transaction.class)) {
+                var transactions = stream.iterator();
+                while (transactions.hasNext()) {
+                    Transaction t = transactions.next();
+                    if (skipped.contains(t.getId())) continue;
+                    examined++;
+                    if (index.size() == 0) {
+                        unmatched++;
+                        continue;
+                    }
+                    List<InvoiceMatchIndex.Candidate> candidates = index.candidates(toPayment(t));
+                    InvoiceMatchIndex.Candidate best = candidates.isEmpty() ? null : candidates.get(0);
+                    if (best == null || best.score() < reviewScore) {
+                        unmatched++;
+                    } else if (isConfident(candidates) && autoApply(orgId, t, best)) {
+                        autoApplied++;
+                    } else {
+                        queue(orgId, t, candidates);
+                        queued++;
+                    }
+                }
+            }
+
+            RunResult result = new RunResult(examined, autoApplied, queued, unmatched, System.currentTimeMillis() - start);
+            log.info("Reconciled org {}: {}", orgId, result);
+            return result;
+        }
+    }
+
+    public List<ReconciliationMatch> getReviewQueue(String orgId) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("status").is(ReconciliationMatch.Status.PENDING))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(200);
+        return mongoTemplate.find(query, ReconciliationMatch.class);
+    }
+
+    /** Applies the queued transaction to {@code invoiceId} (any open invoice, not only a suggested one). */
+    public ReconciliationMatch accept(String orgId, String matchId, String invoiceId, String userId) {
+        synchronized (lockFor(orgId)) {
+            ReconciliationMatch match = pendingMatch(orgId, matchId);
+            if (invoiceId == null || invoiceId.isBlank()) {
+                if (match.getCandidates().isEmpty()) throw new ValidationException("invoiceId is required.");
+                invoiceId = match.getCandidates().get(0).getInvoiceId();
+            }
+            invoiceService.applyExistingPayment(invoiceId, match.getTransactionId(), orgId);
+            return resolve(match, ReconciliationMatch.Status.APPLIED, invoiceId, userId);
+        }
+    }
+
+    public ReconciliationMatch reject(String orgId, String matchId, String userId) {
+        synchronized (lockFor(orgId)) {
+            return resolve(pendingMatch(orgId, matchId), ReconciliationMatch.Status.REJECTED, null, userId);
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getOrgId() == null) return;
+        if (event.is(EntityChangedEvent.INVOICE)) {
+            OrgIndex cached;
+            synchronized (indexes) {
+                cached = indexes.get(event.getOrgId());
+            }
+            if (cached == null) return;
+            InvoiceMatchIndex index = cached.index();
+            index.remove(event.getEntityId());
+            Invoice after = event.getAfter(Invoice.class);
+            if (after != null && after.getDeletedAt() == null && OPEN.contains(after.getStatus())) {
+                index.put(toOpenInvoice(after));
+            }
+        } else if (event.is(EntityChangedEvent.TRANSACTION) && event.getChangeType() != EntityChangedEvent.ChangeType.CREATED) {
+            // Linked by hand or deleted: a queued review for it is moot.
+            Transaction after = event.getAfter(Transaction.class);
+            if (after == null || after.getInvoiceId() != null) {
+                mongoTemplate.remove(new Query(Criteria.where("_id").is(event.getEntityId())
+                        .and("status").is(ReconciliationMatch.Status.PENDING)), ReconciliationMatch.class);
+            }
+        }
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        if (!runAfterImport) return;
+        runner.execute(() -> {
+            try {
+                reconcile(event.getOrgId());
+            } catch (Exception e) {
+                log.warn("Reconciliation after import {} failed for org {}: {}", event.getImportId(), event.getOrgId(), e.getMessage());
+            }
+        });
+    }
+
+    private boolean isConfident(List<InvoiceMatchIndex.Candidate> candidates) {
+        int best = candidates.get(0).score();
+        int runnerUp = candidates.size() > 1 ? candidates.get(1).score() : 0;
+        return best >= autoApplyScore && best - runnerUp >= autoApplyMargin;
+    }
+
+    private boolean autoApply(String orgId, Transaction t, InvoiceMatchIndex.Candidate best) {
+        String invoiceId = best.invoice().id();
+        try {
+            invoiceService.applyExistingPayment(invoiceId, t.getId(), orgId);
+        } catch (RuntimeException e) {
+            // Paid, deleted or linked since the index saw it: let a person look at it instead.
+            log.debug("Auto-apply of transaction {} to invoice {} failed: {}", t.getId(), invoiceId, e.getMessage());
+            return false;
+        }
+        ReconciliationMatch match = newMatch(orgId, t, List.of(best));
+        match.setStatus(ReconciliationMatch.Status.AUTO_APPLIED);
+        match.setAppliedInvoiceId(invoiceId);
+        match.setResolvedAt(match.getCreatedAt());
+        mongoTemplate.save(match);
+        return true;
+    }
+
+    private void queue(String orgId, Transaction t, List<InvoiceMatchIndex.Candidate> candidates) {
+        List<InvoiceMatchIndex.Candidate> top = candidates.stream()
+                .filter(c -> c.score() >= reviewScore)
+                .limit(MAX_REVIEW_CANDIDATES)
+                .toList();
+        mongoTemplate.save(newMatch(orgId, t, top));
+    }
+
+    private ReconciliationMatch newMatch(String orgId, Transaction t, List<InvoiceMatchIndex.Candidate> candidates) {
+        ReconciliationMatch match = new ReconciliationMatch();
+        match.setId(t.getId());
+        match.setOrgId(orgId);
+        match.setTransactionId(t.getId());
+        match.setAmount(t.getAmount());
+        match.setCurrency(t.getCurrency());
+        match.setTransactionDate(t.getTransactionDate());
+        match.setDescription(t.getDescription());
+        match.setReferenceNumber(t.getReferenceNumber());
+        match.setCreatedAt(LocalDateTime.now());
+        for (InvoiceMatchIndex.Candidate c : candidates) {
+            ReconciliationMatch.Candidate candidate = new ReconciliationMatch.Candidate();
+            candidate.setInvoiceId(c.invoice().id());
+            candidate.setInvoiceNumber(c.invoice().invoiceNumber());
+            candidate.setClientName(c.invoice().clientName());
+            candidate.setBalanceDue(c.invoice().balanceDue());
+            candidate.setDueDate(c.invoice().dueDate());
+            candidate.setScore(c.score());
+            candidate.setReasons(c.reasons());
+            match.getCandidates().add(candidate);
+        }
+        return match;
+    }
+
+    private ReconciliationMatch pendingMatch(String orgId, String matchId) {
+        ReconciliationMatch match = mongoTemplate.findOne(new Query(Criteria.where("_id").is(matchId).and("orgId").is(orgId)),
+                ReconciliationMatch.class);
+        if (match == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reconciliation match not found");
+        }
+        if (match.getStatus() != ReconciliationMatch.Status.PENDING) {
+            throw new ValidationException("Reconciliation match is already " + match.getStatus().name().toLowerCase() + ".");
+        }
+        return match;
+    }
+
+    private ReconciliationMatch resolve(ReconciliationMatch match, ReconciliationMatch.Status status, String invoiceId, String userId) {
+        match.setStatus(status);
+        match.setAppliedInvoiceId(invoiceId);
+        match.setResolvedAt(LocalDateTime.now());
+        match.setResolvedBy(userId);
+        mongoTemplate.save(match);
+        return match;
+    }
+
+    /** The org's index, rebuilt if any node has written an invoice since it was built. Called under the org lock. */
+    private InvoiceMatchIndex indexFor(String orgId) {
+        long version = dataVersionService.version(orgId, EntityChangedEvent.INVOICE);
+        synchronized (indexes) {
+            OrgIndex cached = indexes.get(orgId);
+            if (cached != null && cached.invoiceVersion() == version) {
+                return cached.index();
+            }
+        }
+        long start = System.currentTimeMillis();
+        Query open = new Query(Criteria.where("orgId").is(orgId).and("deletedAt").is(null).and("status").in(OPEN));
+        open.fields().include("invoiceNumber", "clientId", "clientName", "currency", "totalAmount", "amountPaid",
+                "balanceDue", "issueDate", "dueDate", "status");
+        InvoiceMatchIndex index = new InvoiceMatchIndex();
+        try (Stream<Invoice> invoices = mongoTemplate.stream(open, Invoice.class)) {
+            invoices.forEach(invoice -> index.put(toOpenInvoice(invoice)));
+        }
+        synchronized (indexes) {
+            indexes.put(orgId, new OrgIndex(index, version));
+        }
+        log.debug("Built invoice match index for org {}: {} open invoices in {} ms",
+                orgId, index.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private Set<String> reviewedTransactionIds(String orgId) {
+        Query reviewed = new Query(Criteria.where("orgId").is(orgId)
+                .and("status").in(ReconciliationMatch.Status.PENDING, ReconciliationMatch.Status.REJECTED));
+        reviewed.fields().include("_id");
+        Set<String> ids = new HashSet<>();
+        for (ReconciliationMatch match : mongoTemplate.find(reviewed, ReconciliationMatch.class)) {
+            ids.add(match.getId());
+        }
+        return ids;
+    }
+
+    private static InvoiceMatchIndex.OpenInvoice toOpenInvoice(Invoice invoice) {
+        BigDecimal balance = invoice.getBalanceDue();
+        if (balance == null && invoice.getTotalAmount() != null) {
+            balance = invoice.getTotalAmount().subtract(invoice.getAmountPaid() != null ? invoice.getAmountPaid() : BigDecimal.ZERO);
+        }
+        return new InvoiceMatchIndex.OpenInvoice(invoice.getId(), invoice.getInvoiceNumber(), invoice.getClientId(),
+                invoice.getClientName(), invoice.getCurrency(), balance, invoice.getIssueDate(), invoice.getDueDate());
+    }
+
+    private static InvoiceMatchIndex.Payment toPayment(Transaction t) {
+        String text = t.getReferenceNumber() == null ? t.getDescription()
+                : t.getDescription() == null ? t.getReferenceNumber()
+                : t.getReferenceNumber() + " " + t.getDescription();
+        return new InvoiceMatchIndex.Payment(t.getId(), t.getAmount(), t.getCurrency(), t.getTransactionDate(), t.getClientId(), text);
+    }
+
+    private Object lockFor(String orgId) {
+        return orgLocks.computeIfAbsent(orgId, id -> new Object());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,52 @@
+package com.moneyops.recurring;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Issue dates of a recurring template.
+ *
+ * WEEKLY templates issue on anchorDay as a day of week (1 = Monday). MONTHLY, QUARTERLY
+ * and YEARLY ones issue on anchorDay of the month, clamped to its length (31 → 30 Apr,
+ * 28/29 Feb) without drifting afterwards; YEARLY keeps the start date's month. Every
+ * occurrence is computed from the start, not the previous occurrence, so clamping never
+ * accumulates.
+ */
+final class RecurrenceSchedule {
+
+    private RecurrenceSchedule() {
+    }
+
+    /** The first issue date on or after {@code start}. */
+    static LocalDate first(RecurringInvoiceTemplate.Frequency frequency, int anchorDay, LocalDate start) {
+        if (frequency == RecurringInvoiceTemplate.Frequency.WEEKLY) {
+            return start.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(anchorDay)));
+        }
+        LocalDate candidate = onAnchor(YearMonth.from(start), anchorDay);
+        return candidate.isBefore(start) ? onAnchor(YearMonth.from(start).plusMonths(1), anchorDay) : candidate;
+    }
+
+    /** Issue date of occurrence {@code n} (0-based) of a schedule whose first issue is {@code first}. */
+    static LocalDate occurrence(RecurringInvoiceTemplate.Frequency frequency, int interval, int anchorDay,
+                                LocalDate first, long n) {
+        long steps = n * Math.max(1, interval);
+        return switch (frequency) {
+            case WEEKLY -> first.plusWeeks(steps);
+            case MONTHLY -> onAnchor(YearMonth.from(first).plusMonths(steps), anchorDay);
+            case QUARTERLY -> onAnchor(YearMonth.from(first).plusMonths(3 * steps), anchorDay);
+            case YEARLY -> onAnchor(YearMonth.from(first).plusYears(steps), anchorDay);
+        };
+    }
+
+    static boolean validAnchor(RecurringInvoiceTemplate.Frequency frequency, int anchorDay) {
+        return frequency == RecurringInvoiceTemplate.Frequency.WEEKLY
+                ? anchorDay >= 1 && anchorDay <= 7
+                : anchorDay >= 1 && anchorDay <= 31;
+    }
+
+    private static LocalDate onAnchor(YearMonth month, int anchorDay) {
+        return month.atDay(Math.min(anchorDay, month.lengthOfMonth()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.moneyops.recurring;
+
+import com.moneyops.shared.utils.OrgContext;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recurring-invoices")
+public class RecurringInvoiceController {
+
+    @Autowired
+    private RecurringInvoiceService recurringInvoiceService;
+
+    @GetMapping
+    public ResponseEntity<List<RecurringInvoiceTemplate>> getTemplates() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(recurringInvoiceService.getTemplates(orgId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RecurringInvoiceTemplate> getTemplate(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(recurringInvoiceService.getTemplate(orgId, id));
+    }
+
+    @PostMapping
+    public ResponseEntity<RecurringInvoiceTemplate> createTemplate(@Valid @RequestBody RecurringInvoiceRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(recurringInvoiceService.createTemplate(orgId, OrgContext.getUserId(), request));
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<RecurringInvoiceTemplate> pause(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(recurringInvoiceService.pause(orgId, id));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<RecurringInvoiceTemplate> resume(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(recurringInvoiceService.resume(orgId, id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteTemplate(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        recurringInvoiceService.deleteTemplate(orgId, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.moneyops.recurring;
+
+import com.moneyops.invoices.dto.InvoiceItemDto;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class RecurringInvoiceRequest {
+    @NotBlank
+    private String name;
+
+    @NotBlank
+    private String clientId;
+
+    @NotEmpty
+    private List<InvoiceItemDto> items;
+
+    private String currency;
+    private String notes;
+    private String termsAndConditions;
+
+    @Min(0)
+    private int paymentTermsDays;
+
+    private boolean autoSend;
+
+    @NotNull
+    private RecurringInvoiceTemplate.Frequency frequency;
+
+    @Min(1)
+    private int interval = 1;
+
+    /** Day of month (1-31), or of week (1 = Monday) for WEEKLY; defaults to the start date's. */
+    private Integer anchorDay;
+
+    @NotNull
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Min(1)
+    private Integer maxOccurrences;
+
+    /** Team security code (PIN); generated invoices are created on the caller's behalf. */
+    private String teamActionCode;
+}
@@ -0,0 +1,454 @@
+package com.moneyops.recurring;
+
+import com.moneyops.clients.repository.ClientRepository;
+import com.moneyops.invoices.dto.BulkInvoiceResult;
+import com.moneyops.invoices.dto.InvoiceDto;
+import com.moneyops.invoices.service.InvoiceService;
+import com.moneyops.invoices.validator.InvoiceValidator;
+import com.moneyops.security.team.TeamActionAuthorizationService;
+import com.moneyops.shared.exceptions.ValidationException;
+import com.moneyops.shared.utils.OrgContext;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recurring invoice templates and the scheduler that bills them.
+ *
+ * Each template keeps a fixed virtual shard (its id hash mod VIRTUAL_SHARDS), and the
+ * app.recurring.shards lease shards each own a contiguous range of them at query time,
+ * so the lease count can change without rewriting templates. Each poll a node walks the
+ * lease shards in random order and works only those whose lease document it can take,
+ * so several nodes split the work without coordinating and a dead node's shards free up
+ * when its lease expires; a heartbeat keeps a held lease renewed while a batch runs. A
+ * shard is drained in batches off the (status, shard, nextRunAt) index: the batch's
+ * invoices go through InvoiceService's bulk create per org and creator, then each
+ * template advances with a compare-and-set on its schedule position.
+ *
+ * Billing is idempotent per (template, period): the invoice's idempotency key names
+ * both, so a run that dies between insert and advance finds the invoice on retry and
+ * only advances. A template whose invoice fails validation (e.g. its client was deleted)
+ * is paused with lastError instead of being retried every poll. Auto-send emails are
+ * queued on a small pool once the batch is in; a node that stops first leaves those
+ * invoices as DRAFT.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecurringInvoiceService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RecurringInvoiceService.class);
+
+    static final String SOURCE = "RECURRING";
+    static final int VIRTUAL_SHARDS = 1024;
+    private static final int EMAIL_THREADS = 4;
+
+    private final MongoTemplate mongoTemplate;
+    private final InvoiceService invoiceService;
+    private final InvoiceValidator invoiceValidator;
+    private final ClientRepository clientRepository;
+    private final TeamActionAuthorizationService teamActionAuthorizationService;
+
+    @Value("${app.recurring.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.recurring.shards:16}")
+    private int shards;
+
+    @Value("${app.recurring.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.recurring.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recurring-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService mailer = Executors.newFixedThreadPool(EMAIL_THREADS, new java.util.concurrent.ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "recurring-mailer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // ── Templates ─────────────────────────────────────────────────────────────
+
+    public List<RecurringInvoiceTemplate> getTemplates(String orgId) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("deletedAt").is(null)).with(Sort.by("name"));
+        return mongoTemplate.find(query, RecurringInvoiceTemplate.class);
+    }
+
+    public RecurringInvoiceTemplate getTemplate(String orgId, String id) {
+        RecurringInvoiceTemplate template = mongoTemplate.findOne(new Query(Criteria.where("_id").is(id)
+                .and("orgId").is(orgId).and("deletedAt").is(null)), RecurringInvoiceTemplate.class);
+        if (template == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Recurring invoice not found");
+        }
+        return template;
+    }
+
+    public RecurringInvoiceTemplate createTemplate(String orgId, String userId, RecurringInvoiceRequest request) {
+        var creator = teamActionAuthorizationService.assertUserCanCreateSensitiveAction(
+                orgId,
+                userId,
+                request.getTeamActionCode()
+        );
+        int anchorDay = request.getAnchorDay() != null ? request.getAnchorDay()
+                : request.getFrequency() == RecurringInvoiceTemplate.Frequency.WEEKLY
+                        ? request.getStartDate().getDayOfWeek().getValue()
+                        : request.getStartDate().getDayOfMonth();
+        if (!RecurrenceSchedule.validAnchor(request.getFrequency(), anchorDay)) {
+            throw new ValidationException("anchorDay is out of range for " + request.getFrequency());
+        }
+        if (!clientRepository.existsByIdAndOrgIdAndDeletedAtIsNull(request.getClientId(), orgId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Client not found.");
+        }
+        LocalDate first = RecurrenceSchedule.first(request.getFrequency(), anchorDay, request.getStartDate());
+        if (request.getEndDate() != null && request.getEndDate().isBefore(first)) {
+            throw new ValidationException("endDate is before the first invoice date " + first);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        RecurringInvoiceTemplate template = new RecurringInvoiceTemplate();
+        template.setId(new ObjectId().toHexString());
+        template.setOrgId(orgId);
+        template.setName(request.getName().trim());
+        template.setClientId(request.getClientId());
+        template.setItems(request.getItems());
+        template.setCurrency(request.getCurrency());
+        template.setNotes(request.getNotes());
+        template.setTermsAndConditions(request.getTermsAndConditions());
+        template.setPaymentTermsDays(request.getPaymentTermsDays());
+        template.setAutoSend(request.isAutoSend());
+        template.setFrequency(request.getFrequency());
+        template.setInterval(request.getInterval());
+        template.setAnchorDay(anchorDay);
+        template.setStartDate(request.getStartDate());
+        template.setFirstIssueDate(first);
+        template.setEndDate(request.getEndDate());
+        template.setMaxOccurrences(request.getMaxOccurrences());
+        template.setShard(Math.floorMod(template.getId().hashCode(), VIRTUAL_SHARDS));
+        template.setNextRunAt(first.atStartOfDay());
+        template.setCreatedBy(creator.userId());
+        template.setCreatedByEmail(creator.email());
+        template.setCreatedByRole(creator.role());
+        template.setCreatedAt(now);
+        template.setUpdatedAt(now);
+
+        // Same checks a generated invoice will face, surfaced now rather than at the first run.
+        try {
+            invoiceValidator.validate(toInvoice(template));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+        return mongoTemplate.insert(template);
+    }
+
+    public RecurringInvoiceTemplate pause(String orgId, String id) {
+        RecurringInvoiceTemplate template = getTemplate(orgId, id);
+        if (template.getStatus() != RecurringInvoiceTemplate.Status.ACTIVE) {
+            throw new ValidationException("Only active recurring invoices can be paused.");
+        }
+        template.setStatus(RecurringInvoiceTemplate.Status.PAUSED);
+        template.setUpdatedAt(LocalDateTime.now());
+        return mongoTemplate.save(template);
+    }
+
+    /** Resumes from the next issue date on or after today; periods missed while paused are not billed. */
+    public RecurringInvoiceTemplate resume(String orgId, String id) {
+        RecurringInvoiceTemplate template = getTemplate(orgId, id);
+        if (template.getStatus() != RecurringInvoiceTemplate.Status.PAUSED) {
+            throw new ValidationException("Only paused recurring invoices can be resumed.");
+        }
+        LocalDate today = LocalDate.now();
+        long n = template.getNextOccurrence();
+        while (issueDate(template, n).isBefore(today)) {
+            n++;
+        }
+        template.setNextOccurrence(n);
+        template.setLastError(null);
+        template.setUpdatedAt(LocalDateTime.now());
+        if (isFinished(template, template.getGenerated(), issueDate(template, n))) {
+            template.setStatus(RecurringInvoiceTemplate.Status.ENDED);
+            template.setNextRunAt(null);
+        } else {
+            template.setStatus(RecurringInvoiceTemplate.Status.ACTIVE);
+            template.setNextRunAt(issueDate(template, n).atStartOfDay());
+        }
+        return mongoTemplate.save(template);
+    }
+
+    public void deleteTemplate(String orgId, String id) {
+        RecurringInvoiceTemplate template = getTemplate(orgId, id);
+        LocalDateTime now = LocalDateTime.now();
+        template.setStatus(RecurringInvoiceTemplate.Status.ENDED);
+        template.setNextRunAt(null);
+        template.setDeletedAt(now);
+        template.setUpdatedAt(now);
+        mongoTemplate.save(template);
+    }
+
+    // ── Scheduler ─────────────────────────────────────────────────────────────
+
+    @Scheduled(fixedDelayString = "${app.recurring.poll-interval-ms:60000}")
+    public void runDue() {
+        if (!enabled) return;
+        int leaseShards = Math.max(1, Math.min(shards, VIRTUAL_SHARDS));
+        List<Integer> order = new ArrayList<>(leaseShards);
+        for (int shard = 0; shard < leaseShards; shard++) order.add(shard);
+        Collections.shuffle(order);
+
+        long renewEvery = Math.max(1, leaseSeconds / 3);
+        for (int shard : order) {
+            if (!acquire(shard)) continue;
+            AtomicBoolean held = new AtomicBoolean(true);
+            ScheduledFuture<?> renewal = heartbeat.scheduleAtFixedRate(() -> {
+                if (held.get() && !renew(shard)) {
+                    held.set(false);
+                    log.warn("Lost the lease on recurring shard {}; stopping after the current group", shard);
+                }
+            }, renewEvery, renewEvery, TimeUnit.SECONDS);
+            try {
+                long start = System.currentTimeMillis();
+                int generated = runShard(shard, leaseShards, held);
+                if (generated > 0) {
+                    log.info("Generated {} recurring invoices for shard {} in {} ms",
+                            generated, shard, System.currentTimeMillis() - start);
+                }
+            } catch (Exception e) {
+                log.error("Recurring invoice run failed for shard {}: {}", shard, e.getMessage());
+            } finally {
+                renewal.cancel(false);
+                release(shard);
+            }
+        }
+    }
+
+    /** Drains the due templates of the lease shard's virtual shards a batch at a time; returns invoices created. */
+    private int runShard(int shard, int leaseShards, AtomicBoolean held) {
+        LocalDateTime now = LocalDateTime.now();
+        int created = 0;
+        while (held.get()) {
+            Query due = new Query(Criteria.where("status").is(RecurringInvoiceTemplate.Status.ACTIVE)
+                    .and("shard").gte(firstVirtualShard(shard, leaseShards)).lt(firstVirtualShard(shard + 1, leaseShards))
+                    .and("nextRunAt").lte(now))
+                    .with(Sort.by("nextRunAt")).limit(batchSize);
+            List<RecurringInvoiceTemplate> batch = mongoTemplate.find(due, RecurringInvoiceTemplate.class);
+            if (batch.isEmpty()) {
+                return created;
+            }
+            int[] outcome = generate(batch, held);
+            created += outcome[0];
+            // No template moved (all raced or failed to advance): stop rather than spin.
+            if (outcome[1] == 0) {
+                return created;
+            }
+        }
+        return created;
+    }
+
+    /** First virtual shard owned by lease shard {@code shard}; lease shard n owns [first(n), first(n + 1)). */
+    static int firstVirtualShard(int shard, int leaseShards) {
+        return (int) ((long) shard * VIRTUAL_SHARDS / leaseShards);
+    }
+
+    /**
+     * Bills one period of each template, stopping between org groups if the lease was lost;
+     * returns {invoices created, templates advanced or paused}.
+     */
+    private int[] generate(List<RecurringInvoiceTemplate> batch, AtomicBoolean held) {
+        Map<String, List<RecurringInvoiceTemplate>> groups = new LinkedHashMap<>();
+        for (RecurringInvoiceTemplate template : batch) {
+            groups.computeIfAbsent(template.getOrgId() + ":" + template.getCreatedBy(), k -> new ArrayList<>()).add(template);
+        }
+        int created = 0;
+        int moved = 0;
+        for (List<RecurringInvoiceTemplate> group : groups.values()) {
+            if (!held.get()) break;
+            RecurringInvoiceTemplate head = group.get(0);
+            String orgId = head.getOrgId();
+            List<InvoiceDto> invoices = new ArrayList<>(group.size());
+            for (RecurringInvoiceTemplate template : group) {
+                invoices.add(toInvoice(template));
+            }
+
+            BulkInvoiceResult result;
+            OrgContext.setOrgId(orgId);
+            OrgContext.setUserId(head.getCreatedBy());
+            try {
+                result = invoiceService.createInvoices(invoices, SOURCE,
+                        new TeamActionAuthorizationService.CreatorMetadata(head.getCreatedBy(),
+                                head.getCreatedByEmail(), head.getCreatedByRole()), orgId);
+            } finally {
+                OrgContext.clear();
+            }
+
+            for (int i = 0; i < group.size(); i++) {
+                RecurringInvoiceTemplate template = group.get(i);
+                BulkInvoiceResult.Item item = result.getItems().get(i);
+                if (item.getStatus() == BulkInvoiceResult.Status.FAILED) {
+                    moved += pauseOnError(template, item.getError()) ? 1 : 0;
+                    continue;
+                }
+                if (advance(template, item.getId())) {
+                    moved++;
+                }
+                if (item.getStatus() == BulkInvoiceResult.Status.CREATED) {
+                    created++;
+                    if (template.isAutoSend()) {
+                        queueEmail(orgId, item.getId());
+                    }
+                }
+            }
+        }
+        return new int[]{created, moved};
+    }
+
+    /** Moves the template to its next period, or ends it; false if another run already moved it. */
+    private boolean advance(RecurringInvoiceTemplate template, String invoiceId) {
+        long n = template.getNextOccurrence() + 1;
+        LocalDate next = issueDate(template, n);
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("nextOccurrence", n).inc("generated", 1)
+                .set("lastRunAt", now).set("updatedAt", now).unset("lastError");
+        if (invoiceId != null) {
+            update.set("lastInvoiceId", invoiceId);
+        }
+        if (isFinished(template, template.getGenerated() + 1, next)) {
+            update.set("status", RecurringInvoiceTemplate.Status.ENDED).set("nextRunAt", null);
+        } else {
+            update.set("nextRunAt", next.atStartOfDay());
+        }
+        return mongoTemplate.updateFirst(atPosition(template), update, RecurringInvoiceTemplate.class)
+                .getModifiedCount() > 0;
+    }
+
+    private boolean pauseOnError(RecurringInvoiceTemplate template, String error) {
+        log.warn("Pausing recurring invoice {} for org {}: {}", template.getId(), template.getOrgId(), error);
+        return mongoTemplate.updateFirst(atPosition(template), new Update()
+                        .set("status", RecurringInvoiceTemplate.Status.PAUSED)
+                        .set("lastError", error)
+                        .set("updatedAt", LocalDateTime.now()),
+                RecurringInvoiceTemplate.class).getModifiedCount() > 0;
+    }
+
+    private void queueEmail(String orgId, String invoiceId) {
+        mailer.execute(() -> {
+            OrgContext.setOrgId(orgId);
+            try {
+                invoiceService.sendInvoice(invoiceId, orgId);
+            } catch (Exception e) {
+                log.warn("Failed to email recurring invoice {} for org {}: {}", invoiceId, orgId, e.getMessage());
+            } finally {
+                OrgContext.clear();
+            }
+        });
+    }
+
+    // ── Shard leases ──────────────────────────────────────────────────────────
+
+    /** Takes the shard if its lease is free or expired; a held lease makes the upsert collide on _id. */
+    private boolean acquire(int shard) {
+        LocalDateTime now = LocalDateTime.now();
+        Query free = new Query(Criteria.where("_id").is(shard)
+                .orOperator(Criteria.where("leasedUntil").lt(now), Criteria.where("owner").is(nodeId)));
+        try {
+            mongoTemplate.upsert(free, new Update().set("owner", nodeId)
+                    .set("leasedUntil", now.plusSeconds(leaseSeconds))
+                    .set("acquiredAt", now), RecurringShardLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean renew(int shard) {
+        return mongoTemplate.updateFirst(heldLease(shard),
+                new Update().set("leasedUntil", LocalDateTime.now().plusSeconds(leaseSeconds)),
+                RecurringShardLease.class).getMatchedCount() > 0;
+    }
+
+    private void release(int shard) {
+        mongoTemplate.updateFirst(heldLease(shard), new Update().set("leasedUntil", LocalDateTime.now()),
+                RecurringShardLease.class);
+    }
+
+    private Query heldLease(int shard) {
+        return new Query(Criteria.where("_id").is(shard).and("owner").is(nodeId));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static Query atPosition(RecurringInvoiceTemplate template) {
+        return new Query(Criteria.where("_id").is(template.getId())
+                .and("status").is(RecurringInvoiceTemplate.Status.ACTIVE)
+                .and("nextOccurrence").is(template.getNextOccurrence()));
+    }
+
+    private static LocalDate issueDate(RecurringInvoiceTemplate template, long n) {
+        return RecurrenceSchedule.occurrence(template.getFrequency(), template.getInterval(),
+                template.getAnchorDay(), template.getFirstIssueDate(), n);
+    }
+
+    private static boolean isFinished(RecurringInvoiceTemplate template, long generated, LocalDate next) {
+        return template.getMaxOccurrences() != null && generated >= template.getMaxOccurrences()
+                || template.getEndDate() != null && next.isAfter(template.getEndDate());
+    }
+
+    private static InvoiceDto toInvoice(RecurringInvoiceTemplate template) {
+        LocalDate issueDate = template.getNextRunAt() != null
+                ? template.getNextRunAt().toLocalDate() : template.getFirstIssueDate();
+        InvoiceDto dto = new InvoiceDto();
+        dto.setClientId(template.getClientId());
+        dto.setIssueDate(issueDate);
+        dto.setDueDate(issueDate.plusDays(template.getPaymentTermsDays()));
+        dto.setItems(template.getItems());
+        dto.setCurrency(template.getCurrency());
+        dto.setNotes(template.getNotes());
+        dto.setTermsAndConditions(template.getTermsAndConditions());
+        dto.setSource(SOURCE);
+        dto.setIdempotencyKey("recurring:" + template.getId() + ":" + issueDate);
+        return dto;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        mailer.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package com.moneyops.recurring;
+
+import com.moneyops.invoices.dto.InvoiceItemDto;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A recurring invoice: every {@code interval} periods from {@code startDate}, on
+ * {@code anchorDay}, until {@code endDate} or {@code maxOccurrences} (both optional).
+ *
+ * {@code nextRunAt} is the start of the next issue date and is null once the template
+ * ends. Each period's invoice carries idempotency key recurring:&lt;id&gt;:&lt;issue date&gt;,
+ * so a retried run finds the invoice instead of billing twice. {@code shard} is a fixed
+ * virtual shard (0..1023) that RecurringInvoiceService maps onto its lease shards.
+ */
+@Document(collection = "recurring_invoice_templates")
+@CompoundIndexes({
+        // ✨ Scheduler: due templates of one shard, oldest first
+        @CompoundIndex(name = "status_shard_next_run_idx", def = "{'status': 1, 'shard': 1, 'nextRunAt': 1}"),
+        @CompoundIndex(name = "org_status_idx", def = "{'orgId': 1, 'status': 1}")
+})
+@Data
+public class RecurringInvoiceTemplate {
+
+    public enum Frequency { WEEKLY, MONTHLY, QUARTERLY, YEARLY }
+
+    public enum Status { ACTIVE, PAUSED, ENDED }
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String name;
+
+    // Invoice content
+    private String clientId;
+    private List<InvoiceItemDto> items = new ArrayList<>();
+    private String currency;
+    private String notes;
+    private String termsAndConditions;
+    private int paymentTermsDays;  // dueDate = issue date + this
+    private boolean autoSend;      // email each invoice once generated
+
+    // Schedule
+    private Frequency frequency;
+    private int interval = 1;
+    private int anchorDay;         // day of month, or day of week (1 = Monday) for WEEKLY
+    private LocalDate startDate;
+    private LocalDate firstIssueDate;
+    private LocalDate endDate;
+    private Integer maxOccurrences;
+
+    private Status status = Status.ACTIVE;
+    private int shard;             // virtual shard: id hash mod RecurringInvoiceService.VIRTUAL_SHARDS
+    private LocalDateTime nextRunAt;
+    private long nextOccurrence;   // schedule position of nextRunAt (0 = firstIssueDate)
+    private long generated;        // invoices generated; less than nextOccurrence if periods were skipped while paused
+    private LocalDateTime lastRunAt;
+    private String lastInvoiceId;
+    private String lastError;
+
+    // Generated invoices are created as this member (PIN checked when the template was saved)
+    private String createdBy;
+    private String createdByEmail;
+    private String createdByRole;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,23 @@
+package com.moneyops.recurring;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which scheduler node is generating a shard of recurring templates, keyed by shard
+ * number. A lease past {@code leasedUntil} is free for any node to take.
+ */
+@Document(collection = "recurring_shard_leases")
+@Data
+public class RecurringShardLease {
+
+    @Id
+    private int shard;
+
+    private String owner;
+    private LocalDateTime leasedUntil;
+    private LocalDateTime acquiredAt;
+}
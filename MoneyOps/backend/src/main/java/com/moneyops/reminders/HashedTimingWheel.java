@@ -0,0 +1,110 @@
+package com.moneyops.reminders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hashed timing wheel (Varghese &amp; Lauck): {@code slots} buckets of {@code tickMs}
+ * each, with deadlines further out than one turn carrying a count of remaining turns.
+ * Scheduling and cancelling are O(1); advancing visits one bucket per elapsed tick.
+ *
+ * Keys are unique; scheduling a key again moves it. Not thread-safe.
+ */
+final class HashedTimingWheel {
+
+    private static final class Entry {
+        final String key;
+        final int slot;
+        long rounds;
+        Entry prev;
+        Entry next;
+
+        Entry(String key, int slot, long rounds) {
+            this.key = key;
+            this.slot = slot;
+            this.rounds = rounds;
+        }
+    }
+
+    private final long tickMs;
+    private final Entry[] buckets;
+    private final int mask;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long nextTick;
+
+    /** {@code slots} is rounded up to a power of two. */
+    HashedTimingWheel(long tickMs, int slots, long startMs) {
+        if (tickMs <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("tickMs and slots must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.tickMs = tickMs;
+        this.buckets = new Entry[size];
+        this.mask = size - 1;
+        this.nextTick = startMs / tickMs;
+    }
+
+    /** Fires {@code key} on the first advance past {@code deadlineMs}; a past deadline fires on the next one. */
+    void schedule(String key, long deadlineMs) {
+        cancel(key);
+        long tick = Math.max(deadlineMs / tickMs, nextTick);
+        Entry entry = new Entry(key, (int) (tick & mask), (tick - nextTick) / buckets.length);
+        entry.next = buckets[entry.slot];
+        if (entry.next != null) entry.next.prev = entry;
+        buckets[entry.slot] = entry;
+        entries.put(key, entry);
+    }
+
+    boolean cancel(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return false;
+        unlink(entry);
+        return true;
+    }
+
+    boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** Removes and returns the keys whose deadline is at or before {@code nowMs}. */
+    List<String> advance(long nowMs) {
+        List<String> expired = new ArrayList<>();
+        long lastTick = nowMs / tickMs;
+        for (; nextTick <= lastTick; nextTick++) {
+            if (entries.isEmpty()) {
+                nextTick = lastTick + 1;
+                break;
+            }
+            Entry entry = buckets[(int) (nextTick & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.rounds <= 0) {
+                    unlink(entry);
+                    entries.remove(entry.key);
+                    expired.add(entry.key);
+                } else {
+                    entry.rounds--;
+                }
+                entry = next;
+            }
+        }
+        return expired;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            buckets[entry.slot] = entry.next;
+        }
+        if (entry.next != null) entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+}
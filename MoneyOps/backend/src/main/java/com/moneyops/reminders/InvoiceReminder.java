@@ -0,0 +1,53 @@
+package com.moneyops.reminders;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One scheduled reminder email for an invoice.
+ *
+ * PENDING reminders wait in Mongo until they are within app.reminders.horizon-minutes,
+ * when a node claims them (SCHEDULED, {@code owner}) into its timing wheel. The owner
+ * marks them SENDING as they fire, then SENT or FAILED; a lease past {@code leaseUntil}
+ * lets another node take over from a dead one. Paying or deleting the invoice moves
+ * every outstanding reminder to CANCELLED.
+ */
+@Document(collection = "invoice_reminders")
+@CompoundIndexes({
+        // ✨ Loader: reminders coming due, and leases to take over
+        @CompoundIndex(name = "status_due_idx", def = "{'status': 1, 'dueAt': 1}"),
+        @CompoundIndex(name = "invoice_status_idx", def = "{'invoiceId': 1, 'status': 1}"),
+        @CompoundIndex(name = "org_status_due_idx", def = "{'orgId': 1, 'status': 1, 'dueAt': 1}"),
+        @CompoundIndex(name = "claim_token_idx", def = "{'claimToken': 1}", sparse = true)
+})
+@Data
+public class InvoiceReminder {
+
+    public enum Status { PENDING, SCHEDULED, SENDING, SENT, CANCELLED, FAILED }
+
+    @Id
+    private String id;         // = invoiceId + ":" + invoiceDueDate + ":" + offsetDays, so scheduling is idempotent
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String invoiceId;
+    private LocalDate invoiceDueDate;
+    private int offsetDays;
+    private LocalDateTime dueAt;
+
+    private Status status = Status.PENDING;
+    private String owner;
+    private String claimToken;
+    private LocalDateTime leaseUntil;
+    private int attempts;
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+    private LocalDateTime cancelledAt;
+}
@@ -0,0 +1,46 @@
+package com.moneyops.reminders;
+
+import com.moneyops.shared.utils.OrgContext;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reminders")
+public class ReminderController {
+
+    @Autowired
+    private ReminderService reminderService;
+
+    @GetMapping("/policy")
+    public ResponseEntity<ReminderPolicy> getPolicy() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reminderService.getPolicy(orgId));
+    }
+
+    @PutMapping("/policy")
+    public ResponseEntity<ReminderPolicy> updatePolicy(@Valid @RequestBody ReminderPolicyRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reminderService.updatePolicy(orgId, OrgContext.getUserId(), request));
+    }
+
+    @GetMapping("/upcoming")
+    public ResponseEntity<List<InvoiceReminder>> getUpcoming(@RequestParam(defaultValue = "100") int limit) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reminderService.getUpcoming(orgId, limit));
+    }
+
+    @GetMapping("/invoices/{invoiceId}")
+    public ResponseEntity<List<InvoiceReminder>> getInvoiceReminders(@PathVariable String invoiceId) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(reminderService.getInvoiceReminders(orgId, invoiceId));
+    }
+}
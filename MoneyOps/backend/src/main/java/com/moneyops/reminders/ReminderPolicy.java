@@ -0,0 +1,29 @@
+package com.moneyops.reminders;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An org's dunning rules: remind the client {@code offsetDays} days relative to an open
+ * invoice's due date (-3 = three days before, 7 = a week late), at {@code sendHour}
+ * server time. Orgs without a policy, or with it disabled, send no automatic reminders.
+ */
+@Document(collection = "reminder_policies")
+@Data
+public class ReminderPolicy {
+
+    @Id
+    private String orgId;
+
+    private boolean enabled;
+    private List<Integer> offsetDays = new ArrayList<>();
+    private int sendHour = 9;
+
+    private String updatedBy;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.moneyops.reminders;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReminderPolicyRequest {
+    private boolean enabled;
+
+    /** Days relative to the due date, e.g. [-3, 1, 7, 30]. */
+    @NotNull
+    private List<Integer> offsetDays;
+
+    @Min(0)
+    @Max(23)
+    private int sendHour = 9;
+}
@@ -0,0 +1,498 @@
+package com.moneyops.reminders;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.invites.EmailService;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceStatus;
+import com.moneyops.organizations.repository.BusinessOrganizationRepository;
+import com.moneyops.reminders.exceptions.ReminderRuleViolationException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Automatic payment reminders for open invoices, driven by each org's ReminderPolicy.
+ *
+ * When an invoice is sent (or its due date moves) one InvoiceReminder per rule is written
+ * with its send time; paying or deleting the invoice cancels the outstanding ones with a
+ * single indexed update. Nothing polls invoices: every minute a node claims the reminders
+ * due within app.reminders.horizon-minutes off the (status, dueAt) index and drops them
+ * into an in-memory HashedTimingWheel, so only the next hour's reminders are held in
+ * memory however many are pending. The wheel ticks every second; fired reminders are
+ * claimed again in batches (skipping any cancelled or taken over meanwhile), their
+ * invoices loaded with one query, and emailed on a small pool.
+ *
+ * Claimed reminders carry a lease the owner renews on every load, so a dead node's
+ * reminders are picked up by another within app.reminders.lease-seconds. Delivery is at
+ * least once: a node that dies mid-send may have its batch sent again. A failed email is
+ * retried after app.reminders.retry-minutes, up to app.reminders.max-attempts.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReminderService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReminderService.class);
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SLOTS = 4096;    // ~68 minutes per turn at one-second ticks
+    private static final int EMAIL_THREADS = 4;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MAX_RULES = 10;
+    private static final int MIN_OFFSET_DAYS = -60;
+    private static final int MAX_OFFSET_DAYS = 365;
+    private static final List<Integer> DEFAULT_OFFSETS = List.of(-3, 1, 7, 30);
+    private static final List<InvoiceStatus> OPEN = List.of(InvoiceStatus.SENT, InvoiceStatus.OVERDUE);
+    private static final List<InvoiceReminder.Status> OUTSTANDING =
+            List.of(InvoiceReminder.Status.PENDING, InvoiceReminder.Status.SCHEDULED);
+    private static final DateTimeFormatter DUE_DATE = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailService emailService;
+    private final BusinessOrganizationRepository orgRepository;
+
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reminders.horizon-minutes:60}")
+    private long horizonMinutes;
+
+    @Value("${app.reminders.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.reminders.max-scheduled:200000}")
+    private int maxScheduled;
+
+    @Value("${app.reminders.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.reminders.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.reminders.retry-minutes:30}")
+    private long retryMinutes;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /** Guarded by itself. */
+    private final HashedTimingWheel wheel = new HashedTimingWheel(TICK_MS, WHEEL_SLOTS, System.currentTimeMillis());
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reminder-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService mailer = Executors.newFixedThreadPool(EMAIL_THREADS, new java.util.concurrent.ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "reminder-mailer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            ticker.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        mailer.shutdown();
+    }
+
+    // ── Policy ────────────────────────────────────────────────────────────────
+
+    public ReminderPolicy getPolicy(String orgId) {
+        ReminderPolicy policy = mongoTemplate.findById(orgId, ReminderPolicy.class);
+        if (policy == null) {
+            policy = new ReminderPolicy();
+            policy.setOrgId(orgId);
+            policy.setOffsetDays(new ArrayList<>(DEFAULT_OFFSETS));
+        }
+        return policy;
+    }
+
+    /** Saves the policy and, if its schedule changed, rebuilds the org's outstanding reminders in the background. */
+    public ReminderPolicy updatePolicy(String orgId, String userId, ReminderPolicyRequest request) {
+        List<Integer> offsets = validateOffsets(request.getOffsetDays());
+        ReminderPolicy before = mongoTemplate.findById(orgId, ReminderPolicy.class);
+
+        ReminderPolicy policy = new ReminderPolicy();
+        policy.setOrgId(orgId);
+        policy.setEnabled(request.isEnabled());
+        policy.setOffsetDays(offsets);
+        policy.setSendHour(request.getSendHour());
+        policy.setUpdatedBy(userId);
+        policy.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(policy);
+
+        boolean changed = before == null
+                ? policy.isEnabled()
+                : before.isEnabled() != policy.isEnabled()
+                        || before.getSendHour() != policy.getSendHour()
+                        || !before.getOffsetDays().equals(policy.getOffsetDays());
+        if (changed) {
+            mailer.execute(() -> {
+                try {
+                    reseed(policy);
+                } catch (Exception e) {
+                    log.error("Rebuilding reminders for org {} failed: {}", orgId, e.getMessage());
+                }
+            });
+        }
+        return policy;
+    }
+
+    public List<InvoiceReminder> getInvoiceReminders(String orgId, String invoiceId) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("invoiceId").is(invoiceId))
+                .with(Sort.by("dueAt"));
+        return mongoTemplate.find(query, InvoiceReminder.class);
+    }
+
+    public List<InvoiceReminder> getUpcoming(String orgId, int limit) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("status").in(OUTSTANDING))
+                .with(Sort.by("dueAt")).limit(Math.max(1, Math.min(limit, 500)));
+        return mongoTemplate.find(query, InvoiceReminder.class);
+    }
+
+    private static List<Integer> validateOffsets(List<Integer> offsetDays) {
+        Set<Integer> distinct = new HashSet<>();
+        for (Integer offset : offsetDays) {
+            if (offset == null || offset < MIN_OFFSET_DAYS || offset > MAX_OFFSET_DAYS) {
+                throw new ReminderRuleViolationException("Reminder offsets must be between "
+                        + MIN_OFFSET_DAYS + " and " + MAX_OFFSET_DAYS + " days");
+            }
+            if (!distinct.add(offset)) {
+                throw new ReminderRuleViolationException("Duplicate reminder offset: " + offset);
+            }
+        }
+        if (distinct.size() > MAX_RULES) {
+            throw new ReminderRuleViolationException("At most " + MAX_RULES + " reminder rules are allowed");
+        }
+        return distinct.stream().sorted().collect(Collectors.toList());
+    }
+
+    // ── Scheduling ────────────────────────────────────────────────────────────
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!enabled || !event.is(EntityChangedEvent.INVOICE)) return;
+        Invoice before = event.getBefore(Invoice.class);
+        Invoice after = event.getAfter(Invoice.class);
+        boolean wasOpen = isOpen(before);
+        boolean open = isOpen(after);
+        boolean moved = wasOpen && open && !before.getDueDate().equals(after.getDueDate());
+        try {
+            if (wasOpen && (!open || moved)) {
+                cancel(event.getEntityId());
+            }
+            if (open && (!wasOpen || moved)) {
+                ReminderPolicy policy = mongoTemplate.findById(event.getOrgId(), ReminderPolicy.class);
+                if (policy != null && policy.isEnabled()) {
+                    // Clears reminders cancelled by an earlier payment that has since been reversed
+                    mongoTemplate.remove(new Query(Criteria.where("invoiceId").is(after.getId())
+                            .and("status").is(InvoiceReminder.Status.CANCELLED)
+                            .and("invoiceDueDate").is(after.getDueDate())), InvoiceReminder.class);
+                    insert(remindersFor(after, policy, LocalDateTime.now()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Updating reminders for invoice {} failed: {}", event.getEntityId(), e.getMessage());
+        }
+    }
+
+    /** One indexed update for the invoice's few outstanding reminders; any already in this node's wheel leave it too. */
+    private void cancel(String invoiceId) {
+        Query outstanding = new Query(Criteria.where("invoiceId").is(invoiceId).and("status").in(OUTSTANDING));
+        outstanding.fields().include("_id");
+        List<String> ids = mongoTemplate.find(outstanding, InvoiceReminder.class).stream()
+                .map(InvoiceReminder::getId).toList();
+        if (ids.isEmpty()) return;
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids).and("status").in(OUTSTANDING)),
+                new Update().set("status", InvoiceReminder.Status.CANCELLED).set("cancelledAt", LocalDateTime.now())
+                        .unset("owner").unset("leaseUntil"),
+                InvoiceReminder.class);
+        synchronized (wheel) {
+            ids.forEach(wheel::cancel);
+        }
+    }
+
+    /** Replaces the org's outstanding reminders with ones for its current policy. */
+    private void reseed(ReminderPolicy policy) {
+        String orgId = policy.getOrgId();
+        mongoTemplate.remove(new Query(Criteria.where("orgId").is(orgId).and("status").in(OUTSTANDING)),
+                InvoiceReminder.class);
+        if (!policy.isEnabled() || policy.getOffsetDays().isEmpty()) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        int latestOffset = policy.getOffsetDays().get(policy.getOffsetDays().size() - 1);
+        Query open = new Query(Criteria.where("orgId").is(orgId).and("status").in(OPEN)
+                .and("dueDate").gte(now.toLocalDate().minusDays(latestOffset)).and("deletedAt").is(null));
+        List<InvoiceReminder> pending = new ArrayList<>();
+        long count = 0;
+        try (Stream<Invoice> invoices = mongoTemplate.stream(open, Invoice.class)) {
+            Iterator<Invoice> it = invoices.iterator();
+            while (it.hasNext()) {
+                pending.addAll(remindersFor(it.next(), policy, now));
+                if (pending.size() >= batchSize) {
+                    count += pending.size();
+                    insert(pending);
+                    pending = new ArrayList<>();
+                }
+            }
+        }
+        count += pending.size();
+        insert(pending);
+        log.info("Scheduled {} reminders for org {}", count, orgId);
+    }
+
+    private static List<InvoiceReminder> remindersFor(Invoice invoice, ReminderPolicy policy, LocalDateTime now) {
+        List<InvoiceReminder> reminders = new ArrayList<>();
+        for (int offset : policy.getOffsetDays()) {
+            LocalDateTime dueAt = invoice.getDueDate().plusDays(offset).atTime(policy.getSendHour(), 0);
+            // Reminders already past when the invoice is sent are skipped rather than sent in a burst
+            if (dueAt.isBefore(now)) continue;
+            InvoiceReminder reminder = new InvoiceReminder();
+            reminder.setId(invoice.getId() + ":" + invoice.getDueDate() + ":" + offset);
+            reminder.setOrgId(invoice.getOrgId());
+            reminder.setInvoiceId(invoice.getId());
+            reminder.setInvoiceDueDate(invoice.getDueDate());
+            reminder.setOffsetDays(offset);
+            reminder.setDueAt(dueAt);
+            reminder.setCreatedAt(now);
+            reminders.add(reminder);
+        }
+        return reminders;
+    }
+
+    /** Unordered bulk insert; ids that already exist were scheduled (or sent) before and are left alone. */
+    private void insert(List<InvoiceReminder> reminders) {
+        if (reminders.isEmpty()) return;
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InvoiceReminder.class).insert(reminders).execute();
+        } catch (BulkOperationException e) {
+            long others = e.getErrors().stream().filter(error -> error.getCode() != DUPLICATE_KEY).count();
+            if (others > 0) {
+                log.warn("{} reminders could not be saved: {}", others, e.getErrors().get(0).getMessage());
+            }
+        }
+    }
+
+    private static boolean isOpen(Invoice invoice) {
+        return invoice != null && invoice.getDeletedAt() == null && invoice.getDueDate() != null
+                && OPEN.contains(invoice.getStatus());
+    }
+
+    // ── Loading ───────────────────────────────────────────────────────────────
+
+    /** Renews this node's leases and moves reminders coming due into the wheel. */
+    @Scheduled(fixedDelayString = "${app.reminders.load-interval-ms:60000}")
+    public void load() {
+        if (!enabled) return;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            mongoTemplate.updateMulti(new Query(Criteria.where("status").is(InvoiceReminder.Status.SCHEDULED)
+                            .and("owner").is(nodeId)),
+                    new Update().set("leaseUntil", now.plusSeconds(leaseSeconds)), InvoiceReminder.class);
+
+            LocalDateTime until = now.plusMinutes(horizonMinutes);
+            List<InvoiceReminder> batch;
+            while (scheduledCount() < maxScheduled && !(batch = claimForWheel(now, until)).isEmpty()) {
+                synchronized (wheel) {
+                    for (InvoiceReminder reminder : batch) {
+                        wheel.schedule(reminder.getId(), epochMillis(reminder.getDueAt()));
+                    }
+                }
+                log.debug("Scheduled {} reminders", batch.size());
+            }
+        } catch (Exception e) {
+            log.error("Reminder load failed: {}", e.getMessage());
+        }
+    }
+
+    private int scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private List<InvoiceReminder> claimForWheel(LocalDateTime now, LocalDateTime until) {
+        Query due = new Query(claimable(now, until)).with(Sort.by("dueAt")).limit(Math.max(1, batchSize));
+        due.fields().include("_id");
+        List<String> ids = mongoTemplate.find(due, InvoiceReminder.class).stream().map(InvoiceReminder::getId).toList();
+        if (ids.isEmpty()) return List.of();
+
+        String token = UUID.randomUUID().toString();
+        // Re-checks claimability, so an id another node claimed in between is skipped.
+        mongoTemplate.updateMulti(new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now, until))),
+                new Update().set("status", InvoiceReminder.Status.SCHEDULED).set("owner", nodeId)
+                        .set("claimToken", token).set("leaseUntil", now.plusSeconds(leaseSeconds)),
+                InvoiceReminder.class);
+        Query claimed = new Query(Criteria.where("claimToken").is(token));
+        claimed.fields().include("_id").include("dueAt");
+        return mongoTemplate.find(claimed, InvoiceReminder.class);
+    }
+
+    private static Criteria claimable(LocalDateTime now, LocalDateTime until) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(InvoiceReminder.Status.PENDING).and("dueAt").lte(until),
+                Criteria.where("status").in(InvoiceReminder.Status.SCHEDULED, InvoiceReminder.Status.SENDING)
+                        .and("leaseUntil").lt(now));
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // ── Dispatch ──────────────────────────────────────────────────────────────
+
+    private void tick() {
+        try {
+            List<String> due;
+            synchronized (wheel) {
+                due = wheel.advance(System.currentTimeMillis());
+            }
+            for (int i = 0; i < due.size(); i += batchSize) {
+                List<String> ids = new ArrayList<>(due.subList(i, Math.min(due.size(), i + batchSize)));
+                mailer.execute(() -> dispatch(ids));
+            }
+        } catch (Exception e) {
+            log.error("Reminder tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void dispatch(List<String> ids) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            String token = UUID.randomUUID().toString();
+            // Only reminders this node still owns: cancelled or taken-over ones are skipped.
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)
+                            .and("status").is(InvoiceReminder.Status.SCHEDULED).and("owner").is(nodeId)),
+                    new Update().set("status", InvoiceReminder.Status.SENDING).set("claimToken", token)
+                            .set("leaseUntil", now.plusSeconds(leaseSeconds)),
+                    InvoiceReminder.class);
+            List<InvoiceReminder> claimed = mongoTemplate.find(new Query(Criteria.where("claimToken").is(token)),
+                    InvoiceReminder.class);
+            if (claimed.isEmpty()) return;
+
+            Set<String> invoiceIds = claimed.stream().map(InvoiceReminder::getInvoiceId).collect(Collectors.toSet());
+            Map<String, Invoice> invoices = mongoTemplate.find(new Query(Criteria.where("_id").in(invoiceIds)), Invoice.class)
+                    .stream().collect(Collectors.toMap(Invoice::getId, Function.identity()));
+            Map<String, String> orgNames = new HashMap<>();
+            List<String> sent = new ArrayList<>();
+            List<String> cancelled = new ArrayList<>();
+            for (InvoiceReminder reminder : claimed) {
+                Invoice invoice = invoices.get(reminder.getInvoiceId());
+                if (!isOpen(invoice) || !invoice.getDueDate().equals(reminder.getInvoiceDueDate())) {
+                    cancelled.add(reminder.getId());
+                    continue;
+                }
+                if (invoice.getClientEmail() == null || invoice.getClientEmail().isBlank()) {
+                    finish(reminder, InvoiceReminder.Status.FAILED, "Invoice recipient email is missing.");
+                    continue;
+                }
+                try {
+                    send(invoice, reminder, orgNames.computeIfAbsent(invoice.getOrgId(), this::orgName));
+                    sent.add(reminder.getId());
+                } catch (Exception e) {
+                    retry(reminder, e.getMessage());
+                }
+            }
+            if (!sent.isEmpty()) {
+                mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(sent)),
+                        new Update().set("status", InvoiceReminder.Status.SENT).set("sentAt", LocalDateTime.now())
+                                .unset("leaseUntil"),
+                        InvoiceReminder.class);
+            }
+            if (!cancelled.isEmpty()) {
+                mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(cancelled)),
+                        new Update().set("status", InvoiceReminder.Status.CANCELLED).set("cancelledAt", LocalDateTime.now())
+                                .unset("leaseUntil"),
+                        InvoiceReminder.class);
+            }
+            log.debug("Reminders: {} sent, {} cancelled of {}", sent.size(), cancelled.size(), claimed.size());
+        } catch (Exception e) {
+            log.error("Reminder dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    private void send(Invoice invoice, InvoiceReminder reminder, String orgName) {
+        BigDecimal amount = invoice.getBalanceDue() != null ? invoice.getBalanceDue() : invoice.getTotalAmount();
+        String dueDate = invoice.getDueDate().format(DUE_DATE);
+        String formatted = amount != null ? amount.toPlainString() : "0.00";
+        if (reminder.getOffsetDays() <= 0) {
+            emailService.sendInvoiceDueSoon(invoice.getClientEmail(), invoice.getInvoiceNumber(),
+                    invoice.getClientName(), orgName, dueDate, formatted);
+        } else {
+            emailService.sendInvoiceFollowUp(invoice.getClientEmail(), invoice.getInvoiceNumber(),
+                    invoice.getClientName(), orgName, dueDate, formatted);
+        }
+    }
+
+    private void retry(InvoiceReminder reminder, String error) {
+        int attempts = reminder.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            reminder.setAttempts(attempts);
+            finish(reminder, InvoiceReminder.Status.FAILED, error);
+            return;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(reminder.getId())),
+                new Update().set("status", InvoiceReminder.Status.PENDING).set("attempts", attempts)
+                        .set("lastError", error).set("dueAt", LocalDateTime.now().plusMinutes(retryMinutes))
+                        .unset("owner").unset("leaseUntil"),
+                InvoiceReminder.class);
+    }
+
+    private void finish(InvoiceReminder reminder, InvoiceReminder.Status status, String error) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(reminder.getId())),
+                new Update().set("status", status).set("attempts", reminder.getAttempts())
+                        .set("lastError", error).unset("leaseUntil"),
+                InvoiceReminder.class);
+    }
+
+    private String orgName(String orgId) {
+        return orgRepository.findByIdAndDeletedAtIsNull(orgId)
+                .map(org -> org.getTradingName() != null && !org.getTradingName().isBlank() ? org.getTradingName()
+                        : org.getLegalName() != null && !org.getLegalName().isBlank() ? org.getLegalName()
+                        : "MoneyOps")
+                .orElse("MoneyOps");
+    }
+}
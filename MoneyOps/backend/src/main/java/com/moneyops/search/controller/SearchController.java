@@ -0,0 +1,59 @@
+// src/main/java/com/moneyops/search/controller/SearchController.java
+package com.moneyops.search.controller;
+
+import com.moneyops.search.dto.SearchHitDto;
+import com.moneyops.search.service.SearchIndexService;
+import com.moneyops.shared.dto.ApiResponse;
+import com.moneyops.shared.dto.PageResponse;
+import com.moneyops.shared.utils.OrgContext;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Org-wide full-text search")
+public class SearchController {
+
+    private final SearchIndexService searchIndexService;
+
+    @GetMapping
+    @Operation(summary = "Search invoices, clients, transactions and documents")
+    public ResponseEntity<ApiResponse<PageResponse<SearchHitDto>>> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String types,
+            @RequestParam(defaultValue = "true") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        Set<String> typeFilter = types == null || types.isBlank() ? Set.of()
+                : Arrays.stream(types.split(","))
+                        .map(String::trim)
+                        .filter(t -> !t.isEmpty())
+                        .map(String::toUpperCase)
+                        .collect(Collectors.toSet());
+
+        return ResponseEntity.ok(ApiResponse.success(
+                searchIndexService.search(orgId, OrgContext.getUserId(), query, typeFilter, fuzzy, page, size)));
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Rebuild the search index for the current organization")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> rebuild() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return ResponseEntity.ok(ApiResponse.success("Search index rebuilt", searchIndexService.rebuild(orgId)));
+    }
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/moneyops/search/dto/SearchHitDto.java
+package com.moneyops.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDto {
+    private String entityType; // INVOICE / CLIENT / TRANSACTION / DOCUMENT
+    private String id;
+    private String title;
+    private String subtitle;
+    private LocalDate date;
+    private double score;
+}
@@ -0,0 +1,331 @@
+// src/main/java/com/moneyops/search/service/SearchIndexService.java
+package com.moneyops.search.service;
+
+import com.moneyops.clients.entity.Client;
+import com.moneyops.documents.entity.MoneyOpsDocument;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceItem;
+import com.moneyops.search.dto.SearchHitDto;
+import com.moneyops.shared.dto.PageResponse;
+import com.moneyops.shared.search.InvertedIndex;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.sync.ChangeSequenceService;
+import com.moneyops.transactions.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Org-wide full-text search over invoices, clients, transactions and documents.
+ *
+ * Each org gets an in-memory InvertedIndex, streamed from Mongo once on first use
+ * and then kept current from EntityChangedEvent. Before each search it is caught up
+ * with writes from other nodes and with imports, as in ClientSearchIndex: the index
+ * records the org's safe change-sequence high-water mark (ChangeSequenceService), and a
+ * search that finds the mark moved re-reads only the invoices, clients and transactions
+ * stamped in between (org_change_seq_idx), deleted ones included. Documents carry no
+ * sequence number, so their entries are re-streamed when the org's DOCUMENT data
+ * version has moved. Resident orgs are LRU-bounded (app.search.max-orgs) and rebuilt
+ * after app.search.ttl-minutes as a backstop for a sequence number given up as abandoned.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SearchIndexService.class);
+
+    // Field boosts: identifiers and names outrank free text.
+    private static final float BOOST_IDENTIFIER = 3.0f;
+    private static final float BOOST_NAME = 2.5f;
+    private static final float BOOST_LINE_ITEM = 1.5f;
+    private static final float BOOST_TEXT = 1.0f;
+    private static final float BOOST_META = 0.5f;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeSequenceService changeSequenceService;
+    private final DataVersionService dataVersionService;
+
+    @Value("${app.search.max-orgs:200}")
+    private int maxOrgs;
+
+    @Value("${app.search.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private final Map<String, OrgIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OrgIndex> eldest) {
+            return size() > Math.max(1, maxOrgs);
+        }
+    };
+
+    /** Display data kept next to the index so hits render without a Mongo round trip. */
+    private record Summary(String entityType, String id, String title, String subtitle, LocalDate date, String privateTo) {
+    }
+
+    public PageResponse<SearchHitDto> search(String orgId, String userId, String query, Set<String> types,
+                                             boolean fuzzy, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        int pageNumber = Math.max(page, 0);
+        OrgIndex index = indexFor(orgId);
+        catchUp(orgId, index);
+
+        List<SearchHitDto> content = new ArrayList<>();
+        int total;
+        synchronized (index) {
+            Predicate<String> filter = key -> {
+                Summary summary = index.summaries.get(key);
+                if (summary == null) return false;
+                if (types != null && !types.isEmpty() && !types.contains(summary.entityType())) return false;
+                return summary.privateTo() == null || summary.privateTo().equals(userId);
+            };
+            InvertedIndex.Result result = index.text.search(query, fuzzy, filter, pageNumber * pageSize, pageSize);
+            total = result.total();
+            for (InvertedIndex.Hit hit : result.hits()) {
+                Summary s = index.summaries.get(hit.key());
+                content.add(new SearchHitDto(s.entityType(), s.id(), s.title(), s.subtitle(), s.date(), hit.score()));
+            }
+        }
+
+        int totalPages = (total + pageSize - 1) / pageSize;
+        return new PageResponse<>(content, pageNumber, pageSize, total, totalPages,
+                pageNumber == 0, pageNumber + 1 >= totalPages);
+    }
+
+    /** Drops and synchronously rebuilds the org's index. Returns per-type document counts. */
+    public Map<String, Integer> rebuild(String orgId) {
+        synchronized (indexes) {
+            indexes.remove(orgId);
+        }
+        OrgIndex index = indexFor(orgId);
+        synchronized (index) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Summary summary : index.summaries.values()) {
+                counts.merge(summary.entityType(), 1, Integer::sum);
+            }
+            counts.put("terms", index.text.termCount());
+            return counts;
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getOrgId() == null) return;
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(event.getOrgId());
+        }
+        // Not resident: the next search streams it from Mongo, which already has this write.
+        if (index == null) return;
+
+        String key = event.getEntityType() + ":" + event.getEntityId();
+        synchronized (index) {
+            if (!index.loaded) return;
+            if (event.getChangeType() == EntityChangedEvent.ChangeType.DELETED || event.getAfter() == null) {
+                index.remove(key);
+                return;
+            }
+            Object after = event.getAfter();
+            if (after instanceof Invoice invoice) {
+                if (invoice.getDeletedAt() != null) index.remove(key); else indexInvoice(index, invoice);
+            } else if (after instanceof Client client) {
+                if (client.getDeletedAt() != null) index.remove(key); else indexClient(index, client);
+            } else if (after instanceof Transaction transaction) {
+                if (transaction.getDeletedAt() != null) index.remove(key); else indexTransaction(index, transaction);
+            } else if (after instanceof MoneyOpsDocument document) {
+                if (document.getDeletedAt() != null) index.remove(key); else indexDocument(index, document);
+            }
+        }
+    }
+
+    private OrgIndex indexFor(String orgId) {
+        OrgIndex index;
+        synchronized (indexes) {
+            index = indexes.get(orgId);
+            if (index == null || index.isExpired(ttlMinutes)) {
+                index = new OrgIndex();
+                indexes.put(orgId, index);
+            }
+        }
+        synchronized (index) {
+            if (!index.loaded) {
+                load(index, orgId);
+            }
+        }
+        return index;
+    }
+
+    private void load(OrgIndex index, String orgId) {
+        long start = System.currentTimeMillis();
+        // Read first: the load sees at least every write up to them
+        index.syncedSeq = changeSequenceService.safeHighWater(orgId);
+        index.documentVersion = dataVersionService.version(orgId, EntityChangedEvent.DOCUMENT);
+        Query live = new Query(Criteria.where("orgId").is(orgId).and("deletedAt").is(null));
+        try (Stream<Invoice> s = mongoTemplate.stream(live, Invoice.class)) {
+            s.forEach(invoice -> indexInvoice(index, invoice));
+        }
+        try (Stream<Client> s = mongoTemplate.stream(live, Client.class)) {
+            s.forEach(client -> indexClient(index, client));
+        }
+        try (Stream<Transaction> s = mongoTemplate.stream(live, Transaction.class)) {
+            s.forEach(transaction -> indexTransaction(index, transaction));
+        }
+        loadDocuments(index, orgId);
+        index.loaded = true;
+        index.builtAt = System.currentTimeMillis();
+        log.info("Built search index for org {}: {} docs, {} terms in {} ms",
+                orgId, index.text.size(), index.text.termCount(), index.builtAt - start);
+    }
+
+    private void loadDocuments(OrgIndex index, String orgId) {
+        Query live = new Query(Criteria.where("orgId").is(orgId).and("deletedAt").is(null));
+        try (Stream<MoneyOpsDocument> s = mongoTemplate.stream(live, MoneyOpsDocument.class)) {
+            s.forEach(document -> indexDocument(index, document));
+        }
+    }
+
+    /** Applies writes landed since the index last synced, from any node. */
+    private void catchUp(String orgId, OrgIndex index) {
+        long high = changeSequenceService.safeHighWater(orgId);
+        long documentVersion = dataVersionService.version(orgId, EntityChangedEvent.DOCUMENT);
+        synchronized (index) {
+            if (high > index.syncedSeq) {
+                Query changed = new Query(Criteria.where("orgId").is(orgId).and("changeSeq").gt(index.syncedSeq).lte(high));
+                int applied = 0;
+                for (Invoice invoice : mongoTemplate.find(changed, Invoice.class)) {
+                    if (invoice.getDeletedAt() != null) index.remove(EntityChangedEvent.INVOICE + ":" + invoice.getId());
+                    else indexInvoice(index, invoice);
+                    applied++;
+                }
+                for (Client client : mongoTemplate.find(changed, Client.class)) {
+                    if (client.getDeletedAt() != null) index.remove(EntityChangedEvent.CLIENT + ":" + client.getId());
+                    else indexClient(index, client);
+                    applied++;
+                }
+                try (Stream<Transaction> s = mongoTemplate.stream(changed, Transaction.class)) {
+                    for (Transaction transaction : (Iterable<Transaction>) s::iterator) {
+                        if (transaction.getDeletedAt() != null) index.remove(EntityChangedEvent.TRANSACTION + ":" + transaction.getId());
+                        else indexTransaction(index, transaction);
+                        applied++;
+                    }
+                }
+                log.debug("Caught up search index for org {}: seq {} -> {}, {} rows", orgId, index.syncedSeq, high, applied);
+                index.syncedSeq = high;
+            }
+            if (documentVersion != index.documentVersion) {
+                index.summaries.keySet().removeIf(key -> {
+                    if (!key.startsWith(EntityChangedEvent.DOCUMENT + ":")) return false;
+                    index.text.remove(key);
+                    return true;
+                });
+                loadDocuments(index, orgId);
+                index.documentVersion = documentVersion;
+            }
+        }
+    }
+
+    private void indexInvoice(OrgIndex index, Invoice invoice) {
+        List<InvertedIndex.Field> fields = new ArrayList<>();
+        fields.add(new InvertedIndex.Field(invoice.getInvoiceNumber(), BOOST_IDENTIFIER));
+        fields.add(new InvertedIndex.Field(invoice.getClientName(), BOOST_NAME));
+        fields.add(new InvertedIndex.Field(invoice.getClientCompany(), BOOST_NAME));
+        fields.add(new InvertedIndex.Field(invoice.getNotes(), BOOST_TEXT));
+        fields.add(new InvertedIndex.Field(invoice.getStatus() != null ? invoice.getStatus().name() : null, BOOST_META));
+        if (invoice.getItems() != null) {
+            for (InvoiceItem item : invoice.getItems()) {
+                fields.add(new InvertedIndex.Field(item.getDescription(), BOOST_LINE_ITEM));
+            }
+        }
+        String subtitle = join(invoice.getClientName(),
+                invoice.getTotalAmount() != null ? invoice.getCurrency() + " " + invoice.getTotalAmount().toPlainString() : null,
+                invoice.getStatus() != null ? invoice.getStatus().name() : null);
+        index.put(new Summary(EntityChangedEvent.INVOICE, invoice.getId(), invoice.getInvoiceNumber(), subtitle,
+                invoice.getIssueDate(), null), fields);
+    }
+
+    private void indexClient(OrgIndex index, Client client) {
+        List<InvertedIndex.Field> fields = List.of(
+                new InvertedIndex.Field(client.getName(), BOOST_NAME),
+                new InvertedIndex.Field(client.getCompany(), BOOST_NAME),
+                new InvertedIndex.Field(client.getEmail(), BOOST_NAME),
+                new InvertedIndex.Field(client.getGstin(), BOOST_IDENTIFIER),
+                new InvertedIndex.Field(client.getNotes(), BOOST_TEXT));
+        index.put(new Summary(EntityChangedEvent.CLIENT, client.getId(), client.getName(),
+                join(client.getCompany(), client.getEmail()), null, null), fields);
+    }
+
+    private void indexTransaction(OrgIndex index, Transaction transaction) {
+        List<InvertedIndex.Field> fields = List.of(
+                new InvertedIndex.Field(transaction.getDescription(), BOOST_TEXT * 2),
+                new InvertedIndex.Field(transaction.getReferenceNumber(), BOOST_IDENTIFIER),
+                new InvertedIndex.Field(transaction.getCategory(), BOOST_TEXT),
+                new InvertedIndex.Field(transaction.getPaymentMethod(), BOOST_META),
+                new InvertedIndex.Field(transaction.getType() != null ? transaction.getType().name() : null, BOOST_META));
+        String title = transaction.getDescription() != null ? transaction.getDescription() : transaction.getCategory();
+        String subtitle = join(transaction.getType() != null ? transaction.getType().name() : null,
+                transaction.getAmount() != null ? transaction.getCurrency() + " " + transaction.getAmount().toPlainString() : null,
+                transaction.getCategory());
+        index.put(new Summary(EntityChangedEvent.TRANSACTION, transaction.getId(), title, subtitle,
+                transaction.getTransactionDate(), null), fields);
+    }
+
+    private void indexDocument(OrgIndex index, MoneyOpsDocument document) {
+        List<InvertedIndex.Field> fields = List.of(
+                new InvertedIndex.Field(document.getName(), BOOST_NAME),
+                new InvertedIndex.Field(document.getCategory(), BOOST_TEXT),
+                new InvertedIndex.Field(document.getContentSummary(), BOOST_TEXT));
+        String privateTo = document.isConfidential() ? String.valueOf(document.getUploadedBy()) : null;
+        index.put(new Summary(EntityChangedEvent.DOCUMENT, document.getId(), document.getName(),
+                join(document.getCategory(), document.getType()),
+                document.getCreatedAt() != null ? document.getCreatedAt().toLocalDate() : null, privateTo), fields);
+    }
+
+    private static String join(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (part == null || part.isBlank()) continue;
+            if (sb.length() > 0) sb.append(" · ");
+            sb.append(part);
+        }
+        return sb.toString();
+    }
+
+    private static final class OrgIndex {
+        final InvertedIndex text = new InvertedIndex();
+        final Map<String, Summary> summaries = new HashMap<>();
+        volatile boolean loaded;
+        volatile long builtAt;
+        long syncedSeq;
+        long documentVersion;
+
+        void put(Summary summary, List<InvertedIndex.Field> fields) {
+            if (summary.id() == null) return;
+            String key = summary.entityType() + ":" + summary.id();
+            summaries.put(key, summary);
+            text.put(key, fields);
+        }
+
+        void remove(String key) {
+            summaries.remove(key);
+            text.remove(key);
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return loaded && ttlMinutes > 0 && System.currentTimeMillis() - builtAt > ttlMinutes * 60_000L;
+        }
+    }
+}
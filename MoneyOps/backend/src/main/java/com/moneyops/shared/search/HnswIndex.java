@@ -0,0 +1,300 @@
+// src/main/java/com/moneyops/shared/search/HnswIndex.java
+package com.moneyops.shared.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * In-memory HNSW (hierarchical navigable small world) graph for approximate
+ * nearest-neighbour search over L2-normalized float vectors, by cosine similarity.
+ *
+ * Inserts are incremental. Removal only tombstones a node: it keeps routing
+ * searches but is never returned. Owners should rebuild once
+ * {@link #deletedRatio()} gets high.
+ *
+ * All public methods are synchronized; one instance per tenant keeps contention local.
+ */
+public class HnswIndex {
+
+    public record Hit(String key, float similarity) {
+    }
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final List<float[]> vectors = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<int[][]> links = new ArrayList<>();    // node -> level -> neighbour ids
+    private final List<int[]> linkCounts = new ArrayList<>(); // node -> level -> used slots
+    private final Map<String, Integer> nodeIds = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private int[] visitedMarks = new int[0];
+    private int visitEpoch;
+
+    public HnswIndex(int dimensions) {
+        this(dimensions, 16, 100, 42L);
+    }
+
+    public HnswIndex(int dimensions, int m, int efConstruction, long seed) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    public synchronized int size() {
+        return nodeIds.size();
+    }
+
+    public synchronized double deletedRatio() {
+        return keys.isEmpty() ? 0 : (double) deletedCount / keys.size();
+    }
+
+    public synchronized boolean contains(String key) {
+        return nodeIds.containsKey(key);
+    }
+
+    /** Adds a vector; re-adding an existing key tombstones the old node first. */
+    public synchronized void add(String key, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        remove(key);
+
+        int node = vectors.size();
+        int level = (int) Math.floor(-Math.log(Math.max(random.nextDouble(), 1e-12)) * levelMultiplier);
+        vectors.add(vector);
+        keys.add(key);
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        links.add(nodeLinks);
+        linkCounts.add(new int[level + 1]);
+        nodeIds.put(key, node);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> found = searchLayer(vector, current, efConstruction, l);
+            List<Candidate> nearest = new ArrayList<>(found);
+            nearest.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+            int maxLinks = l == 0 ? maxM0 : m;
+            for (int neighbour : selectNeighbours(vector, nearest, m)) {
+                connect(node, neighbour, l, maxLinks);
+                connect(neighbour, node, l, maxLinks);
+            }
+            if (!nearest.isEmpty()) {
+                current = nearest.get(0).node;
+            }
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Integer node = nodeIds.remove(key);
+        if (node != null) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    /** Returns up to k live entries most similar to the query, best first. */
+    public synchronized List<Hit> search(float[] query, int k, int ef) {
+        if (entryPoint < 0 || nodeIds.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+        // Widen the beam by the tombstone share so deleted nodes don't crowd out results.
+        int beam = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(ef, k) * (1 + deletedCount / Math.max(1, nodeIds.size())));
+        PriorityQueue<Candidate> found = searchLayer(query, current, beam, 0);
+        List<Candidate> ordered = new ArrayList<>(found);
+        ordered.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+
+        List<Hit> hits = new ArrayList<>(k);
+        for (Candidate c : ordered) {
+            if (deleted.get(c.node)) continue;
+            hits.add(new Hit(keys.get(c.node), c.similarity));
+            if (hits.size() == k) break;
+        }
+        return hits;
+    }
+
+    /** Exact top-k by scanning every live vector; the ground truth for recall checks. */
+    public synchronized List<Hit> exactSearch(float[] query, int k) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>((a, b) -> Float.compare(a.similarity, b.similarity));
+        for (int node = 0; node < vectors.size(); node++) {
+            if (deleted.get(node)) continue;
+            top.add(new Candidate(node, dot(query, vectors.get(node))));
+            if (top.size() > k) top.poll();
+        }
+        List<Candidate> ordered = new ArrayList<>(top);
+        ordered.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+        List<Hit> hits = new ArrayList<>(ordered.size());
+        for (Candidate c : ordered) hits.add(new Hit(keys.get(c.node), c.similarity));
+        return hits;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int best = start;
+        float bestSim = dot(query, vectors.get(start));
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links.get(best)[level];
+            int count = linkCounts.get(best)[level];
+            for (int i = 0; i < count; i++) {
+                float sim = dot(query, vectors.get(neighbours[i]));
+                if (sim > bestSim) {
+                    bestSim = sim;
+                    best = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Beam search on one layer; returns a min-heap (worst first) of at most ef candidates. */
+    private PriorityQueue<Candidate> searchLayer(float[] query, int entry, int ef, int level) {
+        startVisit();
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>((a, b) -> Float.compare(b.similarity, a.similarity));
+        PriorityQueue<Candidate> results = new PriorityQueue<>((a, b) -> Float.compare(a.similarity, b.similarity));
+        Candidate first = new Candidate(entry, dot(query, vectors.get(entry)));
+        visit(entry);
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate current = frontier.poll();
+            if (results.size() >= ef && current.similarity < results.peek().similarity) {
+                break;
+            }
+            int[][] nodeLinks = links.get(current.node);
+            if (level >= nodeLinks.length) continue;
+            int[] neighbours = nodeLinks[level];
+            int count = linkCounts.get(current.node)[level];
+            for (int i = 0; i < count; i++) {
+                int neighbour = neighbours[i];
+                if (!visit(neighbour)) continue;
+                float sim = dot(query, vectors.get(neighbour));
+                if (results.size() < ef || sim > results.peek().similarity) {
+                    Candidate c = new Candidate(neighbour, sim);
+                    frontier.add(c);
+                    results.add(c);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * HNSW neighbour-selection heuristic: take candidates best-first, keeping one only
+     * if it is closer to the base than to every neighbour already kept. This keeps
+     * links spread across clusters (plain top-M fragments the graph on near-duplicate
+     * data); remaining slots are back-filled with the closest pruned candidates.
+     */
+    private List<Integer> selectNeighbours(float[] base, List<Candidate> sortedBestFirst, int max) {
+        List<Integer> selected = new ArrayList<>(max);
+        List<Integer> pruned = new ArrayList<>();
+        for (Candidate candidate : sortedBestFirst) {
+            if (selected.size() >= max) break;
+            float[] cv = vectors.get(candidate.node);
+            boolean diverse = true;
+            for (int kept : selected) {
+                if (dot(cv, vectors.get(kept)) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) selected.add(candidate.node); else pruned.add(candidate.node);
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    /** Links from -> to on a level, re-selecting from's links with the heuristic when full. */
+    private void connect(int from, int to, int level, int maxLinks) {
+        if (from == to || level >= links.get(from).length) return;
+        int[] neighbours = links.get(from)[level];
+        int[] counts = linkCounts.get(from);
+        for (int i = 0; i < counts[level]; i++) {
+            if (neighbours[i] == to) return;
+        }
+        neighbours[counts[level]++] = to;
+        if (counts[level] <= maxLinks) return;
+
+        float[] base = vectors.get(from);
+        List<Candidate> current = new ArrayList<>(counts[level]);
+        for (int i = 0; i < counts[level]; i++) {
+            current.add(new Candidate(neighbours[i], dot(base, vectors.get(neighbours[i]))));
+        }
+        current.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+        List<Integer> kept = selectNeighbours(base, current, maxLinks);
+        for (int i = 0; i < kept.size(); i++) {
+            neighbours[i] = kept.get(i);
+        }
+        counts[level] = kept.size();
+    }
+
+    private void startVisit() {
+        if (visitedMarks.length < vectors.size()) {
+            visitedMarks = Arrays.copyOf(visitedMarks, Math.max(vectors.size(), visitedMarks.length * 2));
+        }
+        if (++visitEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitedMarks, 0);
+            visitEpoch = 1;
+        }
+    }
+
+    /** Marks a node visited; false if it already was in this search. */
+    private boolean visit(int node) {
+        if (visitedMarks[node] == visitEpoch) return false;
+        visitedMarks[node] = visitEpoch;
+        return true;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+}
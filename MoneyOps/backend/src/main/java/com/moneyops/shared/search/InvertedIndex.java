@@ -0,0 +1,265 @@
+// src/main/java/com/moneyops/shared/search/InvertedIndex.java
+package com.moneyops.shared.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Small in-memory full-text index: term -> (doc, weight) postings over a sorted
+ * term dictionary, so exact, prefix and fuzzy (edit distance) term lookups are
+ * all dictionary walks rather than document scans.
+ *
+ * Each indexed field carries a boost; a term's weight in a doc is the sum of the
+ * boosts of the fields it occurs in. Scoring is tf-saturated weight x idf, summed
+ * over query terms, and every query term must match (AND). Prefix and fuzzy
+ * expansions score lower than exact hits.
+ *
+ * Not thread-safe — callers guard an instance with their own lock.
+ */
+public class InvertedIndex {
+
+    private static final float PREFIX_FACTOR = 0.8f;
+    private static final float FUZZY_FACTOR = 0.6f;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int COMPACT_THRESHOLD = 4096;
+
+    public record Field(String text, float boost) {
+    }
+
+    public record Hit(String key, double score) {
+    }
+
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private int deadCount;
+
+    public void put(String key, List<Field> fields) {
+        remove(key);
+        Map<String, Float> weights = new HashMap<>();
+        for (Field field : fields) {
+            for (String token : tokenize(field.text())) {
+                weights.merge(token, field.boost(), Float::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            return;
+        }
+        int doc = keys.size();
+        keys.add(key);
+        docIds.put(key, doc);
+        live.set(doc);
+        weights.forEach((term, weight) -> terms.computeIfAbsent(term, t -> new Postings()).add(doc, weight));
+    }
+
+    public void remove(String key) {
+        Integer doc = docIds.remove(key);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        keys.set(doc, null);
+        deadCount++;
+        if (deadCount > COMPACT_THRESHOLD && deadCount > docIds.size()) {
+            compact();
+        }
+    }
+
+    public int size() {
+        return docIds.size();
+    }
+
+    public int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Runs an AND query. The last term (and any term ending in '*') also matches as a
+     * prefix; with {@code fuzzy}, terms of 4+ chars also match within 1 edit (2 from 8 chars).
+     *
+     * @param filter  key predicate applied before ranking (e.g. entity-type filter), may be null
+     * @param offset  number of ranked hits to skip
+     * @param limit   page size
+     */
+    public Result search(String query, boolean fuzzy, Predicate<String> filter, int offset, int limit) {
+        List<String> raw = new ArrayList<>();
+        for (String part : query == null ? new String[0] : query.trim().split("\\s+")) {
+            if (!part.isEmpty()) raw.add(part);
+        }
+        if (raw.isEmpty() || docIds.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        Map<Integer, Double> scores = null;
+        for (int i = 0; i < raw.size(); i++) {
+            String part = raw.get(i);
+            boolean prefix = i == raw.size() - 1 || part.endsWith("*");
+            for (String term : tokenize(part)) {
+                Map<Integer, Double> termScores = scoreTerm(term, prefix, fuzzy, scores);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Double> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Double> e : termScores.entrySet()) {
+                        Double prev = scores.get(e.getKey());
+                        if (prev != null) merged.put(e.getKey(), prev + e.getValue());
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return new Result(List.of(), 0);
+                }
+            }
+        }
+        if (scores == null) {
+            return new Result(List.of(), 0);
+        }
+
+        int wanted = Math.max(0, offset) + Math.max(0, limit);
+        PriorityQueue<Hit> top = new PriorityQueue<>((a, b) -> Double.compare(a.score(), b.score()));
+        int total = 0;
+        for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+            String key = keys.get(e.getKey());
+            if (filter != null && !filter.test(key)) continue;
+            total++;
+            if (wanted == 0) continue;
+            top.add(new Hit(key, e.getValue()));
+            if (top.size() > wanted) top.poll();
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort((a, b) -> Double.compare(b.score(), a.score()));
+        int from = Math.min(Math.max(0, offset), ranked.size());
+        return new Result(ranked.subList(from, ranked.size()), total);
+    }
+
+    /** Best score per doc for one query term across its exact/prefix/fuzzy expansions. */
+    private Map<Integer, Double> scoreTerm(String term, boolean prefix, boolean fuzzy, Map<Integer, Double> restrictTo) {
+        Map<String, Float> expansions = new HashMap<>();
+        if (terms.containsKey(term)) {
+            expansions.put(term, 1f);
+        }
+        if (prefix && term.length() >= 2) {
+            int n = 0;
+            for (String candidate : terms.subMap(term, false, term + Character.MAX_VALUE, false).keySet()) {
+                if (n++ >= MAX_EXPANSIONS) break;
+                expansions.putIfAbsent(candidate, PREFIX_FACTOR);
+            }
+        }
+        if (fuzzy && term.length() >= 4) {
+            int maxEdits = term.length() >= 8 ? 2 : 1;
+            String first = term.substring(0, 1);
+            int n = 0;
+            for (String candidate : terms.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                if (Math.abs(candidate.length() - term.length()) > maxEdits || expansions.containsKey(candidate)) continue;
+                if (editDistance(term, candidate, maxEdits) <= maxEdits) {
+                    expansions.put(candidate, FUZZY_FACTOR);
+                    if (++n >= MAX_EXPANSIONS) break;
+                }
+            }
+        }
+
+        int n = docIds.size();
+        Map<Integer, Double> result = new HashMap<>();
+        for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+            Postings postings = terms.get(expansion.getKey());
+            double idf = Math.log(1 + (n - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (!live.get(doc) || (restrictTo != null && !restrictTo.containsKey(doc))) continue;
+                float w = postings.weights[i];
+                double score = expansion.getValue() * idf * (w * 2.2 / (w + 1.2));
+                result.merge(doc, score, Math::max);
+            }
+        }
+        return result;
+    }
+
+    public static List<String> tokenize(String text) {
+        String normalized = TrigramIndex.normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(normalized.split(" "));
+    }
+
+    /** Levenshtein distance, giving up early once it must exceed {@code max}. */
+    static int editDistance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    private void compact() {
+        int[] remap = new int[keys.size()];
+        List<String> survivors = new ArrayList<>(docIds.size());
+        for (int doc = 0; doc < keys.size(); doc++) {
+            remap[doc] = live.get(doc) ? survivors.size() : -1;
+            if (live.get(doc)) survivors.add(keys.get(doc));
+        }
+        terms.values().removeIf(postings -> {
+            int w = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int mapped = remap[postings.docs[i]];
+                if (mapped >= 0) {
+                    postings.docs[w] = mapped;
+                    postings.weights[w] = postings.weights[i];
+                    w++;
+                }
+            }
+            postings.size = w;
+            return w == 0;
+        });
+        keys.clear();
+        keys.addAll(survivors);
+        docIds.clear();
+        live.clear();
+        for (int doc = 0; doc < survivors.size(); doc++) {
+            docIds.put(survivors.get(doc), doc);
+            live.set(doc);
+        }
+        deadCount = 0;
+    }
+
+    private static final class Postings {
+        int[] docs = new int[2];
+        float[] weights = new float[2];
+        int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
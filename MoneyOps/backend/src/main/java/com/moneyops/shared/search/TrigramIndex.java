@@ -0,0 +1,198 @@
+// src/main/java/com/moneyops/shared/search/TrigramIndex.java
+package com.moneyops.shared.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact in-memory trigram index from string keys to the text they were indexed with.
+ *
+ * Used to narrow fuzzy-search candidates before an expensive similarity metric
+ * (Jaro-Winkler etc.) runs: a lookup touches only the posting lists of the
+ * query's trigrams instead of every indexed entry.
+ *
+ * Text is lower-cased, non-alphanumeric runs collapse to a single space and each
+ * value is padded with spaces so word starts/ends produce their own grams.
+ * Postings hold int doc ids; removed docs are tombstoned and compacted lazily.
+ *
+ * Not thread-safe — callers guard an instance with their own lock.
+ */
+public class TrigramIndex {
+
+    /** Fraction of the query's trigrams a candidate must share to be returned. */
+    private static final double MIN_OVERLAP = 0.3;
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private int deadCount;
+
+    /** Indexes (or re-indexes) a key with the given text values. Null values are skipped. */
+    public void put(String key, String... texts) {
+        remove(key);
+        int doc = keys.size();
+        keys.add(key);
+        docIds.put(key, doc);
+        live.set(doc);
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String text : texts) {
+            addGrams(text, grams);
+        }
+        for (Long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new IntList()).add(doc);
+        }
+    }
+
+    public void remove(String key) {
+        Integer doc = docIds.remove(key);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        keys.set(doc, null);
+        deadCount++;
+        if (deadCount > COMPACT_THRESHOLD && deadCount > docIds.size()) {
+            compact();
+        }
+    }
+
+    public boolean contains(String key) {
+        return docIds.containsKey(key);
+    }
+
+    public int size() {
+        return docIds.size();
+    }
+
+    /**
+     * Returns up to {@code limit} keys sharing at least {@link #MIN_OVERLAP} of the
+     * query's trigrams, best overlap first. Empty when the query has no grams.
+     */
+    public List<String> search(String query, int limit) {
+        Set<Long> queryGrams = new LinkedHashSet<>();
+        addGrams(query, queryGrams);
+        if (queryGrams.isEmpty() || docIds.isEmpty()) {
+            return List.of();
+        }
+
+        int[] counts = new int[keys.size()];
+        IntList touched = new IntList();
+        for (Long gram : queryGrams) {
+            IntList docs = postings.get(gram);
+            if (docs == null) continue;
+            for (int i = 0; i < docs.size; i++) {
+                int doc = docs.data[i];
+                if (!live.get(doc)) continue;
+                if (counts[doc]++ == 0) {
+                    touched.add(doc);
+                }
+            }
+        }
+
+        int minShared = Math.max(1, (int) Math.ceil(queryGrams.size() * MIN_OVERLAP));
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < touched.size; i++) {
+            if (counts[touched.data[i]] >= minShared) {
+                hits.add(touched.data[i]);
+            }
+        }
+        hits.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+
+        List<String> result = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            result.add(keys.get(hits.get(i)));
+        }
+        return result;
+    }
+
+    /** Lower-cases and collapses everything that is not a letter or digit into single spaces. */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space && sb.length() > 0) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') {
+            sb.setLength(len - 1);
+        }
+        return sb.toString();
+    }
+
+    private static void addGrams(String text, Set<Long> out) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String padded = " " + normalized + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            out.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+    }
+
+    /** Drops tombstoned docs and renumbers the survivors so postings stay dense. */
+    private void compact() {
+        int[] remap = new int[keys.size()];
+        List<String> survivors = new ArrayList<>(docIds.size());
+        for (int doc = 0; doc < keys.size(); doc++) {
+            if (live.get(doc)) {
+                remap[doc] = survivors.size();
+                survivors.add(keys.get(doc));
+            } else {
+                remap[doc] = -1;
+            }
+        }
+
+        postings.values().removeIf(docs -> {
+            int w = 0;
+            for (int i = 0; i < docs.size; i++) {
+                int mapped = remap[docs.data[i]];
+                if (mapped >= 0) {
+                    docs.data[w++] = mapped;
+                }
+            }
+            docs.size = w;
+            return w == 0;
+        });
+
+        keys.clear();
+        keys.addAll(survivors);
+        docIds.clear();
+        live.clear();
+        for (int doc = 0; doc < survivors.size(); doc++) {
+            docIds.put(survivors.get(doc), doc);
+            live.set(doc);
+        }
+        deadCount = 0;
+    }
+
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.moneyops.shared.versioning;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.InvoicesImportedEvent;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Org data versions for conditional GETs.
+ *
+ * Entity events (published by the services after each save) $inc the org's counter for
+ * that entity type. A GET builds its ETag from the counters of the types its response
+ * depends on and answers a matching If-None-Match with 304 before reading any data.
+ *
+ * The version is read before the data, and bumped after the write, so a response is
+ * never cached under a version newer than its data: at worst a racing write makes the
+ * next poll refetch.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    /** Budget definitions (BudgetService); not covered by entity events. */
+    public static final String BUDGET = "BUDGET";
+    /** Cached cash-flow forecast rebuilt in the background (CashFlowForecastService). */
+    public static final String FORECAST = "FORECAST";
+    /** Anomalies flagged in the background (AnomalyDetectionService). */
+    public static final String ANOMALY = "ANOMALY";
+
+    // private: the browser must revalidate every time; no-store would stop it keeping the body.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getOrgId() != null && event.getEntityType() != null) {
+            bump(event.getOrgId(), event.getEntityType());
+        }
+    }
+
+    @EventListener
+    public void onTransactionsImported(TransactionsImportedEvent event) {
+        bump(event.getOrgId(), EntityChangedEvent.TRANSACTION);
+    }
+
+    @EventListener
+    public void onInvoicesImported(InvoicesImportedEvent event) {
+        bump(event.getOrgId(), EntityChangedEvent.INVOICE);
+    }
+
+    public void bump(String orgId, String type) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(orgId)),
+                new Update().inc("versions." + type, 1L)
+                        .setOnInsert("epoch", System.currentTimeMillis())
+                        .set("updatedAt", LocalDateTime.now()),
+                OrgDataVersion.class);
+    }
+
+    /** The org's counter for {@code type}; 0 if never bumped. Tags in-memory caches the same way ETags tag responses. */
+    public long version(String orgId, String type) {
+        OrgDataVersion version = mongoTemplate.findById(orgId, OrgDataVersion.class);
+        Long v = version != null ? version.getVersions().get(type) : null;
+        return v != null ? v : 0;
+    }
+
+    /**
+     * Strong ETag over the given types' counters. {@code asOf} is for responses that also
+     * depend on the date (month-to-date figures, forecasts); pass null otherwise.
+     */
+    public String etag(String orgId, LocalDate asOf, String... types) {
+        OrgDataVersion version = mongoTemplate.findById(orgId, OrgDataVersion.class);
+        StringBuilder tag = new StringBuilder("\"")
+                .append(Integer.toHexString(orgId.hashCode()))
+                .append('-').append(version != null ? Long.toHexString(version.getEpoch()) : "0");
+        if (asOf != null) {
+            tag.append('-').append(asOf);
+        }
+        for (String type : types) {
+            Long v = version != null ? version.getVersions().get(type) : null;
+            tag.append('-').append(v != null ? v : 0);
+        }
+        return tag.append('"').toString();
+    }
+
+    /** 304 if the request's If-None-Match matches, otherwise 200 with {@code body}'s result; both carry the ETag. */
+    public <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+}
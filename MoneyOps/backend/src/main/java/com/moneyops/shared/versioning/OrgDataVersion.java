@@ -0,0 +1,25 @@
+package com.moneyops.shared.versioning;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Monotonic per-entity-type write counters for an org, keyed by orgId. Every write $inc's
+ * its type's counter, so equal counters mean the org's data of that type is unchanged.
+ */
+@Document(collection = "org_data_versions")
+@Data
+public class OrgDataVersion {
+
+    @Id
+    private String orgId;
+
+    private Map<String, Long> versions = new HashMap<>();   // entity type -> write count
+    private long epoch;     // creation time; distinguishes a recreated document's counters
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,215 @@
+package com.moneyops.statements;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * CSV bank exports. Columns are found from the header by common names (Date / Txn Date,
+ * Amount or Debit + Credit / Withdrawal + Deposit, Narration / Description, Ref No /
+ * Cheque No); the delimiter is whichever of , ; tab | the header uses most. Quoted
+ * fields may span lines. Dates follow {@code dateFormat} if given, else the first of
+ * a day-first list of common patterns that parses.
+ */
+class CsvStatementParser implements StatementParser {
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            formatter("yyyy-MM-dd"), formatter("dd/MM/yyyy"), formatter("dd-MM-yyyy"), formatter("dd.MM.yyyy"),
+            formatter("dd/MM/yy"), formatter("dd-MM-yy"), formatter("dd-MMM-yyyy"), formatter("dd MMM yyyy"),
+            formatter("dd-MMM-yy"), formatter("yyyy/MM/dd"), formatter("MM/dd/yyyy"));
+
+    private static final Set<String> DEBIT_MARKERS = Set.of("D", "DR", "DEBIT");
+
+    private final BufferedReader reader;
+    private final DateTimeFormatter dateFormat;
+    private final String currency;
+    private char delimiter;
+    private int lineNumber;
+    private int dateCol = -1, amountCol = -1, debitCol = -1, creditCol = -1, descriptionCol = -1, referenceCol = -1, drCrCol = -1;
+
+    CsvStatementParser(BufferedReader reader, String dateFormat, String currency) throws IOException {
+        this.reader = reader;
+        this.dateFormat = dateFormat != null && !dateFormat.isBlank() ? formatter(dateFormat) : null;
+        this.currency = currency;
+        readHeader();
+    }
+
+    private void readHeader() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            delimiter = detectDelimiter(line);
+            List<String> headers = split(line);
+            List<String> keys = new ArrayList<>(headers.size());
+            for (String h : headers) keys.add(h.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""));
+            dateCol = column(keys, "date", "transactiondate", "txndate", "trandate", "postingdate", "bookingdate", "valuedate", "valuedt");
+            amountCol = column(keys, "amount", "transactionamount", "amt");
+            debitCol = column(keys, "debit", "debitamount", "withdrawal", "withdrawalamt", "withdrawals", "dr");
+            creditCol = column(keys, "credit", "creditamount", "deposit", "depositamt", "deposits", "cr");
+            descriptionCol = column(keys, "description", "narration", "details", "particulars", "transactiondetails", "memo", "remarks", "payee", "name");
+            referenceCol = column(keys, "reference", "referencenumber", "refno", "ref", "chqrefno", "chequeno", "chqno", "utr", "transactionid");
+            drCrCol = column(keys, "drcr", "crdr", "type");
+            if (dateCol < 0 || amountCol < 0 && debitCol < 0 && creditCol < 0) {
+                throw new StatementParseException(lineNumber, "CSV header needs a date column and an amount or debit/credit columns");
+            }
+            return;
+        }
+        throw new StatementParseException(lineNumber, "Empty statement");
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            int rowLine = lineNumber;
+            // A quoted field spanning lines: keep reading until the quotes balance.
+            while (unbalanced(line)) {
+                String more = reader.readLine();
+                if (more == null) break;
+                lineNumber++;
+                line = line + "\n" + more;
+            }
+            return parse(split(line), rowLine);
+        }
+        return null;
+    }
+
+    private StatementRow parse(List<String> cells, int line) {
+        String dateCell = cell(cells, dateCol);
+        if (dateCell == null) throw new StatementParseException(line, "Missing date");
+        LocalDate date = parseDate(dateCell, line);
+
+        BigDecimal amount;
+        try {
+            if (amountCol >= 0) {
+                amount = StatementParser.parseAmount(cell(cells, amountCol));
+                String drCr = cell(cells, drCrCol);
+                if (amount != null && drCr != null && DEBIT_MARKERS.contains(drCr.toUpperCase(Locale.ROOT)) && amount.signum() > 0) {
+                    amount = amount.negate();
+                }
+            } else {
+                BigDecimal debit = StatementParser.parseAmount(cell(cells, debitCol));
+                BigDecimal credit = StatementParser.parseAmount(cell(cells, creditCol));
+                if (debit != null && debit.signum() != 0) amount = debit.abs().negate();
+                else amount = credit;
+            }
+        } catch (NumberFormatException e) {
+            throw new StatementParseException(line, e.getMessage());
+        }
+        if (amount == null || amount.signum() == 0) throw new StatementParseException(line, "Missing or zero amount");
+        return new StatementRow(line, date, amount, cell(cells, descriptionCol), cell(cells, referenceCol), currency);
+    }
+
+    private LocalDate parseDate(String value, int line) {
+        String v = value.trim();
+        if (dateFormat != null) {
+            try {
+                return LocalDate.parse(v, dateFormat);
+            } catch (DateTimeParseException e) {
+                throw new StatementParseException(line, "Date does not match the given format: " + v);
+            }
+        }
+        // Timestamps ("2024-01-05 10:31:00", "2024-01-05T10:31") keep their date part.
+        v = v.replaceFirst("[T ]\\d{1,2}:\\d{2}.*$", "");
+        for (DateTimeFormatter f : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(v, f);
+            } catch (DateTimeParseException ignored) {
+                // try the next pattern
+            }
+        }
+        throw new StatementParseException(line, "Unrecognized date: " + value);
+    }
+
+    private static int column(List<String> keys, String... names) {
+        for (String name : names) {
+            int i = keys.indexOf(name);
+            if (i >= 0) return i;
+        }
+        return -1;
+    }
+
+    private static String cell(List<String> cells, int col) {
+        if (col < 0 || col >= cells.size()) return null;
+        String v = cells.get(col).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static char detectDelimiter(String header) {
+        char best = ',';
+        int bestCount = -1;
+        for (char c : new char[]{',', ';', '\t', '|'}) {
+            int count = 0;
+            boolean quoted = false;
+            for (int i = 0; i < header.length(); i++) {
+                char h = header.charAt(i);
+                if (h == '"') quoted = !quoted;
+                else if (h == c && !quoted) count++;
+            }
+            if (count > bestCount) {
+                best = c;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static boolean unbalanced(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') quotes++;
+        }
+        return quotes % 2 != 0;
+    }
+
+    /** RFC 4180 split: quoted fields, "" as an escaped quote. */
+    List<String> split(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private static DateTimeFormatter formatter(String pattern) {
+        return new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(pattern).toFormatter(Locale.ENGLISH);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
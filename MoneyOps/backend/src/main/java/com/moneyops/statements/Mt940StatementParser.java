@@ -0,0 +1,120 @@
+package com.moneyops.statements;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SWIFT MT940. Each :61: statement line is a row; the :86: information that follows it
+ * (continuation lines included) is its description. The reference is the customer
+ * reference unless that is NONREF, then the bank reference after "//". :60F: / :60M:
+ * carry the currency. RC / RD (reversals) flip the sign of C / D.
+ */
+class Mt940StatementParser implements StatementParser {
+
+    // YYMMDD [MMDD] (R)C|D [funds code] amount [N|F|S + 3-char type] customer ref [//bank ref]
+    private static final Pattern LINE_61 = Pattern.compile(
+            "(\\d{6})(\\d{4})?(RC|RD|C|D)([A-Z])?(\\d+(?:,\\d*)?)(?:[NSF][A-Z0-9]{3})?([^/]*)(?://(.*))?");
+
+    private final BufferedReader reader;
+    private String currency;
+    private int lineNumber;
+    private String lookahead;
+
+    private int pendingLine;
+    private String pending61;
+    private StringBuilder pending86;
+    private boolean in86;
+
+    Mt940StatementParser(BufferedReader reader, String currency) {
+        this.reader = reader;
+        this.currency = currency;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            String trimmed = line.strip();
+            if (trimmed.startsWith(":61:")) {
+                if (pending61 != null) {
+                    lookahead = line;
+                    lineNumber--;
+                    return flush();
+                }
+                pending61 = trimmed.substring(4);
+                pendingLine = lineNumber;
+                pending86 = null;
+                in86 = false;
+            } else if (trimmed.startsWith(":86:")) {
+                if (pending61 != null) {
+                    pending86 = new StringBuilder(trimmed.substring(4));
+                    in86 = true;
+                }
+            } else if (trimmed.startsWith(":") || trimmed.equals("-") || trimmed.startsWith("-}")) {
+                in86 = false;
+                if (trimmed.startsWith(":60F:") || trimmed.startsWith(":60M:")) {
+                    String balance = trimmed.substring(5);
+                    if (balance.length() >= 10) currency = balance.substring(7, 10);
+                }
+                if (pending61 != null && !trimmed.startsWith(":61:")) {
+                    return flush();
+                }
+            } else if (in86 && pending86 != null) {
+                pending86.append(' ').append(trimmed);
+            }
+        }
+        return pending61 != null ? flush() : null;
+    }
+
+    private StatementRow flush() {
+        String raw = pending61;
+        int line = pendingLine;
+        String description = pending86 != null ? pending86.toString().trim() : null;
+        pending61 = null;
+        pending86 = null;
+        in86 = false;
+
+        Matcher m = LINE_61.matcher(raw);
+        if (!m.lookingAt()) throw new StatementParseException(line, "Unrecognized :61: line");
+        String yymmdd = m.group(1);
+        LocalDate date;
+        try {
+            date = LocalDate.of(2000 + Integer.parseInt(yymmdd.substring(0, 2)),
+                    Integer.parseInt(yymmdd.substring(2, 4)), Integer.parseInt(yymmdd.substring(4, 6)));
+        } catch (java.time.DateTimeException e) {
+            throw new StatementParseException(line, "Bad value date: " + yymmdd);
+        }
+        BigDecimal amount = new BigDecimal(m.group(5).replace(',', '.'));
+        String mark = m.group(3);
+        if (mark.equals("D") || mark.equals("RC")) amount = amount.negate();
+        if (amount.signum() == 0) throw new StatementParseException(line, "Zero amount");
+
+        String customerRef = m.group(6) != null ? m.group(6).trim() : "";
+        String bankRef = m.group(7) != null ? m.group(7).trim() : "";
+        String reference = !customerRef.isEmpty() && !customerRef.equalsIgnoreCase("NONREF") ? customerRef
+                : !bankRef.isEmpty() ? bankRef : null;
+        return new StatementRow(line, date, amount, description != null && !description.isEmpty() ? description : null,
+                reference, currency);
+    }
+
+    private String readLine() throws IOException {
+        if (lookahead != null) {
+            String line = lookahead;
+            lookahead = null;
+            lineNumber++;
+            return line;
+        }
+        String line = reader.readLine();
+        if (line != null) lineNumber++;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
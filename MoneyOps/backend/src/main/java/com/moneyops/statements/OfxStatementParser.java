@@ -0,0 +1,121 @@
+package com.moneyops.statements;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OFX / QFX, both the SGML (v1, unclosed leaf elements) and XML (v2) flavours. A small
+ * tag tokenizer walks the stream; each STMTTRN aggregate becomes one row. The reference
+ * is CHECKNUM or REFNUM when present, else the bank's FITID; CURDEF overrides the
+ * caller's default currency.
+ */
+class OfxStatementParser implements StatementParser {
+
+    private final BufferedReader reader;
+    private String currency;
+    private int line = 1;
+    private int pushback = -1;
+
+    OfxStatementParser(BufferedReader reader, String currency) {
+        this.reader = reader;
+        this.currency = currency;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        Map<String, String> fields = null;
+        int startLine = line;
+        String tag;
+        while ((tag = nextTag()) != null) {
+            String name = tag.toUpperCase(Locale.ROOT);
+            if (name.equals("STMTTRN")) {
+                fields = new HashMap<>();
+                startLine = line;
+            } else if (name.equals("/STMTTRN")) {
+                if (fields != null) return toRow(fields, startLine);
+            } else if (!name.startsWith("/")) {
+                String value = text().trim();
+                if (value.isEmpty()) continue;
+                if (name.equals("CURDEF")) currency = value;
+                else if (fields != null) fields.put(name, value);
+            }
+        }
+        return null;
+    }
+
+    private StatementRow toRow(Map<String, String> fields, int startLine) {
+        String posted = fields.get("DTPOSTED");
+        String rawAmount = fields.get("TRNAMT");
+        if (posted == null || posted.length() < 8 || rawAmount == null) {
+            throw new StatementParseException(startLine, "STMTTRN without DTPOSTED or TRNAMT");
+        }
+        LocalDate date;
+        BigDecimal amount;
+        try {
+            date = LocalDate.of(Integer.parseInt(posted.substring(0, 4)), Integer.parseInt(posted.substring(4, 6)),
+                    Integer.parseInt(posted.substring(6, 8)));
+            amount = StatementParser.parseAmount(rawAmount.indexOf('.') < 0 ? rawAmount.replace(',', '.') : rawAmount);
+        } catch (NumberFormatException | java.time.DateTimeException e) {
+            throw new StatementParseException(startLine, "Bad DTPOSTED or TRNAMT: " + e.getMessage());
+        }
+        if (amount == null || amount.signum() == 0) throw new StatementParseException(startLine, "Zero amount");
+
+        String reference = fields.getOrDefault("CHECKNUM", fields.getOrDefault("REFNUM", fields.get("FITID")));
+        String name = fields.get("NAME");
+        String memo = fields.get("MEMO");
+        String description = name != null && memo != null ? name + " " + memo : name != null ? name : memo;
+        return new StatementRow(startLine, date, amount, description, reference, currency);
+    }
+
+    /** Name of the next tag (without brackets or attributes), or null at end of stream. */
+    private String nextTag() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            // skip text and the SGML header outside of tags
+        }
+        if (c == -1) return null;
+        StringBuilder tag = new StringBuilder();
+        while ((c = read()) != -1 && c != '>') {
+            tag.append((char) c);
+        }
+        String t = tag.toString().trim();
+        int space = t.indexOf(' ');
+        return space > 0 ? t.substring(0, space) : t;
+    }
+
+    /** Text up to the next tag, entities decoded. */
+    private String text() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                pushback = c;
+                break;
+            }
+            text.append((char) c);
+        }
+        return text.toString().replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        int c = reader.read();
+        if (c == '\n') line++;
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.moneyops.statements;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Content fingerprints for imported rows: SHA-256 over date, signed amount and the
+ * normalized reference (the description when a row has none), plus the row's occurrence
+ * number among identical rows in the same statement. Re-importing a statement, or an
+ * overlapping one, reproduces the same fingerprints; two genuinely identical rows in one
+ * statement (two equal card payments on a day) still get distinct ones.
+ *
+ * One instance per import; it keeps a count per distinct row content seen so far.
+ */
+class StatementFingerprints {
+
+    private final MessageDigest digest;
+    private final Map<String, Integer> occurrences = new HashMap<>();
+
+    StatementFingerprints() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    String next(StatementRow row) {
+        String content = row.date() + "|" + row.amount().stripTrailingZeros().toPlainString() + "|" + key(row);
+        int occurrence = occurrences.merge(content, 1, Integer::sum);
+        byte[] hash = digest.digest((content + "#" + occurrence).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    private static String key(StatementRow row) {
+        if (row.reference() != null && !row.reference().isBlank()) {
+            return "R:" + row.reference().replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+        }
+        if (row.description() != null) {
+            return "D:" + row.description().trim().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+        }
+        return "";
+    }
+}
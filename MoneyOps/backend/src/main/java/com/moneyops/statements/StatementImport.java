@@ -0,0 +1,56 @@
+package com.moneyops.statements;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Progress and outcome of one statement import; counters are updated after every chunk. */
+@Document(collection = "statement_imports")
+@CompoundIndex(name = "org_started_idx", def = "{'orgId': 1, 'startedAt': -1}")
+@Data
+public class StatementImport {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Data
+    public static class RowError {
+        private int line;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+
+    @Id
+    private String id;
+
+    private String orgId;      // 🔗 Tenant isolation
+    private String userId;
+    private String fileName;
+    private StatementParser.Format format;
+    private Status status = Status.RUNNING;
+
+    private long rowsRead;
+    private long imported;
+    private long duplicates;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();   // first app.statements.max-errors only
+    private String message;
+
+    private LocalDate firstDate;
+    private LocalDate lastDate;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMs;
+}
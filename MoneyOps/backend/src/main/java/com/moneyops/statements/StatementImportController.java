@@ -0,0 +1,50 @@
+package com.moneyops.statements;
+
+import com.moneyops.shared.utils.OrgContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transactions/import")
+public class StatementImportController {
+
+    @Autowired
+    private StatementImportService statementImportService;
+
+    /** Starts an import; poll GET /api/transactions/import/{id} for progress. */
+    @PostMapping
+    public ResponseEntity<StatementImport> importStatement(@RequestParam("file") MultipartFile file,
+                                                           @RequestParam(required = false) String format,
+                                                           @RequestParam(required = false) String dateFormat,
+                                                           @RequestParam(required = false) String currency) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        StatementImport job = statementImportService.start(orgId, OrgContext.getUserId(), file, format, dateFormat, currency);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StatementImport> getImport(@PathVariable String id) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(statementImportService.getImport(orgId, id));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StatementImport>> getRecentImports() {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        return ResponseEntity.ok(statementImportService.getRecentImports(orgId));
+    }
+}
@@ -0,0 +1,320 @@
+package com.moneyops.statements;
+
+import com.moneyops.categorization.CategorizationService;
+import com.moneyops.categorization.CategoryRuleSet;
+import com.moneyops.events.dto.TransactionsImportedEvent;
+import com.moneyops.events.dto.TransactionsInsertedEvent;
+import com.moneyops.sync.ChangeSequenceService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bank statement import (CSV, OFX/QFX, MT940).
+ *
+ * The upload is spooled to a temp file and imported in the background; the caller polls
+ * the StatementImport for progress. Rows stream through a pull parser and are grouped
+ * into chunks of app.statements.chunk-size. Per chunk: one $in lookup of the rows'
+ * fingerprints on org_import_fingerprint_idx drops rows already imported, a block of
+ * change sequence numbers is reserved, the rest are categorized with the org's compiled
+ * rules and go in as one ordered bulk insert.
+ * A row the database rejects is recorded (a duplicate if another import raced it in)
+ * and the bulk resumes after it. Unparseable rows are recorded with their line number
+ * and skipped.
+ *
+ * Rows bypass TransactionService and the per-row EntityChangedEvent. Each chunk publishes
+ * a TransactionsInsertedEvent with its inserted rows for the running totals (ledger,
+ * budgets); one TransactionsImportedEvent at the end lets caches and indexes catch up.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatementImportService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(StatementImportService.class);
+
+    static final String PAYMENT_METHOD = "BANK_STATEMENT";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private record Pending(StatementRow row, String fingerprint) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeSequenceService changeSequenceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategorizationService categorizationService;
+
+    @Value("${app.statements.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.statements.max-errors:100}")
+    private int maxErrors;
+
+    private final ExecutorService importers = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "statement-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StatementImport start(String orgId, String userId, MultipartFile file, String format, String dateFormat, String currency) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Statement file is required");
+        }
+        Path spool;
+        StatementParser.Format resolved;
+        try {
+            spool = Files.createTempFile("statement-", ".upload");
+            file.transferTo(spool);
+            resolved = resolveFormat(format, file.getOriginalFilename(), spool);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool statement upload", e);
+        }
+
+        StatementImport job = new StatementImport();
+        job.setId(UUID.randomUUID().toString());
+        job.setOrgId(orgId);
+        job.setUserId(userId);
+        job.setFileName(file.getOriginalFilename());
+        job.setFormat(resolved);
+        job.setStartedAt(LocalDateTime.now());
+        mongoTemplate.insert(job);
+
+        String defaultCurrency = currency != null && !currency.isBlank() ? currency.trim().toUpperCase(Locale.ROOT) : "INR";
+        importers.execute(() -> {
+            try {
+                run(job, spool, dateFormat, defaultCurrency);
+            } finally {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    log.warn("Could not delete statement spool {}: {}", spool, e.getMessage());
+                }
+            }
+        });
+        return job;
+    }
+
+    public StatementImport getImport(String orgId, String importId) {
+        StatementImport job = mongoTemplate.findOne(
+                new Query(Criteria.where("_id").is(importId).and("orgId").is(orgId)), StatementImport.class);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found");
+        }
+        return job;
+    }
+
+    public List<StatementImport> getRecentImports(String orgId) {
+        Query query = new Query(Criteria.where("orgId").is(orgId)).with(Sort.by(Sort.Direction.DESC, "startedAt")).limit(20);
+        query.fields().exclude("errors");
+        return mongoTemplate.find(query, StatementImport.class);
+    }
+
+    void run(StatementImport job, Path spool, String dateFormat, String currency) {
+        long start = System.currentTimeMillis();
+        StatementFingerprints fingerprints = new StatementFingerprints();
+        List<Pending> chunk = new ArrayList<>(Math.max(1, chunkSize));
+        try (StatementParser parser = StatementParser.open(job.getFormat(),
+                Files.newBufferedReader(spool, StandardCharsets.UTF_8), dateFormat, currency)) {
+            while (true) {
+                StatementRow row;
+                try {
+                    row = parser.next();
+                } catch (StatementParseException e) {
+                    job.setRowsRead(job.getRowsRead() + 1);
+                    fail(job, e.getLine(), e.getMessage());
+                    continue;
+                }
+                if (row == null) break;
+                job.setRowsRead(job.getRowsRead() + 1);
+                chunk.add(new Pending(row, fingerprints.next(row)));
+                if (chunk.size() >= chunkSize) {
+                    flush(job, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) flush(job, chunk);
+            job.setStatus(StatementImport.Status.COMPLETED);
+        } catch (StatementParseException e) {
+            job.setStatus(StatementImport.Status.FAILED);
+            job.setMessage("Line " + e.getLine() + ": " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Statement import {} failed: {}", job.getId(), e.getMessage());
+            job.setStatus(StatementImport.Status.FAILED);
+            job.setMessage(e.getMessage());
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+            job.setElapsedMs(System.currentTimeMillis() - start);
+            mongoTemplate.save(job);
+            if (job.getImported() > 0) {
+                eventPublisher.publishEvent(new TransactionsImportedEvent(job.getOrgId(), job.getId(), job.getImported(),
+                        job.getFirstDate(), job.getLastDate()));
+            }
+            log.info("Statement import {} for org {}: {} rows, {} imported, {} duplicates, {} failed in {} ms",
+                    job.getId(), job.getOrgId(), job.getRowsRead(), job.getImported(), job.getDuplicates(),
+                    job.getFailed(), job.getElapsedMs());
+        }
+    }
+
+    private void flush(StatementImport job, List<Pending> chunk) {
+        String orgId = job.getOrgId();
+        String collection = mongoTemplate.getCollectionName(Transaction.class);
+
+        Query seen = new Query(Criteria.where("orgId").is(orgId)
+                .and("importFingerprint").in(chunk.stream().map(Pending::fingerprint).toList()));
+        seen.fields().include("importFingerprint");
+        Set<String> existing = new HashSet<>();
+        for (Document d : mongoTemplate.find(seen, Document.class, collection)) {
+            existing.add(d.getString("importFingerprint"));
+        }
+        List<Pending> fresh = chunk.stream().filter(p -> !existing.contains(p.fingerprint())).toList();
+        job.setDuplicates(job.getDuplicates() + chunk.size() - fresh.size());
+
+        if (!fresh.isEmpty()) {
+            // Written as raw documents: entity callbacks would take one sequence number per row.
+            long firstSeq = changeSequenceService.nextBlock(orgId, fresh.size());
+            List<Transaction> inserted;
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                CategoryRuleSet rules = categorizationService.ruleSet(orgId);
+                List<Transaction> transactions = new ArrayList<>(fresh.size());
+                List<Document> documents = new ArrayList<>(fresh.size());
+                for (int i = 0; i < fresh.size(); i++) {
+                    Document document = new Document();
+                    Transaction transaction = toTransaction(job, fresh.get(i), firstSeq + i, now);
+                    CategorizationService.categorize(rules, transaction);
+                    mongoTemplate.getConverter().write(transaction, document);
+                    transactions.add(transaction);
+                    documents.add(document);
+                }
+                inserted = insertOrdered(job, fresh, transactions, documents, collection);
+            } finally {
+                changeSequenceService.completed(orgId, firstSeq);
+            }
+            // After completed(): a rebuild waiting for the block to land holds off these listeners.
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new TransactionsInsertedEvent(orgId, job.getId(), inserted));
+            }
+        }
+        mongoTemplate.save(job);
+    }
+
+    /**
+     * Ordered bulk insert that records a rejected row and resumes with the rows after it.
+     * Returns the transactions that went in.
+     */
+    private List<Transaction> insertOrdered(StatementImport job, List<Pending> rows, List<Transaction> transactions,
+                                            List<Document> documents, String collection) {
+        List<Transaction> inserted = new ArrayList<>(transactions.size());
+        int offset = 0;
+        while (offset < documents.size()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, collection)
+                        .insert(documents.subList(offset, documents.size()))
+                        .execute();
+                imported(job, rows, offset, documents.size());
+                inserted.addAll(transactions.subList(offset, documents.size()));
+                return inserted;
+            } catch (BulkOperationException e) {
+                BulkWriteError error = e.getErrors().get(0);
+                int rejected = offset + error.getIndex();
+                imported(job, rows, offset, rejected);
+                inserted.addAll(transactions.subList(offset, rejected));
+                if (error.getCode() == DUPLICATE_KEY) {
+                    job.setDuplicates(job.getDuplicates() + 1);
+                } else {
+                    fail(job, rows.get(rejected).row().line(), error.getMessage());
+                }
+                offset = rejected + 1;
+            }
+        }
+        return inserted;
+    }
+
+    private void imported(StatementImport job, List<Pending> rows, int from, int to) {
+        for (int i = from; i < to; i++) {
+            var date = rows.get(i).row().date();
+            if (job.getFirstDate() == null || date.isBefore(job.getFirstDate())) job.setFirstDate(date);
+            if (job.getLastDate() == null || date.isAfter(job.getLastDate())) job.setLastDate(date);
+        }
+        job.setImported(job.getImported() + (to - from));
+    }
+
+    private void fail(StatementImport job, int line, String message) {
+        job.setFailed(job.getFailed() + 1);
+        if (job.getErrors().size() < maxErrors) {
+            job.getErrors().add(new StatementImport.RowError(line, message));
+        }
+    }
+
+    private static Transaction toTransaction(StatementImport job, Pending pending, long changeSeq, LocalDateTime now) {
+        StatementRow row = pending.row();
+        Transaction t = new Transaction();
+        t.setId(UUID.randomUUID().toString());
+        t.setOrgId(job.getOrgId());
+        t.setType(row.amount().signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME);
+        t.setAmount(row.amount().abs());
+        t.setCurrency(row.currency());
+        t.setTransactionDate(row.date());
+        t.setDescription(row.description());
+        t.setReferenceNumber(row.reference());
+        t.setPaymentMethod(PAYMENT_METHOD);
+        t.setCreatedAt(now);
+        t.setUpdatedAt(now);
+        t.setCreatedBy(job.getUserId());
+        t.setChangeSeq(changeSeq);
+        t.setImportId(job.getId());
+        t.setImportFingerprint(pending.fingerprint());
+        return t;
+    }
+
+    private static StatementParser.Format resolveFormat(String format, String fileName, Path spool) throws IOException {
+        if (format != null && !format.isBlank()) {
+            try {
+                return StatementParser.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported statement format: " + format);
+            }
+        }
+        char[] head = new char[512];
+        int read;
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            read = reader.read(head);
+        }
+        return StatementParser.detect(fileName, read > 0 ? new String(head, 0, read) : "");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importers.shutdownNow();
+    }
+}
@@ -0,0 +1,16 @@
+package com.moneyops.statements;
+
+/** A statement row that could not be parsed; the import records it and moves on. */
+public class StatementParseException extends RuntimeException {
+
+    private final int line;
+
+    public StatementParseException(int line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,87 @@
+package com.moneyops.statements;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Pull parser over a statement: rows are read from the underlying reader one at a time,
+ * so memory stays flat however long the file is.
+ */
+public interface StatementParser extends Closeable {
+
+    enum Format { CSV, OFX, MT940 }
+
+    /**
+     * The next row, or null at the end of the statement. A malformed row throws
+     * StatementParseException; calling next() again continues after it.
+     */
+    StatementRow next() throws IOException;
+
+    static StatementParser open(Format format, BufferedReader reader, String dateFormat, String currency) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvStatementParser(reader, dateFormat, currency);
+            case OFX -> new OfxStatementParser(reader, currency);
+            case MT940 -> new Mt940StatementParser(reader, currency);
+        };
+    }
+
+    /** Format from the file name, else from the first bytes ({@code head}); CSV by default. */
+    static Format detect(String fileName, String head) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".ofx") || name.endsWith(".qfx")) return Format.OFX;
+        if (name.endsWith(".sta") || name.endsWith(".mt940") || name.endsWith(".940")) return Format.MT940;
+        if (name.endsWith(".csv")) return Format.CSV;
+        if (head != null) {
+            String h = head.stripLeading();
+            if (h.startsWith("OFXHEADER") || h.contains("<OFX>")) return Format.OFX;
+            if (h.startsWith(":20:") || h.startsWith("{1:") || h.contains("\n:20:")) return Format.MT940;
+        }
+        return Format.CSV;
+    }
+
+    /**
+     * Lenient amount parsing for bank exports: currency symbols, thousands separators,
+     * decimal commas ("1.234,56", "10,50"), "(12.50)" and trailing Dr/Cr markers.
+     * Returns null for a blank cell.
+     */
+    static BigDecimal parseAmount(String raw) {
+        if (raw == null) return null;
+        String s = raw.trim();
+        if (s.isEmpty() || s.equals("-")) return null;
+        boolean negative = false;
+        String upper = s.toUpperCase(Locale.ROOT);
+        if (upper.endsWith("DR")) {
+            negative = true;
+            s = s.substring(0, s.length() - 2);
+        } else if (upper.endsWith("CR")) {
+            s = s.substring(0, s.length() - 2);
+        }
+        s = s.trim();
+        if (s.startsWith("(") && s.endsWith(")")) {
+            negative = !negative;
+            s = s.substring(1, s.length() - 1);
+        }
+        // The decimal separator is whichever of '.' and ',' comes last, unless a lone comma
+        // is followed by exactly three digits (a thousands separator, "1,250").
+        int dot = s.lastIndexOf('.');
+        int comma = s.lastIndexOf(',');
+        char decimal = comma > dot && (dot >= 0 || !s.substring(comma + 1).matches("\\d{3}")) ? ',' : '.';
+        StringBuilder digits = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == decimal) {
+                digits.append('.');
+            } else if (c == '-') {
+                negative = !negative;
+            }
+        }
+        if (digits.isEmpty()) throw new NumberFormatException("Not an amount: " + raw);
+        BigDecimal value = new BigDecimal(digits.toString());
+        return negative ? value.negate() : value;
+    }
+}
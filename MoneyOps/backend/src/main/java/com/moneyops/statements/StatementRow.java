@@ -0,0 +1,8 @@
+package com.moneyops.statements;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** One parsed statement line. {@code amount} is signed: credits positive, debits negative. */
+public record StatementRow(int line, LocalDate date, BigDecimal amount, String description, String reference, String currency) {
+}
@@ -0,0 +1,36 @@
+package com.moneyops.sync;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stamps every save of a ChangeTracked entity through MongoTemplate / repositories with the
+ * org's next change sequence, in the same write, and releases it once the save lands
+ * (ChangeTrackingMongoTemplate releases it if the save fails). Writes that bypass entity
+ * callbacks (updateFirst, bulk ops) must set changeSeq themselves and call completed().
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeSeqStampingCallback implements BeforeConvertCallback<ChangeTracked>, AfterSaveCallback<ChangeTracked> {
+
+    private final ChangeSequenceService changeSequenceService;
+
+    @Override
+    public ChangeTracked onBeforeConvert(ChangeTracked entity, String collection) {
+        if (entity.getOrgId() != null) {
+            entity.setChangeSeq(changeSequenceService.next(entity.getOrgId()));
+        }
+        return entity;
+    }
+
+    @Override
+    public ChangeTracked onAfterSave(ChangeTracked entity, Document document, String collection) {
+        if (entity.getOrgId() != null && entity.getChangeSeq() != null) {
+            changeSequenceService.completed(entity.getOrgId(), entity.getChangeSeq());
+        }
+        return entity;
+    }
+}
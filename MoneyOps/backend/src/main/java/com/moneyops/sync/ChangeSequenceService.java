@@ -0,0 +1,306 @@
+package com.moneyops.sync;
+
+import com.moneyops.clients.entity.Client;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.transactions.entity.Transaction;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-org monotonic change sequence.
+ *
+ * Each save of a ChangeTracked entity takes the next number with one atomic update of the
+ * org's OrgChangeSequence (ChangeSeqStampingCallback). Numbers are handed out before the
+ * write lands, so a reader could see seq N+1 committed while N is still in flight and
+ * skip N for good. The same update therefore records N as pending, and the writer removes
+ * it once its write has succeeded or failed (ChangeTrackingMongoTemplate covers failed
+ * saves). safeHighWater() stops just below the oldest pending number; as the counter and
+ * the pending set share one document, every node sees the same high-water mark.
+ *
+ * Only a writer that dies between the two steps leaves a number pending for good; it is
+ * given up after app.sync.abandoned-after-minutes, far past any write's latency.
+ *
+ * Single saves don't pay a round trip each way: next() hands numbers out of a block of
+ * app.sync.block-size reserved by this node with one update, and completed() only marks
+ * them landed in memory. The block's pending entry holds the lowest number of the block
+ * not yet landed, handed out or not; a flusher moves it forward every
+ * app.sync.flush-ms and pulls it once the block is used up or older than
+ * app.sync.block-max-ms and all its writes have landed. Readers therefore see a
+ * node's writes up to block-max-ms + flush-ms later than before, and numbers left
+ * unused in a retired block are simply skipped. A block-size of 1 restores the
+ * per-save allocation.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeSequenceService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ChangeSequenceService.class);
+
+    static final List<Class<? extends ChangeTracked>> TRACKED = List.of(Invoice.class, Client.class, Transaction.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.sync.abandoned-after-minutes:10}")
+    private long abandonedAfterMinutes;
+
+    @Value("${app.sync.block-size:64}")
+    private int blockSize;
+
+    @Value("${app.sync.block-max-ms:250}")
+    private long blockMaxMillis;
+
+    @Value("${app.sync.flush-ms:50}")
+    private long flushMillis;
+
+    private final Map<String, Object> seedLocks = new ConcurrentHashMap<>();
+
+    /** This node's blocks per org, oldest first; each list guards its blocks. */
+    private final Map<String, List<Block>> blocks = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-seq-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Numbers reserved by this node and handed out one save at a time. */
+    static final class Block {
+        final long first;
+        final long last;
+        final long reservedAt;
+        final TreeSet<Long> inFlight = new TreeSet<>();
+        long next;
+        long published;
+        boolean retired;
+
+        Block(long first, int size, long now) {
+            this.first = first;
+            this.last = first + size - 1;
+            this.reservedAt = now;
+            this.next = first;
+            this.published = first;
+        }
+
+        boolean contains(long seq) {
+            return seq >= first && seq <= last;
+        }
+
+        boolean hasNext() {
+            return !retired && next <= last;
+        }
+
+        long take() {
+            long seq = next++;
+            inFlight.add(seq);
+            if (next > last) retired = true;
+            return seq;
+        }
+
+        /** Lowest number of the block not yet landed, or -1 once it is retired and drained. */
+        long low() {
+            if (!inFlight.isEmpty()) return inFlight.first();
+            return retired ? -1 : next;
+        }
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        long period = Math.max(10, flushMillis);
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush(false);
+            } catch (Exception e) {
+                log.warn("Change sequence flush failed: {}", e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Next sequence number for the org, pending until {@link #completed}. */
+    public long next(String orgId) {
+        if (blockSize <= 1) return allocate(orgId, 1);
+        List<Block> held = blocks.computeIfAbsent(orgId, id -> new ArrayList<>());
+        synchronized (held) {
+            Block current = held.isEmpty() ? null : held.get(held.size() - 1);
+            if (current == null || !current.hasNext()) {
+                current = new Block(allocate(orgId, blockSize), blockSize, System.currentTimeMillis());
+                held.add(current);
+            }
+            return current.take();
+        }
+    }
+
+    /**
+     * Reserves {@code count} consecutive numbers for a bulk write and returns the first.
+     * Only the first is recorded as pending, which already holds safeHighWater below the
+     * whole block until {@link #completed} is called with it.
+     */
+    public long nextBlock(String orgId, int count) {
+        return allocate(orgId, count);
+    }
+
+    /** Releases a number once its write has landed or failed. */
+    public void completed(String orgId, long seq) {
+        List<Block> held = blocks.get(orgId);
+        if (held != null) {
+            synchronized (held) {
+                for (Block block : held) {
+                    if (block.contains(seq)) {
+                        block.inFlight.remove(seq);
+                        return;
+                    }
+                }
+            }
+        }
+        sequences().updateOne(Filters.eq("_id", orgId), Updates.pull("pending", new Document("seq", seq)));
+    }
+
+    /** Last number handed out for the org, landed or not. */
+    public long allocated(String orgId) {
+        OrgChangeSequence sequence = mongoTemplate.findById(orgId, OrgChangeSequence.class);
+        return sequence != null ? sequence.getSeq() : 0;
+    }
+
+    /** Highest sequence number below which every write has landed or failed. */
+    public long safeHighWater(String orgId) {
+        OrgChangeSequence sequence = mongoTemplate.findById(orgId, OrgChangeSequence.class);
+        if (sequence == null) return 0;
+        long high = sequence.getSeq();
+        LocalDateTime abandonedBefore = LocalDateTime.now().minusMinutes(abandonedAfterMinutes);
+        for (OrgChangeSequence.Pending pending : sequence.getPending()) {
+            if (pending.getAllocatedAt() != null && pending.getAllocatedAt().isBefore(abandonedBefore)) {
+                log.warn("Giving up change seq {} of org {}, pending since {}", pending.getSeq(), orgId, pending.getAllocatedAt());
+                completed(orgId, pending.getSeq());
+                continue;
+            }
+            high = Math.min(high, pending.getSeq() - 1);
+        }
+        return high;
+    }
+
+    /** Stamps the org's rows written before sequencing existed, once. */
+    public void ensureSeeded(String orgId) {
+        OrgChangeSequence sequence = mongoTemplate.findById(orgId, OrgChangeSequence.class);
+        if (sequence != null && sequence.isSeeded()) return;
+        synchronized (seedLocks.computeIfAbsent(orgId, id -> new Object())) {
+            sequence = mongoTemplate.findById(orgId, OrgChangeSequence.class);
+            if (sequence != null && sequence.isSeeded()) return;
+            long start = System.currentTimeMillis();
+            long stamped = 0;
+            for (Class<? extends ChangeTracked> type : TRACKED) {
+                Query unstamped = new Query(Criteria.where("orgId").is(orgId).and("changeSeq").is(null))
+                        .with(Sort.by("updatedAt", "_id"));
+                unstamped.fields().include("_id");
+                List<String> ids = mongoTemplate.find(unstamped, Document.class, mongoTemplate.getCollectionName(type))
+                        .stream().map(d -> String.valueOf(d.get("_id"))).toList();
+                if (ids.isEmpty()) continue;
+                long first = allocate(orgId, ids.size());
+                try {
+                    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+                    for (int i = 0; i < ids.size(); i++) {
+                        // changeSeq: null so a concurrent save's own stamp wins
+                        bulk.updateOne(new Query(Criteria.where("_id").is(ids.get(i)).and("changeSeq").is(null)),
+                                new Update().set("changeSeq", first + i));
+                    }
+                    bulk.execute();
+                } finally {
+                    completed(orgId, first);
+                }
+                stamped += ids.size();
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(orgId)),
+                    new Update().set("seeded", true).set("seededAt", LocalDateTime.now()), OrgChangeSequence.class);
+            log.info("Seeded change sequence for org {}: {} rows in {} ms", orgId, stamped, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Moves each block's pending entry up to its lowest unlanded number, retiring blocks
+     * past app.sync.block-max-ms (or all of them), and pulls the entries of drained blocks.
+     * Runs on the flusher thread; the Mongo writes happen outside the block locks.
+     */
+    void flush(boolean retireAll) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, List<Block>> entry : blocks.entrySet()) {
+            String orgId = entry.getKey();
+            List<long[]> moves = new ArrayList<>();   // {block first, new low}, low -1 = pull
+            synchronized (entry.getValue()) {
+                for (Iterator<Block> it = entry.getValue().iterator(); it.hasNext(); ) {
+                    Block block = it.next();
+                    if (retireAll || now - block.reservedAt >= blockMaxMillis) block.retired = true;
+                    long low = block.low();
+                    if (low == -1) it.remove();
+                    if (low != block.published) {
+                        block.published = low;
+                        moves.add(new long[]{block.first, low});
+                    }
+                }
+            }
+            for (long[] move : moves) {
+                if (move[1] == -1) {
+                    sequences().updateOne(Filters.eq("_id", orgId), Updates.pull("pending", new Document("block", move[0])));
+                } else {
+                    sequences().updateOne(Filters.and(Filters.eq("_id", orgId), Filters.eq("pending.block", move[0])),
+                            Updates.set("pending.$.seq", move[1]));
+                }
+            }
+        }
+    }
+
+    /** Gives this node's unused numbers back so they don't hold the high-water mark. */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        try {
+            flush(true);
+        } catch (Exception e) {
+            log.warn("Could not release change sequence blocks: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reserves {@code count} numbers and records the first as pending, in one pipeline
+     * update so no reader can see the new counter without it; returns the first.
+     */
+    private long allocate(String orgId, int count) {
+        Document current = new Document("$ifNull", List.of("$seq", 0L));
+        Document first = new Document("$add", List.of(current, 1L));
+        Document pending = new Document("seq", first).append("block", first).append("allocatedAt", "$$NOW");
+        List<Document> pipeline = List.of(new Document("$set", new Document()
+                .append("seq", new Document("$add", List.of(current, (long) count)))
+                .append("pending", new Document("$concatArrays", List.of(
+                        new Document("$ifNull", List.of("$pending", List.of())), List.of(pending))))));
+        Document sequence = sequences().findOneAndUpdate(Filters.eq("_id", orgId), pipeline,
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return sequence.get("seq", Number.class).longValue() - count + 1;
+    }
+
+    private MongoCollection<Document> sequences() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(OrgChangeSequence.class));
+    }
+}
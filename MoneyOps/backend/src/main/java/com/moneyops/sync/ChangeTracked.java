@@ -0,0 +1,16 @@
+package com.moneyops.sync;
+
+/**
+ * Tenant entity stamped with its org's change sequence on every save, so delta sync can
+ * page through writes in order (see ChangeSequenceService).
+ */
+public interface ChangeTracked {
+
+    String getId();
+
+    String getOrgId();
+
+    Long getChangeSeq();
+
+    void setChangeSeq(Long changeSeq);
+}
@@ -0,0 +1,70 @@
+package com.moneyops.sync;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoWriter;
+
+import java.util.Collection;
+
+/**
+ * MongoTemplate that releases the change sequence number ChangeSeqStampingCallback took
+ * for a save or insert when the write fails (a version conflict, a duplicate key, a lost
+ * connection), so the org's sync high-water mark moves on at once. Successful writes are
+ * released by the callback itself.
+ */
+public class ChangeTrackingMongoTemplate extends MongoTemplate {
+
+    private final ObjectProvider<ChangeSequenceService> changeSequenceService;
+
+    public ChangeTrackingMongoTemplate(MongoDatabaseFactory factory, MongoConverter converter,
+                                       ObjectProvider<ChangeSequenceService> changeSequenceService) {
+        super(factory, converter);
+        this.changeSequenceService = changeSequenceService;
+    }
+
+    @Override
+    public <T> T save(T objectToSave, String collectionName) {
+        try {
+            return super.save(objectToSave, collectionName);
+        } catch (RuntimeException e) {
+            release(objectToSave);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T insert(T objectToSave, String collectionName) {
+        try {
+            return super.insert(objectToSave, collectionName);
+        } catch (RuntimeException e) {
+            release(objectToSave);
+            throw e;
+        }
+    }
+
+    @Override
+    protected <T> Collection<T> doInsertBatch(String collectionName, Collection<? extends T> batchToSave, MongoWriter<T> writer) {
+        try {
+            return super.doInsertBatch(collectionName, batchToSave, writer);
+        } catch (RuntimeException e) {
+            batchToSave.forEach(this::release);
+            throw e;
+        }
+    }
+
+    /**
+     * The entity still carries the number stamped for this write; if the failure came before
+     * stamping it holds an older, long-released one and the release is a no-op.
+     */
+    private void release(Object entity) {
+        if (entity instanceof ChangeTracked tracked && tracked.getOrgId() != null && tracked.getChangeSeq() != null) {
+            try {
+                changeSequenceService.getObject().completed(tracked.getOrgId(), tracked.getChangeSeq());
+            } catch (RuntimeException ignored) {
+                // Left pending; safeHighWater gives it up as abandoned
+            }
+        }
+    }
+}
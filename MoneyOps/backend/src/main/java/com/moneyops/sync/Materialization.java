@@ -0,0 +1,32 @@
+package com.moneyops.sync;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Which generation of a transaction-derived view (the ledger, budget actuals) is live for
+ * an org, keyed by view + ":" + orgId. {@link #rebuiltThroughSeq} is the change sequence
+ * the live generation was built at: it already counts every transaction write up to it.
+ * A rebuild holds {@link #leaseOwner} until it swaps its generation in.
+ */
+@Document(collection = "materializations")
+@Data
+public class Materialization {
+
+    @Id
+    private String id;
+
+    private String view;
+    private String orgId;      // 🔗 Tenant isolation
+
+    private Long generation;           // null until the first build completes
+    private long lastGeneration;       // highest handed out, so an abandoned build's number is never reused
+    private long rebuiltThroughSeq;
+    private LocalDateTime rebuiltAt;
+
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+}
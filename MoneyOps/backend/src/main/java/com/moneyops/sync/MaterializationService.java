@@ -0,0 +1,261 @@
+package com.moneyops.sync;
+
+import com.moneyops.shared.exceptions.ConflictException;
+import com.moneyops.transactions.entity.Transaction;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds of per-org views derived from transactions, coordinated across nodes.
+ *
+ * A view's rows carry a generation; readers and writers use the live one named by the
+ * org's Materialization. A rebuild takes a lease on that document, waits until every
+ * change sequence number handed out so far has landed, builds a new generation from the
+ * transactions and swaps it in with a compare-and-set on the lease, renewing the lease
+ * while it waits. Writers $inc the live generation and skip writes the live generation
+ * already counts (changeSeq at or below rebuiltThroughSeq). A write that finds a rebuild
+ * in progress is queued on this node and applied to the new generation once the lease
+ * is released, so request threads never wait on a rebuild. A transaction written while
+ * the build was reading may or may not have been counted, so the build is discarded and
+ * redone if any transaction carries a newer sequence number by the time it finishes.
+ *
+ * The previous generation stays until the next rebuild, so a reader that looked up the
+ * generation just before a swap still finds all its rows. Queued writes live in memory;
+ * if the node dies before applying them, the next rebuild recounts them.
+ */
+@Service
+@RequiredArgsConstructor
+public class MaterializationService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MaterializationService.class);
+
+    private static final int BUILD_ATTEMPTS = 5;
+    private static final long POLL_MS = 50;
+
+    /** Writes and discards one view's generations. */
+    public interface Builder {
+        /** Writes the view's rows for {@code generation} from the org's live transactions. */
+        void build(long generation);
+
+        /** Deletes the view's rows of every generation but {@code keep}; all of them when null. */
+        void discardExcept(Long keep);
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeSequenceService changeSequenceService;
+
+    @Value("${app.materialization.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /** Writes queued behind a rebuild, by Materialization id. */
+    private final Map<String, List<Consumer<Materialization>>> deferred = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "materialization-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdownNow();
+    }
+
+    /** The live state, or null if the view was never built for the org. */
+    public Materialization current(String view, String orgId) {
+        Materialization state = mongoTemplate.findById(id(view, orgId), Materialization.class);
+        return state != null && state.getGeneration() != null ? state : null;
+    }
+
+    /**
+     * Hands {@code write} the live state to $inc, now if no rebuild holds the lease, else
+     * from the drainer once it is released. Dropped if the view was never built, as its
+     * first build will count the write.
+     */
+    public void write(String view, String orgId, Consumer<Materialization> write) {
+        String id = id(view, orgId);
+        Materialization state = mongoTemplate.findById(id, Materialization.class);
+        if (state != null && leased(state)) {
+            deferred.compute(id, (key, queued) -> {
+                if (queued == null) {
+                    queued = new ArrayList<>();
+                    drainer.schedule(() -> drain(key), POLL_MS, TimeUnit.MILLISECONDS);
+                }
+                queued.add(write);
+                return queued;
+            });
+        } else if (state != null && state.getGeneration() != null) {
+            write.accept(state);
+        }
+    }
+
+    private void drain(String id) {
+        try {
+            Materialization state = mongoTemplate.findById(id, Materialization.class);
+            if (state != null && leased(state)) {
+                drainer.schedule(() -> drain(id), POLL_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            List<Consumer<Materialization>> writes = deferred.remove(id);
+            if (writes == null || state == null || state.getGeneration() == null) return;
+            for (Consumer<Materialization> write : writes) {
+                try {
+                    write.accept(state);
+                } catch (Exception e) {
+                    log.error("Failed to apply a queued write to {}: {}", id, e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to drain queued writes for {}, retrying: {}", id, e.getMessage());
+            drainer.schedule(() -> drain(id), POLL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** True if the live generation already counts the write that left {@code written} as it is. */
+    public static boolean covers(Materialization state, ChangeTracked written) {
+        return written != null && written.getChangeSeq() != null && written.getChangeSeq() <= state.getRebuiltThroughSeq();
+    }
+
+    /** The live state, building the view first if it never was. */
+    public Materialization ensure(String view, String orgId, Builder builder) {
+        Materialization state = current(view, orgId);
+        return state != null ? state : rebuild(view, orgId, builder);
+    }
+
+    /** Builds and swaps in a new generation; if another node is rebuilding, waits for its result instead. */
+    public Materialization rebuild(String view, String orgId, Builder builder) {
+        while (true) {
+            Materialization lease = acquire(view, orgId);
+            if (lease != null) {
+                return build(lease, builder);
+            }
+            Materialization state = awaitRebuilt(view, orgId);
+            if (state != null) return state;
+        }
+    }
+
+    /**
+     * The live state once no rebuild holds the lease, for a caller that asked for a rebuild
+     * itself; null if the view has no generation yet. A dead node's lease is waited out
+     * only until it expires.
+     */
+    private Materialization awaitRebuilt(String view, String orgId) {
+        while (true) {
+            Materialization state = mongoTemplate.findById(id(view, orgId), Materialization.class);
+            if (state == null || !leased(state)) {
+                return state != null && state.getGeneration() != null ? state : null;
+            }
+            pause();
+        }
+    }
+
+    private Materialization build(Materialization lease, Builder builder) {
+        String orgId = lease.getOrgId();
+        long start = System.currentTimeMillis();
+        try {
+            builder.discardExcept(lease.getGeneration());
+            long generation = lease.getLastGeneration();
+            for (int attempt = 1; attempt <= BUILD_ATTEMPTS; attempt++) {
+                long through = changeSequenceService.allocated(orgId);
+                // Numbers are only given up after app.sync.abandoned-after-minutes, which
+                // can outlast the lease; keep it renewed while waiting.
+                long renewAt = System.currentTimeMillis() + leaseSeconds * 1000 / 3;
+                while (changeSequenceService.safeHighWater(orgId) < through) {
+                    if (System.currentTimeMillis() >= renewAt) {
+                        renew(lease.getId(), new Update());
+                        renewAt = System.currentTimeMillis() + leaseSeconds * 1000 / 3;
+                    }
+                    pause();
+                }
+                generation++;
+                renew(lease.getId(), new Update().set("lastGeneration", generation));
+                builder.build(generation);
+
+                Query newer = new Query(Criteria.where("orgId").is(orgId).and("changeSeq").gt(through));
+                if (!mongoTemplate.exists(newer, Transaction.class)) {
+                    Materialization live = mongoTemplate.findAndModify(owned(lease.getId()),
+                            new Update().set("generation", generation).set("rebuiltThroughSeq", through)
+                                    .set("rebuiltAt", LocalDateTime.now()).unset("leaseOwner").unset("leaseUntil"),
+                            FindAndModifyOptions.options().returnNew(true), Materialization.class);
+                    if (live == null) {
+                        throw new IllegalStateException("Lost the " + lease.getView() + " rebuild lease for org " + orgId);
+                    }
+                    log.info("Rebuilt {} for org {} as generation {} through seq {} in {} ms (attempt {})",
+                            lease.getView(), orgId, generation, through, System.currentTimeMillis() - start, attempt);
+                    return live;
+                }
+                builder.discardExcept(lease.getGeneration());
+            }
+            throw new ConflictException("The " + lease.getView() + " is being written too fast to rebuild; try again");
+        } finally {
+            mongoTemplate.updateFirst(owned(lease.getId()), new Update().unset("leaseOwner").unset("leaseUntil"),
+                    Materialization.class);
+        }
+    }
+
+    /** Takes the rebuild lease, or returns null while another node holds it. */
+    private Materialization acquire(String view, String orgId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query free = new Query(Criteria.where("_id").is(id(view, orgId)).orOperator(
+                Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now)));
+        try {
+            return mongoTemplate.findAndModify(free,
+                    new Update().set("leaseOwner", nodeId).set("leaseUntil", now.plusSeconds(leaseSeconds))
+                            .setOnInsert("view", view).setOnInsert("orgId", orgId),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Materialization.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    private void renew(String id, Update update) {
+        boolean held = mongoTemplate.updateFirst(owned(id),
+                update.set("leaseUntil", LocalDateTime.now().plusSeconds(leaseSeconds)),
+                Materialization.class).getMatchedCount() > 0;
+        if (!held) {
+            throw new IllegalStateException("Lost the rebuild lease " + id);
+        }
+    }
+
+    private Query owned(String id) {
+        return new Query(Criteria.where("_id").is(id).and("leaseOwner").is(nodeId));
+    }
+
+    private static boolean leased(Materialization state) {
+        return state.getLeaseUntil() != null && state.getLeaseUntil().isAfter(LocalDateTime.now());
+    }
+
+    private static String id(String view, String orgId) {
+        return view + ":" + orgId;
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(POLL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a rebuild", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.moneyops.sync;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Last change sequence number handed out for an org, keyed by orgId, with the numbers
+ * whose writes have not landed yet. A number enters {@link #pending} in the same
+ * findAndModify that hands it out and leaves once its write succeeds or fails, so every
+ * node sees the same in-flight set. {@link #seeded} is set once rows written before
+ * sequencing existed have been stamped.
+ */
+@Document(collection = "org_change_sequences")
+@Data
+public class OrgChangeSequence {
+
+    @Id
+    private String orgId;
+
+    private long seq;
+    private List<Pending> pending = new ArrayList<>();
+    private boolean seeded;
+    private LocalDateTime seededAt;
+
+    @Data
+    public static class Pending {
+        private long seq;               // lowest number of the block not yet landed
+        private Long block;             // first number of the block
+        private LocalDateTime allocatedAt;
+    }
+}
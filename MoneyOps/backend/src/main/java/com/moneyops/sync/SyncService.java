@@ -0,0 +1,152 @@
+package com.moneyops.sync;
+
+import com.moneyops.clients.dto.ClientDto;
+import com.moneyops.clients.entity.Client;
+import com.moneyops.clients.mapper.ClientMapper;
+import com.moneyops.invoices.dto.InvoiceDto;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.mapper.InvoiceMapper;
+import com.moneyops.transactions.dto.TransactionDto;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.mapper.TransactionMapper;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * "Changes since" delta sync over invoices, clients and transactions.
+ *
+ * The token is the org change sequence the caller has applied up to. A call returns rows
+ * with since < changeSeq <= safe high-water (one range scan per type on
+ * org_change_seq_idx): live rows as full DTOs, soft-deleted ones as compact tombstones.
+ * When a type has more than {@code limit} changes, every type is cut at the same
+ * sequence number so the next token never skips a change; hasMore tells the caller to
+ * continue. since=0 is a full initial load (no tombstones).
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    static final int MAX_LIMIT = 1000;
+    static final Set<String> TYPES = Set.of("invoices", "clients", "transactions");
+
+    @Data
+    public static class Tombstone {
+        private String id;
+        private long changeSeq;
+        private LocalDateTime deletedAt;
+    }
+
+    @Data
+    public static class EntityChanges<T> {
+        private List<T> upserts = new ArrayList<>();
+        private List<Tombstone> deleted = new ArrayList<>();
+    }
+
+    @Data
+    public static class SyncResponse {
+        private String token;
+        private boolean hasMore;
+        private EntityChanges<InvoiceDto> invoices = new EntityChanges<>();
+        private EntityChanges<ClientDto> clients = new EntityChanges<>();
+        private EntityChanges<TransactionDto> transactions = new EntityChanges<>();
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeSequenceService changeSequenceService;
+    private final InvoiceMapper invoiceMapper;
+    private final ClientMapper clientMapper;
+    private final TransactionMapper transactionMapper;
+
+    public SyncResponse changesSince(String orgId, String since, int limit, Set<String> types) {
+        long from = parseToken(since);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Set<String> wanted = types == null || types.isEmpty() ? TYPES : normalize(types);
+
+        changeSequenceService.ensureSeeded(orgId);
+        long high = changeSequenceService.safeHighWater(orgId);
+
+        List<Invoice> invoices = wanted.contains("invoices") ? fetch(orgId, Invoice.class, from, high, pageSize) : List.of();
+        List<Client> clients = wanted.contains("clients") ? fetch(orgId, Client.class, from, high, pageSize) : List.of();
+        List<Transaction> transactions = wanted.contains("transactions") ? fetch(orgId, Transaction.class, from, high, pageSize) : List.of();
+
+        // Truncated types: everything up to the smallest last-kept seq is complete across all types.
+        long cutoff = high;
+        cutoff = Math.min(cutoff, lastKept(invoices, pageSize));
+        cutoff = Math.min(cutoff, lastKept(clients, pageSize));
+        cutoff = Math.min(cutoff, lastKept(transactions, pageSize));
+
+        SyncResponse response = new SyncResponse();
+        response.setHasMore(cutoff < high);
+        response.setToken(Long.toString(Math.max(cutoff, from)));
+        collect(invoices, cutoff, from, invoiceMapper::toDto, Invoice::getDeletedAt, response.getInvoices());
+        collect(clients, cutoff, from, clientMapper::toDto, Client::getDeletedAt, response.getClients());
+        collect(transactions, cutoff, from, transactionMapper::toDto, Transaction::getDeletedAt, response.getTransactions());
+        return response;
+    }
+
+    private <T extends ChangeTracked> List<T> fetch(String orgId, Class<T> type, long from, long high, int pageSize) {
+        Query query = new Query(Criteria.where("orgId").is(orgId).and("changeSeq").gt(from).lte(high))
+                .with(Sort.by(Sort.Direction.ASC, "changeSeq"))
+                .limit(pageSize + 1);
+        return mongoTemplate.find(query, type);
+    }
+
+    private static long lastKept(List<? extends ChangeTracked> rows, int pageSize) {
+        return rows.size() > pageSize ? rows.get(pageSize - 1).getChangeSeq() : Long.MAX_VALUE;
+    }
+
+    private static <T extends ChangeTracked, D> void collect(List<T> rows, long cutoff, long from, Function<T, D> toDto,
+                                                            Function<T, LocalDateTime> deletedAt, EntityChanges<D> out) {
+        for (T row : rows) {
+            if (row.getChangeSeq() > cutoff) break;
+            LocalDateTime deleted = deletedAt.apply(row);
+            if (deleted == null) {
+                out.getUpserts().add(toDto.apply(row));
+            } else if (from > 0) {
+                Tombstone tombstone = new Tombstone();
+                tombstone.setId(row.getId());
+                tombstone.setChangeSeq(row.getChangeSeq());
+                tombstone.setDeletedAt(deleted);
+                out.getDeleted().add(tombstone);
+            }
+        }
+    }
+
+    private static long parseToken(String since) {
+        if (since == null || since.isBlank()) return 0;
+        try {
+            long value = Long.parseLong(since.trim());
+            if (value < 0) throw new NumberFormatException();
+            return value;
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token: " + since);
+        }
+    }
+
+    private static Set<String> normalize(Set<String> types) {
+        Set<String> normalized = new HashSet<>();
+        for (String type : types) {
+            String t = type.trim().toLowerCase(Locale.ROOT);
+            if (!TYPES.contains(t)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sync type: " + type);
+            }
+            normalized.add(t);
+        }
+        return normalized;
+    }
+}
@@ -1,13 +1,17 @@
 // src/main/java/com/moneyops/transactions/controller/TransactionController.java
 package com.moneyops.transactions.controller;
 
+import com.moneyops.transactions.dto.PeriodSummaryDto;
 import com.moneyops.transactions.dto.TransactionDto;
 import com.moneyops.transactions.service.TransactionService;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.shared.versioning.DataVersionService;
 import com.moneyops.shared.utils.OrgContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,6 +24,7 @@ import java.util.Map;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final DataVersionService dataVersionService;
 
     @PostMapping
     public ResponseEntity<TransactionDto> createTransaction(@RequestBody TransactionDto dto) {
@@ -42,12 +47,12 @@ public class TransactionController {
     }
 
     @GetMapping
-    public ResponseEntity<List<TransactionDto>> getAllTransactions() {
+    public ResponseEntity<List<TransactionDto>> getAllTransactions(WebRequest request) {
         String orgId = OrgContext.getOrgId();
         if (orgId == null) return ResponseEntity.ok(List.of());
 
-        List<TransactionDto> transactions = transactionService.getAllTransactions(orgId);
-        return ResponseEntity.ok(transactions);
+        return dataVersionService.conditional(request, transactionsEtag(orgId),
+                () -> transactionService.getAllTransactions(orgId));
     }
 
     @GetMapping("/{id}")
@@ -69,31 +74,49 @@ public class TransactionController {
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<TransactionDto>> getTransactionsByClient(@PathVariable String clientId) {
+    public ResponseEntity<List<TransactionDto>> getTransactionsByClient(@PathVariable String clientId, WebRequest request) {
         String orgId = OrgContext.getOrgId();
         if (orgId == null) return ResponseEntity.ok(List.of());
 
-        List<TransactionDto> transactions = transactionService.getTransactionsByClient(clientId, orgId);
-        return ResponseEntity.ok(transactions);
+        return dataVersionService.conditional(request, transactionsEtag(orgId),
+                () -> transactionService.getTransactionsByClient(clientId, orgId));
     }
 
     @GetMapping("/range")
     public ResponseEntity<List<TransactionDto>> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) {
         String orgId = OrgContext.getOrgId();
         if (orgId == null) return ResponseEntity.ok(List.of());
 
-        List<TransactionDto> transactions = transactionService.getTransactionsByDateRange(orgId, startDate, endDate);
-        return ResponseEntity.ok(transactions);
+        return dataVersionService.conditional(request, transactionsEtag(orgId),
+                () -> transactionService.getTransactionsByDateRange(orgId, startDate, endDate));
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<Map<String, BigDecimal>> getFinancialSummary() {
+    public ResponseEntity<Map<String, BigDecimal>> getFinancialSummary(WebRequest request) {
         String orgId = OrgContext.getOrgId();
         if (orgId == null) return ResponseEntity.status(org.springframework.http.HttpStatus.UNAUTHORIZED).build();
 
-        Map<String, BigDecimal> summary = transactionService.getFinancialSummary(orgId);
-        return ResponseEntity.ok(summary);
+        return dataVersionService.conditional(request, transactionsEtag(orgId),
+                () -> transactionService.getFinancialSummary(orgId));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/summary/periods")
+    public ResponseEntity<List<PeriodSummaryDto>> getFinancialSummaryByPeriod(
+            @RequestParam(defaultValue = "month") String unit,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) return ResponseEntity.status(org.springframework.http.HttpStatus.UNAUTHORIZED).build();
+
+        return dataVersionService.conditional(request, transactionsEtag(orgId),
+                () -> transactionService.getFinancialSummaryByPeriod(orgId, unit, startDate, endDate));
+    }
+
+    private String transactionsEtag(String orgId) {
+        return dataVersionService.etag(orgId, null, EntityChangedEvent.TRANSACTION);
+    }
+}
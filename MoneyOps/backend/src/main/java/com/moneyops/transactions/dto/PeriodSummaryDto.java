@@ -0,0 +1,16 @@
+// src/main/java/com/moneyops/transactions/dto/PeriodSummaryDto.java
+package com.moneyops.transactions.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+
+@Data
+public class PeriodSummaryDto {
+    private LocalDate periodStart;
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+    private BigDecimal totalExpense = BigDecimal.ZERO;
+    private BigDecimal netProfit = BigDecimal.ZERO;
+    private long transactionCount;
+}
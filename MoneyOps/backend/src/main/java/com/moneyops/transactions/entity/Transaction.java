@@ -1,8 +1,10 @@
 package com.moneyops.transactions.entity;
 
+import com.moneyops.sync.ChangeTracked;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -25,9 +27,23 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Document(collection = "transactions")
-@CompoundIndex(name = "org_type_idx", def = "{'orgId': 1, 'type': 1, 'deletedAt': 1}")
+@CompoundIndexes({
+        @CompoundIndex(name = "org_type_idx", def = "{'orgId': 1, 'type': 1, 'deletedAt': 1}"),
+        // ✨ Ledger paging: newest-first sort+limit (see LedgerService.LEDGER_ORDER)
+        @CompoundIndex(name = "org_ledger_idx", def = "{'orgId': 1, 'deletedAt': 1, 'transactionDate': -1, 'createdAt': -1, '_id': -1}"),
+        // ✨ Delta sync: changes since a sequence number (see SyncService)
+        @CompoundIndex(name = "org_change_seq_idx", def = "{'orgId': 1, 'changeSeq': 1}"),
+        // ✨ Statement import dedup (see StatementImportService)
+        @CompoundIndex(name = "org_import_fingerprint_idx", def = "{'orgId': 1, 'importFingerprint': 1}", unique = true,
+                partialFilter = "{'importFingerprint': {$exists: true}}"),
+        // ✨ Invoice payments not yet applied (see InvoiceService.completePendingPayments)
+        @CompoundIndex(name = "invoice_payment_pending_idx", def = "{'invoicePaymentPending': 1, 'createdAt': 1}",
+                partialFilter = "{'invoicePaymentPending': true}"),
+        // ✨ Duplicate payment lookup: same amount within a few days (see AnomalyDetectionService)
+        @CompoundIndex(name = "org_amount_date_idx", def = "{'orgId': 1, 'amount': 1, 'transactionDate': 1}")
+})
 @Data
-public class Transaction {
+public class Transaction implements ChangeTracked {
 
     @Id
     private String id;
@@ -71,6 +87,13 @@ public class Transaction {
     
     private LocalDateTime deletedAt;
 
+    private Long changeSeq;    // ✨ Org change sequence, stamped on every save
+
+    private String importId;           // ✨ Statement import that created this row
+    private String importFingerprint;  // ✨ SHA-256 of date, amount, reference (+ occurrence)
+
+    private Boolean invoicePaymentPending;  // ✨ Set until the payment is applied to invoiceId (outbox)
+
     @Indexed(unique = true, partialFilter = "{'idempotencyKey': {$exists: true}}")
     private String idempotencyKey;
 
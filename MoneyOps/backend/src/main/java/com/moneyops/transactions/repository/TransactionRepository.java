@@ -4,12 +4,13 @@ import com.moneyops.transactions.entity.Transaction;
 import com.moneyops.transactions.entity.TransactionType;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionRepositoryCustom {
 
     Optional<Transaction> findByIdAndOrgIdAndDeletedAtIsNull(String id, String orgId);
 
@@ -17,6 +18,8 @@ public interface TransactionRepository extends MongoRepository<Transaction, Stri
 
     boolean existsByIdAndOrgIdAndDeletedAtIsNull(String id, String orgId);
 
+    Optional<Transaction> findByOrgIdAndIdempotencyKeyAndDeletedAtIsNull(String orgId, String idempotencyKey);
+
     List<Transaction> findByOrgIdAndClientIdAndDeletedAtIsNull(String orgId, String clientId);
     
     List<Transaction> findByOrgIdAndInvoiceIdAndDeletedAtIsNull(String orgId, String invoiceId);
@@ -27,9 +30,30 @@ public interface TransactionRepository extends MongoRepository<Transaction, Stri
 
     @org.springframework.data.mongodb.repository.Aggregation(pipeline = {
         "{ $match: { 'orgId': ?0, 'type': ?1, 'deletedAt': null } }",
-        "{ $group: { _id: null, total: { $sum: '$amount' } } }"
+        "{ $group: { _id: null, total: { $sum: { $convert: { input: '$amount', to: 'decimal', onError: 0, onNull: 0 } } } } }"
     })
     TotalResult getTotalByOrgIdAndType(String orgId, TransactionType type);
 
-    record TotalResult(Double total) {}
+    // ✨ Single round-trip totals per type; $convert keeps not-yet-migrated String amounts exact
+    // and counts an unparseable or missing amount as 0 instead of failing the whole aggregation
+    @org.springframework.data.mongodb.repository.Aggregation(pipeline = {
+        "{ $match: { 'orgId': ?0, 'deletedAt': null } }",
+        "{ $group: { _id: '$type', total: { $sum: { $convert: { input: '$amount', to: 'decimal', onError: 0, onNull: 0 } } }, count: { $sum: 1 } } }"
+    })
+    List<TypeTotal> sumByType(String orgId);
+
+    @org.springframework.data.mongodb.repository.Aggregation(pipeline = {
+        "{ $match: { 'orgId': ?0, 'deletedAt': null, 'transactionDate': { $gte: ?2, $lt: ?3 } } }",
+        "{ $group: { _id: { period: { $dateTrunc: { date: '$transactionDate', unit: ?1, timezone: ?4, startOfWeek: 'monday' } }, type: '$type' }, total: { $sum: { $convert: { input: '$amount', to: 'decimal', onError: 0, onNull: 0 } } }, count: { $sum: 1 } } }",
+        "{ $sort: { '_id.period': 1 } }"
+    })
+    List<PeriodTypeTotal> sumByPeriodAndType(String orgId, String unit, LocalDate from, LocalDate toExclusive, String timezone);
+
+    record TotalResult(BigDecimal total) {}
+
+    record TypeTotal(String id, BigDecimal total, long count) {}
+
+    record PeriodKey(LocalDate period, String type) {}
+
+    record PeriodTypeTotal(PeriodKey id, BigDecimal total, long count) {}
 }
\ No newline at end of file
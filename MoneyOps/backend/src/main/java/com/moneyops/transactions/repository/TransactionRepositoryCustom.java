@@ -10,4 +10,11 @@ import java.util.UUID;
 public interface TransactionRepositoryCustom {
 
     List<Transaction> searchByOrgIdWithFilters(UUID orgId, UUID clientId, TransactionType type, String category, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Compare-and-set of the invoice link: sets invoiceId and clientId only while the live
+     * transaction is still linked to {@code expectedInvoiceId} (null = unlinked). Returns the
+     * transaction as it was before, or null when it is missing, deleted or linked elsewhere.
+     */
+    Transaction relinkInvoice(String id, String orgId, String expectedInvoiceId, String invoiceId, String clientId, long changeSeq);
 }
@@ -2,12 +2,15 @@ package com.moneyops.transactions.repository;
 
 import com.moneyops.transactions.entity.Transaction;
 import com.moneyops.transactions.entity.TransactionType;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,4 +33,16 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
         if (endDate != null) c.and("transactionDate").lte(endDate);
         return mongoTemplate.find(new Query(c), Transaction.class);
     }
+
+    @Override
+    public Transaction relinkInvoice(String id, String orgId, String expectedInvoiceId, String invoiceId, String clientId, long changeSeq) {
+        Query query = new Query(Criteria.where("_id").is(id).and("orgId").is(orgId).and("deletedAt").is(null)
+                .and("invoiceId").is(expectedInvoiceId));
+        Update update = new Update()
+                .set("invoiceId", invoiceId)
+                .set("clientId", clientId)
+                .set("changeSeq", changeSeq)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Transaction.class);
+    }
 }
@@ -1,6 +1,8 @@
 // src/main/java/com/moneyops/transactions/service/TransactionService.java
 package com.moneyops.transactions.service;
 
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.transactions.dto.PeriodSummaryDto;
 import com.moneyops.transactions.dto.TransactionDto;
 import com.moneyops.transactions.entity.Transaction;
 import com.moneyops.transactions.entity.TransactionType;
@@ -8,6 +10,10 @@ import com.moneyops.transactions.mapper.TransactionMapper;
 import com.moneyops.transactions.repository.TransactionRepository;
 import com.moneyops.transactions.validator.TransactionValidator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +35,12 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
     private final TransactionValidator transactionValidator;
+    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+    private final com.moneyops.sync.ChangeSequenceService changeSequenceService;
+    private final com.moneyops.categorization.CategorizationService categorizationService;
+    private final MongoTemplate mongoTemplate;
+
+    private static final java.util.Set<String> SUMMARY_UNITS = java.util.Set.of("day", "week", "month", "quarter", "year");
 
     public List<TransactionDto> getAllTransactions(String orgId) {
         if (orgId == null || orgId.isBlank()) throw new com.moneyops.shared.exceptions.UnauthorizedException("Missing organization context");
@@ -44,15 +56,38 @@ public class TransactionService {
     }
 
     public TransactionDto createTransaction(TransactionDto dto, String orgId, String userId) {
+        return create(dto, orgId, userId, false);
+    }
+
+    /**
+     * Creates a payment InvoiceService is about to apply to dto.invoiceId. The row carries
+     * invoicePaymentPending until {@link #invoicePaymentApplied} clears it, so a payment
+     * whose invoice write never happened is found and finished later.
+     */
+    public TransactionDto createInvoicePayment(TransactionDto dto, String orgId, String userId) {
+        return create(dto, orgId, userId, true);
+    }
+
+    /** Clears the outbox flag set by {@link #createInvoicePayment}; not a user-visible change. */
+    public void invoicePaymentApplied(String id, String orgId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id).and("orgId").is(orgId)),
+                new Update().unset("invoicePaymentPending"), Transaction.class);
+    }
+
+    /** Payments created before {@code cutoff} that are still waiting to be applied to their invoice. */
+    public List<Transaction> pendingInvoicePayments(LocalDateTime cutoff, int limit) {
+        Query query = new Query(Criteria.where("invoicePaymentPending").is(true).and("createdAt").lt(cutoff)
+                .and("deletedAt").is(null)).limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    private TransactionDto create(TransactionDto dto, String orgId, String userId, boolean invoicePayment) {
         if (orgId == null || orgId.isBlank()) throw new com.moneyops.shared.exceptions.UnauthorizedException("Missing organization context");
         
         // ✨ Idempotency check
         if (dto.getIdempotencyKey() != null) {
-            // Note: In a production app, we'd query an idempotency_keys collection
-            // but for now we'll check if a transaction with this key exists
-            var existing = transactionRepository.findAllByOrgIdAndDeletedAtIsNull(orgId).stream()
-                .filter(t -> dto.getIdempotencyKey().equals(t.getIdempotencyKey()))
-                .findFirst();
+            // Point lookup on the idempotencyKey index; webhook retries hit this on every delivery
+            var existing = transactionRepository.findByOrgIdAndIdempotencyKeyAndDeletedAtIsNull(orgId, dto.getIdempotencyKey());
             if (existing.isPresent()) return transactionMapper.toDto(existing.get());
         }
 
@@ -67,8 +102,13 @@ public class TransactionService {
         if (transaction.getCurrency() == null) {
             transaction.setCurrency("INR");
         }
+        categorizationService.categorize(transaction);
+        if (invoicePayment) {
+            transaction.setInvoicePaymentPending(true);
+        }
 
         Transaction saved = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(EntityChangedEvent.created(orgId, EntityChangedEvent.TRANSACTION, saved.getId(), saved));
         return transactionMapper.toDto(saved);
     }
 
@@ -77,6 +117,7 @@ public class TransactionService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found"));
 
         transactionValidator.validate(dto);
+        Transaction beforeUpdate = transactionMapper.toEntity(transactionMapper.toDto(existing));
 
         existing.setClientId(dto.getClientId());
         existing.setInvoiceId(dto.getInvoiceId());
@@ -90,6 +131,7 @@ public class TransactionService {
         existing.setReferenceNumber(dto.getReferenceNumber());
 
         Transaction saved = transactionRepository.save(existing);
+        eventPublisher.publishEvent(EntityChangedEvent.updated(orgId, EntityChangedEvent.TRANSACTION, saved.getId(), beforeUpdate, saved));
         return transactionMapper.toDto(saved);
     }
 
@@ -100,6 +142,30 @@ public class TransactionService {
         // ✨ Soft Delete
         transaction.setDeletedAt(LocalDateTime.now());
         transactionRepository.save(transaction);
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(orgId, EntityChangedEvent.TRANSACTION, transaction.getId(), transaction));
+    }
+
+    /**
+     * Moves the invoice link from {@code expectedInvoiceId} (null = unlinked) to {@code invoiceId}
+     * in one conditional write, so two matchers can't claim the same payment. Returns the
+     * transaction as it was before, or null if it was linked elsewhere or is gone.
+     */
+    public Transaction relinkInvoice(String id, String orgId, String expectedInvoiceId, String invoiceId, String clientId) {
+        long changeSeq = changeSequenceService.next(orgId);
+        Transaction before;
+        try {
+            before = transactionRepository.relinkInvoice(id, orgId, expectedInvoiceId, invoiceId, clientId, changeSeq);
+        } finally {
+            changeSequenceService.completed(orgId, changeSeq);
+        }
+        if (before != null) {
+            Transaction after = transactionMapper.toEntity(transactionMapper.toDto(before));
+            after.setInvoiceId(invoiceId);
+            after.setClientId(clientId);
+            after.setChangeSeq(changeSeq);
+            eventPublisher.publishEvent(EntityChangedEvent.updated(orgId, EntityChangedEvent.TRANSACTION, id, before, after));
+        }
+        return before;
     }
 
     public List<TransactionDto> getTransactionsByClient(String clientId, String orgId) {
@@ -122,21 +188,53 @@ public class TransactionService {
 
     public BigDecimal getTotalIncome(String orgId) {
         var result = transactionRepository.getTotalByOrgIdAndType(orgId, TransactionType.INCOME);
-        return (result != null && result.total() != null) ? BigDecimal.valueOf(result.total()) : BigDecimal.ZERO;
+        return (result != null && result.total() != null) ? result.total() : BigDecimal.ZERO;
     }
 
     public BigDecimal getTotalExpense(String orgId) {
         var result = transactionRepository.getTotalByOrgIdAndType(orgId, TransactionType.EXPENSE);
-        return (result != null && result.total() != null) ? BigDecimal.valueOf(result.total()) : BigDecimal.ZERO;
+        return (result != null && result.total() != null) ? result.total() : BigDecimal.ZERO;
     }
 
     public Map<String, BigDecimal> getFinancialSummary(String orgId) {
-        BigDecimal income = getTotalIncome(orgId);
-        BigDecimal expense = getTotalExpense(orgId);
+        // ✨ One $group by type instead of one aggregation per type
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        for (TransactionRepository.TypeTotal total : transactionRepository.sumByType(orgId)) {
+            if (total.total() == null) continue;
+            if (TransactionType.INCOME.name().equals(total.id())) income = total.total();
+            else if (TransactionType.EXPENSE.name().equals(total.id())) expense = total.total();
+        }
         return Map.of(
             "totalIncome", income,
             "totalExpense", expense,
             "netProfit", income.subtract(expense)
         );
     }
-}
\ No newline at end of file
+
+    public List<PeriodSummaryDto> getFinancialSummaryByPeriod(String orgId, String unit, LocalDate startDate, LocalDate endDate) {
+        String normalizedUnit = unit == null ? "month" : unit.toLowerCase();
+        if (!SUMMARY_UNITS.contains(normalizedUnit)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported period unit: " + unit);
+        }
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A valid startDate and endDate are required");
+        }
+
+        Map<LocalDate, PeriodSummaryDto> periods = new java.util.LinkedHashMap<>();
+        for (TransactionRepository.PeriodTypeTotal bucket : transactionRepository.sumByPeriodAndType(
+                orgId, normalizedUnit, startDate, endDate.plusDays(1), java.time.ZoneId.systemDefault().getId())) {
+            PeriodSummaryDto dto = periods.computeIfAbsent(bucket.id().period(), period -> {
+                PeriodSummaryDto created = new PeriodSummaryDto();
+                created.setPeriodStart(period);
+                return created;
+            });
+            BigDecimal total = bucket.total() != null ? bucket.total() : BigDecimal.ZERO;
+            if (TransactionType.INCOME.name().equals(bucket.id().type())) dto.setTotalIncome(dto.getTotalIncome().add(total));
+            else if (TransactionType.EXPENSE.name().equals(bucket.id().type())) dto.setTotalExpense(dto.getTotalExpense().add(total));
+            dto.setNetProfit(dto.getTotalIncome().subtract(dto.getTotalExpense()));
+            dto.setTransactionCount(dto.getTransactionCount() + bucket.count());
+        }
+        return List.copyOf(periods.values());
+    }
+}
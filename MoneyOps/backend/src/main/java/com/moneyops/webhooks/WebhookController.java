@@ -0,0 +1,32 @@
+package com.moneyops.webhooks;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Unauthenticated by design: callers are payment providers, authenticated by the HMAC
+ * signature instead. Returns 202 as soon as the event is stored.
+ */
+@RestController
+@RequestMapping("/api/webhooks")
+public class WebhookController {
+
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+
+    @PostMapping("/{provider}")
+    public ResponseEntity<?> receive(@PathVariable String provider,
+                                     @RequestHeader(value = WebhookSignatures.HEADER, required = false) String signature,
+                                     @RequestBody String body) {
+        WebhookInboxService.Receipt receipt = webhookInboxService.receive(provider, signature, body);
+        return ResponseEntity.accepted().body(Map.of("eventId", receipt.eventId(), "duplicate", receipt.duplicate()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.moneyops.webhooks;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A verified payment-provider webhook, persisted as received before any processing.
+ * The unique (provider, providerEventId) index is the dedup: provider redeliveries of
+ * the same event hit it and are acknowledged without a second row.
+ */
+@Document(collection = "webhook_inbox")
+@CompoundIndexes({
+        @CompoundIndex(name = "provider_event_idx", def = "{'provider': 1, 'providerEventId': 1}", unique = true),
+        // ✨ Worker claim: due events oldest first
+        @CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+})
+@Data
+public class WebhookEvent {
+
+    public enum Status { RECEIVED, PROCESSING, APPLIED, IGNORED, FAILED }
+
+    @Id
+    private String id;
+
+    private String provider;
+    private String providerEventId;
+    private String type;           // e.g. payment.succeeded
+
+    private String orgId;          // as claimed by the payload; checked against the invoice
+    private String invoiceId;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount;
+    private String currency;
+    private LocalDate paidOn;
+    private String reference;
+
+    private String payload;        // raw body, kept for audit and replay
+
+    private Status status = Status.RECEIVED;
+    private int attempts;
+    private String lastError;
+    private String claimToken;
+    private LocalDateTime lockedUntil;
+    private LocalDateTime nextAttemptAt;
+
+    private String transactionId;  // payment transaction once applied
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+}
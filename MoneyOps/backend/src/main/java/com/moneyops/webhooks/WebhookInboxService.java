@@ -0,0 +1,306 @@
+package com.moneyops.webhooks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.repository.InvoiceRepository;
+import com.moneyops.invoices.service.InvoiceService;
+import com.moneyops.shared.exceptions.UnauthorizedException;
+import com.moneyops.shared.exceptions.ValidationException;
+import com.moneyops.shared.utils.OrgContext;
+import com.moneyops.transactions.dto.TransactionDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Payment-provider webhook inbox.
+ *
+ * receive() verifies the HMAC signature, stores the raw event in webhook_inbox (the unique
+ * provider + event id index absorbs redeliveries) and returns; nothing else happens on the
+ * request thread. A dispatcher then claims due events in batches — one updateMulti stamps
+ * a claim token and lease, so several nodes can drain the same inbox — and a worker pool
+ * applies each through InvoiceService.recordPayment with an idempotency key derived from
+ * the provider event id. Transient failures back off exponentially; permanent ones
+ * (unknown invoice, wrong org, already paid) are parked as FAILED for review.
+ *
+ * Payloads use one normalized shape:
+ * {"id", "type": "payment.succeeded", "data": {"invoiceId", "orgId", "amount", "currency", "paidOn", "reference"}}.
+ * A provider's secret is app.webhooks.<provider>.secret; providers without one are rejected.
+ */
+@Service
+@RequiredArgsConstructor
+public class WebhookInboxService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(WebhookInboxService.class);
+
+    public static final String PAYMENT_SUCCEEDED = "payment.succeeded";
+
+    public record Receipt(String eventId, boolean duplicate) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    @Value("${app.webhooks.signature-tolerance-seconds:300}")
+    private long toleranceSeconds;
+
+    @Value("${app.webhooks.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.webhooks.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.webhooks.max-attempts:8}")
+    private int maxAttempts;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "webhook-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "webhook-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public Receipt receive(String provider, String signature, String body) {
+        String secret = secretFor(provider);
+        if (secret == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown webhook provider");
+        }
+        if (!WebhookSignatures.verify(secret, signature, body, System.currentTimeMillis() / 1000, toleranceSeconds)) {
+            throw new UnauthorizedException("Invalid webhook signature");
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(body);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed webhook payload");
+        }
+        String eventId = text(root, "id");
+        if (eventId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Webhook event id is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        JsonNode data = root.path("data");
+        WebhookEvent event = new WebhookEvent();
+        event.setProvider(provider);
+        event.setProviderEventId(eventId);
+        event.setType(text(root, "type"));
+        event.setOrgId(text(data, "orgId"));
+        event.setInvoiceId(text(data, "invoiceId"));
+        event.setAmount(decimal(text(data, "amount")));
+        event.setCurrency(text(data, "currency"));
+        event.setPaidOn(date(text(data, "paidOn")));
+        event.setReference(text(data, "reference"));
+        event.setPayload(body);
+        event.setReceivedAt(now);
+        event.setNextAttemptAt(now);
+        try {
+            mongoTemplate.insert(event);
+        } catch (DuplicateKeyException e) {
+            return new Receipt(eventId, true);
+        }
+        wake();
+        return new Receipt(eventId, false);
+    }
+
+    /** Also picks up retries, expired leases and anything a racing wake() missed. */
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval-ms:5000}")
+    public void poll() {
+        wake();
+    }
+
+    public void wake() {
+        if (draining.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            List<WebhookEvent> batch;
+            while (!(batch = claimBatch()).isEmpty()) {
+                long start = System.currentTimeMillis();
+                CompletableFuture.allOf(batch.stream()
+                        .map(event -> CompletableFuture.runAsync(() -> process(event), workers))
+                        .toArray(CompletableFuture[]::new)).join();
+                log.debug("Processed {} webhook events in {} ms", batch.size(), System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.error("Webhook drain failed: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private List<WebhookEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Query due = new Query(dueCriteria(now)).with(Sort.by("nextAttemptAt")).limit(Math.max(1, batchSize));
+        due.fields().include("_id");
+        List<String> ids = mongoTemplate.find(due, WebhookEvent.class).stream().map(WebhookEvent::getId).toList();
+        if (ids.isEmpty()) return List.of();
+
+        String token = UUID.randomUUID().toString();
+        // Re-checks due-ness, so an id another node claimed in between is skipped.
+        mongoTemplate.updateMulti(new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), dueCriteria(now))),
+                new Update().set("status", WebhookEvent.Status.PROCESSING).set("claimToken", token)
+                        .set("lockedUntil", now.plusSeconds(leaseSeconds)),
+                WebhookEvent.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimToken").is(token)), WebhookEvent.class);
+    }
+
+    private static Criteria dueCriteria(LocalDateTime now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(WebhookEvent.Status.RECEIVED).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(WebhookEvent.Status.PROCESSING).and("lockedUntil").lt(now));
+    }
+
+    private void process(WebhookEvent event) {
+        try {
+            if (!PAYMENT_SUCCEEDED.equals(event.getType())) {
+                finish(event, WebhookEvent.Status.IGNORED, "Unhandled event type: " + event.getType());
+                return;
+            }
+            if (event.getInvoiceId() == null || event.getAmount() == null || event.getAmount().signum() <= 0) {
+                finish(event, WebhookEvent.Status.FAILED, "Missing invoiceId or a positive amount");
+                return;
+            }
+            Invoice invoice = invoiceRepository.findById(event.getInvoiceId())
+                    .filter(i -> i.getDeletedAt() == null)
+                    .orElse(null);
+            if (invoice == null) {
+                finish(event, WebhookEvent.Status.FAILED, "Invoice not found");
+                return;
+            }
+            if (event.getOrgId() != null && !event.getOrgId().equals(invoice.getOrgId())) {
+                finish(event, WebhookEvent.Status.FAILED, "Invoice does not belong to the event's organization");
+                return;
+            }
+
+            TransactionDto payment = new TransactionDto();
+            payment.setAmount(event.getAmount());
+            payment.setCurrency(event.getCurrency());
+            payment.setTransactionDate(event.getPaidOn());
+            payment.setPaymentMethod(event.getProvider());
+            payment.setReferenceNumber(event.getReference());
+            payment.setDescription("Payment via " + event.getProvider());
+            payment.setIdempotencyKey("webhook:" + event.getProvider() + ":" + event.getProviderEventId());
+
+            OrgContext.setOrgId(invoice.getOrgId());
+            TransactionDto saved = invoiceService.recordPayment(invoice.getId(), payment, invoice.getOrgId(),
+                    "webhook:" + event.getProvider());
+            event.setTransactionId(saved.getId());
+            finish(event, WebhookEvent.Status.APPLIED, null);
+        } catch (ValidationException e) {
+            finish(event, WebhookEvent.Status.FAILED, e.getMessage());
+        } catch (ResponseStatusException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                finish(event, WebhookEvent.Status.FAILED, e.getReason());
+            } else {
+                retry(event, e);
+            }
+        } catch (Exception e) {
+            retry(event, e);
+        } finally {
+            OrgContext.clear();
+        }
+    }
+
+    private void finish(WebhookEvent event, WebhookEvent.Status status, String error) {
+        // Matched on the claim token: if the lease expired and another worker took over, this is a no-op.
+        mongoTemplate.updateFirst(claimed(event),
+                new Update().set("status", status).set("lastError", error).set("processedAt", LocalDateTime.now())
+                        .set("transactionId", event.getTransactionId())
+                        .unset("claimToken").unset("lockedUntil"),
+                WebhookEvent.class);
+        if (status == WebhookEvent.Status.FAILED) {
+            log.warn("Webhook {} event {} failed: {}", event.getProvider(), event.getProviderEventId(), error);
+        }
+    }
+
+    private void retry(WebhookEvent event, Exception cause) {
+        int attempts = event.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            event.setAttempts(attempts);
+            mongoTemplate.updateFirst(claimed(event), new Update().set("attempts", attempts), WebhookEvent.class);
+            finish(event, WebhookEvent.Status.FAILED, cause.getMessage());
+            return;
+        }
+        long backoffSeconds = Math.min(3600, 1L << Math.min(attempts, 12));
+        mongoTemplate.updateFirst(claimed(event),
+                new Update().set("status", WebhookEvent.Status.RECEIVED).set("attempts", attempts)
+                        .set("lastError", cause.getMessage())
+                        .set("nextAttemptAt", LocalDateTime.now().plusSeconds(backoffSeconds))
+                        .unset("claimToken").unset("lockedUntil"),
+                WebhookEvent.class);
+    }
+
+    private static Query claimed(WebhookEvent event) {
+        return new Query(Criteria.where("_id").is(event.getId()).and("claimToken").is(event.getClaimToken()));
+    }
+
+    String secretFor(String provider) {
+        if (provider == null || !provider.matches("[a-z0-9-]{1,32}")) return null;
+        String secret = environment.getProperty("app.webhooks." + provider + ".secret");
+        return secret != null && !secret.isBlank() ? secret : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() && !value.asText().isBlank() ? value.asText() : null;
+    }
+
+    private static BigDecimal decimal(String value) {
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate date(String value) {
+        try {
+            return value != null ? LocalDate.parse(value) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,65 @@
+package com.moneyops.webhooks;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 webhook signatures.
+ *
+ * Header format: {@code t=<unix seconds>,v1=<hex hmac>}, where the MAC covers
+ * {@code <t>.<raw body>}. Binding the timestamp into the MAC and bounding its age stops
+ * a captured request from being replayed later; several v1 entries are accepted so a
+ * provider can sign with old and new secrets while rotating.
+ */
+public final class WebhookSignatures {
+
+    public static final String HEADER = "X-Webhook-Signature";
+
+    private WebhookSignatures() {
+    }
+
+    public static String sign(String secret, long timestamp, String body) {
+        return "t=" + timestamp + ",v1=" + hmac(secret, timestamp + "." + body);
+    }
+
+    /** True if {@code header} carries a valid v1 signature of {@code body} no older than {@code toleranceSeconds}. */
+    public static boolean verify(String secret, String header, String body, long nowSeconds, long toleranceSeconds) {
+        if (secret == null || secret.isEmpty() || header == null || body == null) return false;
+        Long timestamp = null;
+        String[] parts = header.split(",");
+        for (String part : parts) {
+            String p = part.trim();
+            if (p.startsWith("t=")) {
+                try {
+                    timestamp = Long.parseLong(p.substring(2));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        if (timestamp == null || Math.abs(nowSeconds - timestamp) > toleranceSeconds) return false;
+
+        byte[] expected = hmac(secret, timestamp + "." + body).getBytes(StandardCharsets.US_ASCII);
+        for (String part : parts) {
+            String p = part.trim();
+            if (p.startsWith("v1=") && MessageDigest.isEqual(expected, p.substring(3).getBytes(StandardCharsets.US_ASCII))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String hmac(String secret, String message) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
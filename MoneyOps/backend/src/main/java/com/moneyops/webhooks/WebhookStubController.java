@@ -0,0 +1,96 @@
+package com.moneyops.webhooks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyops.invoices.repository.InvoiceRepository;
+import com.moneyops.shared.exceptions.UnauthorizedException;
+import com.moneyops.shared.utils.OrgContext;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Local stand-in for a payment provider (app.webhooks.stub.enabled=true). Splits an amount
+ * into signed payment.succeeded events for one of the caller's invoices and pushes them
+ * through the same verification and inbox path as real deliveries, optionally delivering
+ * each one twice to exercise dedup. Signs with app.webhooks.stub.secret.
+ *
+ * Lives under /api/dev rather than /api/webhooks, which is public for providers: it needs
+ * the caller's authenticated org.
+ */
+@RestController
+@RequestMapping("/api/dev/webhook-stub")
+@ConditionalOnProperty(name = "app.webhooks.stub.enabled", havingValue = "true")
+public class WebhookStubController {
+
+    static final String PROVIDER = "stub";
+    private static final int MAX_EVENTS = 10000;
+
+    @Data
+    public static class SimulateRequest {
+        private String invoiceId;
+        private BigDecimal amount;
+        private int count = 1;
+        private boolean redeliver;
+    }
+
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping("/simulate")
+    public ResponseEntity<?> simulate(@RequestBody SimulateRequest request) throws Exception {
+        String orgId = OrgContext.getOrgId();
+        if (orgId == null) throw new UnauthorizedException("Missing organization context");
+        if (request.getAmount() == null || request.getAmount().signum() <= 0 || request.getCount() < 1 || request.getCount() > MAX_EVENTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "amount must be positive and count between 1 and " + MAX_EVENTS);
+        }
+        invoiceRepository.findByIdAndOrgIdAndDeletedAtIsNull(request.getInvoiceId(), orgId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice not found"));
+        String secret = webhookInboxService.secretFor(PROVIDER);
+        if (secret == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "app.webhooks.stub.secret is not configured");
+        }
+
+        BigDecimal each = request.getAmount().divide(BigDecimal.valueOf(request.getCount()), 2, RoundingMode.DOWN);
+        BigDecimal remainder = request.getAmount().subtract(each.multiply(BigDecimal.valueOf(request.getCount())));
+        int accepted = 0;
+        int duplicates = 0;
+        for (int i = 0; i < request.getCount(); i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("invoiceId", request.getInvoiceId());
+            data.put("orgId", orgId);
+            data.put("amount", (i == 0 ? each.add(remainder) : each).toPlainString());
+            data.put("paidOn", LocalDate.now().toString());
+            data.put("reference", "stub_" + UUID.randomUUID().toString().substring(0, 8));
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "id", "evt_" + UUID.randomUUID(),
+                    "type", WebhookInboxService.PAYMENT_SUCCEEDED,
+                    "data", data));
+            for (int delivery = 0; delivery < (request.isRedeliver() ? 2 : 1); delivery++) {
+                String signature = WebhookSignatures.sign(secret, System.currentTimeMillis() / 1000, body);
+                if (webhookInboxService.receive(PROVIDER, signature, body).duplicate()) duplicates++;
+                else accepted++;
+            }
+        }
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted, "duplicates", duplicates));
+    }
+}
@@ -0,0 +1,65 @@
+// src/test/java/com/moneyops/anomalies/AnomalyDetectorsTest.java
+package com.moneyops.anomalies;
+
+import com.moneyops.transactions.entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnomalyDetectorsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    @Test
+    public void testSameCounterpartySavedEarlierIsDuplicate() {
+        Transaction t = payment("t3", "client-1", null, NOW);
+        List<Transaction> candidates = List.of(
+                payment("t2", "client-1", null, NOW.minusMinutes(5)),
+                payment("t1", "client-1", null, NOW.minusDays(1)));
+
+        assertEquals("t1", AnomalyDetectionService.duplicateOf(t, candidates));
+    }
+
+    @Test
+    public void testDifferentCounterpartyIsNotDuplicate() {
+        Transaction t = payment("t2", "client-1", null, NOW);
+
+        assertNull(AnomalyDetectionService.duplicateOf(t, List.of(payment("t1", "client-2", null, NOW.minusDays(1)))));
+        assertNull(AnomalyDetectionService.duplicateOf(t, List.of(payment("t3", null, "Acme fuel", NOW.minusDays(1)))));
+    }
+
+    @Test
+    public void testOnlyTheLaterOfTwoMatchingRowsIsFlagged() {
+        // Two identical lines from one import share createdAt; the id breaks the tie.
+        Transaction first = payment("t1", null, "Acme supplies", NOW);
+        Transaction second = payment("t2", null, "Acme supplies", NOW);
+
+        assertNull(AnomalyDetectionService.duplicateOf(first, List.of(second)));
+        assertEquals("t1", AnomalyDetectionService.duplicateOf(second, List.of(first)));
+    }
+
+    @Test
+    public void testWelfordSpikeScore() {
+        CategorySpendStats stats = new CategorySpendStats();
+        double[] usual = {950, 1000, 1050, 990, 1010, 1020, 980, 1005, 995, 1000};
+        assertTrue(Double.isNaN(stats.zScore("FUEL", 1000, 10)));
+        for (double amount : usual) stats.add("FUEL", amount);
+
+        assertEquals(1000, stats.typical("FUEL"), 10);
+        assertTrue(stats.zScore("FUEL", 1040, 10) < 3);
+        assertTrue(stats.zScore("FUEL", 5000, 10) > 3);
+        assertTrue(Double.isNaN(stats.zScore("RENT", 5000, 10)));
+    }
+
+    private static Transaction payment(String id, String clientId, String description, LocalDateTime createdAt) {
+        Transaction t = new Transaction();
+        t.setId(id);
+        t.setClientId(clientId);
+        t.setDescription(description);
+        t.setCreatedAt(createdAt);
+        return t;
+    }
+}
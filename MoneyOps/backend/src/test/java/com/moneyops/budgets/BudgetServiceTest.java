@@ -0,0 +1,196 @@
+// src/test/java/com/moneyops/budgets/BudgetServiceTest.java
+package com.moneyops.budgets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.events.dto.TransactionsInsertedEvent;
+import com.moneyops.events.producer.IEventPublisher;
+import com.moneyops.organizations.repository.BusinessOrganizationRepository;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.sync.Materialization;
+import com.moneyops.sync.MaterializationService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BudgetServiceTest {
+
+    private static final String ORG = "org-1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BusinessOrganizationRepository orgRepository;
+
+    @Mock
+    private IEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private MaterializationService materializationService;
+
+    @InjectMocks
+    private BudgetService budgetService;
+
+    private final Materialization state = new Materialization();
+
+    @BeforeEach
+    public void setUp() {
+        state.setOrgId(ORG);
+        state.setGeneration(3L);
+        state.setRebuiltThroughSeq(10);
+        lenient().doAnswer(invocation -> {
+            Consumer<Materialization> write = invocation.getArgument(2);
+            write.accept(state);
+            return null;
+        }).when(materializationService).write(eq("budget-actuals"), eq(ORG), any());
+    }
+
+    @Test
+    public void testMonthlyPeriodBoundaries() {
+        assertEquals(LocalDate.of(2026, 1, 1), BudgetService.periodStart(Budget.Period.MONTHLY, LocalDate.of(2026, 1, 31), 4));
+        assertEquals(LocalDate.of(2026, 2, 1), BudgetService.periodEnd(Budget.Period.MONTHLY, LocalDate.of(2026, 1, 1)));
+        assertEquals(LocalDate.of(2024, 2, 1), BudgetService.periodStart(Budget.Period.MONTHLY, LocalDate.of(2024, 2, 29), 4));
+    }
+
+    @Test
+    public void testQuarterAndYearFollowFiscalYearStart() {
+        // April fiscal year: Q4 is Jan-Mar, and the year turns on 1 April
+        assertEquals(LocalDate.of(2026, 1, 1), BudgetService.periodStart(Budget.Period.QUARTERLY, LocalDate.of(2026, 3, 31), 4));
+        assertEquals(LocalDate.of(2026, 4, 1), BudgetService.periodStart(Budget.Period.QUARTERLY, LocalDate.of(2026, 4, 1), 4));
+        assertEquals(LocalDate.of(2026, 4, 1), BudgetService.periodEnd(Budget.Period.QUARTERLY, LocalDate.of(2026, 1, 1)));
+        assertEquals(LocalDate.of(2025, 4, 1), BudgetService.periodStart(Budget.Period.YEARLY, LocalDate.of(2026, 3, 31), 4));
+        assertEquals(LocalDate.of(2026, 4, 1), BudgetService.periodStart(Budget.Period.YEARLY, LocalDate.of(2026, 4, 1), 4));
+        assertEquals(LocalDate.of(2027, 4, 1), BudgetService.periodEnd(Budget.Period.YEARLY, LocalDate.of(2026, 4, 1)));
+
+        // Calendar fiscal year
+        assertEquals(LocalDate.of(2025, 10, 1), BudgetService.periodStart(Budget.Period.QUARTERLY, LocalDate.of(2025, 12, 31), 1));
+        assertEquals(LocalDate.of(2026, 1, 1), BudgetService.periodStart(Budget.Period.YEARLY, LocalDate.of(2026, 12, 31), 1));
+    }
+
+    @Test
+    public void testImportChunkIncrementsOneActualPerMonthAndCategory() {
+        budgetService.onTransactionsInserted(new TransactionsInsertedEvent(ORG, "import-1", List.of(
+                expense(11, LocalDate.of(2026, 1, 31), "100.00", "FOOD"),
+                expense(12, LocalDate.of(2026, 1, 5), "20.50", "FOOD"),
+                expense(13, LocalDate.of(2026, 2, 1), "50.00", "FOOD"),
+                expense(14, LocalDate.of(2026, 2, 1), "7.00", null),
+                income(15, LocalDate.of(2026, 2, 1), "900.00"),
+                expense(9, LocalDate.of(2026, 1, 31), "999.00", "FOOD"))));   // already in generation 3
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).upsert(queries.capture(), updates.capture(), eq(BudgetActual.class));
+
+        for (int i = 0; i < 3; i++) {
+            Document query = queries.getAllValues().get(i).getQueryObject();
+            Document inc = updates.getAllValues().get(i).getUpdateObject().get("$inc", Document.class);
+            assertEquals(3L, query.get("generation"));
+            LocalDate month = (LocalDate) query.get("month");
+            String category = query.getString("category");
+            if (month.equals(LocalDate.of(2026, 1, 1))) {
+                assertEquals("FOOD", category);
+                assertEquals(new Decimal128(new BigDecimal("120.50")), inc.get("amount"));
+                assertEquals(2L, inc.get("count"));
+            } else if ("FOOD".equals(category)) {
+                assertEquals(LocalDate.of(2026, 2, 1), month);
+                assertEquals(new Decimal128(new BigDecimal("50.00")), inc.get("amount"));
+            } else {
+                assertEquals(BudgetService.UNCATEGORIZED, category);
+                assertEquals(new Decimal128(new BigDecimal("7.00")), inc.get("amount"));
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateMovesActualAcrossMonthBoundary() {
+        Transaction before = expense(11, LocalDate.of(2026, 1, 31), "40.00", "FOOD");
+        Transaction after = expense(12, LocalDate.of(2026, 2, 1), "40.00", "FOOD");
+
+        budgetService.onEntityChanged(EntityChangedEvent.updated(ORG, EntityChangedEvent.TRANSACTION, "t-11", before, after));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(queries.capture(), updates.capture(), eq(BudgetActual.class));
+        assertEquals(LocalDate.of(2026, 1, 1), queries.getAllValues().get(0).getQueryObject().get("month"));
+        assertEquals(-1L, updates.getAllValues().get(0).getUpdateObject().get("$inc", Document.class).get("count"));
+        assertEquals(LocalDate.of(2026, 2, 1), queries.getAllValues().get(1).getQueryObject().get("month"));
+        assertEquals(1L, updates.getAllValues().get(1).getUpdateObject().get("$inc", Document.class).get("count"));
+    }
+
+    @Test
+    public void testQuarterlyAlertSumsTheFiscalQuarter() {
+        Budget budget = new Budget();
+        budget.setId("b-1");
+        budget.setOrgId(ORG);
+        budget.setCategory("FOOD");
+        budget.setPeriod(Budget.Period.QUARTERLY);
+        budget.setAmount(new BigDecimal("1000"));
+        BudgetActual actual = new BudgetActual();
+        actual.setAmount(new BigDecimal("850"));
+        when(mongoTemplate.find(any(Query.class), eq(Budget.class))).thenReturn(List.of(budget));
+        when(mongoTemplate.find(any(Query.class), eq(BudgetActual.class))).thenReturn(List.of(actual));
+        when(orgRepository.findByIdAndDeletedAtIsNull(ORG)).thenReturn(Optional.empty());
+
+        budgetService.onEntityChanged(EntityChangedEvent.created(ORG, EntityChangedEvent.TRANSACTION, "t-11",
+                expense(11, LocalDate.of(2026, 3, 31), "50.00", "FOOD")));
+
+        ArgumentCaptor<Query> actuals = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(actuals.capture(), eq(BudgetActual.class));
+        Document months = actuals.getValue().getQueryObject().get("month", Document.class);
+        assertEquals(LocalDate.of(2026, 1, 1), months.get("$gte"));
+        assertEquals(LocalDate.of(2026, 4, 1), months.get("$lt"));
+
+        ArgumentCaptor<BudgetAlert> alert = ArgumentCaptor.forClass(BudgetAlert.class);
+        verify(mongoTemplate).insert(alert.capture());
+        assertEquals(80, alert.getValue().getThreshold());
+        assertEquals(LocalDate.of(2026, 1, 1), alert.getValue().getPeriodStart());
+    }
+
+    private static Transaction expense(long seq, LocalDate date, String amount, String category) {
+        Transaction t = new Transaction();
+        t.setId("t-" + seq);
+        t.setOrgId(ORG);
+        t.setType(TransactionType.EXPENSE);
+        t.setAmount(new BigDecimal(amount));
+        t.setTransactionDate(date);
+        t.setCategory(category);
+        t.setChangeSeq(seq);
+        return t;
+    }
+
+    private static Transaction income(long seq, LocalDate date, String amount) {
+        Transaction t = expense(seq, date, amount, "SALES");
+        t.setType(TransactionType.INCOME);
+        return t;
+    }
+}
@@ -0,0 +1,81 @@
+// src/test/java/com/moneyops/categorization/CategoryRuleSetTest.java
+package com.moneyops.categorization;
+
+import com.moneyops.transactions.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryRuleSetTest {
+
+    private static CategoryRule rule(String id, String category, List<String> keywords) {
+        CategoryRule rule = new CategoryRule();
+        rule.setId(id);
+        rule.setCategory(category);
+        rule.setKeywords(keywords);
+        return rule;
+    }
+
+    @Test
+    public void testAutomatonMatchesWholeWordsOnly() {
+        KeywordAutomaton automaton = new KeywordAutomaton(List.of("uber", "uber eats", "he", "she", "hers"));
+        List<Integer> hits = new ArrayList<>();
+        automaton.match("POS UBER*EATS 1234 / ushers she", hits::add);
+
+        assertEquals(List.of(0, 1, 3), hits);
+        hits.clear();
+        automaton.match("UBEREATS shell", hits::add);
+        assertTrue(hits.isEmpty());
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("amazon web services", KeywordAutomaton.normalize("  AMAZON  web*Services. "));
+        assertEquals("", KeywordAutomaton.normalize("--"));
+    }
+
+    @Test
+    public void testKeywordRuleWithPredicates() {
+        CategoryRule fuel = rule("r1", "FUEL", List.of("indian oil", "hpcl"));
+        CategoryRule bigFuel = rule("r2", "FLEET", List.of("hpcl"));
+        bigFuel.setMinAmount(new BigDecimal("10000"));
+        CategoryRuleSet rules = new CategoryRuleSet(List.of(fuel, bigFuel));
+
+        assertEquals("FUEL", rules.classify("POS INDIAN OIL PETROL", new BigDecimal("2500"), "CARD", TransactionType.EXPENSE).category());
+        assertEquals("FUEL", rules.classify("HPCL-MUMBAI", new BigDecimal("900"), null, TransactionType.EXPENSE).category());
+        assertEquals("FLEET", rules.classify("HPCL-MUMBAI", new BigDecimal("15000"), null, TransactionType.EXPENSE).category());
+        assertNull(rules.classify("SWIGGY ORDER", new BigDecimal("450"), null, TransactionType.EXPENSE));
+    }
+
+    @Test
+    public void testPredicateOnlyRulesAndRanking() {
+        CategoryRule cash = rule("r1", "PETTY_CASH", List.of());
+        cash.setPaymentMethod("cash");
+        cash.setMaxAmount(new BigDecimal("500"));
+        CategoryRule learned = rule("r2", "MEALS", List.of("swiggy"));
+        learned.setSource(CategoryRule.Source.LEARNED);
+        CategoryRule manual = rule("r3", "TRAVEL", List.of("swiggy"));
+        CategoryRule pinned = rule("r4", "STAFF_WELFARE", List.of("zomato"));
+        pinned.setPriority(5);
+        CategoryRuleSet rules = new CategoryRuleSet(List.of(cash, learned, manual, pinned));
+
+        CategoryRuleSet.Match petty = rules.classify("tea", new BigDecimal("120"), "CASH", TransactionType.EXPENSE);
+        assertEquals("PETTY_CASH", petty.category());
+        assertEquals(CategoryRuleSet.PREDICATE_CONFIDENCE, petty.confidence());
+        assertNull(rules.classify("tea", new BigDecimal("1200"), "CASH", TransactionType.EXPENSE));
+
+        assertEquals("MEALS", rules.classify("Swiggy lunch", new BigDecimal("120"), "CASH", TransactionType.EXPENSE).category());
+        assertEquals("STAFF_WELFARE", rules.classify("zomato swiggy", new BigDecimal("120"), "CASH", TransactionType.EXPENSE).category());
+    }
+
+    @Test
+    public void testMerchantKeyword() {
+        assertEquals("swiggy", CategorizationService.merchantKeyword("UPI/SWIGGY/9876543210@ybl/Payment"));
+        assertEquals("hpcl", CategorizationService.merchantKeyword("POS 4111XX HPCL MUMBAI"));
+        assertNull(CategorizationService.merchantKeyword("NEFT 12345 CR"));
+    }
+}
@@ -0,0 +1,111 @@
+// src/test/java/com/moneyops/config/Decimal128MoneyMigrationTest.java
+package com.moneyops.config;
+
+import com.moneyops.transactions.repository.TransactionRepository;
+import com.moneyops.transactions.repository.TransactionRepositoryImpl;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Decimal128MoneyMigration and the $convert totals in TransactionRepository against a
+ * real MongoDB. Runs only when MONEYOPS_STRESS_MONGO_URI is set, e.g.
+ * mongodb://localhost:27017; it works in a throwaway database that is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "MONEYOPS_STRESS_MONGO_URI", matches = ".+")
+public class Decimal128MoneyMigrationTest {
+
+    private static final String ORG = "org-decimal";
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static String database;
+
+    @BeforeAll
+    public static void setUp() {
+        client = MongoClients.create(System.getenv("MONEYOPS_STRESS_MONGO_URI"));
+        database = "moneyops_decimal_" + UUID.randomUUID().toString().substring(0, 8);
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, database);
+
+        MongoCustomConversions conversions = new MongoConfig().customConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        mongoTemplate = new MongoTemplate(factory, converter);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (client != null) {
+            client.getDatabase(database).drop();
+            client.close();
+        }
+    }
+
+    @Test
+    public void testMigrationConvertsStringsAndTotalsSurviveBadAmounts() {
+        MongoCollection<Document> transactions = mongoTemplate.getCollection("transactions");
+        transactions.insertMany(List.of(
+                row("t1", "INCOME", "1000.10"),
+                row("t2", "EXPENSE", "0.10"),
+                row("t3", "EXPENSE", new Decimal128(new BigDecimal("0.20"))),
+                row("t4", "EXPENSE", "n/a"),
+                row("t5", "EXPENSE", null)));
+
+        Decimal128MoneyMigration migration = new Decimal128MoneyMigration(mongoTemplate);
+        ReflectionTestUtils.setField(migration, "enabled", true);
+        migration.migrate();
+
+        assertEquals(new Decimal128(new BigDecimal("1000.10")), amount(transactions, "t1"));
+        assertEquals(new Decimal128(new BigDecimal("0.10")), amount(transactions, "t2"));
+        assertEquals("n/a", amount(transactions, "t4"));   // unparseable values are left alone
+        assertNotNull(mongoTemplate.getCollection("schema_migrations")
+                .find(new Document("_id", Decimal128MoneyMigration.MIGRATION_ID)).first());
+
+        // The unparseable and missing amounts count as 0 instead of failing the aggregation
+        TransactionRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(TransactionRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new TransactionRepositoryImpl(mongoTemplate)));
+        Map<String, TransactionRepository.TypeTotal> totals = repository.sumByType(ORG).stream()
+                .collect(Collectors.toMap(TransactionRepository.TypeTotal::id, Function.identity()));
+        assertEquals(0, new BigDecimal("1000.10").compareTo(totals.get("INCOME").total()));
+        assertEquals(0, new BigDecimal("0.30").compareTo(totals.get("EXPENSE").total()));
+        assertEquals(4, totals.get("EXPENSE").count());
+    }
+
+    private static Document row(String id, String type, Object amount) {
+        return new Document("_id", id).append("orgId", ORG).append("type", type).append("amount", amount)
+                .append("deletedAt", null);
+    }
+
+    private static Object amount(MongoCollection<Document> transactions, String id) {
+        return transactions.find(new Document("_id", id)).first().get("amount");
+    }
+}
@@ -0,0 +1,62 @@
+// src/test/java/com/moneyops/config/MongoConfigConvertersTest.java
+package com.moneyops.config;
+
+import com.moneyops.transactions.entity.Transaction;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoConfigConvertersTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().customConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    public void testConvertersRoundTripExactly() {
+        BigDecimal amount = new BigDecimal("120.50");
+        Decimal128 stored = new MongoConfig.BigDecimalToDecimal128Converter().convert(amount);
+
+        assertEquals(new Decimal128(new BigDecimal("120.50")), stored);
+        BigDecimal read = new MongoConfig.Decimal128ToBigDecimalConverter().convert(stored);
+        assertEquals(amount, read);
+        assertEquals(2, read.scale());
+    }
+
+    @Test
+    public void testEntityAmountIsWrittenAsDecimal128() {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(new BigDecimal("0.10"));
+        Document document = new Document();
+
+        converter.write(transaction, document);
+
+        assertInstanceOf(Decimal128.class, document.get("amount"));
+        assertEquals(new BigDecimal("0.10"), converter.read(Transaction.class, document).getAmount());
+    }
+
+    @Test
+    public void testLegacyStringAmountStillReads() {
+        Document legacy = new Document("amount", "99.99");
+
+        assertEquals(new BigDecimal("99.99"), converter.read(Transaction.class, legacy).getAmount());
+    }
+}
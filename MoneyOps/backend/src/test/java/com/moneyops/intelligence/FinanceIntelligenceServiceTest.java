@@ -0,0 +1,156 @@
+// src/test/java/com/moneyops/intelligence/FinanceIntelligenceServiceTest.java
+package com.moneyops.intelligence;
+
+import com.moneyops.anomalies.AnomalyDetectionService;
+import com.moneyops.budgets.BudgetService;
+import com.moneyops.clients.service.ClientService;
+import com.moneyops.invoices.dto.InvoiceDto;
+import com.moneyops.invoices.service.InvoiceService;
+import com.moneyops.ledger.service.LedgerService;
+import com.moneyops.shared.utils.OrgContext;
+import com.moneyops.transactions.dto.TransactionDto;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import com.moneyops.transactions.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FinanceIntelligenceServiceTest {
+
+    private static final String ORG = "org-1";
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private CashFlowForecastService cashFlowForecastService;
+
+    @Mock
+    private BudgetService budgetService;
+
+    @Mock
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @InjectMocks
+    private FinanceIntelligenceService financeIntelligenceService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setUp() {
+        OrgContext.setOrgId(ORG);
+        LocalDate lastMonth = today.withDayOfMonth(1).minusDays(1);
+        when(transactionService.getAllTransactions(ORG)).thenReturn(List.of(
+                txn("INCOME", "1000", today),
+                txn("EXPENSE", "1500", today),
+                txn("INCOME", "400", lastMonth)));
+        when(invoiceService.getAllInvoices(ORG)).thenReturn(List.of(
+                invoice("PAID", "100"), invoice("OVERDUE", "250"), invoice("OVERDUE", "50"), invoice("SENT", "75")));
+
+        Transaction top = new Transaction();
+        top.setId("t-1");
+        top.setTransactionDate(today);
+        top.setType(TransactionType.EXPENSE);
+        top.setAmount(new BigDecimal("1500"));
+        when(ledgerService.getPage(ORG, 0, 500)).thenReturn(new LedgerService.LedgerPage(List.of(top), List.of(new BigDecimal("-100")), 3));
+        lenient().when(anomalyDetectionService.getRecentAnomalies(eq(ORG), any(), eq(5))).thenReturn(List.of());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        OrgContext.clear();
+    }
+
+    @Test
+    public void testDashboardComposesEveryViewFromOneLoad() {
+        BudgetService.BudgetLineDTO line = new BudgetService.BudgetLineDTO();
+        line.setCategory("RENT");
+        line.setBudgeted(new BigDecimal("2000"));
+        line.setActual(new BigDecimal("1500"));
+        line.setStatus("UNDER");
+        BudgetService.BudgetStatusDTO status = new BudgetService.BudgetStatusDTO();
+        status.getItems().add(line);
+        status.setTotalBudgeted(new BigDecimal("2000"));
+        status.setTotalActual(new BigDecimal("1500"));
+        when(budgetService.getStatus(ORG, today)).thenReturn(status);
+
+        FinanceIntelligenceService.DashboardDTO dashboard = financeIntelligenceService.getDashboard("biz-1", 10_000);
+
+        FinanceIntelligenceService.MetricsDTO metrics = dashboard.getMetrics();
+        assertEquals(new BigDecimal("1400"), metrics.getRevenue());
+        assertEquals(new BigDecimal("1500"), metrics.getExpenses());
+        assertEquals(new BigDecimal("-100"), metrics.getNetProfit());
+        assertEquals(4, metrics.getTotalInvoices());
+        assertEquals(2, metrics.getOverdueCount());
+        assertEquals(new BigDecimal("300"), metrics.getOverdueAmount());
+        assertEquals(25.0, metrics.getCollectionRate());
+
+        List<String> insights = dashboard.getInsights().getInsights().stream()
+                .map(FinanceIntelligenceService.InsightItemDTO::getTitle).collect(Collectors.toList());
+        assertEquals(List.of("Cash Flow Alert", "Collection Rate", "Revenue Growth", "High Expenses"), insights);
+
+        assertEquals(1, dashboard.getBudget().getItems().size());
+        assertEquals("RENT", dashboard.getBudget().getItems().get(0).getCategory());
+        assertEquals(new BigDecimal("2000"), dashboard.getBudget().getTotalBudgeted());
+
+        assertEquals(3, dashboard.getLedger().getTotalEntries());
+        assertEquals(new BigDecimal("-100"), dashboard.getLedger().getEntries().get(0).getBalance());
+
+        // One load per source, the ledger page clamped to 500 rows
+        verify(transactionService, times(1)).getAllTransactions(ORG);
+        verify(invoiceService, times(1)).getAllInvoices(ORG);
+        verify(ledgerService, times(1)).getPage(ORG, 0, 500);
+        verify(cashFlowForecastService, times(1)).getCachedForecast(ORG);
+    }
+
+    @Test
+    public void testFailedBudgetFetchLeavesTheOtherViews() {
+        when(budgetService.getStatus(ORG, today)).thenThrow(new IllegalStateException("budget store down"));
+
+        FinanceIntelligenceService.DashboardDTO dashboard = financeIntelligenceService.getDashboard("biz-1", 10_000);
+
+        assertTrue(dashboard.getBudget().getItems().isEmpty());
+        assertEquals(new BigDecimal("1400"), dashboard.getMetrics().getRevenue());
+        assertEquals(1, dashboard.getLedger().getEntries().size());
+    }
+
+    private static TransactionDto txn(String type, String amount, LocalDate date) {
+        TransactionDto t = new TransactionDto();
+        t.setType(type);
+        t.setAmount(new BigDecimal(amount));
+        t.setTransactionDate(date);
+        return t;
+    }
+
+    private static InvoiceDto invoice(String status, String total) {
+        InvoiceDto invoice = new InvoiceDto();
+        invoice.setStatus(status);
+        invoice.setTotalAmount(new BigDecimal(total));
+        return invoice;
+    }
+}
@@ -0,0 +1,124 @@
+// src/test/java/com/moneyops/intelligence/FinanceSeriesServiceTest.java
+package com.moneyops.intelligence;
+
+import com.moneyops.events.dto.EntityChangedEvent;
+import com.moneyops.intelligence.FinanceSeriesService.Granularity;
+import com.moneyops.organizations.repository.BusinessOrganizationRepository;
+import com.moneyops.shared.versioning.DataVersionService;
+import com.moneyops.transactions.repository.TransactionRepository;
+import com.moneyops.transactions.repository.TransactionRepository.PeriodKey;
+import com.moneyops.transactions.repository.TransactionRepository.PeriodTypeTotal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FinanceSeriesServiceTest {
+
+    private static final String ORG = "org-1";
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private BusinessOrganizationRepository orgRepository;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @InjectMocks
+    private FinanceSeriesService financeSeriesService;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(orgRepository.findByIdAndDeletedAtIsNull(ORG)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    public void testWeekAndMonthBucketBoundaries() {
+        // 2025-06-01 is a Sunday: it closes the week that began on Monday 26 May
+        assertEquals(LocalDate.of(2025, 5, 26), FinanceSeriesService.bucketStart(Granularity.WEEK, LocalDate.of(2025, 6, 1), 4));
+        assertEquals(LocalDate.of(2025, 6, 2), FinanceSeriesService.bucketStart(Granularity.WEEK, LocalDate.of(2025, 6, 2), 4));
+        assertEquals(LocalDate.of(2025, 6, 9), FinanceSeriesService.nextBucket(Granularity.WEEK, LocalDate.of(2025, 6, 2)));
+
+        assertEquals(LocalDate.of(2024, 2, 1), FinanceSeriesService.bucketStart(Granularity.MONTH, LocalDate.of(2024, 2, 29), 4));
+        assertEquals(LocalDate.of(2024, 3, 1), FinanceSeriesService.nextBucket(Granularity.MONTH, LocalDate.of(2024, 2, 1)));
+    }
+
+    @Test
+    public void testQuarterAndYearFollowFiscalYearStart() {
+        assertEquals(LocalDate.of(2026, 1, 1), FinanceSeriesService.bucketStart(Granularity.QUARTER, LocalDate.of(2026, 3, 31), 4));
+        assertEquals(LocalDate.of(2026, 4, 1), FinanceSeriesService.bucketStart(Granularity.QUARTER, LocalDate.of(2026, 4, 1), 4));
+        assertEquals(LocalDate.of(2025, 4, 1), FinanceSeriesService.bucketStart(Granularity.YEAR, LocalDate.of(2026, 3, 31), 4));
+        // July fiscal year
+        assertEquals(LocalDate.of(2025, 7, 1), FinanceSeriesService.bucketStart(Granularity.YEAR, LocalDate.of(2026, 6, 30), 7));
+        assertEquals(LocalDate.of(2026, 4, 1), FinanceSeriesService.bucketStart(Granularity.QUARTER, LocalDate.of(2026, 6, 30), 7));
+        assertEquals(LocalDate.of(2026, 7, 1), FinanceSeriesService.nextBucket(Granularity.QUARTER, LocalDate.of(2026, 4, 1)));
+    }
+
+    @Test
+    public void testQuartersFoldWholeMonthsAndReuseTheCache() {
+        when(dataVersionService.version(ORG, EntityChangedEvent.TRANSACTION)).thenReturn(7L);
+        when(transactionRepository.sumByPeriodAndType(eq(ORG), eq("month"),
+                eq(LocalDate.of(2025, 4, 1)), eq(LocalDate.of(2025, 10, 1)), anyString())).thenReturn(List.of(
+                row(LocalDate.of(2025, 4, 1), "INCOME", "100.00", 1),
+                row(LocalDate.of(2025, 6, 1), "EXPENSE", "40.00", 2),
+                row(LocalDate.of(2025, 7, 1), "INCOME", "10.00", 1),
+                row(LocalDate.of(2025, 9, 1), "EXPENSE", "5.00", 1),
+                row(LocalDate.of(2025, 9, 1), "TRANSFER", "99.00", 1)));
+
+        // Mid-month bounds still cover the whole first and last quarter
+        FinanceSeriesService.SeriesDTO series = financeSeriesService.getSeries(ORG, "quarter",
+                LocalDate.of(2025, 4, 10), LocalDate.of(2025, 9, 20));
+
+        assertEquals(2, series.getPoints().size());
+        FinanceSeriesService.SeriesPointDTO first = series.getPoints().get(0);
+        assertEquals("2025-04-01", first.getPeriodStart());
+        assertEquals("2025-06-30", first.getPeriodEnd());
+        assertEquals(new BigDecimal("100.00"), first.getIncome());
+        assertEquals(new BigDecimal("40.00"), first.getExpenses());
+        assertEquals(new BigDecimal("60.00"), first.getNet());
+        assertEquals(3, first.getTransactionCount());
+        assertTrue(first.isClosed());
+        FinanceSeriesService.SeriesPointDTO second = series.getPoints().get(1);
+        assertEquals("2025-07-01", second.getPeriodStart());
+        assertEquals(new BigDecimal("5.00"), second.getNet());
+        assertEquals(3, second.getTransactionCount());   // the transfer counts but moves no totals
+
+        // Same data version: every month is served from the cache
+        financeSeriesService.getSeries(ORG, "quarter", LocalDate.of(2025, 4, 1), LocalDate.of(2025, 9, 30));
+        verify(transactionRepository, times(1)).sumByPeriodAndType(anyString(), anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    public void testNewDataVersionDropsCachedBuckets() {
+        when(dataVersionService.version(ORG, EntityChangedEvent.TRANSACTION)).thenReturn(1L, 2L);
+        when(transactionRepository.sumByPeriodAndType(eq(ORG), eq("month"), any(), any(), anyString()))
+                .thenReturn(List.of(row(LocalDate.of(2025, 1, 1), "INCOME", "10.00", 1)))
+                .thenReturn(List.of(row(LocalDate.of(2025, 1, 1), "INCOME", "25.00", 2)));
+
+        financeSeriesService.getSeries(ORG, "month", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31));
+        FinanceSeriesService.SeriesDTO series = financeSeriesService.getSeries(ORG, "month",
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31));
+
+        assertEquals(new BigDecimal("25.00"), series.getPoints().get(0).getIncome());
+        verify(transactionRepository, times(2)).sumByPeriodAndType(anyString(), anyString(), any(), any(), anyString());
+    }
+
+    private static PeriodTypeTotal row(LocalDate period, String type, String total, long count) {
+        return new PeriodTypeTotal(new PeriodKey(period, type), new BigDecimal(total), count);
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moneyops.invoices.dto.InvoiceDto;
 import com.moneyops.invoices.service.InvoiceService;
 import com.moneyops.shared.utils.OrgContext;
+import com.moneyops.shared.versioning.DataVersionService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,12 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -47,6 +50,9 @@ public class InvoiceControllerTest {
     @MockBean
     private InvoiceService invoiceService;
 
+    @MockBean
+    private DataVersionService dataVersionService;
+
     @MockBean
     private JwtProvider jwtProvider;
 
@@ -77,6 +83,8 @@ public class InvoiceControllerTest {
         userId = UUID.randomUUID().toString();
         OrgContext.setOrgId(orgId);
         OrgContext.setUserId(userId);
+        when(dataVersionService.conditional(any(), any(), any()))
+                .thenAnswer(call -> ResponseEntity.ok(call.<Supplier<?>>getArgument(2).get()));
     }
 
     @AfterEach
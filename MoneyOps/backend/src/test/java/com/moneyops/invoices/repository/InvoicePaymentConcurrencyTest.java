@@ -0,0 +1,158 @@
+// src/test/java/com/moneyops/invoices/repository/InvoicePaymentConcurrencyTest.java
+package com.moneyops.invoices.repository;
+
+import com.moneyops.config.MongoConfig;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceStatus;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress harness for InvoiceRepositoryImpl.applyPayment against a real MongoDB.
+ * Runs only when MONEYOPS_STRESS_MONGO_URI is set, e.g. mongodb://localhost:27017;
+ * it works in a throwaway database that is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "MONEYOPS_STRESS_MONGO_URI", matches = ".+")
+public class InvoicePaymentConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static InvoiceRepositoryImpl repository;
+    private static String database;
+
+    @BeforeAll
+    public static void setUp() {
+        client = MongoClients.create(System.getenv("MONEYOPS_STRESS_MONGO_URI"));
+        database = "moneyops_stress_" + UUID.randomUUID().toString().substring(0, 8);
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, database);
+
+        MongoCustomConversions conversions = new MongoConfig().customConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        mongoTemplate = new MongoTemplate(factory, converter);
+        repository = new InvoiceRepositoryImpl(mongoTemplate);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (client != null) {
+            client.getDatabase(database).drop();
+            client.close();
+        }
+    }
+
+    private Invoice seed(String totalAmount, InvoiceStatus status) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID().toString());
+        invoice.setOrgId("org-stress");
+        invoice.setInvoiceNumber("INV-STRESS");
+        invoice.setStatus(status);
+        invoice.setTotalAmount(new BigDecimal(totalAmount));
+        invoice.setAmountPaid(BigDecimal.ZERO);
+        invoice.setBalanceDue(new BigDecimal(totalAmount));
+        return mongoTemplate.insert(invoice);
+    }
+
+    /** Fires every payment id {@code attempts} times from THREADS threads at once; returns how many applied. */
+    private int pay(Invoice invoice, int payments, int attempts, BigDecimal amount) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                for (int i = 0; i < payments; i++) {
+                    String paymentId = "pay-" + i;
+                    long seq = attempt * (long) payments + i + 1;
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return repository.applyPayment(invoice.getId(), invoice.getOrgId(), paymentId, amount, LocalDate.now(), seq) != null;
+                    }));
+                }
+            }
+            start.countDown();
+            int applied = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) applied++;
+            }
+            return applied;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentPartialPaymentsAreNotLost() throws Exception {
+        Invoice invoice = seed("1000.00", InvoiceStatus.DRAFT);
+
+        int applied = pay(invoice, 400, 1, new BigDecimal("1.25"));
+
+        Invoice stored = mongoTemplate.findById(invoice.getId(), Invoice.class);
+        assertEquals(400, applied);
+        assertEquals(0, new BigDecimal("500.00").compareTo(stored.getAmountPaid()));
+        assertEquals(0, new BigDecimal("500.00").compareTo(stored.getBalanceDue()));
+        assertEquals(InvoiceStatus.SENT, stored.getStatus());
+        assertEquals(400L, stored.getVersion());
+        assertEquals(400, new HashSet<>(stored.getAppliedPaymentIds()).size());
+    }
+
+    @Test
+    public void testRetriedPaymentsApplyOnceAndStopAtPaid() throws Exception {
+        Invoice invoice = seed("300.00", InvoiceStatus.SENT);
+
+        // 500 distinct payments of 1.00, each sent twice; only the first 300 distinct ones fit.
+        int applied = pay(invoice, 500, 2, BigDecimal.ONE);
+
+        Invoice stored = mongoTemplate.findById(invoice.getId(), Invoice.class);
+        assertEquals(300, applied);
+        assertEquals(0, new BigDecimal("300.00").compareTo(stored.getAmountPaid()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(stored.getBalanceDue()));
+        assertEquals(InvoiceStatus.PAID, stored.getStatus());
+        assertEquals(LocalDate.now(), stored.getPaymentDate());
+        assertEquals(300L, stored.getVersion());
+        assertEquals(300, new HashSet<>(stored.getAppliedPaymentIds()).size());
+    }
+
+    @Test
+    public void testStaleSaveLosesToPayment() {
+        Invoice invoice = seed("100.00", InvoiceStatus.SENT);
+        Invoice stale = mongoTemplate.findById(invoice.getId(), Invoice.class);
+
+        assertNotNull(repository.applyPayment(invoice.getId(), invoice.getOrgId(), "pay-1", new BigDecimal("40"), LocalDate.now(), 1));
+        stale.setNotes("edited from a stale read");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> mongoTemplate.save(stale));
+        Invoice stored = mongoTemplate.findById(invoice.getId(), Invoice.class);
+        assertEquals(0, new BigDecimal("40").compareTo(stored.getAmountPaid()));
+    }
+}
@@ -0,0 +1,47 @@
+// src/test/java/com/moneyops/invoices/service/InvoiceNumberFormatTest.java
+package com.moneyops.invoices.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoiceNumberFormatTest {
+
+    @Test
+    public void testDefaultFormatFollowsFinancialYear() {
+        InvoiceNumberFormat format = InvoiceNumberFormat.DEFAULT;
+        assertEquals("INV-2026-27-00042", format.format(LocalDate.of(2026, 4, 1), 4, 42));
+        assertEquals("INV-2025-26-00001", format.format(LocalDate.of(2026, 3, 31), 4, 1));
+        assertEquals("2026-27", format.scope(LocalDate.of(2027, 2, 10), 4));
+        assertEquals("2025-26", format.scope(LocalDate.of(2026, 3, 31), 4));
+    }
+
+    @Test
+    public void testCustomTokens() {
+        InvoiceNumberFormat format = InvoiceNumberFormat.parse("ACME/{FY2}/{MM}/{SEQ}");
+        assertEquals("ACME/26-27/05/123456", format.format(LocalDate.of(2026, 5, 9), 4, 123456));
+
+        InvoiceNumberFormat calendar = InvoiceNumberFormat.parse("{FY}-{SEQ:3}");
+        assertEquals("2026-007", calendar.format(LocalDate.of(2026, 12, 1), 1, 7));
+        assertEquals("2026", calendar.scope(LocalDate.of(2026, 12, 1), 1));
+    }
+
+    @Test
+    public void testPatternWithoutFinancialYearNeverRestarts() {
+        InvoiceNumberFormat format = InvoiceNumberFormat.parse("{YYYY}-{SEQ:4}");
+        assertEquals(format.scope(LocalDate.of(2025, 6, 1), 4), format.scope(LocalDate.of(2027, 6, 1), 4));
+        assertEquals("2027-10000", format.format(LocalDate.of(2027, 6, 1), 4, 10000));
+    }
+
+    @Test
+    public void testRejectsMalformedPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> InvoiceNumberFormat.parse("INV-{FY}"));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceNumberFormat.parse("{SEQ}-{SEQ}"));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceNumberFormat.parse("INV {SEQ}"));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceNumberFormat.parse("INV-{SEQ:0}"));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceNumberFormat.parse("INV-{DATE}-{SEQ}"));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceNumberFormat.parse("INV-{SEQ"));
+    }
+}
@@ -9,6 +9,7 @@ import com.moneyops.invoices.repository.InvoiceRepository;
 import com.moneyops.invoices.validator.InvoiceValidator;
 import com.moneyops.clients.repository.ClientRepository;
 import com.moneyops.clients.mapper.ClientMapper;
+import com.moneyops.clients.service.ClientSearchIndex;
 import com.moneyops.audit.service.AuditLogService;
 import com.moneyops.transactions.service.TransactionService;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -50,6 +52,12 @@ public class InvoiceServiceTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private ClientSearchIndex clientSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InvoiceService invoiceService;
 
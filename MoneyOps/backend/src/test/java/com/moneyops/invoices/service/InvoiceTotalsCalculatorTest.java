@@ -0,0 +1,100 @@
+// src/test/java/com/moneyops/invoices/service/InvoiceTotalsCalculatorTest.java
+package com.moneyops.invoices.service;
+
+import com.moneyops.invoices.dto.InvoiceDto;
+import com.moneyops.invoices.dto.InvoiceItemDto;
+import com.moneyops.invoices.entity.Invoice;
+import com.moneyops.invoices.entity.InvoiceItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoiceTotalsCalculatorTest {
+
+    @Test
+    public void testLineAndInvoiceTotals() {
+        Invoice invoice = new Invoice();
+        invoice.setItems(List.of(
+                item(InvoiceItem.ItemType.PRODUCT, 3, "199.99", "18"),
+                item(InvoiceItem.ItemType.SERVICE, null, "1000", "12.5")));
+        invoice.setAmountPaid(new BigDecimal("100"));
+
+        InvoiceTotalsCalculator.computeTotals(invoice);
+
+        InvoiceItem product = invoice.getItems().get(0);
+        assertEquals(0, new BigDecimal("599.97").compareTo(product.getLineSubtotal()));
+        assertEquals(0, new BigDecimal("107.99").compareTo(product.getLineGst()));   // 107.9946
+        assertEquals(0, new BigDecimal("707.96").compareTo(product.getLineTotal()));
+        assertEquals(0, new BigDecimal("1599.97").compareTo(invoice.getSubtotal()));
+        assertEquals(0, new BigDecimal("232.99").compareTo(invoice.getGstTotal()));
+        assertEquals(0, new BigDecimal("1832.96").compareTo(invoice.getTotalAmount()));
+        assertEquals(0, new BigDecimal("1732.96").compareTo(invoice.getBalanceDue()));
+    }
+
+    @Test
+    public void testHalfUpRounding() {
+        Invoice invoice = new Invoice();
+        invoice.setItems(List.of(item(InvoiceItem.ItemType.SERVICE, null, "0.25", "2")));   // GST 0.005
+        InvoiceTotalsCalculator.computeTotals(invoice);
+        assertEquals(0, new BigDecimal("0.01").compareTo(invoice.getGstTotal()));
+    }
+
+    @Test
+    public void testFinePrecisionFallsBackToBigDecimal() {
+        Invoice invoice = new Invoice();
+        invoice.setItems(List.of(
+                item(InvoiceItem.ItemType.PRODUCT, 2, "10.00", "18"),
+                item(InvoiceItem.ItemType.PRODUCT, 3, "0.3333", "5")));
+        InvoiceTotalsCalculator.computeTotals(invoice);
+        assertEquals(0, new BigDecimal("20.9999").compareTo(invoice.getSubtotal()));
+        assertEquals(0, new BigDecimal("3.65").compareTo(invoice.getGstTotal()));
+        assertEquals(0, new BigDecimal("24.6499").compareTo(invoice.getTotalAmount()));
+    }
+
+    @Test
+    public void testMatchesBigDecimalReference() {
+        Random random = new Random(7);
+        String[] gstRates = {"0", "5", "12", "18", "28", "0.25", "3"};
+        for (int round = 0; round < 200; round++) {
+            InvoiceDto dto = new InvoiceDto();
+            List<InvoiceItemDto> items = new ArrayList<>();
+            BigDecimal subtotal = BigDecimal.ZERO;
+            BigDecimal gst = BigDecimal.ZERO;
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                InvoiceItemDto item = new InvoiceItemDto();
+                boolean service = random.nextBoolean();
+                item.setType(service ? "SERVICE" : "PRODUCT");
+                item.setQuantity(service ? null : 1 + random.nextInt(500));
+                item.setRate(BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+                item.setGstPercent(new BigDecimal(gstRates[random.nextInt(gstRates.length)]));
+                items.add(item);
+
+                BigDecimal line = item.getRate().multiply(BigDecimal.valueOf(service ? 1 : item.getQuantity()));
+                subtotal = subtotal.add(line);
+                gst = gst.add(line.multiply(item.getGstPercent()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+            }
+            dto.setItems(items);
+
+            InvoiceTotalsCalculator.computeTotals(dto);
+
+            assertEquals(0, subtotal.compareTo(dto.getSubtotal()));
+            assertEquals(0, gst.compareTo(dto.getGstTotal()));
+            assertEquals(0, subtotal.add(gst).compareTo(dto.getTotalAmount()));
+        }
+    }
+
+    private static InvoiceItem item(InvoiceItem.ItemType type, Integer quantity, String rate, String gstPercent) {
+        InvoiceItem item = new InvoiceItem();
+        item.setType(type);
+        item.setQuantity(quantity);
+        item.setRate(new BigDecimal(rate));
+        item.setGstPercent(new BigDecimal(gstPercent));
+        return item;
+    }
+}
@@ -0,0 +1,128 @@
+// src/test/java/com/moneyops/ledger/service/LedgerServiceTest.java
+package com.moneyops.ledger.service;
+
+import com.moneyops.ledger.entity.LedgerBalance;
+import com.moneyops.ledger.entity.LedgerCheckpoint;
+import com.moneyops.sync.Materialization;
+import com.moneyops.sync.MaterializationService;
+import com.moneyops.transactions.entity.Transaction;
+import com.moneyops.transactions.entity.TransactionType;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Running balances on a ledger page, from the org balance, the checkpoints after the
+ * page's first day and the newer entries of that same day.
+ *
+ * History, newest first (balance 1000 over 6 entries):
+ *   03-03 t6 +100 | 03-02 t5 -30, t4 +200, t3 -50 | 03-01 t2 +500, t1 +280
+ */
+@ExtendWith(MockitoExtension.class)
+public class LedgerServiceTest {
+
+    private static final String ORG = "org-1";
+    private static final LocalDate DAY_1 = LocalDate.of(2026, 3, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2026, 3, 2);
+    private static final LocalDate DAY_3 = LocalDate.of(2026, 3, 3);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MaterializationService materializationService;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private final Transaction t6 = transaction("t6", DAY_3, TransactionType.INCOME, "100");
+    private final Transaction t5 = transaction("t5", DAY_2, TransactionType.EXPENSE, "30");
+    private final Transaction t4 = transaction("t4", DAY_2, TransactionType.INCOME, "200");
+    private final Transaction t3 = transaction("t3", DAY_2, TransactionType.EXPENSE, "50");
+
+    @BeforeEach
+    public void setUp() {
+        Materialization state = new Materialization();
+        state.setOrgId(ORG);
+        state.setGeneration(2L);
+        when(materializationService.ensure(eq("ledger"), eq(ORG), any())).thenReturn(state);
+        LedgerBalance balance = new LedgerBalance();
+        balance.setId(ORG + ":2");
+        balance.setOrgId(ORG);
+        balance.setGeneration(2);
+        balance.setBalance(new BigDecimal("1000"));
+        balance.setEntries(6);
+        when(mongoTemplate.findById(ORG + ":2", LedgerBalance.class)).thenReturn(balance);
+    }
+
+    @Test
+    public void testFirstPageStartsAtTheOrgBalance() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(t6, t5));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(LedgerCheckpoint.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        LedgerService.LedgerPage page = ledgerService.getPage(ORG, 0, 2);
+
+        assertEquals(List.of(new BigDecimal("1000"), new BigDecimal("900")), page.balances());
+        assertEquals(6, page.totalEntries());
+        // No newer entries on the first day, so no same-day lookup
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Transaction.class));
+    }
+
+    @Test
+    public void testDeeperPageSubtractsLaterCheckpointsAndNewerSameDayEntries() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            return query.getQueryObject().containsKey("transactionDate") ? List.of(t5) : List.of(t4, t3);
+        });
+        Document laterDays = new Document("net", new Decimal128(new BigDecimal("100"))).append("entries", 1L);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(LedgerCheckpoint.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(laterDays), new Document()));
+
+        LedgerService.LedgerPage page = ledgerService.getPage(ORG, 1, 2);
+
+        // 280 + 500 - 50 + 200 after t4, then 280 + 500 - 50 after t3
+        assertEquals(List.of(new BigDecimal("930"), new BigDecimal("730")), page.balances());
+
+        ArgumentCaptor<Aggregation> checkpoints = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(checkpoints.capture(), eq(LedgerCheckpoint.class), eq(Document.class));
+        Document match = checkpoints.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$match", Document.class);
+        assertEquals(2L, match.get("generation"));
+        assertEquals(DAY_2, match.get("date", Document.class).get("$gt"));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Transaction.class));
+        Query sameDay = queries.getAllValues().get(1);
+        assertEquals(DAY_2, sameDay.getQueryObject().get("transactionDate"));
+        assertEquals(1, sameDay.getLimit());   // page offset 2 minus the one entry on later days
+    }
+
+    private static Transaction transaction(String id, LocalDate date, TransactionType type, String amount) {
+        Transaction t = new Transaction();
+        t.setId(id);
+        t.setOrgId(ORG);
+        t.setTransactionDate(date);
+        t.setType(type);
+        t.setAmount(new BigDecimal(amount));
+        return t;
+    }
+}
@@ -0,0 +1,53 @@
+package com.moneyops.memory.service;
+
+import com.moneyops.memory.entity.OrgMemoryItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryTokenizerTest {
+
+    @Test
+    public void testStemmingAlignsInflections() {
+        assertEquals(MemoryTokenizer.stem("invoice"), MemoryTokenizer.stem("invoices"));
+        assertEquals(MemoryTokenizer.stem("invoice"), MemoryTokenizer.stem("invoiced"));
+        assertEquals(MemoryTokenizer.stem("invoice"), MemoryTokenizer.stem("invoicing"));
+        assertEquals(MemoryTokenizer.stem("payment"), MemoryTokenizer.stem("payments"));
+    }
+
+    @Test
+    public void testTokensSkipShortWords() {
+        assertEquals(List.of("pay", "gst", "monthly"), MemoryTokenizer.tokens("Pay GST, monthly!"));
+        assertTrue(MemoryTokenizer.tokens("a of to").isEmpty());
+    }
+
+    @Test
+    public void testTagsWeighMoreThanContent() {
+        Map<String, Integer> freqs = MemoryTokenizer.termFreqs("preference", "Client prefers email", List.of("email"));
+        assertEquals(MemoryTokenizer.CONTENT_WEIGHT + MemoryTokenizer.TAG_WEIGHT, freqs.get("email"));
+    }
+
+    @Test
+    public void testBm25PrefersRarerTermMatches() {
+        OrgMemoryItem rare = item("Acme pays invoices late");
+        OrgMemoryItem common = item("Invoices are sent monthly");
+        List<String> query = MemoryTokenizer.tokens("acme invoices");
+        Map<String, Integer> docFreq = Map.of("acme", 1, "invoic", 2);
+
+        double rareScore = OrgMemoryService.bm25(rare, query, docFreq, 10, 4);
+        double commonScore = OrgMemoryService.bm25(common, query, docFreq, 10, 4);
+        assertTrue(rareScore > commonScore);
+    }
+
+    private OrgMemoryItem item(String content) {
+        OrgMemoryItem item = new OrgMemoryItem();
+        Map<String, Integer> freqs = MemoryTokenizer.termFreqs("fact", content, List.of());
+        item.setContent(content);
+        item.setTermFreqs(freqs);
+        item.setLength(freqs.values().stream().mapToInt(Integer::intValue).sum());
+        return item;
+    }
+}
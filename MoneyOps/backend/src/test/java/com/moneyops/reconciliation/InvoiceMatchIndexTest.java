@@ -0,0 +1,72 @@
+// src/test/java/com/moneyops/reconciliation/InvoiceMatchIndexTest.java
+package com.moneyops.reconciliation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoiceMatchIndexTest {
+
+    private static final LocalDate ISSUED = LocalDate.of(2025, 3, 1);
+    private static final LocalDate DUE = LocalDate.of(2025, 3, 31);
+
+    private static InvoiceMatchIndex.OpenInvoice invoice(String id, String number, String clientId, String clientName, String balance) {
+        return new InvoiceMatchIndex.OpenInvoice(id, number, clientId, clientName, "INR", new BigDecimal(balance), ISSUED, DUE);
+    }
+
+    private static InvoiceMatchIndex.Payment payment(String amount, String text) {
+        return new InvoiceMatchIndex.Payment("t1", new BigDecimal(amount), "INR", LocalDate.of(2025, 3, 20), null, text);
+    }
+
+    private static InvoiceMatchIndex index() {
+        InvoiceMatchIndex index = new InvoiceMatchIndex();
+        index.put(invoice("a", "INV-2025-0042", "c1", "Acme Traders", "11800.00"));
+        index.put(invoice("b", "INV-2025-0043", "c2", "Globex", "11800.00"));
+        index.put(invoice("c", "INV-2025-0044", "c3", "Initech", "5000.00"));
+        return index;
+    }
+
+    @Test
+    public void testReferenceAndExactAmountRankFirst() {
+        List<InvoiceMatchIndex.Candidate> candidates = index().candidates(payment("11800", "NEFT/ACME TRADERS/INV-2025-0042"));
+
+        assertEquals("a", candidates.get(0).invoice().id());
+        assertEquals(InvoiceMatchIndex.REFERENCE_FULL + InvoiceMatchIndex.AMOUNT_EXACT + InvoiceMatchIndex.SAME_CLIENT
+                + InvoiceMatchIndex.DATE_CLOSE, candidates.get(0).score());
+        assertEquals("b", candidates.get(1).invoice().id());
+        assertEquals(InvoiceMatchIndex.AMOUNT_EXACT + InvoiceMatchIndex.DATE_CLOSE, candidates.get(1).score());
+    }
+
+    @Test
+    public void testNumericReferenceAndPartialPayment() {
+        List<InvoiceMatchIndex.Candidate> candidates = index().candidates(payment("2000", "UPI 20250044 part payment"));
+
+        assertEquals(1, candidates.size());
+        assertEquals("c", candidates.get(0).invoice().id());
+        assertTrue(candidates.get(0).reasons().contains("REFERENCE_NUMBER"));
+        assertTrue(candidates.get(0).reasons().contains("PARTIAL_AMOUNT"));
+    }
+
+    @Test
+    public void testAmountOnlyMatchIsAmbiguousAndOverpaymentExcluded() {
+        InvoiceMatchIndex index = index();
+        assertEquals(2, index.candidates(payment("11800.0", "CREDIT")).size());
+        assertTrue(index.candidates(payment("6000", "INV-2025-0044")).isEmpty());
+    }
+
+    @Test
+    public void testPutAndRemoveKeepBucketsCurrent() {
+        InvoiceMatchIndex index = index();
+        index.remove("a");
+        index.put(invoice("b", "INV-2025-0043", "c2", "Globex", "800.00"));
+
+        assertTrue(index.candidates(payment("11800", "CREDIT")).isEmpty());
+        assertEquals("b", index.candidates(payment("800", "CREDIT")).get(0).invoice().id());
+        index.put(invoice("b", "INV-2025-0043", "c2", "Globex", "0"));
+        assertEquals(1, index.size());
+    }
+}
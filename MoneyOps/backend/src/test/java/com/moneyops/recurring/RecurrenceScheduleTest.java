@@ -0,0 +1,48 @@
+// src/test/java/com/moneyops/recurring/RecurrenceScheduleTest.java
+package com.moneyops.recurring;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static com.moneyops.recurring.RecurringInvoiceTemplate.Frequency.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceScheduleTest {
+
+    @Test
+    public void testFirstOccurrence() {
+        assertEquals(LocalDate.of(2026, 1, 15), RecurrenceSchedule.first(MONTHLY, 15, LocalDate.of(2026, 1, 10)));
+        assertEquals(LocalDate.of(2026, 2, 5), RecurrenceSchedule.first(MONTHLY, 5, LocalDate.of(2026, 1, 10)));
+        assertEquals(LocalDate.of(2026, 2, 28), RecurrenceSchedule.first(MONTHLY, 31, LocalDate.of(2026, 2, 1)));
+        // 2026-01-10 is a Saturday; anchor Monday
+        assertEquals(LocalDate.of(2026, 1, 12), RecurrenceSchedule.first(WEEKLY, 1, LocalDate.of(2026, 1, 10)));
+        assertEquals(LocalDate.of(2026, 1, 10), RecurrenceSchedule.first(WEEKLY, 6, LocalDate.of(2026, 1, 10)));
+    }
+
+    @Test
+    public void testMonthEndAnchorDoesNotDrift() {
+        LocalDate first = LocalDate.of(2026, 1, 31);
+        assertEquals(LocalDate.of(2026, 2, 28), RecurrenceSchedule.occurrence(MONTHLY, 1, 31, first, 1));
+        assertEquals(LocalDate.of(2026, 3, 31), RecurrenceSchedule.occurrence(MONTHLY, 1, 31, first, 2));
+        assertEquals(LocalDate.of(2026, 4, 30), RecurrenceSchedule.occurrence(MONTHLY, 1, 31, first, 3));
+        assertEquals(LocalDate.of(2028, 2, 29), RecurrenceSchedule.occurrence(MONTHLY, 1, 31, first, 25));
+    }
+
+    @Test
+    public void testIntervals() {
+        LocalDate first = LocalDate.of(2026, 4, 1);
+        assertEquals(LocalDate.of(2026, 6, 1), RecurrenceSchedule.occurrence(MONTHLY, 2, 1, first, 1));
+        assertEquals(LocalDate.of(2026, 10, 1), RecurrenceSchedule.occurrence(QUARTERLY, 1, 1, first, 2));
+        assertEquals(LocalDate.of(2028, 4, 1), RecurrenceSchedule.occurrence(YEARLY, 1, 1, first, 2));
+        assertEquals(LocalDate.of(2026, 4, 29), RecurrenceSchedule.occurrence(WEEKLY, 2, 3, first, 2));
+    }
+
+    @Test
+    public void testAnchorValidation() {
+        assertTrue(RecurrenceSchedule.validAnchor(WEEKLY, 7));
+        assertFalse(RecurrenceSchedule.validAnchor(WEEKLY, 8));
+        assertTrue(RecurrenceSchedule.validAnchor(MONTHLY, 31));
+        assertFalse(RecurrenceSchedule.validAnchor(YEARLY, 0));
+    }
+}
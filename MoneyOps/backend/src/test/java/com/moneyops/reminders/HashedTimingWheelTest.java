@@ -0,0 +1,77 @@
+// src/test/java/com/moneyops/reminders/HashedTimingWheelTest.java
+package com.moneyops.reminders;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    @Test
+    public void testFiresAtDeadline() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1000, 8, 0);
+        wheel.schedule("a", 3_500);
+        wheel.schedule("b", 5_000);
+
+        assertTrue(wheel.advance(2_999).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(3_999));
+        assertTrue(wheel.advance(4_999).isEmpty());
+        assertEquals(List.of("b"), wheel.advance(5_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneTurn() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1000, 8, 0);
+        wheel.schedule("near", 2_000);
+        wheel.schedule("far", 2_000 + 8_000 * 3);   // same slot, three turns later
+
+        assertEquals(List.of("near"), wheel.advance(2_000));
+        assertTrue(wheel.advance(2_000 + 8_000 * 3 - 1).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(2_000 + 8_000 * 3));
+    }
+
+    @Test
+    public void testCancelAndReschedule() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1000, 8, 0);
+        wheel.schedule("a", 2_000);
+        wheel.schedule("b", 2_000);
+        wheel.schedule("c", 2_000);
+
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+        wheel.schedule("c", 6_000);   // moves, does not duplicate
+        assertEquals(2, wheel.size());
+
+        assertEquals(List.of("a"), wheel.advance(5_000));
+        assertEquals(List.of("c"), wheel.advance(6_000));
+        assertFalse(wheel.contains("c"));
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextAdvance() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1000, 8, 10_000);
+        wheel.schedule("late", 1_000);
+        assertEquals(List.of("late"), wheel.advance(10_000));
+    }
+
+    @Test
+    public void testCatchesUpAfterLongPause() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1000, 4, 0);
+        for (int i = 0; i < 20; i++) {
+            wheel.schedule("k" + i, i * 1_000L);
+        }
+        assertEquals(20, wheel.advance(60_000).size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testSlotsRoundUpToPowerOfTwo() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1000, 5, 0);
+        wheel.schedule("a", 7_000);   // slot 7 of 8; would alias slot 2 of 5
+        assertTrue(wheel.advance(6_999).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(7_000));
+    }
+}
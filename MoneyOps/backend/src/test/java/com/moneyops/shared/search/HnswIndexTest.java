@@ -0,0 +1,113 @@
+// src/test/java/com/moneyops/shared/search/HnswIndexTest.java
+package com.moneyops.shared.search;
+
+import com.moneyops.memory.embedding.HashedNgramEmbedding;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HnswIndexTest {
+
+    private static final String[] SUBJECTS = {"Acme", "Globex", "Initech", "Umbrella", "Wayne", "Stark", "Hooli", "Vandelay"};
+    private static final String[] TOPICS = {"invoices", "payments", "GST filing", "payroll", "rent", "cloud hosting",
+            "travel expenses", "refunds", "discounts", "purchase orders", "salaries", "bank charges"};
+    private static final String[] QUALIFIERS = {"are usually late", "arrive every month", "need approval",
+            "go to the finance lead", "are paid in advance", "are disputed often", "are reviewed quarterly",
+            "should be emailed", "are settled by cheque", "must include a PO number"};
+
+    private final HashedNgramEmbedding embedding = new HashedNgramEmbedding(256);
+
+    @Test
+    public void testFindsSynonymousMemory() {
+        HnswIndex index = new HnswIndex(embedding.dimensions());
+        index.add("m1", embedding.embed("Supplier dues are delayed every quarter"));
+        index.add("m2", embedding.embed("Office rent is paid on the first"));
+        index.add("m3", embedding.embed("Customer prefers invoices by email"));
+
+        List<HnswIndex.Hit> hits = index.search(embedding.embed("vendor payments late"), 1, 16);
+        assertEquals("m1", hits.get(0).key());
+    }
+
+    @Test
+    public void testRemovedEntriesAreNotReturned() {
+        HnswIndex index = new HnswIndex(embedding.dimensions());
+        index.add("m1", embedding.embed("Acme pays invoices late"));
+        index.add("m2", embedding.embed("Globex pays invoices early"));
+        index.remove("m1");
+
+        List<HnswIndex.Hit> hits = index.search(embedding.embed("Acme pays invoices late"), 2, 16);
+        assertEquals(List.of("m2"), hits.stream().map(HnswIndex.Hit::key).toList());
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Recall/latency check at 10k memories per org: HNSW top-10 vs the exact scan,
+     * and query time vs the old per-call substring scorer over the same corpus.
+     * Takes several seconds, so it runs only when MONEYOPS_BENCHMARKS is set.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "MONEYOPS_BENCHMARKS", matches = ".+")
+    public void testRecallAndLatencyAt10kMemories() {
+        Random random = new Random(7);
+        List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            corpus.add(SUBJECTS[random.nextInt(SUBJECTS.length)] + " " + TOPICS[random.nextInt(TOPICS.length)] + " "
+                    + QUALIFIERS[random.nextInt(QUALIFIERS.length)] + " ref " + i);
+        }
+
+        HnswIndex index = new HnswIndex(embedding.dimensions());
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < corpus.size(); i++) {
+            index.add("m" + i, embedding.embed(corpus.get(i)));
+        }
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        int queries = 200;
+        int k = 10;
+        double recallSum = 0;
+        long annNanos = 0;
+        long substringNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            String query = SUBJECTS[random.nextInt(SUBJECTS.length)] + " " + TOPICS[random.nextInt(TOPICS.length)];
+            float[] vector = embedding.embed(query);
+
+            long t0 = System.nanoTime();
+            List<HnswIndex.Hit> approx = index.search(vector, k, 100);
+            annNanos += System.nanoTime() - t0;
+
+            // Tie-aware: the corpus repeats templates, so any hit as similar as the k-th exact one counts.
+            List<HnswIndex.Hit> exact = index.exactSearch(vector, k);
+            float kth = exact.get(exact.size() - 1).similarity() - 1e-5f;
+            recallSum += approx.stream().filter(hit -> hit.similarity() >= kth).count() / (double) k;
+
+            long t1 = System.nanoTime();
+            substringScan(corpus, query);
+            substringNanos += System.nanoTime() - t1;
+        }
+
+        double recall = recallSum / queries;
+        assertTrue(recall >= 0.9, String.format("recall@%d %.3f (build %d ms, ann %.3f ms/query, substring scan %.3f ms/query)",
+                k, recall, buildMs, annNanos / 1e6 / queries, substringNanos / 1e6 / queries));
+    }
+
+    /** The pre-index scorer: lower-case every memory and substring-match each query token. */
+    private int substringScan(List<String> corpus, String query) {
+        int matched = 0;
+        String[] tokens = query.toLowerCase().split("\\s+");
+        for (String memory : corpus) {
+            String content = memory.toLowerCase();
+            for (String token : tokens) {
+                if (token.length() >= 3 && content.contains(token)) {
+                    matched++;
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+}
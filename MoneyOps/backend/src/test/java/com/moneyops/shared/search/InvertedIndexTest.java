@@ -0,0 +1,84 @@
+// src/test/java/com/moneyops/shared/search/InvertedIndexTest.java
+package com.moneyops.shared.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new InvertedIndex();
+        index.put("INVOICE:1", List.of(
+                new InvertedIndex.Field("INV-20240101-AB12", 3f),
+                new InvertedIndex.Field("Website redesign phase two", 1.5f)));
+        index.put("TRANSACTION:1", List.of(
+                new InvertedIndex.Field("AWS hosting charges", 2f),
+                new InvertedIndex.Field("Cloud", 1f)));
+        index.put("CLIENT:1", List.of(
+                new InvertedIndex.Field("Website Warehouse Ltd", 2.5f)));
+    }
+
+    private List<String> keys(InvertedIndex.Result result) {
+        return result.hits().stream().map(InvertedIndex.Hit::key).toList();
+    }
+
+    @Test
+    public void testExactMatchesAllTermsRequired() {
+        assertEquals(List.of("INVOICE:1"), keys(index.search("website redesign", false, null, 0, 10)));
+        assertTrue(index.search("website hosting", false, null, 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    public void testFieldBoostRanksHeavierFieldFirst() {
+        List<String> hits = keys(index.search("website", false, null, 0, 10));
+        assertEquals(List.of("CLIENT:1", "INVOICE:1"), hits);
+    }
+
+    @Test
+    public void testPrefixOnLastTerm() {
+        assertEquals(List.of("TRANSACTION:1"), keys(index.search("hosti", false, null, 0, 10)));
+        assertTrue(index.search("hosti charges", false, null, 0, 10).hits().isEmpty());
+        assertEquals(List.of("TRANSACTION:1"), keys(index.search("hosti* charges", false, null, 0, 10)));
+    }
+
+    @Test
+    public void testFuzzyMatch() {
+        assertTrue(index.search("redesgin phase", false, null, 0, 10).hits().isEmpty());
+        assertEquals(List.of("INVOICE:1"), keys(index.search("redesgn phase", true, null, 0, 10)));
+    }
+
+    @Test
+    public void testFilterAndPagination() {
+        InvertedIndex.Result result = index.search("website", false, k -> k.startsWith("INVOICE:"), 0, 10);
+        assertEquals(1, result.total());
+
+        InvertedIndex.Result page2 = index.search("website", false, null, 1, 1);
+        assertEquals(2, page2.total());
+        assertEquals(List.of("INVOICE:1"), keys(page2));
+    }
+
+    @Test
+    public void testRemoveAndReplace() {
+        index.put("TRANSACTION:1", List.of(new InvertedIndex.Field("Office rent", 2f)));
+        assertTrue(index.search("aws", false, null, 0, 10).hits().isEmpty());
+        assertEquals(List.of("TRANSACTION:1"), keys(index.search("rent", false, null, 0, 10)));
+
+        index.remove("TRANSACTION:1");
+        assertTrue(index.search("rent", false, null, 0, 10).hits().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testEditDistance() {
+        assertEquals(0, InvertedIndex.editDistance("invoice", "invoice", 2));
+        assertEquals(1, InvertedIndex.editDistance("invoice", "invoce", 2));
+        assertEquals(3, InvertedIndex.editDistance("abc", "xyz", 2));
+    }
+}
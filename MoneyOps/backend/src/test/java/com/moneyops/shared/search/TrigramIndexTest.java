@@ -0,0 +1,83 @@
+// src/test/java/com/moneyops/shared/search/TrigramIndexTest.java
+package com.moneyops.shared.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void testFindsFuzzyMatchesByName() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("c1", "Acme Corporation", "billing@acme.com");
+        index.put("c2", "Globex Industries", "ap@globex.io");
+        index.put("c3", "Initech", null);
+
+        List<String> hits = index.search("acme corp", 10);
+        assertEquals("c1", hits.get(0));
+        assertFalse(hits.contains("c3"));
+
+        // Typo still shares most trigrams
+        assertTrue(index.search("globx", 10).contains("c2"));
+    }
+
+    @Test
+    public void testMatchesEmailText() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("c1", "Acme Corporation", "billing@acme.com");
+        index.put("c2", "Globex Industries", "ap@globex.io");
+
+        assertEquals(List.of("c2"), index.search("globex.io", 10));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("c1", "Acme Corporation", null);
+        index.put("c1", "Wayne Enterprises", null);
+
+        assertTrue(index.search("acme", 10).isEmpty());
+        assertEquals(List.of("c1"), index.search("wayne", 10));
+
+        index.remove("c1");
+        assertTrue(index.search("wayne", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testCompactionKeepsSurvivorsSearchable() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 5000; i++) {
+            index.put("c" + i, "Client " + i + " Traders", null);
+        }
+        for (int i = 0; i < 4990; i++) {
+            index.remove("c" + i);
+        }
+
+        assertEquals(10, index.size());
+        assertTrue(index.search("client 4995 traders", 5).contains("c4995"));
+        assertFalse(index.search("client 10 traders", 50).contains("c10"));
+    }
+
+    @Test
+    public void testCandidatesAreBoundedAtScale() {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 100_000; i++) {
+            index.put("c" + i, "Customer " + Integer.toString(i, 36) + " Pvt Ltd", "accounts" + i + "@example.com");
+        }
+        index.put("target", "Zephyr Logistics", "zephyr@example.com");
+
+        List<String> hits = index.search("zephyr logistcs", 200);
+        assertEquals("target", hits.get(0));
+        assertTrue(hits.size() <= 200);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("acme corp pvt ltd", TrigramIndex.normalize("  ACME Corp. (Pvt) Ltd!! "));
+        assertEquals("", TrigramIndex.normalize(null));
+    }
+}
@@ -0,0 +1,109 @@
+// src/test/java/com/moneyops/statements/StatementParsersTest.java
+package com.moneyops.statements;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementParsersTest {
+
+    private static List<StatementRow> parse(StatementParser.Format format, String content) throws IOException {
+        List<StatementRow> rows = new ArrayList<>();
+        try (StatementParser parser = StatementParser.open(format, new BufferedReader(new StringReader(content)), null, "INR")) {
+            StatementRow row;
+            while ((row = parser.next()) != null) rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testCsvWithDebitCreditColumnsAndQuotedNarration() throws IOException {
+        String csv = "Txn Date,Narration,Chq/Ref No,Withdrawal Amt,Deposit Amt\n"
+                + "05/03/2025,\"UPI, ACME STORES\",UTR123,\"1,250.00\",\n"
+                + "06/03/2025,SALARY MARCH,,,85000\n";
+        List<StatementRow> rows = parse(StatementParser.Format.CSV, csv);
+
+        assertEquals(2, rows.size());
+        assertEquals(LocalDate.of(2025, 3, 5), rows.get(0).date());
+        assertEquals(0, new BigDecimal("-1250.00").compareTo(rows.get(0).amount()));
+        assertEquals("UPI, ACME STORES", rows.get(0).description());
+        assertEquals("UTR123", rows.get(0).reference());
+        assertEquals(0, new BigDecimal("85000").compareTo(rows.get(1).amount()));
+        assertEquals("INR", rows.get(1).currency());
+    }
+
+    @Test
+    public void testCsvBadRowReportsLineAndParsingContinues() throws IOException {
+        String csv = "date;amount;description\n2025-01-02;-10,50;coffee\nnot-a-date;5;x\n2025-01-03;20;refund\n";
+        try (StatementParser parser = StatementParser.open(StatementParser.Format.CSV,
+                new BufferedReader(new StringReader(csv)), null, "EUR")) {
+            assertEquals(0, new BigDecimal("-10.50").compareTo(parser.next().amount()));
+            StatementParseException e = assertThrows(StatementParseException.class, parser::next);
+            assertEquals(3, e.getLine());
+            assertEquals(LocalDate.of(2025, 1, 3), parser.next().date());
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    public void testOfxSgml() throws IOException {
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><CURDEF>USD\n"
+                + "<BANKTRANLIST>\n<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20250110120000<TRNAMT>-42.10<FITID>F1<NAME>GROCER\n</STMTTRN>\n"
+                + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20250111<TRNAMT>100.00<FITID>F2<MEMO>Refund\n</STMTTRN>\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+        List<StatementRow> rows = parse(StatementParser.Format.OFX, ofx);
+
+        assertEquals(2, rows.size());
+        assertEquals(LocalDate.of(2025, 1, 10), rows.get(0).date());
+        assertEquals(0, new BigDecimal("-42.10").compareTo(rows.get(0).amount()));
+        assertEquals("F1", rows.get(0).reference());
+        assertEquals("USD", rows.get(0).currency());
+        assertEquals("Refund", rows.get(1).description());
+    }
+
+    @Test
+    public void testMt940() throws IOException {
+        String mt940 = ":20:STMT1\n:25:12345678\n:28C:1/1\n:60F:C250101EUR1000,00\n"
+                + ":61:2501020102D25,50NTRFREF1//B1\n:86:Office supplies\ncontinued\n"
+                + ":61:250103C100,NTRFNONREF\n:86:Customer payment\n"
+                + ":62F:C250103EUR1074,50\n-\n";
+        List<StatementRow> rows = parse(StatementParser.Format.MT940, mt940);
+
+        assertEquals(2, rows.size());
+        assertEquals(LocalDate.of(2025, 1, 2), rows.get(0).date());
+        assertEquals(0, new BigDecimal("-25.50").compareTo(rows.get(0).amount()));
+        assertEquals("EUR", rows.get(0).currency());
+        assertTrue(rows.get(0).description().startsWith("Office supplies"));
+        assertEquals(0, new BigDecimal("100").compareTo(rows.get(1).amount()));
+    }
+
+    @Test
+    public void testDetectFormat() {
+        assertEquals(StatementParser.Format.OFX, StatementParser.detect("export.qfx", ""));
+        assertEquals(StatementParser.Format.MT940, StatementParser.detect("statement.txt", ":20:STMT\n:25:123"));
+        assertEquals(StatementParser.Format.CSV, StatementParser.detect("statement.csv", "Date,Amount"));
+    }
+
+    @Test
+    public void testFingerprintsStableAcrossImportsAndDistinctForRepeats() {
+        StatementRow coffee = new StatementRow(2, LocalDate.of(2025, 1, 2), new BigDecimal("-4.50"), "Coffee  shop", null, "EUR");
+        StatementRow sameContent = new StatementRow(3, LocalDate.of(2025, 1, 2), new BigDecimal("-4.5"), "COFFEE SHOP", null, "EUR");
+
+        StatementFingerprints first = new StatementFingerprints();
+        String a = first.next(coffee);
+        String b = first.next(sameContent);
+        assertNotEquals(a, b);
+
+        StatementFingerprints reimport = new StatementFingerprints();
+        assertEquals(a, reimport.next(coffee));
+        assertEquals(b, reimport.next(sameContent));
+    }
+}
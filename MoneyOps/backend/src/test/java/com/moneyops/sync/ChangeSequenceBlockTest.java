@@ -0,0 +1,52 @@
+// src/test/java/com/moneyops/sync/ChangeSequenceBlockTest.java
+package com.moneyops.sync;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeSequenceBlockTest {
+
+    @Test
+    public void testLowStaysAtOldestUnlandedNumber() {
+        ChangeSequenceService.Block block = new ChangeSequenceService.Block(101, 4, 0);
+        assertEquals(101, block.low());
+
+        assertEquals(101, block.take());
+        assertEquals(102, block.take());
+        block.inFlight.remove(102L);
+        // 101 is still in flight, so nothing above it is safe yet
+        assertEquals(101, block.low());
+
+        block.inFlight.remove(101L);
+        // Unused numbers still count: this node may hand 103 out next
+        assertEquals(103, block.low());
+    }
+
+    @Test
+    public void testExhaustedBlockDrainsOnceItsWritesLand() {
+        ChangeSequenceService.Block block = new ChangeSequenceService.Block(1, 2, 0);
+        block.take();
+        block.take();
+        assertFalse(block.hasNext());
+        assertEquals(1, block.low());
+
+        block.inFlight.remove(1L);
+        block.inFlight.remove(2L);
+        assertEquals(-1, block.low());
+    }
+
+    @Test
+    public void testRetiredBlockSkipsItsUnusedNumbers() {
+        ChangeSequenceService.Block block = new ChangeSequenceService.Block(50, 64, 0);
+        block.take();
+        block.retired = true;
+        assertFalse(block.hasNext());
+        assertEquals(50, block.low());
+
+        block.inFlight.remove(50L);
+        assertEquals(-1, block.low());
+        assertTrue(block.contains(113));
+        assertFalse(block.contains(114));
+    }
+}
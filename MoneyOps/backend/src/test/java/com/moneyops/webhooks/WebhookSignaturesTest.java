@@ -0,0 +1,56 @@
+// src/test/java/com/moneyops/webhooks/WebhookSignaturesTest.java
+package com.moneyops.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebhookSignaturesTest {
+
+    private static final String SECRET = "whsec_test";
+    private static final String BODY = "{\"id\":\"evt_1\",\"type\":\"payment.succeeded\"}";
+    private static final long NOW = 1_760_000_000L;
+
+    @Test
+    public void testSignedBodyVerifies() {
+        String header = WebhookSignatures.sign(SECRET, NOW, BODY);
+        assertTrue(WebhookSignatures.verify(SECRET, header, BODY, NOW + 10, 300));
+    }
+
+    @Test
+    public void testTamperedBodyOrWrongSecretFails() {
+        String header = WebhookSignatures.sign(SECRET, NOW, BODY);
+        assertFalse(WebhookSignatures.verify(SECRET, header, BODY.replace("evt_1", "evt_2"), NOW, 300));
+        assertFalse(WebhookSignatures.verify("whsec_other", header, BODY, NOW, 300));
+    }
+
+    @Test
+    public void testStaleOrFutureTimestampFails() {
+        String header = WebhookSignatures.sign(SECRET, NOW, BODY);
+        assertFalse(WebhookSignatures.verify(SECRET, header, BODY, NOW + 301, 300));
+        assertFalse(WebhookSignatures.verify(SECRET, header, BODY, NOW - 301, 300));
+    }
+
+    @Test
+    public void testTimestampIsBoundIntoSignature() {
+        String header = WebhookSignatures.sign(SECRET, NOW, BODY);
+        String replayed = header.replace("t=" + NOW, "t=" + (NOW + 3600));
+        assertFalse(WebhookSignatures.verify(SECRET, replayed, BODY, NOW + 3600, 300));
+    }
+
+    @Test
+    public void testAnyMatchingV1AcceptedDuringRotation() {
+        String current = WebhookSignatures.sign(SECRET, NOW, BODY);
+        String old = WebhookSignatures.sign("whsec_old", NOW, BODY);
+        String both = old + "," + current.substring(current.indexOf("v1="));
+        assertTrue(WebhookSignatures.verify(SECRET, both, BODY, NOW, 300));
+    }
+
+    @Test
+    public void testMalformedHeadersFail() {
+        assertFalse(WebhookSignatures.verify(SECRET, null, BODY, NOW, 300));
+        assertFalse(WebhookSignatures.verify(SECRET, "v1=abc", BODY, NOW, 300));
+        assertFalse(WebhookSignatures.verify(SECRET, "t=notanumber,v1=abc", BODY, NOW, 300));
+        assertFalse(WebhookSignatures.verify("", WebhookSignatures.sign(SECRET, NOW, BODY), BODY, NOW, 300));
+    }
+}